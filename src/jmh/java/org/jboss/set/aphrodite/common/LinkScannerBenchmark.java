@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link LinkScanner} with the regular expressions which it replaced, i.e.
+ * <code>AbstractIssueTracker.URL_REGEX</code> and the pull request patterns of <code>GitHubRepositoryService</code>,
+ * on the text of a patch with a long body such as a pasted stack trace.
+ *
+ * @author Ryan Emerson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkScannerBenchmark {
+
+    private static final Pattern URL_REGEX = Pattern
+            .compile("(http|ftp|https)://([\\w_-]+(?:(?:\\.[\\w_-]+)+))([\\w.,@?^=%&:/~+#-]*[\\w@?^=%&/~+#-])?");
+    private static final Pattern RELATED_PR_PATTERN = Pattern
+            .compile(".*github\\.com.*?/([a-zA-Z_0-9-]*)/([a-zA-Z_0-9-]*)/pull.?/(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ABBREVIATED_RELATED_PR_PATTERN = Pattern.compile("([a-zA-Z_0-9-//]*)#(\\d+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ABBREVIATED_RELATED_PR_PATTERN_EXTERNAL_REPO = Pattern
+            .compile("([a-zA-Z_0-9-]*)/([a-zA-Z_0-9-]*)#(\\d+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String HEADER = "Upstream issue: https://issues.jboss.org/browse/WFLY-1234\n"
+            + "Downstream: https://bugzilla.redhat.com/show_bug.cgi?id=1234567, "
+            + "https://github.com/wildfly/wildfly/pull/9876 and wildfly/wildfly-core#123, see also #45.\n";
+    private static final String STACK_FRAME = "\tat org.jboss.as.server.deployment.DeploymentUnitPhaseService"
+            + ".start(DeploymentUnitPhaseService.java:150) [wildfly-server-2.0.0.Final.jar:2.0.0.Final]\n";
+
+    @Param({"10", "1000"})
+    public int stackFrames;
+
+    private String text;
+    private LinkScanner scanner;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(HEADER);
+        for (int i = 0; i < stackFrames; i++)
+            sb.append(STACK_FRAME);
+        text = sb.toString();
+        scanner = new LinkScanner(Arrays.asList("issues.jboss.org", "bugzilla.redhat.com"),
+                Arrays.asList("github.com", "www.github.com", "api.github.com"));
+    }
+
+    @Benchmark
+    public void scanner(Blackhole bh) {
+        LinkScanner.Links links = scanner.scan(text);
+        bh.consume(links.getUrls());
+        bh.consume(links.getPullRequests());
+    }
+
+    @Benchmark
+    public void scannerUrlsOnly(Blackhole bh) {
+        bh.consume(new LinkScanner(Collections.singleton("issues.jboss.org")).scan(text).getUrls());
+    }
+
+    @Benchmark
+    public void regexUrls(Blackhole bh) {
+        Matcher m = URL_REGEX.matcher(text);
+        while (m.find())
+            bh.consume(m.group());
+    }
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        regexUrls(bh);
+        Matcher matcher = RELATED_PR_PATTERN.matcher(text);
+        while (matcher.find())
+            bh.consume(matcher.group(3));
+
+        Matcher abbreviatedMatcher = ABBREVIATED_RELATED_PR_PATTERN.matcher(text);
+        while (abbreviatedMatcher.find()) {
+            Matcher externalMatcher = ABBREVIATED_RELATED_PR_PATTERN_EXTERNAL_REPO.matcher(abbreviatedMatcher.group());
+            bh.consume(externalMatcher.find() ? externalMatcher.group(3) : abbreviatedMatcher.group(2));
+        }
+    }
+}
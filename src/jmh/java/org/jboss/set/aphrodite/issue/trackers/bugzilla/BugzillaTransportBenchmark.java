@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.stubs.BugzillaStubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the XML-RPC and JSON-RPC transports on a bulk <code>Bug.search</code> against a
+ * {@link BugzillaStubServer}, including the conversion of each bug to an <code>Issue</code>. The stub compresses
+ * JSON-RPC responses, as the transport requests, whereas the XML-RPC client does not request compression.
+ *
+ * @author Ryan Emerson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BugzillaTransportBenchmark {
+
+    private static final int FIRST_BUG_ID = 1000000;
+
+    @Param({"XMLRPC", "JSONRPC"})
+    public String transport;
+
+    @Param({"100", "1000"})
+    public int bugs;
+
+    private BugzillaStubServer server;
+    private ExecutorService executor;
+    private BugzillaClient client;
+    private SearchCriteria criteria;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new BugzillaStubServer();
+        for (int i = 0; i < bugs; i++) {
+            int id = FIRST_BUG_ID + i;
+            server.addBug(id, "Issue " + id, "NEW");
+            server.addComment(id, "Description of issue " + id, false);
+        }
+        executor = Executors.newFixedThreadPool(4);
+        client = new BugzillaClient(server.getURL(), server.getURL(), "user", "password", executor,
+                new RemoteCallTracker("bugzilla", "localhost", null), BugzillaTransport.Type.valueOf(transport));
+        criteria = new SearchCriteria.Builder().setProduct("EAP").setMaxResults(bugs).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void search(Blackhole bh) {
+        bh.consume(client.searchIssues(criteria));
+    }
+}
@@ -24,15 +24,24 @@ package org.jboss.set.aphrodite;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import javax.json.Json;
@@ -40,11 +49,16 @@ import javax.json.JsonReader;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.Bulkhead;
+import org.jboss.set.aphrodite.common.CircuitBreaker;
+import org.jboss.set.aphrodite.common.FlightRecorderEvents;
+import org.jboss.set.aphrodite.common.SingleFlight;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
 import org.jboss.set.aphrodite.domain.Codebase;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.CommitStatus;
+import org.jboss.set.aphrodite.domain.DependencyGraph;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.Label;
 import org.jboss.set.aphrodite.domain.Patch;
@@ -52,12 +66,21 @@ import org.jboss.set.aphrodite.domain.PatchState;
 import org.jboss.set.aphrodite.domain.Repository;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
 import org.jboss.set.aphrodite.domain.Stream;
+import org.jboss.set.aphrodite.domain.UpdateResult;
 import org.jboss.set.aphrodite.spi.AphroditeException;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
 import org.jboss.set.aphrodite.spi.IssueTrackerService;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
 import org.jboss.set.aphrodite.spi.RepositoryService;
 import org.jboss.set.aphrodite.spi.StreamService;
+import org.jboss.set.aphrodite.trace.TraceContext;
+import org.jboss.set.aphrodite.trace.TracingExecutorService;
+import org.jboss.set.aphrodite.webhook.WebhookEvent;
+import org.jboss.set.aphrodite.webhook.WebhookListener;
 
+// The facade methods open a trace scope only so that it is closed when they return, and never reference it
+@SuppressWarnings("try")
 public class Aphrodite implements AutoCloseable {
 
     public static final String FILE_PROPERTY = "aphrodite.config";
@@ -106,11 +129,21 @@ public class Aphrodite implements AutoCloseable {
 
     @Override
     public void close() throws Exception {
+        if (webhookListener != null)
+            webhookListener.close();
         executorService.shutdown();
         issueTrackers.forEach(IssueTrackerService::destroy);
         issueTrackers.clear();
         repositories.forEach(RepositoryService::destroy);
         repositories.clear();
+        if (config.getMetrics() instanceof AutoCloseable)
+            ((AutoCloseable) config.getMetrics()).close();
+
+        // Allow a new instance to be created once this instance has been closed
+        synchronized (Aphrodite.class) {
+            if (instance == this)
+                instance = null;
+        }
     }
 
     private final List<IssueTrackerService> issueTrackers = new ArrayList<>();
@@ -119,6 +152,16 @@ public class Aphrodite implements AutoCloseable {
 
     private ExecutorService executorService;
 
+    // Concurrent reads of the same entity share a single remote request, with each caller receiving its own copy of
+    // the result. URLs are keyed by their string form, as URL.equals performs name resolution.
+    private final SingleFlight<String, Issue> issueRequests = new SingleFlight<>(Issue::new);
+    private final SingleFlight<String, Patch> patchRequests = new SingleFlight<>(Patch::new);
+    private final SingleFlight<String, Repository> repositoryRequests = new SingleFlight<>(Repository::new);
+    private final SingleFlight<String, List<Label>> labelRequests = new SingleFlight<>(ArrayList::new);
+
+    private final List<Consumer<WebhookEvent>> webhookConsumers = new CopyOnWriteArrayList<>();
+    private WebhookListener webhookListener;
+
     private AphroditeConfig config;
 
     private Aphrodite() throws AphroditeException {
@@ -144,7 +187,7 @@ public class Aphrodite implements AutoCloseable {
 
         this.config = config;
 
-        executorService = config.getExecutorService();
+        executorService = new TracingExecutorService(config.getExecutorService());
         // Create new config object, as the object passed to init() will have its state changed.
         AphroditeConfig mutableConfig = new AphroditeConfig(config);
 
@@ -166,6 +209,7 @@ public class Aphrodite implements AutoCloseable {
                     + " does not exist.");
 
         initialiseStreams(mutableConfig);
+        initialiseWebhooks(config);
 
         if (LOG.isInfoEnabled())
             LOG.info("Aphrodite Initialisation Complete");
@@ -189,8 +233,41 @@ public class Aphrodite implements AutoCloseable {
         }
     }
 
+    private void initialiseWebhooks(AphroditeConfig config) throws AphroditeException {
+        if (!config.getWebhookConfig().isPresent())
+            return;
+
+        WebhookListener listener = new WebhookListener(config.getWebhookConfig().get(), this::onWebhookEvent);
+        try {
+            listener.start();
+        } catch (IOException e) {
+            throw new AphroditeException("Unable to initiatilise Aphrodite as the webhook listener could not be " +
+                    "started: " + e);
+        }
+        webhookListener = listener;
+    }
+
+    /**
+     * Invalidate the state held by the service of the changed url, then notify the registered consumers.
+     */
+    private void onWebhookEvent(WebhookEvent event) {
+        URL url = event.getURL();
+        issueTrackers.stream().filter(tracker -> tracker.urlExists(url)).forEach(tracker -> tracker.invalidate(url));
+        repositories.stream().filter(repository -> repository.urlExists(url))
+                .forEach(repository -> repository.invalidate(url));
+
+        for (Consumer<WebhookEvent> consumer : webhookConsumers) {
+            try {
+                consumer.accept(event);
+            } catch (RuntimeException e) {
+                Utils.logException(LOG, "Webhook consumer failed for " + event, e);
+            }
+        }
+    }
+
     /**
-     * Retrieve an issue object associated with the given <code>URL</code>.
+     * Retrieve an issue object associated with the given <code>URL</code>. Concurrent calls for the same
+     * <code>URL</code> share a single request, but each caller receives its own copy of the <code>Issue</code>.
      *
      * @param url the <code>URL</code> of the issue to be retrieved.
      * @return the <code>Issue</code> associated with the provided <code>URK</code>.
@@ -198,14 +275,18 @@ public class Aphrodite implements AutoCloseable {
      *
      */
     public Issue getIssue(URL url) throws NotFoundException {
-        Objects.requireNonNull(url, "url cannot be null");
-        checkIssueTrackerExists();
-
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (trackerService.urlExists(url))
-                return trackerService.getIssue(url);
+        try (TraceContext.Scope trace = startTrace("getIssue")) {
+            Objects.requireNonNull(url, "url cannot be null");
+            checkIssueTrackerExists();
+
+            return issueRequests.execute(url.toString(), () -> {
+                for (IssueTrackerService trackerService : issueTrackers) {
+                    if (trackerService.urlExists(url))
+                        return trackerService.getIssue(url);
+                }
+                throw new NotFoundException("No issues found which correspond to url: " + url);
+            });
         }
-        throw new NotFoundException("No issues found which correspond to url: " + url);
     }
 
     /**
@@ -217,19 +298,34 @@ public class Aphrodite implements AutoCloseable {
      * @return a list of <code>Issue</code> objects associated with the provided urls.
      */
     public List<Issue> getIssues(Collection<URL> urls) {
-        Objects.requireNonNull(urls, "the collection of urls cannot be null");
+        try (TraceContext.Scope trace = startTrace("getIssues")) {
+            Objects.requireNonNull(urls, "the collection of urls cannot be null");
 
-        if (urls.isEmpty())
-            return new ArrayList<>();
-        List<CompletableFuture<List<Issue>>> requests =
-                issueTrackers.stream()
-                        .map(tracker -> CompletableFuture.supplyAsync(() -> tracker.getIssues(urls), executorService))
-                        .collect(Collectors.toList());
+            if (urls.isEmpty())
+                return new ArrayList<>();
 
-        return requests.stream()
-                .map(CompletableFuture::join)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+            return fanOutToIssueTrackers("getIssues", tracker -> tracker.getIssues(urls));
+        }
+    }
+
+    /**
+     * Retrieve the issues which <code>root</code> depends on, or which it blocks, up to <code>depth</code> links away.
+     * The graph is traversed breadth first, so that each level of the graph is retrieved with a single call to
+     * {@link #getIssues(Collection)}, and each issue is retrieved at most once even if the graph contains cycles.
+     *
+     * @param root the issue at the root of the graph.
+     * @param depth the maximum number of links between the root and any issue of the graph.
+     * @param direction whether the <code>dependsOn</code> or the <code>blocks</code> links are followed.
+     * @return the resulting <code>DependencyGraph</code>.
+     */
+    public DependencyGraph getDependencyGraph(Issue root, int depth, DependencyGraph.Direction direction) {
+        try (TraceContext.Scope trace = startTrace("getDependencyGraph")) {
+            Objects.requireNonNull(root, "root cannot be null");
+            Objects.requireNonNull(direction, "direction cannot be null");
+            checkIssueTrackerExists();
+
+            return DependencyGraph.build(root, depth, direction, this::getIssues);
+        }
     }
 
     /**
@@ -240,21 +336,15 @@ public class Aphrodite implements AutoCloseable {
      *         or an empty list if no issues match the searched criteria.
      */
     public List<Issue> searchIssues(SearchCriteria searchCriteria) {
-        Objects.requireNonNull(searchCriteria, "searchCriteria cannot be null");
-        checkIssueTrackerExists();
-
-        if (searchCriteria.isEmpty())
-            return new ArrayList<>();
+        try (TraceContext.Scope trace = startTrace("searchIssues")) {
+            Objects.requireNonNull(searchCriteria, "searchCriteria cannot be null");
+            checkIssueTrackerExists();
 
-        List<CompletableFuture<List<Issue>>> searchRequests =
-                issueTrackers.stream()
-                        .map(tracker -> CompletableFuture.supplyAsync(() -> tracker.searchIssues(searchCriteria), executorService))
-                        .collect(Collectors.toList());
+            if (searchCriteria.isEmpty())
+                return new ArrayList<>();
 
-        return searchRequests.stream()
-                .map(CompletableFuture::join)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+            return fanOutToIssueTrackers("searchIssues", tracker -> tracker.searchIssues(searchCriteria));
+        }
     }
 
     /**
@@ -265,14 +355,16 @@ public class Aphrodite implements AutoCloseable {
      * @throws NotFoundException if the filterURL is not associated with any filters at any of the Issue Trackers.
      */
     public List<Issue> searchIssuesByFilter(URL filterUrl) throws NotFoundException {
-        Objects.requireNonNull(filterUrl, "filterUrl cannot be null");
-        checkIssueTrackerExists();
+        try (TraceContext.Scope trace = startTrace("searchIssuesByFilter")) {
+            Objects.requireNonNull(filterUrl, "filterUrl cannot be null");
+            checkIssueTrackerExists();
 
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (trackerService.urlExists(filterUrl))
-                return trackerService.searchIssuesByFilter(filterUrl);
+            for (IssueTrackerService trackerService : issueTrackers) {
+                if (trackerService.urlExists(filterUrl))
+                    return trackerService.searchIssuesByFilter(filterUrl);
+            }
+            throw new NotFoundException("No filter found which correspond to url: " + filterUrl);
         }
-        throw new NotFoundException("No filter found which correspond to url: " + filterUrl);
     }
 
     /**
@@ -288,14 +380,84 @@ public class Aphrodite implements AutoCloseable {
      *                               permission to update this issue, or a field within this issue.
      */
     public boolean updateIssue(Issue issue) throws NotFoundException, AphroditeException {
-        Objects.requireNonNull(issue, "issue cannot be null");
-        checkIssueTrackerExists();
+        try (TraceContext.Scope trace = startTrace("updateIssue")) {
+            Objects.requireNonNull(issue, "issue cannot be null");
+            checkIssueTrackerExists();
 
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (trackerService.urlExists(issue.getURL()))
-                return trackerService.updateIssue(issue);
+            for (IssueTrackerService trackerService : issueTrackers) {
+                if (trackerService.urlExists(issue.getURL()))
+                    return trackerService.updateIssue(issue);
+            }
+            throw new NotFoundException("No issues found which correspond to url: " + issue.getURL());
+        }
+    }
+
+    /**
+     * Update multiple <code>Issue</code>s at their remote issue tracker services. Each issue tracker applies its
+     * updates in as few requests as possible, e.g. Bugzilla updates issues which require identical changes with a
+     * single request, and the issue trackers are updated concurrently. A failure to update one issue does not prevent
+     * the remaining issues from being updated.
+     *
+     * Note, this does not update issue comments or an issues description.
+     *
+     * @param issues the issues to be updated at their associated <code>IssueTrackerService</code>
+     * @return the result of each update, in the iteration order of <code>issues</code>. Issues which do not belong
+     *         to any issue tracker fail with a <code>NotFoundException</code>.
+     */
+    public List<UpdateResult> updateIssues(Collection<Issue> issues) {
+        try (TraceContext.Scope trace = startTrace("updateIssues")) {
+            Objects.requireNonNull(issues, "issues cannot be null");
+            checkIssueTrackerExists();
+
+            // Results are stored by position, so that duplicate or equal issues each receive their own result
+            List<Issue> requested = new ArrayList<>(issues);
+            UpdateResult[] results = new UpdateResult[requested.size()];
+            Map<IssueTrackerService, List<Integer>> trackerIndices = new LinkedHashMap<>();
+            for (int i = 0; i < requested.size(); i++) {
+                Issue issue = Objects.requireNonNull(requested.get(i), "issues cannot contain a null issue");
+                IssueTrackerService tracker = issueTrackers.stream()
+                        .filter(trackerService -> trackerService.urlExists(issue.getURL()))
+                        .findFirst()
+                        .orElse(null);
+                if (tracker == null) {
+                    results[i] = UpdateResult.failure(issue,
+                            new NotFoundException("No issues found which correspond to url: " + issue.getURL()));
+                } else {
+                    trackerIndices.computeIfAbsent(tracker, t -> new ArrayList<>()).add(i);
+                }
+            }
+
+            List<List<Integer>> requestIndices = new ArrayList<>(trackerIndices.values());
+            List<CompletableFuture<List<UpdateResult>>> requests = trackerIndices.entrySet().stream()
+                    .map(entry -> {
+                        List<Issue> trackerIssues = entry.getValue().stream()
+                                .map(requested::get)
+                                .collect(Collectors.toList());
+                        return CompletableFuture.supplyAsync(() -> updateIssues(entry.getKey(), trackerIssues), executorService);
+                    })
+                    .collect(Collectors.toList());
+            for (int r = 0; r < requests.size(); r++) {
+                List<Integer> indices = requestIndices.get(r);
+                List<UpdateResult> trackerResults = requests.get(r).join();
+                for (int i = 0; i < indices.size(); i++) {
+                    int index = indices.get(i);
+                    results[index] = i < trackerResults.size() ? trackerResults.get(i) : UpdateResult.failure(requested.get(index),
+                            new AphroditeException("No update result was returned for issue: " + requested.get(index).getURL()));
+                }
+            }
+            return Arrays.asList(results);
+        }
+    }
+
+    private List<UpdateResult> updateIssues(IssueTrackerService trackerService, List<Issue> issues) {
+        try {
+            return trackerService.updateIssues(issues);
+        } catch (RuntimeException e) {
+            Utils.logException(LOG, e);
+            return issues.stream()
+                    .map(issue -> UpdateResult.failure(issue, e))
+                    .collect(Collectors.toList());
         }
-        throw new NotFoundException("No issues found which correspond to url: " + issue.getURL());
     }
 
     /**
@@ -305,17 +467,19 @@ public class Aphrodite implements AutoCloseable {
      * @param comment the comment to be added to the issue.
      */
     public void addCommentToIssue(Issue issue, Comment comment) throws NotFoundException {
-        Objects.requireNonNull(issue, "issue cannot be null");
-        Objects.requireNonNull(comment, "comment cannot be null");
-        checkIssueTrackerExists();
-
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (trackerService.urlExists(issue.getURL())) {
-                trackerService.addCommentToIssue(issue, comment);
-                return;
+        try (TraceContext.Scope trace = startTrace("addCommentToIssue")) {
+            Objects.requireNonNull(issue, "issue cannot be null");
+            Objects.requireNonNull(comment, "comment cannot be null");
+            checkIssueTrackerExists();
+
+            for (IssueTrackerService trackerService : issueTrackers) {
+                if (trackerService.urlExists(issue.getURL())) {
+                    trackerService.addCommentToIssue(issue, comment);
+                    return;
+                }
             }
+            throw new NotFoundException("No issues found which correspond to url: " + issue.getURL());
         }
-        throw new NotFoundException("No issues found which correspond to url: " + issue.getURL());
     }
 
     /**
@@ -326,15 +490,17 @@ public class Aphrodite implements AutoCloseable {
      * @return true if all comments are successfully added to their associated Issue, otherwise false.
      */
     public boolean addCommentToIssue(Map<Issue, Comment> commentMap) {
-        checkIssueTrackerExists();
-        Objects.requireNonNull(commentMap, "commentMap cannot be null");
-
-        boolean isSuccess = true;
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (!trackerService.addCommentToIssue(commentMap))
-                isSuccess = false;
+        try (TraceContext.Scope trace = startTrace("addCommentToIssue")) {
+            checkIssueTrackerExists();
+            Objects.requireNonNull(commentMap, "commentMap cannot be null");
+
+            boolean isSuccess = true;
+            for (IssueTrackerService trackerService : issueTrackers) {
+                if (!trackerService.addCommentToIssue(commentMap))
+                    isSuccess = false;
+            }
+            return isSuccess;
         }
-        return isSuccess;
     }
 
     /**
@@ -345,38 +511,70 @@ public class Aphrodite implements AutoCloseable {
      * @return true if the comment is successfully added to all issues.
      */
     public boolean addCommentToIssue(Collection<Issue> issues, Comment comment) {
-        checkIssueTrackerExists();
-        Objects.requireNonNull(issues, "issues collection cannot be null");
-        Objects.requireNonNull(comment, "comment cannot be null");
-
-        boolean isSuccess = true;
-        for (IssueTrackerService trackerService : issueTrackers) {
-            if (!trackerService.addCommentToIssue(issues, comment))
-                isSuccess = false;
+        try (TraceContext.Scope trace = startTrace("addCommentToIssue")) {
+            checkIssueTrackerExists();
+            Objects.requireNonNull(issues, "issues collection cannot be null");
+            Objects.requireNonNull(comment, "comment cannot be null");
+
+            boolean isSuccess = true;
+            for (IssueTrackerService trackerService : issueTrackers) {
+                if (!trackerService.addCommentToIssue(issues, comment))
+                    isSuccess = false;
+            }
+            return isSuccess;
         }
-        return isSuccess;
     }
 
     /**
      * Retrieve all Issues associated with the provided patch object.
      * Implementations of this method assume that the urls of the related issues are present in the
-     * patch's description field.
+     * patch's description field. The distinct issue urls are retrieved in bulk by each issue tracker, and the issue
+     * trackers are queried concurrently.
      *
      * @param patch the <code>Patch</code> object whoms associated Issues should be returned.
      * @return a list of all <code>Issue</code> objects, or an empty list if no issues can be found.
      */
     public List<Issue> getIssuesAssociatedWith(Patch patch) {
-        checkIssueTrackerExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
+        try (TraceContext.Scope trace = startTrace("getIssuesAssociatedWith")) {
+            checkIssueTrackerExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
 
-        return issueTrackers.stream()
-                .map(service -> service.getIssuesAssociatedWith(patch))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+            return fanOutToIssueTrackers("getIssuesAssociatedWith", tracker -> tracker.getIssuesAssociatedWith(patch));
+        }
     }
 
     /**
-     * Get the repository located at the provided <code>URL</code>.
+     * Retrieve the Issues associated with each of the provided patches, like {@link #getIssuesAssociatedWith(Patch)}.
+     * The links of all of the patches are collected first, so that each distinct issue is retrieved once, with the
+     * bulk requests of its issue tracker, however many of the patches refer to it. The issue trackers are queried
+     * concurrently.
+     *
+     * @param patches the <code>Patch</code> objects whose associated Issues should be returned.
+     * @return the associated issues of each patch, in the iteration order of <code>patches</code>. A patch which is
+     *         not associated with any issues is mapped to an empty list.
+     */
+    public Map<Patch, List<Issue>> getIssuesAssociatedWith(Collection<Patch> patches) {
+        try (TraceContext.Scope trace = startTrace("getIssuesAssociatedWithPatches")) {
+            checkIssueTrackerExists();
+            Objects.requireNonNull(patches, "patches cannot be null");
+
+            Map<Patch, List<Issue>> issues = new LinkedHashMap<>();
+            for (Patch patch : patches)
+                issues.put(Objects.requireNonNull(patch, "patches cannot contain a null patch"), new ArrayList<>());
+            if (issues.isEmpty())
+                return issues;
+
+            List<Map<Patch, List<Issue>>> trackerIssues = fanOutToIssueTrackers("getIssuesAssociatedWithPatches",
+                    tracker -> tracker.getIssuesAssociatedWith(issues.keySet()),
+                    result -> result.values().stream().mapToInt(List::size).sum());
+            trackerIssues.forEach(result -> result.forEach((patch, patchIssues) -> issues.get(patch).addAll(patchIssues)));
+            return issues;
+        }
+    }
+
+    /**
+     * Get the repository located at the provided <code>URL</code>. Concurrent calls for the same
+     * <code>URL</code> share a single request, but each caller receives its own copy of the <code>Repository</code>.
      *
      * @param url the <code>URL</code> of the repository to be retrieved.
      * @return the <code>Repository</code> object.
@@ -384,14 +582,18 @@ public class Aphrodite implements AutoCloseable {
      * or no service exists with the same host domain as the provided URL.
      */
     public Repository getRepository(URL url) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(url, "url cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(url))
-                return repositoryService.getRepository(url);
+        try (TraceContext.Scope trace = startTrace("getRepository")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(url, "url cannot be null");
+
+            return repositoryRequests.execute(url.toString(), () -> {
+                for (RepositoryService repositoryService : repositories) {
+                    if (repositoryService.urlExists(url))
+                        return repositoryService.getRepository(url);
+                }
+                throw new NotFoundException("No repositories found which correspond to url: " + url);
+            });
         }
-        throw new NotFoundException("No repositories found which correspond to url: " + url);
     }
 
     /**
@@ -402,14 +604,16 @@ public class Aphrodite implements AutoCloseable {
      * @throws a <code>NotFoundException</code>, if an exception is encountered when trying to retrieve patches from a RepositoryService
      */
     public List<Patch> getPatchesAssociatedWith(Issue issue) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(issue, "issue cannot be null");
+        try (TraceContext.Scope trace = startTrace("getPatchesAssociatedWith")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(issue, "issue cannot be null");
 
-        List<Patch> patches = new ArrayList<>();
-        for (RepositoryService repositoryService : repositories) {
-            patches.addAll(repositoryService.getPatchesAssociatedWith(issue));
+            List<Patch> patches = new ArrayList<>();
+            for (RepositoryService repositoryService : repositories) {
+                patches.addAll(repositoryService.getPatchesAssociatedWith(issue));
+            }
+            return patches;
         }
-        return patches;
     }
 
     /**
@@ -422,50 +626,62 @@ public class Aphrodite implements AutoCloseable {
      * @throws a <code>NotFoundException</code>, if an exception is encountered when trying to retrieve patches from a RepositoryService
      */
     public List<Patch> getPatchesByState(Repository repository, PatchState state) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(repository, "repository cannot be null");
-        Objects.requireNonNull(state, "state cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(repository.getURL()))
-                return repositoryService.getPatchesByState(repository, state);
+        try (TraceContext.Scope trace = startTrace("getPatchesByState")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(repository, "repository cannot be null");
+            Objects.requireNonNull(state, "state cannot be null");
+
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(repository.getURL()))
+                    return repositoryService.getPatchesByState(repository, state);
+            }
+            return new ArrayList<>();
         }
-        return new ArrayList<>();
     }
 
     /**
-     * Get the <code>Patch</code> located at the provided <code>URL</code>.
+     * Get the <code>Patch</code> located at the provided <code>URL</code>. Concurrent calls for the same
+     * <code>URL</code> share a single request, but each caller receives its own copy of the <code>Patch</code>.
      *
      * @param url the <code>URL</code> of the patch to be retrieved.
      * @return the <code>Patch</code> object.
      * @throws NotFoundException if a <code>Patch</code> cannot be found at the provided base url.
      */
     public Patch getPatch(URL url) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(url, "url cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(url))
-                return repositoryService.getPatch(url);
+        try (TraceContext.Scope trace = startTrace("getPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(url, "url cannot be null");
+
+            return patchRequests.execute(url.toString(), () -> {
+                for (RepositoryService repositoryService : repositories) {
+                    if (repositoryService.urlExists(url))
+                        return repositoryService.getPatch(url);
+                }
+                throw new NotFoundException("No patch found which corresponds to url: " + url);
+            });
         }
-        throw new NotFoundException("No patch found which corresponds to url: " + url);
     }
 
     /**
      * Retrieve all labels associated with the provided <code>Patch</code> in <code>Repository</code> object.
+     * Concurrent calls for the same repository share a single request.
      * @param repository the <code>Repository<code> object whose associated labels should be returned.
      * @return a list of all matching <code>Label<code> objects, or an empty list if no labels can be found.
      * @throws a <code>NotFoundException</code> if an error is encountered when trying to retrieve labels from a RepositoryService
      */
     public List<Label> getLabelsFromRepository(Repository repository) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(repository, "repository cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(repository.getURL()))
-                return repositoryService.getLabelsFromRepository(repository);
+        try (TraceContext.Scope trace = startTrace("getLabelsFromRepository")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(repository, "repository cannot be null");
+
+            return labelRequests.execute(repository.getURL().toString(), () -> {
+                for (RepositoryService repositoryService : repositories) {
+                    if (repositoryService.urlExists(repository.getURL()))
+                        return repositoryService.getLabelsFromRepository(repository);
+                }
+                return new ArrayList<>();
+            });
         }
-        return new ArrayList<>();
     }
 
     /**
@@ -475,14 +691,16 @@ public class Aphrodite implements AutoCloseable {
      * @throws a <code>NotFoundException</code> if an error is encountered when trying to retrieve labels from a RepositoryService
      */
     public List<Label> getLabelsFromPatch(Patch patch) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
+        try (TraceContext.Scope trace = startTrace("getLabelsFromPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
 
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL()))
-                return repositoryService.getLabelsFromPatch(patch);
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL()))
+                    return repositoryService.getLabelsFromPatch(patch);
+            }
+            return new ArrayList<>();
         }
-        return new ArrayList<>();
     }
 
     /**
@@ -494,14 +712,16 @@ public class Aphrodite implements AutoCloseable {
      * @throws NotFoundException if the specified <code>Repository</code> cannot be found.
      */
     public boolean isRepositoryLabelsModifiable(Repository repository) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(repository, "repository cannot be null");
+        try (TraceContext.Scope trace = startTrace("isRepositoryLabelsModifiable")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(repository, "repository cannot be null");
 
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(repository.getURL()))
-                return repositoryService.hasModifiableLabels(repository);
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(repository.getURL()))
+                    return repositoryService.hasModifiableLabels(repository);
+            }
+            throw new NotFoundException("No repository found which corresponds to url: " + repository.getURL());
         }
-        throw new NotFoundException("No repository found which corresponds to url: " + repository.getURL());
     }
 
     /**
@@ -512,13 +732,15 @@ public class Aphrodite implements AutoCloseable {
      * @throws AphroditeException if add the <code>Label<code> is not consistent with get labels
      */
     public void setLabelsToPatch(Patch patch, List<Label> labels) throws NotFoundException, AphroditeException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
-        Objects.requireNonNull(labels, "labels cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL()))
-                repositoryService.setLabelsToPatch(patch, labels);
+        try (TraceContext.Scope trace = startTrace("setLabelsToPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
+            Objects.requireNonNull(labels, "labels cannot be null");
+
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL()))
+                    repositoryService.setLabelsToPatch(patch, labels);
+            }
         }
     }
 
@@ -530,13 +752,15 @@ public class Aphrodite implements AutoCloseable {
      * exception occurs when contacting the RepositoryService
      */
     public void removeLabelFromPatch(Patch patch, String name) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
-        Objects.requireNonNull(name, "labelname cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL()))
-                repositoryService.removeLabelFromPatch(patch, name);
+        try (TraceContext.Scope trace = startTrace("removeLabelFromPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
+            Objects.requireNonNull(name, "labelname cannot be null");
+
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL()))
+                    repositoryService.removeLabelFromPatch(patch, name);
+            }
         }
     }
 
@@ -549,17 +773,19 @@ public class Aphrodite implements AutoCloseable {
      * @throws NotFoundException if the <code>Patch</code> cannot be found at the remote repository.
      */
     public void addCommentToPatch(Patch patch, String comment) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
-        Objects.requireNonNull(comment, "comment cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL())) {
-                repositoryService.addCommentToPatch(patch, comment);
-                return;
+        try (TraceContext.Scope trace = startTrace("addCommentToPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
+            Objects.requireNonNull(comment, "comment cannot be null");
+
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL())) {
+                    repositoryService.addCommentToPatch(patch, comment);
+                    return;
+                }
             }
+            throw new NotFoundException("No patch found which corresponds to patch.");
         }
-        throw new NotFoundException("No patch found which corresponds to patch.");
     }
 
     /**
@@ -572,13 +798,15 @@ public class Aphrodite implements AutoCloseable {
      * @throws a <code>NotFoundException</code> if the <code>Patch</code> cannot be found, or the labelName does not exist.
      */
     public void addLabelToPatch(Patch patch, String labelName) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
-        Objects.requireNonNull(labelName, "labelName cannot be null");
-
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL()))
-                repositoryService.addLabelToPatch(patch, labelName);
+        try (TraceContext.Scope trace = startTrace("addLabelToPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
+            Objects.requireNonNull(labelName, "labelName cannot be null");
+
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL()))
+                    repositoryService.addLabelToPatch(patch, labelName);
+            }
         }
     }
 
@@ -591,13 +819,15 @@ public class Aphrodite implements AutoCloseable {
      * @return a list of Patch objects that are related to the supplied patch object
      */
     public List<Patch> findPatchesRelatedTo(Patch patch) {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
-
-        return repositories.stream()
-                .filter(service -> service.urlExists(patch.getURL()))
-                .flatMap(service -> service.findPatchesRelatedTo(patch).stream())
-                .collect(Collectors.toList());
+        try (TraceContext.Scope trace = startTrace("findPatchesRelatedTo")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
+
+            return repositories.stream()
+                    .filter(service -> service.urlExists(patch.getURL()))
+                    .flatMap(service -> service.findPatchesRelatedTo(patch).stream())
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
@@ -608,14 +838,16 @@ public class Aphrodite implements AutoCloseable {
      * @throws NotFoundException if no commit status can be found for the provided patch
      */
     public CommitStatus getCommitStatusFromPatch(Patch patch) throws NotFoundException {
-        checkRepositoryServiceExists();
-        Objects.requireNonNull(patch, "patch cannot be null");
+        try (TraceContext.Scope trace = startTrace("getCommitStatusFromPatch")) {
+            checkRepositoryServiceExists();
+            Objects.requireNonNull(patch, "patch cannot be null");
 
-        for (RepositoryService repositoryService : repositories) {
-            if (repositoryService.urlExists(patch.getURL()))
-                return repositoryService.getCommitStatusFromPatch(patch);
+            for (RepositoryService repositoryService : repositories) {
+                if (repositoryService.urlExists(patch.getURL()))
+                    return repositoryService.getCommitStatusFromPatch(patch);
+            }
+            throw new NotFoundException("No commit status found for patch:" + patch.getURL());
         }
-        throw new NotFoundException("No commit status found for patch:" + patch.getURL());
     }
 
     /**
@@ -710,6 +942,135 @@ public class Aphrodite implements AutoCloseable {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieve the <code>AphroditeMetrics</code> which records the latency, outcome and response size of every
+     * remote call made by the active services.
+     *
+     * @return the <code>AphroditeMetrics</code> in use by this instance.
+     */
+    public AphroditeMetrics getMetrics() {
+        return config.getMetrics();
+    }
+
+    /**
+     * Retrieve the <code>Bulkhead</code> of every active issue tracker and repository service, so that the queue
+     * depth and number of active threads of each service can be monitored.
+     *
+     * @return a list of all <code>Bulkhead</code> objects in use by the active services.
+     */
+    public List<Bulkhead> getBulkheads() {
+        List<Bulkhead> bulkheads = new ArrayList<>();
+        issueTrackers.forEach(tracker -> tracker.getBulkhead().ifPresent(bulkheads::add));
+        repositories.forEach(repository -> repository.getBulkhead().ifPresent(bulkheads::add));
+        return bulkheads;
+    }
+
+    /**
+     * Retrieve the <code>CircuitBreaker</code> of every active issue tracker and repository service, so that the
+     * availability of each service can be monitored.
+     *
+     * @return a list of all <code>CircuitBreaker</code> objects in use by the active services.
+     */
+    public List<CircuitBreaker> getCircuitBreakers() {
+        List<CircuitBreaker> circuitBreakers = new ArrayList<>();
+        issueTrackers.forEach(tracker -> tracker.getCircuitBreaker().ifPresent(circuitBreakers::add));
+        repositories.forEach(repository -> repository.getCircuitBreaker().ifPresent(circuitBreakers::add));
+        return circuitBreakers;
+    }
+
+    /**
+     * Register a consumer which is notified of every change reported by a webhook, after the state held by the
+     * affected service has been invalidated. This allows clients to react to changes rather than poll for them.
+     * Webhooks are only received if a "webhook" configuration is provided.
+     *
+     * Consumers are notified on a single thread, in the order that events are received, after the webhook has been
+     * answered. A consumer which blocks, e.g. by calling Aphrodite, therefore delays the notification of later events,
+     * and once {@link WebhookListener#MAX_QUEUED_EVENTS} webhooks are waiting further webhooks are rejected.
+     *
+     * @param consumer the consumer to be notified of each <code>WebhookEvent</code>, on the listener's dispatch thread.
+     */
+    public void addWebhookConsumer(Consumer<WebhookEvent> consumer) {
+        webhookConsumers.add(Objects.requireNonNull(consumer));
+    }
+
+    /**
+     * @param consumer a consumer previously registered with {@link #addWebhookConsumer(Consumer)}.
+     */
+    public void removeWebhookConsumer(Consumer<WebhookEvent> consumer) {
+        webhookConsumers.remove(consumer);
+    }
+
+    /**
+     * Retrieve the address of the webhook listener, e.g. to discover its port when an ephemeral port is configured.
+     *
+     * @return the address of the webhook listener, or an empty <code>Optional</code> if webhooks are not enabled.
+     */
+    public Optional<InetSocketAddress> getWebhookAddress() {
+        return webhookListener == null ? Optional.empty() : Optional.of(webhookListener.getAddress());
+    }
+
+    /**
+     * Start the span of a facade call. If no span is active on the calling thread, then this is the root span of a
+     * new trace and the configured <code>RemoteCallInterceptor</code>s are notified once the trace has completed.
+     */
+    private TraceContext.Scope startTrace(String operation) {
+        return TraceContext.startSpan("Aphrodite." + operation, span -> {
+            if (!span.isRoot())
+                return;
+
+            for (RemoteCallInterceptor interceptor : config.getInterceptors()) {
+                try {
+                    interceptor.traceCompleted(span);
+                } catch (RuntimeException e) {
+                    Utils.logException(LOG, "RemoteCallInterceptor.traceCompleted failed for " + span.getName(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Execute the request concurrently against all issue trackers, returning the combined results once every
+     * tracker has responded.
+     */
+    private List<Issue> fanOutToIssueTrackers(String operation, Function<IssueTrackerService, List<Issue>> request) {
+        return fanOutToIssueTrackers(operation, request, List::size).stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Execute the request concurrently against all issue trackers, returning each tracker's result once every
+     * tracker has responded.
+     *
+     * @param resultCount the number of results contained in a tracker's result, which is recorded by the fan-out event.
+     */
+    private <T> List<T> fanOutToIssueTrackers(String operation, Function<IssueTrackerService, T> request,
+            ToIntFunction<T> resultCount) {
+        Object event = FlightRecorderEvents.beginFanOut();
+        boolean success = false;
+        int count = 0;
+        try {
+            List<CompletableFuture<T>> requests =
+                    issueTrackers.stream()
+                            .map(tracker -> CompletableFuture.supplyAsync(() -> request.apply(tracker), executorService))
+                            .collect(Collectors.toList());
+
+            List<T> results = requests.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            count = results.stream().mapToInt(resultCount).sum();
+            success = true;
+            return results;
+        } catch (CompletionException e) {
+            // Rethrow the tracker's own exception, e.g. a RemoteServiceException, rather than the wrapper
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        } finally {
+            FlightRecorderEvents.endFanOut(event, operation, issueTrackers.size(), count, success);
+        }
+    }
+
     private void checkIssueTrackerExists() {
         if (issueTrackers.isEmpty())
             throw new IllegalStateException("Unable to retrieve issues as a valid " +
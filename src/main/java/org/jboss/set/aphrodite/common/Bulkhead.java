@@ -0,0 +1,270 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.config.BulkheadConfig;
+import org.jboss.set.aphrodite.config.ExecutorType;
+import org.jboss.set.aphrodite.config.RejectionPolicy;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded executor dedicated to a single issue tracker or repository service. At most
+ * {@link BulkheadConfig#getMaxConcurrency()} tasks are executed concurrently, with up to
+ * {@link BulkheadConfig#getQueueCapacity()} tasks waiting to be executed. Tasks submitted once the queue is full are
+ * handled according to the configured {@link org.jboss.set.aphrodite.config.RejectionPolicy}.
+ *
+ * A bulkhead either pools its own platform threads, or starts a new thread per task via a supplied executor and
+ * limits concurrency with a semaphore. The latter is intended for virtual threads, which should never be pooled.
+ *
+ * @author Ryan Emerson
+ */
+public class Bulkhead extends AbstractExecutorService {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final String name;
+    private final BulkheadConfig config;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Create a bulkhead which executes tasks on a pool of platform threads.
+     *
+     * @param name the name of this bulkhead, used to name its threads.
+     * @param config the limits of this bulkhead.
+     */
+    public Bulkhead(String name, BulkheadConfig config) {
+        Objects.requireNonNull(name, "A bulkhead's 'name' cannot be null");
+        Objects.requireNonNull(config, "A bulkhead's 'config' cannot be null");
+
+        this.name = name;
+        this.config = config;
+        this.permits = null;
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(config.getMaxConcurrency(), config.getMaxConcurrency(),
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, createQueue(config), new NamedDaemonThreadFactory(name),
+                (task, executor) -> reject(task));
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Create a bulkhead which executes each task via the supplied thread-per-task executor, once one of this
+     * bulkhead's permits has been acquired. The supplied executor is owned by this bulkhead, and is shutdown with it.
+     *
+     * @param name the name of this bulkhead.
+     * @param config the limits of this bulkhead.
+     * @param threadPerTaskExecutor the executor used to start a new thread for each task.
+     */
+    public Bulkhead(String name, BulkheadConfig config, ExecutorService threadPerTaskExecutor) {
+        Objects.requireNonNull(name, "A bulkhead's 'name' cannot be null");
+        Objects.requireNonNull(config, "A bulkhead's 'config' cannot be null");
+        Objects.requireNonNull(threadPerTaskExecutor, "A bulkhead's 'threadPerTaskExecutor' cannot be null");
+
+        this.name = name;
+        this.config = config;
+        this.executor = threadPerTaskExecutor;
+        this.permits = new Semaphore(config.getMaxConcurrency());
+    }
+
+    /**
+     * Create a bulkhead whose threads are of the specified type. If virtual threads are requested but are not
+     * supported by the running JVM, then platform threads are used instead.
+     *
+     * @param name the name of this bulkhead.
+     * @param config the limits of this bulkhead.
+     * @param executorType the type of threads used to execute tasks.
+     * @return the new <code>Bulkhead</code>.
+     */
+    public static Bulkhead create(String name, BulkheadConfig config, ExecutorType executorType) {
+        if (executorType == ExecutorType.VIRTUAL && VirtualThreads.isSupported())
+            return new Bulkhead(name, config, VirtualThreads.newVirtualThreadPerTaskExecutor(name));
+        return new Bulkhead(name, config);
+    }
+
+    private static BlockingQueue<Runnable> createQueue(BulkheadConfig config) {
+        if (config.getQueueCapacity() == 0)
+            return new SynchronousQueue<>();
+        return new LinkedBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkheadConfig getConfig() {
+        return config;
+    }
+
+    public int getMaxConcurrency() {
+        return config.getMaxConcurrency();
+    }
+
+    /**
+     * @return the type of threads used by this bulkhead to execute tasks.
+     */
+    public ExecutorType getExecutorType() {
+        return permits == null ? ExecutorType.PLATFORM : ExecutorType.VIRTUAL;
+    }
+
+    /**
+     * @return the number of tasks currently waiting to be executed.
+     */
+    public int getQueueDepth() {
+        if (permits == null)
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        return Math.max(0, admitted.get() - getActiveThreads());
+    }
+
+    /**
+     * @return the approximate number of threads which are currently executing a task.
+     */
+    public int getActiveThreads() {
+        if (permits == null)
+            return ((ThreadPoolExecutor) executor).getActiveCount();
+        return config.getMaxConcurrency() - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of tasks which could not be accepted because the bulkhead was saturated. This includes
+     * tasks which were subsequently executed by the submitting thread.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Objects.requireNonNull(task);
+        if (permits == null) {
+            executor.execute(task);
+            return;
+        }
+
+        if (isShutdown()) {
+            reject(task);
+            return;
+        }
+
+        if (admitted.incrementAndGet() > config.getMaxConcurrency() + config.getQueueCapacity()) {
+            admitted.decrementAndGet();
+            reject(task);
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    admitted.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void reject(Runnable task) {
+        rejectedCount.incrementAndGet();
+        // Tasks should not be executed once the owning service has been destroyed
+        if (config.getRejectionPolicy() == RejectionPolicy.CALLER_RUNS && !isShutdown()) {
+            task.run();
+            return;
+        }
+        throw new RejectedExecutionException("Task rejected by bulkhead '" + name +
+                "' as it is saturated or has been shutdown");
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" +
+                "name='" + name + '\'' +
+                ", config=" + config +
+                ", executorType=" + getExecutorType() +
+                ", activeThreads=" + getActiveThreads() +
+                ", queueDepth=" + getQueueDepth() +
+                ", rejectedCount=" + getRejectedCount() +
+                '}';
+    }
+
+    private static class NamedDaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+        private final String prefix;
+
+        NamedDaemonThreadFactory(String name) {
+            this.prefix = "aphrodite-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.config.ResilienceConfig;
+
+/**
+ * A circuit breaker protecting a single remote service. The breaker opens once the configured number of consecutive
+ * calls have failed, after which calls are rejected until the open duration has elapsed. A single trial call is then
+ * permitted; the breaker closes if the trial succeeds, otherwise it opens again.
+ *
+ * @author Ryan Emerson
+ */
+public class CircuitBreaker {
+
+    private static final Log LOG = LogFactory.getLog(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private long openCount;
+
+    public CircuitBreaker(String name, ResilienceConfig config) {
+        this(name, config, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, ResilienceConfig config, LongSupplier clock) {
+        Objects.requireNonNull(name, "name cannot be null");
+        Objects.requireNonNull(config, "config cannot be null");
+
+        this.name = name;
+        this.failureThreshold = config.getFailureThreshold();
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis());
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openUntil >= 0)
+            return State.HALF_OPEN;
+        return state;
+    }
+
+    /**
+     * @return the number of times this breaker has opened.
+     */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Request permission to make a call. Every permitted call must be followed by a call to either
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return true if the call may proceed, false if it should fail fast.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openUntil < 0)
+                    return false;
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // A trial call is already in progress
+                return false;
+        }
+    }
+
+    /**
+     * Record that a permitted call reached the remote service, even if the service rejected the request.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            if (LOG.isInfoEnabled())
+                LOG.info("Circuit breaker '" + name + "' closed");
+        }
+    }
+
+    /**
+     * Record that a permitted call failed because the remote service was unavailable.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (failureThreshold > 0 && consecutiveFailures >= failureThreshold))
+            open(openDurationNanos);
+    }
+
+    /**
+     * Open this breaker for at least the given period, for example when the remote service has requested that no
+     * further calls are made until a Retry-After period has elapsed.
+     *
+     * @param millis the period to remain open.
+     */
+    public synchronized void openFor(long millis) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        if (state != State.OPEN || openUntil - (clock.getAsLong() + nanos) < 0)
+            open(nanos);
+    }
+
+    private void open(long durationNanos) {
+        if (durationNanos <= 0 && state != State.HALF_OPEN) {
+            consecutiveFailures = 0;
+            return;
+        }
+
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + durationNanos;
+        consecutiveFailures = 0;
+        openCount++;
+        Utils.logWarnMessage(LOG, "Circuit breaker '" + name + "' opened for " +
+                TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms");
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{" +
+                "name='" + name + '\'' +
+                ", state=" + state +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", openCount=" + openCount +
+                '}';
+    }
+}
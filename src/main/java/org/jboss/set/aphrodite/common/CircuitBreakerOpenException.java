@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.spi.RemoteServiceException;
+
+/**
+ * Thrown, without a remote call being attempted, when the circuit breaker of the called service is open.
+ *
+ * @author Ryan Emerson
+ */
+public class CircuitBreakerOpenException extends RemoteServiceException {
+
+    private static final long serialVersionUID = -3954236520196421580L;
+
+    private final String circuitBreaker;
+
+    public CircuitBreakerOpenException(String circuitBreaker) {
+        super("The circuit breaker of '" + circuitBreaker + "' is open, failing fast");
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return the name of the open circuit breaker.
+     */
+    public String getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
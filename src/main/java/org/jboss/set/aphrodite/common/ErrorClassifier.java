@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+/**
+ * Decides whether the failure of a remote call was caused by a transient problem with the remote service, in which
+ * case the call may be retried and the failure counts towards opening the service's circuit breaker. Errors which
+ * indicate a problem with the request itself, such as an entity not existing or the user lacking permissions, are
+ * not retryable and do not affect the circuit breaker.
+ *
+ * A call which is not safe to repeat, such as one adding a comment, is only retried if
+ * {@link #isRetryableNonIdempotent(Throwable)} shows that the service did not process the failed request.
+ *
+ * @author Ryan Emerson
+ */
+@FunctionalInterface
+public interface ErrorClassifier {
+
+    /**
+     * Classifies connection failures and timeouts anywhere in an exception's cause chain as retryable.
+     */
+    ErrorClassifier DEFAULT = ErrorClassifier::isTransientNetworkError;
+
+    boolean isRetryable(Throwable error);
+
+    /**
+     * Decide whether a failed call which is not safe to repeat may be retried. By default only a failure to connect
+     * to the service is retryable, as a timeout or reset connection may occur after the service has applied the
+     * request.
+     *
+     * @param error the exception thrown by a remote call.
+     * @return true if the error shows that the service did not process the request.
+     */
+    default boolean isRetryableNonIdempotent(Throwable error) {
+        return isConnectFailure(error);
+    }
+
+    /**
+     * Create a classifier for a service whose failed responses carry a HTTP status. A failure with a status is
+     * retryable if the status is transient, and a non-idempotent call only if the status shows that the request was
+     * rejected without being processed. Failures without a status are classified as network errors.
+     *
+     * @param statusCode returns the HTTP status of a failure, or an empty optional if the service did not respond.
+     * @return a new classifier.
+     */
+    static ErrorClassifier forStatusCode(Function<Throwable, OptionalInt> statusCode) {
+        return new ErrorClassifier() {
+            @Override
+            public boolean isRetryable(Throwable error) {
+                OptionalInt status = statusCode.apply(error);
+                return status.isPresent() ? isTransientStatus(status.getAsInt()) : isTransientNetworkError(error);
+            }
+
+            @Override
+            public boolean isRetryableNonIdempotent(Throwable error) {
+                OptionalInt status = statusCode.apply(error);
+                return status.isPresent() ? isUnprocessedStatus(status.getAsInt()) : isConnectFailure(error);
+            }
+        };
+    }
+
+    /**
+     * @param error the exception thrown by a remote call.
+     * @return true if the error, or any of its causes, is a connection failure or timeout.
+     */
+    static boolean isTransientNetworkError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            // SocketTimeoutException is an InterruptedIOException, ConnectException a SocketException
+            if (t instanceof SocketException)
+                return true;
+            if (t instanceof InterruptedIOException && !Thread.currentThread().isInterrupted())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param error the exception thrown by a remote call.
+     * @return true if the error, or any of its causes, shows that a connection to the service could not be opened.
+     */
+    static boolean isConnectFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException || t instanceof NoRouteToHostException)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param statusCode a HTTP response status code.
+     * @return true if the status indicates that the server is temporarily unable to handle the request.
+     */
+    static boolean isTransientStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * @param statusCode a HTTP response status code.
+     * @return true if the status indicates that the server rejected the request without processing it.
+     */
+    static boolean isUnprocessedStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker.RemoteCall;
+
+/**
+ * A cache of slowly changing remote data, e.g. project metadata, whose entries expire a fixed time after they are
+ * loaded. Concurrent misses for the same key are coalesced, so that a value is only loaded once however many callers
+ * request it. Every lookup is reported to the JDK Flight Recorder via {@link FlightRecorderEvents#cacheLookup}.
+ *
+ * Null values are not cached.
+ *
+ * @param <K> the type of the cache's keys.
+ * @param <V> the type of the cached values.
+ * @author Ryan Emerson
+ */
+public class ExpiringCache<K, V> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    private volatile long nextPurgeMillis;
+
+    /**
+     * @param name the name of the cache, used to identify its lookups.
+     * @param ttlMillis the number of milliseconds for which a value is cached after it has been loaded.
+     */
+    public ExpiringCache(String name, long ttlMillis) {
+        this(name, ttlMillis, System::currentTimeMillis);
+    }
+
+    ExpiringCache(String name, long ttlMillis, LongSupplier clock) {
+        Objects.requireNonNull(name, "name cannot be null");
+        if (ttlMillis < 0)
+            throw new IllegalArgumentException("ttlMillis cannot be negative");
+
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.nextPurgeMillis = clock.getAsLong() + ttlMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the cached value associated with <code>key</code>, loading it if it is absent or has expired.
+     *
+     * @param key the key of the value.
+     * @param loader the request which retrieves the current value.
+     * @return the cached or loaded value.
+     * @throws E if the value must be loaded and the loader fails.
+     */
+    public <E extends Exception> V get(K key, RemoteCall<V, E> loader) throws E {
+        Optional<V> cached = getIfPresent(key);
+        if (cached.isPresent())
+            return cached.get();
+
+        return loads.execute(key, () -> {
+            V value = loader.execute();
+            put(key, value);
+            return value;
+        });
+    }
+
+    /**
+     * @return the cached value associated with <code>key</code>, or an empty optional if there is no such value or
+     *         it has expired.
+     */
+    public Optional<V> getIfPresent(K key) {
+        Objects.requireNonNull(key, "key cannot be null");
+        Entry<V> entry = entries.get(key);
+        boolean hit = entry != null && !entry.isExpired(clock.getAsLong());
+        FlightRecorderEvents.cacheLookup(name, key.toString(), hit);
+        return hit ? Optional.of(entry.value) : Optional.empty();
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key cannot be null");
+        if (value == null)
+            return;
+
+        long now = clock.getAsLong();
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+        purgeExpired(now);
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of cached entries, which may include entries that have expired but not yet been purged.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    // Expired entries are replaced when their key is next requested, so entries only need to be purged
+    // periodically to release keys which are never requested again.
+    private void purgeExpired(long now) {
+        if (now < nextPurgeMillis)
+            return;
+
+        nextPurgeMillis = now + ttlMillis;
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAtMillis;
+
+        Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
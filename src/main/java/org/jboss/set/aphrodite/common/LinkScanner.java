@@ -0,0 +1,358 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the links in a piece of text, such as the title and body of a patch, with a single pass over the text.
+ *
+ * Two kinds of link are found:
+ * <ul>
+ *     <li>http, https and ftp urls whose host is one of the configured hosts, e.g. the links to an issue tracker.</li>
+ *     <li>References to pull requests. These are urls such as <code>https://github.com/owner/repo/pull/1</code> whose
+ *     host is one of the configured pull request hosts, with or without a scheme, and the shorthand forms
+ *     <code>owner/repo#1</code> and <code>#1</code>.</li>
+ * </ul>
+ *
+ * Urls are matched like <code>AbstractIssueTracker.URL_REGEX</code>, i.e. they end at the first character which
+ * cannot appear in a url, and trailing punctuation is excluded. Shorthand references are not recognised within urls.
+ * The scanner only looks back from a <code>://</code>, <code>/</code> or <code>#</code> over a bounded number of
+ * characters, so unlike the regular expressions it replaces it cannot backtrack over long lines of text.
+ *
+ * Instances are immutable and thread safe.
+ *
+ * @author Ryan Emerson
+ */
+public class LinkScanner {
+
+    private static final String[] SCHEMES = {"https", "http", "ftp"};
+
+    private final Set<String> hosts;
+    private final Set<String> pullRequestHosts;
+    private final int maxPullRequestHostLength;
+
+    /**
+     * @param hosts the hosts whose urls are found.
+     */
+    public LinkScanner(Collection<String> hosts) {
+        this(hosts, Collections.emptySet());
+    }
+
+    /**
+     * @param hosts the hosts whose urls are found.
+     * @param pullRequestHosts the hosts whose pull request urls are found as references, e.g. github.com.
+     */
+    public LinkScanner(Collection<String> hosts, Collection<String> pullRequestHosts) {
+        this.hosts = Collections.unmodifiableSet(new HashSet<>(hosts));
+        Set<String> prHosts = new HashSet<>();
+        for (String host : pullRequestHosts)
+            prHosts.add(host.toLowerCase(Locale.ENGLISH));
+        this.pullRequestHosts = Collections.unmodifiableSet(prHosts);
+        this.maxPullRequestHostLength = prHosts.stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    /**
+     * @param texts the texts to scan, which are scanned as if they were separate lines.
+     * @return the links found in the texts, in the order in which they appear. Null texts are ignored.
+     */
+    public Links scan(CharSequence... texts) {
+        Links links = new Links();
+        for (CharSequence text : texts) {
+            if (text != null)
+                scan(text, links);
+        }
+        return links;
+    }
+
+    private void scan(CharSequence text, Links links) {
+        int length = text.length();
+        int wordStart = 0; // The start of the current run of characters which can precede a '#' reference
+        int hostStart = 0; // The start of the current run of characters which can form a host name
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == ':' && i + 2 < length && text.charAt(i + 1) == '/' && text.charAt(i + 2) == '/') {
+                int end = scanUrl(text, i, links);
+                if (end > 0) {
+                    i = wordStart = hostStart = end;
+                    continue;
+                }
+            } else if (c == '/' && !pullRequestHosts.isEmpty() && isPullRequestHost(text, hostStart, i)) {
+                int end = pathEnd(text, i);
+                addPullRequest(text, hostStart, i, end, links);
+                i = wordStart = hostStart = end;
+                continue;
+            } else if (c == '#') {
+                int digitsEnd = digitsEnd(text, i + 1);
+                if (digitsEnd > i + 1) {
+                    addShorthandReference(text, wordStart, i, digitsEnd, links);
+                    i = wordStart = hostStart = digitsEnd;
+                    continue;
+                }
+            }
+
+            if (!isWordChar(c))
+                wordStart = i + 1;
+            if (!isHostChar(c) && c != '.')
+                hostStart = i + 1;
+            i++;
+        }
+    }
+
+    /**
+     * @param colon the index of the ':' which precedes "//".
+     * @return the index after the end of the url, or -1 if there is not a valid url at <code>colon</code>.
+     */
+    private int scanUrl(CharSequence text, int colon, Links links) {
+        int start = schemeStart(text, colon);
+        if (start < 0)
+            return -1;
+
+        int hostStart = colon + 3;
+        int hostEnd = hostEnd(text, hostStart);
+        if (hostEnd < 0)
+            return -1;
+
+        int end = pathEnd(text, hostEnd);
+        String host = text.subSequence(hostStart, hostEnd).toString();
+        if (hosts.contains(host)) {
+            try {
+                links.urls.add(new URL(text.subSequence(start, end).toString()));
+            } catch (MalformedURLException e) {
+                // Not a url after all, e.g. an invalid port
+            }
+        }
+        if (pullRequestHosts.contains(host.toLowerCase(Locale.ENGLISH)))
+            addPullRequest(text, hostStart, hostEnd, end, links);
+        return end;
+    }
+
+    private static int schemeStart(CharSequence text, int colon) {
+        for (String scheme : SCHEMES) {
+            int start = colon - scheme.length();
+            if (start >= 0 && regionMatches(text, start, scheme))
+                return start;
+        }
+        return -1;
+    }
+
+    // A host consists of two or more labels of word characters and '-' separated by '.'
+    private static int hostEnd(CharSequence text, int hostStart) {
+        int i = hostStart;
+        int labels = 0;
+        while (true) {
+            int labelStart = i;
+            while (i < text.length() && isHostChar(text.charAt(i)))
+                i++;
+            if (i == labelStart)
+                return labels >= 2 ? labelStart - 1 : -1;
+
+            labels++;
+            if (i + 1 < text.length() && text.charAt(i) == '.' && isHostChar(text.charAt(i + 1)))
+                i++;
+            else
+                return labels >= 2 ? i : -1;
+        }
+    }
+
+    // The path may contain, but not end with, '.', ',' and ':'
+    private static int pathEnd(CharSequence text, int pathStart) {
+        int end = pathStart;
+        for (int i = pathStart; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isPathChar(c))
+                break;
+            if (c != '.' && c != ',' && c != ':')
+                end = i + 1;
+        }
+        return end;
+    }
+
+    private boolean isPullRequestHost(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length == 0 || length > maxPullRequestHostLength)
+            return false;
+        return pullRequestHosts.contains(text.subSequence(start, end).toString().toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Add a reference if the path is that of a pull request, i.e. it contains <code>/owner/repo/pull/number</code>
+     * or <code>/owner/repo/pulls/number</code>.
+     */
+    private static void addPullRequest(CharSequence text, int hostStart, int pathStart, int pathEnd, Links links) {
+        String[] segments = text.subSequence(pathStart, pathEnd).toString().split("/");
+        for (int i = 1; i + 3 < segments.length; i++) {
+            String pull = segments[i + 2].toLowerCase(Locale.ENGLISH);
+            if (!pull.startsWith("pull") || pull.length() > 5)
+                continue;
+
+            String number = segments[i + 3].substring(0, digitsEnd(segments[i + 3], 0));
+            if (!number.isEmpty() && isName(segments[i]) && isName(segments[i + 1])) {
+                String host = text.subSequence(hostStart, pathStart).toString().toLowerCase(Locale.ENGLISH);
+                links.pullRequests.add(new PullRequestReference(host, segments[i], segments[i + 1], number));
+                return;
+            }
+        }
+    }
+
+    private static void addShorthandReference(CharSequence text, int wordStart, int hash, int digitsEnd, Links links) {
+        String number = text.subSequence(hash + 1, digitsEnd).toString();
+        int slash = lastIndexOf(text, '/', wordStart, hash);
+        if (slash > wordStart && slash + 1 < hash) {
+            int ownerStart = lastIndexOf(text, '/', wordStart, slash) + 1;
+            if (ownerStart == 0)
+                ownerStart = wordStart;
+            if (ownerStart < slash) {
+                String owner = text.subSequence(ownerStart, slash).toString();
+                String repository = text.subSequence(slash + 1, hash).toString();
+                links.pullRequests.add(new PullRequestReference(null, owner, repository, number));
+                return;
+            }
+        }
+        links.pullRequests.add(new PullRequestReference(null, null, null, number));
+    }
+
+    private static int lastIndexOf(CharSequence text, char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (text.charAt(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int digitsEnd(CharSequence text, int start) {
+        int i = start;
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+            i++;
+        return i;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(start + i) != s.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isName(String s) {
+        if (s.isEmpty())
+            return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (!isHostChar(s.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isHostChar(c) || c == '/';
+    }
+
+    private static boolean isPathChar(char c) {
+        if (isHostChar(c))
+            return true;
+        switch (c) {
+            case '.': case ',': case '@': case '?': case '^': case '=': case '%': case '&': case ':': case '/':
+            case '~': case '+': case '#':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The links found by a scan.
+     */
+    public static class Links {
+        private final List<URL> urls = new ArrayList<>();
+        private final List<PullRequestReference> pullRequests = new ArrayList<>();
+
+        /**
+         * @return the urls whose host is one of the scanner's hosts, including any duplicates.
+         */
+        public List<URL> getUrls() {
+            return urls;
+        }
+
+        public List<PullRequestReference> getPullRequests() {
+            return pullRequests;
+        }
+    }
+
+    /**
+     * A reference to a pull request, either by url or with the shorthand <code>owner/repo#number</code>. The owner and
+     * repository are absent if the reference is relative to the repository of the text, i.e. <code>#number</code>.
+     */
+    public static class PullRequestReference {
+        private final String host;
+        private final String owner;
+        private final String repository;
+        private final String number;
+
+        PullRequestReference(String host, String owner, String repository, String number) {
+            this.host = host;
+            this.owner = owner;
+            this.repository = repository;
+            this.number = number;
+        }
+
+        /**
+         * @return the host of the url, or an empty optional if the reference is a shorthand reference.
+         */
+        public Optional<String> getHost() {
+            return Optional.ofNullable(host);
+        }
+
+        public Optional<String> getOwner() {
+            return Optional.ofNullable(owner);
+        }
+
+        public Optional<String> getRepository() {
+            return Optional.ofNullable(repository);
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        @Override
+        public String toString() {
+            return (owner == null ? "" : owner + "/" + repository) + "#" + number;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.config.ResilienceConfig;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
+import org.jboss.set.aphrodite.trace.Span;
+import org.jboss.set.aphrodite.trace.TraceContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each remote call made by a single service and records the outcome with the configured
+ * {@link AphroditeMetrics}, as well as emitting a JDK Flight Recorder event where available. Each call is executed
+ * within a child {@link Span} of the calling thread's active span, and the configured {@link RemoteCallInterceptor}s
+ * are invoked before and after the call.
+ *
+ * Calls which fail with an error deemed retryable by the service's {@link ErrorClassifier} are retried according to
+ * its {@link RetryPolicy}, and all calls are guarded by the service's {@link CircuitBreaker}. The size of a call's
+ * response, and any Retry-After period requested by the service, are reported via {@link #recordResponseBytes(long)}
+ * and {@link #recordRetryAfter(long)} by the transport which reads the response on the calling thread.
+ *
+ * Calls which modify a remote entity, such as adding a comment, must be made via
+ * {@link #callNonIdempotent(String, Object, RemoteCall)}, as a timed out request may already have been applied.
+ *
+ * @author Ryan Emerson
+ */
+public class RemoteCallTracker {
+
+    private static final Log LOG = LogFactory.getLog(RemoteCallTracker.class);
+    private static final ThreadLocal<CallState> CURRENT_CALL = new ThreadLocal<>();
+
+    private final String service;
+    private final String host;
+    private final AphroditeMetrics metrics;
+    private final List<RemoteCallInterceptor> interceptors;
+    private final RetryPolicy retryPolicy;
+    private final ErrorClassifier errorClassifier;
+    private final CircuitBreaker circuitBreaker;
+
+    public RemoteCallTracker(String service, String host, AphroditeMetrics metrics) {
+        this(service, host, metrics, Collections.emptyList());
+    }
+
+    public RemoteCallTracker(String service, String host, AphroditeMetrics metrics,
+            List<RemoteCallInterceptor> interceptors) {
+        this(service, host, metrics, interceptors, ResilienceConfig.DISABLED, ErrorClassifier.DEFAULT);
+    }
+
+    public RemoteCallTracker(String service, String host, AphroditeMetrics metrics,
+            List<RemoteCallInterceptor> interceptors, ResilienceConfig resilienceConfig,
+            ErrorClassifier errorClassifier) {
+        Objects.requireNonNull(service, "service cannot be null");
+        Objects.requireNonNull(host, "host cannot be null");
+        Objects.requireNonNull(resilienceConfig, "resilienceConfig cannot be null");
+        Objects.requireNonNull(errorClassifier, "errorClassifier cannot be null");
+
+        this.service = service;
+        this.host = host;
+        this.metrics = metrics == null ? AphroditeMetrics.NOOP : metrics;
+        this.interceptors = interceptors == null ? Collections.emptyList() : interceptors;
+        this.retryPolicy = new RetryPolicy(resilienceConfig);
+        this.errorClassifier = errorClassifier;
+        this.circuitBreaker = new CircuitBreaker(service.toLowerCase() + "-" + host, resilienceConfig);
+    }
+
+    /**
+     * Add to the response size of the remote call currently being executed by this thread. This is a no-op if the
+     * current thread is not executing a tracked call.
+     *
+     * @param bytes the number of bytes read.
+     */
+    public static void recordResponseBytes(long bytes) {
+        CallState state = CURRENT_CALL.get();
+        if (state != null)
+            state.responseBytes += bytes;
+    }
+
+    /**
+     * Record that the service has asked for the remote call currently being executed by this thread not to be
+     * repeated until the given period has elapsed. A failed call with a Retry-After period is always retryable.
+     * This is a no-op if the current thread is not executing a tracked call.
+     *
+     * @param millis the requested delay in milliseconds.
+     */
+    public static void recordRetryAfter(long millis) {
+        CallState state = CURRENT_CALL.get();
+        if (state != null)
+            state.retryAfterMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Record the value of a Retry-After response header for the remote call currently being executed by this thread.
+     *
+     * @param retryAfter the header value, either a number of seconds or a HTTP date, or null if the header was not
+     *                   present.
+     */
+    public static void recordRetryAfter(String retryAfter) {
+        if (retryAfter == null || CURRENT_CALL.get() == null)
+            return;
+
+        String value = retryAfter.trim();
+        try {
+            recordRetryAfter(TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                Instant date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                recordRetryAfter(Duration.between(Instant.now(), date).toMillis());
+            } catch (DateTimeParseException pe) {
+                Utils.logWarnMessage(LOG, "Ignoring invalid Retry-After header: " + retryAfter);
+            }
+        }
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Execute a remote call, recording its latency, response size and outcome.
+     *
+     * @param method the name of the remote method or operation being invoked.
+     * @param call the remote call to execute.
+     * @return the result of the remote call.
+     * @throws E if the remote call fails.
+     * @throws CircuitBreakerOpenException if the service's circuit breaker is open.
+     */
+    public <T, E extends Exception> T call(String method, RemoteCall<T, E> call) throws E {
+        return call(method, null, call);
+    }
+
+    /**
+     * Execute a remote call, recording its latency, response size and outcome.
+     *
+     * @param method the name of the remote method or operation being invoked.
+     * @param target the URL of the entity which the call is made against, or null if there is no single entity.
+     * @param call the remote call to execute.
+     * @return the result of the remote call.
+     * @throws E if the remote call fails.
+     * @throws CircuitBreakerOpenException if the service's circuit breaker is open.
+     */
+    public <T, E extends Exception> T call(String method, Object target, RemoteCall<T, E> call) throws E {
+        return call(method, target, true, call);
+    }
+
+    /**
+     * Execute a remote call which is not safe to repeat, recording its latency, response size and outcome. The call
+     * is only retried if it fails with a Retry-After period or an error which
+     * {@link ErrorClassifier#isRetryableNonIdempotent(Throwable)} shows was not processed by the service.
+     *
+     * @param method the name of the remote method or operation being invoked.
+     * @param target the URL of the entity which the call is made against, or null if there is no single entity.
+     * @param call the remote call to execute.
+     * @return the result of the remote call.
+     * @throws E if the remote call fails.
+     * @throws CircuitBreakerOpenException if the service's circuit breaker is open.
+     */
+    public <T, E extends Exception> T callNonIdempotent(String method, Object target, RemoteCall<T, E> call) throws E {
+        return call(method, target, false, call);
+    }
+
+    private <T, E extends Exception> T call(String method, Object target, boolean idempotent, RemoteCall<T, E> call)
+            throws E {
+        String targetString = target == null ? null : target.toString();
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire())
+                throw new CircuitBreakerOpenException(circuitBreaker.getName());
+
+            CallState state = new CallState();
+            try {
+                T result = attempt(method, targetString, attempt, state, call);
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (Exception | Error e) {
+                if (state.retryAfterMillis < 0 && !errorClassifier.isRetryable(e)) {
+                    // The service responded, so the failure is the result of the request rather than the service
+                    circuitBreaker.onSuccess();
+                    throw e;
+                }
+
+                if (state.retryAfterMillis > retryPolicy.getMaxBackoffMillis()) {
+                    circuitBreaker.openFor(state.retryAfterMillis);
+                    throw e;
+                }
+
+                circuitBreaker.onFailure();
+                if (attempt >= retryPolicy.getMaxAttempts() || circuitBreaker.getState() != CircuitBreaker.State.CLOSED)
+                    throw e;
+
+                // The request may have been applied before the failure, e.g. a read timeout, so must not be repeated
+                if (!idempotent && state.retryAfterMillis < 0 && !errorClassifier.isRetryableNonIdempotent(e))
+                    throw e;
+
+                long backoff = retryPolicy.getBackoffMillis(attempt, state.retryAfterMillis);
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Retrying " + service + "." + method + " in " + backoff + "ms after attempt " +
+                            attempt + " failed: " + e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T, E extends Exception> T attempt(String method, String target, int attempt, CallState state,
+            RemoteCall<T, E> call) throws E {
+        CallState outer = CURRENT_CALL.get();
+        CURRENT_CALL.set(state);
+
+        TraceContext.Scope scope = TraceContext.startSpan(service + "." + method);
+        Span span = scope.getSpan()
+                .setAttribute(Span.SERVICE, service)
+                .setAttribute(Span.HOST, host)
+                .setAttribute(Span.METHOD, method)
+                .setAttribute(Span.TARGET, target);
+        if (attempt > 1)
+            span.setAttribute(Span.ATTEMPT, Integer.toString(attempt));
+        for (RemoteCallInterceptor interceptor : interceptors) {
+            try {
+                interceptor.before(span);
+            } catch (RuntimeException e) {
+                Utils.logException(LOG, "RemoteCallInterceptor.before failed for " + span.getName(), e);
+            }
+        }
+
+        Object event = FlightRecorderEvents.beginRemoteCall();
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            return call.execute();
+        } catch (Exception | Error e) {
+            error = e;
+            span.setError(e);
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (outer == null) {
+                CURRENT_CALL.remove();
+            } else {
+                outer.responseBytes += state.responseBytes;
+                CURRENT_CALL.set(outer);
+            }
+            boolean success = error == null;
+            metrics.recordCall(service, host, method, duration, state.responseBytes, success);
+            FlightRecorderEvents.endRemoteCall(event, service, host, method, target, state.responseBytes, success);
+
+            scope.close();
+            for (RemoteCallInterceptor interceptor : interceptors) {
+                try {
+                    interceptor.after(span, error);
+                } catch (RuntimeException e) {
+                    Utils.logException(LOG, "RemoteCallInterceptor.after failed for " + span.getName(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteCallTracker{" +
+                "service='" + service + '\'' +
+                ", host='" + host + '\'' +
+                ", circuitBreaker=" + circuitBreaker +
+                '}';
+    }
+
+    /**
+     * A single remote call.
+     *
+     * @param <T> the type returned by the call.
+     * @param <E> the type of exception thrown by the call.
+     */
+    @FunctionalInterface
+    public interface RemoteCall<T, E extends Exception> {
+        T execute() throws E;
+    }
+
+    private static class CallState {
+        long responseBytes;
+        long retryAfterMillis = -1;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.set.aphrodite.config.BatchConfig;
+
+/**
+ * Collects single-key requests made concurrently by different threads, and executes them as a single bulk request
+ * once either the configured maximum batch size has been reached or the configured delay has elapsed since the first
+ * request of the batch. Identical keys requested within the same batch share a single result.
+ *
+ * A batch which is full is executed by the thread which filled it, as that thread would otherwise wait for the batch
+ * to be executed elsewhere. A batch whose delay has elapsed is executed via the configured executor.
+ *
+ * @param <K> the type of key requested.
+ * @param <V> the type of value returned for each key.
+ * @author Ryan Emerson
+ */
+public class RequestBatcher<K, V> implements AutoCloseable {
+
+    private final BatchConfig config;
+    private final BulkRequest<K, V> request;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long batchCount;
+
+    /**
+     * @param name the name of the batcher, used to name its timer thread.
+     * @param config the batch size and delay.
+     * @param executor the executor on which bulk requests are executed.
+     * @param request the bulk request.
+     */
+    public RequestBatcher(String name, BatchConfig config, Executor executor, BulkRequest<K, V> request) {
+        Objects.requireNonNull(name, "name cannot be null");
+        Objects.requireNonNull(config, "config cannot be null");
+        Objects.requireNonNull(executor, "executor cannot be null");
+        Objects.requireNonNull(request, "request cannot be null");
+
+        this.config = config;
+        this.executor = executor;
+        this.request = request;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "aphrodite-" + name + "-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add a key to the current batch.
+     *
+     * @param key the key to request.
+     * @return a future which is completed with the key's value, or null if the bulk request did not return a value
+     * for the key, once the batch has been executed.
+     */
+    public CompletableFuture<V> submit(K key) {
+        Objects.requireNonNull(key, "key cannot be null");
+
+        Map<K, CompletableFuture<V>> batch = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= config.getMaxBatchSize()) {
+                batch = takeBatch();
+            } else if (scheduledFlush == null) {
+                try {
+                    scheduledFlush = scheduler.schedule(this::flush, config.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // The batcher has been closed, so execute immediately
+                    batch = takeBatch();
+                }
+            }
+        }
+        if (batch != null)
+            execute(batch);
+        return future;
+    }
+
+    /**
+     * @return the number of bulk requests which have been dispatched.
+     */
+    public long getBatchCount() {
+        synchronized (lock) {
+            return batchCount;
+        }
+    }
+
+    /**
+     * Dispatch the pending batch, if any, and stop the timer thread.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            batch = takeBatch();
+        }
+        if (!batch.isEmpty())
+            dispatch(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takeBatch() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (!batch.isEmpty())
+            batchCount++;
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            executor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void execute(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, V> results = request.execute(Collections.unmodifiableSet(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(results.get(key)));
+        } catch (Throwable t) {
+            batch.values().forEach(future -> future.completeExceptionally(t));
+        }
+    }
+
+    /**
+     * A request which retrieves the values of multiple keys at once.
+     */
+    @FunctionalInterface
+    public interface BulkRequest<K, V> {
+        /**
+         * @param keys the keys to retrieve.
+         * @return the value of each key which was found.
+         * @throws Exception if the request fails.
+         */
+        Map<K, V> execute(Collection<K> keys) throws Exception;
+    }
+}
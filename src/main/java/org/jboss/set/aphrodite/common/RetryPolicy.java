@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jboss.set.aphrodite.config.ResilienceConfig;
+
+/**
+ * Calculates the delay before each retry of a failed remote call, using exponential backoff with full jitter so that
+ * the retries of concurrent callers are spread out rather than arriving at the recovering service together.
+ *
+ * @author Ryan Emerson
+ */
+public class RetryPolicy {
+
+    private final ResilienceConfig config;
+
+    public RetryPolicy(ResilienceConfig config) {
+        Objects.requireNonNull(config, "config cannot be null");
+        this.config = config;
+    }
+
+    public int getMaxAttempts() {
+        return config.getMaxAttempts();
+    }
+
+    public long getMaxBackoffMillis() {
+        return config.getMaxBackoffMillis();
+    }
+
+    /**
+     * @param attempt the number of the attempt which failed, starting at 1.
+     * @param retryAfterMillis the delay requested by the service via a Retry-After header, or a negative value if
+     *                         no delay was requested.
+     * @return the delay in milliseconds before the next attempt.
+     */
+    public long getBackoffMillis(int attempt, long retryAfterMillis) {
+        if (retryAfterMillis >= 0)
+            return retryAfterMillis;
+
+        long ceiling = config.getInitialBackoffMillis() << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > config.getMaxBackoffMillis())
+            ceiling = config.getMaxBackoffMillis();
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
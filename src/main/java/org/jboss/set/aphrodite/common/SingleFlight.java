@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker.RemoteCall;
+
+/**
+ * Coalesces concurrent requests for the same key, so that only the first caller executes the request while any
+ * callers which arrive before it completes wait for, and share, its result or failure. Once the request has
+ * completed the key is released, so results are never cached beyond the lifetime of a single request.
+ *
+ * Callers which share a request receive the same result instance unless a <code>copier</code> is provided, in which
+ * case each caller receives its own instance. A copier must be provided if the result is mutable.
+ *
+ * @param <K> the type of the key which identifies identical requests.
+ * @param <V> the type of the request's result.
+ * @author Ryan Emerson
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+
+    public SingleFlight() {
+        this(UnaryOperator.identity());
+    }
+
+    public SingleFlight(UnaryOperator<V> copier) {
+        Objects.requireNonNull(copier, "copier cannot be null");
+        this.copier = copier;
+    }
+
+    /**
+     * Execute the request, unless an identical request is already in flight in which case wait for its outcome.
+     *
+     * @param key the key which identifies the request.
+     * @param request the request to execute.
+     * @return the result of the request.
+     * @throws E if the request fails.
+     */
+    public <E extends Exception> V execute(K key, RemoteCall<V, E> request) throws E {
+        Objects.requireNonNull(key, "key cannot be null");
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null)
+            return await(existing);
+
+        try {
+            V result = request.execute();
+            // Waiting callers copy a snapshot, as this caller may modify the result whilst they are copying it
+            future.complete(result == null ? null : copier.apply(result));
+            return result;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return the number of requests currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> future) throws E {
+        try {
+            V result = future.join();
+            return result == null ? null : copier.apply(result);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            // The request which failed is identical to this caller's, so can only have thrown E
+            throw (E) cause;
+        }
+    }
+}
@@ -32,15 +32,30 @@ public abstract class AbstractServiceConfig {
     private final String url;
     private final String username;
     private final String password;
+    private final BulkheadConfig bulkheadConfig;
+    private final ResilienceConfig resilienceConfig;
 
     public AbstractServiceConfig(String url, String username, String password) {
+        this(url, username, password, BulkheadConfig.DEFAULT);
+    }
+
+    public AbstractServiceConfig(String url, String username, String password, BulkheadConfig bulkheadConfig) {
+        this(url, username, password, bulkheadConfig, ResilienceConfig.DEFAULT);
+    }
+
+    public AbstractServiceConfig(String url, String username, String password, BulkheadConfig bulkheadConfig,
+            ResilienceConfig resilienceConfig) {
         Objects.requireNonNull(url, "A services 'url' must be specified.");
         Objects.requireNonNull(username, "A 'username' must be specified for each service.");
         Objects.requireNonNull(password, "A 'password' must be specified for each service.");
+        Objects.requireNonNull(bulkheadConfig, "A services 'bulkheadConfig' cannot be null.");
+        Objects.requireNonNull(resilienceConfig, "A services 'resilienceConfig' cannot be null.");
 
         this.url = url;
         this.username = username;
         this.password = password;
+        this.bulkheadConfig = bulkheadConfig;
+        this.resilienceConfig = resilienceConfig;
     }
 
     public String getUrl() {
@@ -55,12 +70,22 @@ public abstract class AbstractServiceConfig {
         return password;
     }
 
+    public BulkheadConfig getBulkheadConfig() {
+        return bulkheadConfig;
+    }
+
+    public ResilienceConfig getResilienceConfig() {
+        return resilienceConfig;
+    }
+
     @Override
     public String toString() {
         return "AbstractServiceConfig{" +
                 "url='" + url + '\'' +
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
+                ", bulkheadConfig=" + bulkheadConfig +
+                ", resilienceConfig=" + resilienceConfig +
                 '}';
     }
 
@@ -71,6 +96,8 @@ public abstract class AbstractServiceConfig {
         result = prime * result + ((password == null) ? 0 : password.hashCode());
         result = prime * result + ((url == null) ? 0 : url.hashCode());
         result = prime * result + ((username == null) ? 0 : username.hashCode());
+        result = prime * result + bulkheadConfig.hashCode();
+        result = prime * result + resilienceConfig.hashCode();
         return result;
     }
 
@@ -98,7 +125,7 @@ public abstract class AbstractServiceConfig {
                 return false;
         } else if (!username.equals(other.username))
             return false;
-        return true;
+        return bulkheadConfig.equals(other.bulkheadConfig) && resilienceConfig.equals(other.resilienceConfig);
     }
 
 }
@@ -24,8 +24,13 @@ package org.jboss.set.aphrodite.config;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
@@ -33,17 +38,31 @@ import java.util.stream.Collectors;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.jboss.set.aphrodite.common.Utils;
+import org.jboss.set.aphrodite.common.VirtualThreads;
+import org.jboss.set.aphrodite.metrics.InMemoryMetrics;
+import org.jboss.set.aphrodite.metrics.JmxMetricsExporter;
 import org.jboss.set.aphrodite.repository.services.common.RepositoryType;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
 
 /**
  * @author Ryan Emerson
  */
 public class AphroditeConfig {
+    private static final Log LOG = LogFactory.getLog(AphroditeConfig.class);
+
     private final ExecutorService executorService;
+    private final ExecutorType executorType;
+    private final AphroditeMetrics metrics;
+    private final List<RemoteCallInterceptor> interceptors = loadInterceptors();
     private final List<IssueTrackerConfig> issueTrackerConfigs;
     private final List<RepositoryConfig> repositoryConfigs;
     private final List<StreamConfig> streamConfigs;
+    private final WebhookConfig webhookConfig;
+    private final ReplayConfig replayConfig;
 
     public static AphroditeConfig singleIssueTracker(IssueTrackerConfig issueTrackerConfig) {
         List<IssueTrackerConfig> list = new ArrayList<>();
@@ -69,22 +88,73 @@ public class AphroditeConfig {
         this.issueTrackerConfigs = issueTrackerConfigs;
         this.repositoryConfigs = repositoryConfigs;
         this.streamConfigs = streamConfigs;
+        this.webhookConfig = null;
+        this.replayConfig = null;
         this.executorService = Executors.newCachedThreadPool();
+        this.executorType = ExecutorType.PLATFORM;
+        this.metrics = loadMetrics();
     }
 
     public AphroditeConfig(ExecutorService executorService,
             List<IssueTrackerConfig> issueTrackerConfigs,
             List<RepositoryConfig> repositoryConfigs,
             List<StreamConfig> streamConfigs) {
+        this(executorService, ExecutorType.PLATFORM, issueTrackerConfigs, repositoryConfigs, streamConfigs);
+    }
+
+    public AphroditeConfig(ExecutorService executorService,
+            ExecutorType executorType,
+            List<IssueTrackerConfig> issueTrackerConfigs,
+            List<RepositoryConfig> repositoryConfigs,
+            List<StreamConfig> streamConfigs) {
+        this(executorService, executorType, null, issueTrackerConfigs, repositoryConfigs, streamConfigs);
+    }
+
+    public AphroditeConfig(ExecutorService executorService,
+            ExecutorType executorType,
+            AphroditeMetrics metrics,
+            List<IssueTrackerConfig> issueTrackerConfigs,
+            List<RepositoryConfig> repositoryConfigs,
+            List<StreamConfig> streamConfigs) {
+        this(executorService, executorType, metrics, issueTrackerConfigs, repositoryConfigs, streamConfigs, null);
+    }
+
+    public AphroditeConfig(ExecutorService executorService,
+            ExecutorType executorType,
+            AphroditeMetrics metrics,
+            List<IssueTrackerConfig> issueTrackerConfigs,
+            List<RepositoryConfig> repositoryConfigs,
+            List<StreamConfig> streamConfigs,
+            WebhookConfig webhookConfig) {
+        this(executorService, executorType, metrics, issueTrackerConfigs, repositoryConfigs, streamConfigs,
+                webhookConfig, null);
+    }
+
+    public AphroditeConfig(ExecutorService executorService,
+            ExecutorType executorType,
+            AphroditeMetrics metrics,
+            List<IssueTrackerConfig> issueTrackerConfigs,
+            List<RepositoryConfig> repositoryConfigs,
+            List<StreamConfig> streamConfigs,
+            WebhookConfig webhookConfig,
+            ReplayConfig replayConfig) {
         this.executorService = executorService;
+        this.executorType = executorType == null ? ExecutorType.PLATFORM : executorType;
+        this.metrics = metrics == null ? loadMetrics() : metrics;
         this.issueTrackerConfigs = issueTrackerConfigs;
         this.repositoryConfigs = repositoryConfigs;
         this.streamConfigs = streamConfigs;
+        this.webhookConfig = webhookConfig;
+        this.replayConfig = replayConfig;
     }
 
     public AphroditeConfig(AphroditeConfig config) {
-        this(config.getExecutorService(), new ArrayList<>(config.getIssueTrackerConfigs()),
-                new ArrayList<>(config.getRepositoryConfigs()), new ArrayList<>(config.getStreamConfigs()));
+        this(config.getExecutorService(), config.getExecutorType(), config.getMetrics(),
+                new ArrayList<>(config.getIssueTrackerConfigs()),
+                new ArrayList<>(config.getRepositoryConfigs()), new ArrayList<>(config.getStreamConfigs()),
+                config.webhookConfig, config.replayConfig);
+        interceptors.clear();
+        interceptors.addAll(config.getInterceptors());
     }
 
 
@@ -92,6 +162,31 @@ public class AphroditeConfig {
         return executorService;
     }
 
+    /**
+     * @return the type of threads that services should use when executing remote calls.
+     */
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    /**
+     * @return the <code>AphroditeMetrics</code> which records the metrics of all remote calls.
+     */
+    public AphroditeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * The interceptors invoked around every remote call. This list initially contains all of the
+     * <code>RemoteCallInterceptor</code> implementations available via the <code>ServiceLoader</code>, and may be
+     * modified before the config is used to initialise <code>Aphrodite</code>.
+     *
+     * @return the <code>RemoteCallInterceptor</code>s invoked around every remote call.
+     */
+    public List<RemoteCallInterceptor> getInterceptors() {
+        return interceptors;
+    }
+
     public List<IssueTrackerConfig> getIssueTrackerConfigs() {
         return issueTrackerConfigs;
     }
@@ -104,19 +199,65 @@ public class AphroditeConfig {
         return streamConfigs;
     }
 
+    /**
+     * @return the configuration of the webhook listener, or an empty <code>Optional</code> if webhooks are not
+     * enabled.
+     */
+    public Optional<WebhookConfig> getWebhookConfig() {
+        return Optional.ofNullable(webhookConfig);
+    }
+
+    /**
+     * @return the configuration of the recording or replaying of the services' HTTP exchanges, or an empty
+     * <code>Optional</code> if the services connect to their hosts directly.
+     */
+    public Optional<ReplayConfig> getReplayConfig() {
+        return Optional.ofNullable(replayConfig);
+    }
+
     public static AphroditeConfig fromJson(JsonObject jsonObject) {
         int maxThreadCount = jsonObject.getInt("maxThreadCount", 0);
+        ExecutorType executorType = ExecutorType.valueOf(jsonObject.getString("executor", "platform").toUpperCase());
+        AphroditeMetrics metrics = jsonObject.getBoolean("jmxMetrics", false) ? new JmxMetricsExporter() : null;
 
         List<IssueTrackerConfig> issueTrackerConfigs = getIssueTrackerConfigs(jsonObject);
         List<RepositoryConfig> repositoryConfigs = getRepositoryConfigs(jsonObject);
         List<StreamConfig> streamConfigs = getStreamConfigs(jsonObject);
+        WebhookConfig webhookConfig = WebhookConfig.fromJson(jsonObject.getJsonObject("webhook"));
+        ReplayConfig replayConfig = ReplayConfig.fromJson(jsonObject.getJsonObject("replay"));
+
+        if (executorType == ExecutorType.VIRTUAL) {
+            // The concurrency of each service is capped by its bulkhead, so maxThreadCount is not applicable
+            if (VirtualThreads.isSupported())
+                return new AphroditeConfig(VirtualThreads.newVirtualThreadPerTaskExecutor("shared"),
+                        ExecutorType.VIRTUAL, metrics, issueTrackerConfigs, repositoryConfigs, streamConfigs,
+                        webhookConfig, replayConfig);
 
-        if (maxThreadCount > 0)
-            return new AphroditeConfig(Executors.newFixedThreadPool(maxThreadCount), issueTrackerConfigs,
-                    repositoryConfigs, streamConfigs);
+            Utils.logWarnMessage(LOG, "Virtual threads require Java 21 or later, the 'executor' option " +
+                    "will be ignored and platform threads used instead.");
+        }
 
         // IF maxThreadCount has not been specified, then we refer to the default executorService which is an unlimited cachedThreadPool
-        return new AphroditeConfig(issueTrackerConfigs, repositoryConfigs, streamConfigs);
+        ExecutorService executorService = maxThreadCount > 0 ? Executors.newFixedThreadPool(maxThreadCount) :
+                Executors.newCachedThreadPool();
+        return new AphroditeConfig(executorService, ExecutorType.PLATFORM, metrics, issueTrackerConfigs,
+                repositoryConfigs, streamConfigs, webhookConfig, replayConfig);
+    }
+
+    /**
+     * Use the first <code>AphroditeMetrics</code> implementation available via the <code>ServiceLoader</code>, or
+     * if none exist, the default in-memory implementation.
+     */
+    private static AphroditeMetrics loadMetrics() {
+        for (AphroditeMetrics metrics : ServiceLoader.load(AphroditeMetrics.class))
+            return metrics;
+        return new InMemoryMetrics();
+    }
+
+    private static List<RemoteCallInterceptor> loadInterceptors() {
+        List<RemoteCallInterceptor> interceptors = new CopyOnWriteArrayList<>();
+        ServiceLoader.load(RemoteCallInterceptor.class).forEach(interceptors::add);
+        return interceptors;
     }
 
     private static List<IssueTrackerConfig> getIssueTrackerConfigs(JsonObject jsonObject) {
@@ -129,10 +270,21 @@ public class AphroditeConfig {
                         json.getString("username", null),
                         json.getString("password", null),
                         TrackerType.valueOf(json.getString("tracker", null)),
-                        json.getInt("defaultIssueLimit", -1)))
+                        json.getInt("defaultIssueLimit", -1),
+                        BulkheadConfig.fromJson(json.getJsonObject("bulkhead")),
+                        ResilienceConfig.fromJson(json.getJsonObject("resilience")),
+                        BatchConfig.fromJson(json.getJsonObject("batching")),
+                        getProperties(json.getJsonObject("properties"))))
                 .collect(Collectors.toList());
     }
 
+    private static Map<String, String> getProperties(JsonObject json) {
+        Map<String, String> properties = new HashMap<>();
+        if (json != null)
+            json.keySet().forEach(name -> properties.put(name, json.getString(name)));
+        return properties;
+    }
+
     private static List<RepositoryConfig> getRepositoryConfigs(JsonObject jsonObject) {
         JsonArray jsonArray = jsonObject.getJsonArray("repositoryConfigs");
         Objects.requireNonNull(jsonArray, "repositoryConfigs array must be specified");
@@ -143,7 +295,10 @@ public class AphroditeConfig {
                                 json.getString("url", null),
                                 json.getString("username", null),
                                 json.getString("password", null),
-                                RepositoryType.valueOf(json.getString("type", null))))
+                                RepositoryType.valueOf(json.getString("type", null)),
+                                BulkheadConfig.fromJson(json.getJsonObject("bulkhead")),
+                                ResilienceConfig.fromJson(json.getJsonObject("resilience")),
+                                HttpConfig.fromJson(json.getJsonObject("http"))))
                 .collect(Collectors.toList());
     }
 
@@ -184,7 +339,9 @@ public class AphroditeConfig {
             return false;
         if (repositoryConfigs != null ? !repositoryConfigs.equals(that.repositoryConfigs) : that.repositoryConfigs != null)
             return false;
-        return streamConfigs != null ? streamConfigs.equals(that.streamConfigs) : that.streamConfigs == null;
+        if (streamConfigs != null ? !streamConfigs.equals(that.streamConfigs) : that.streamConfigs != null)
+            return false;
+        return Objects.equals(webhookConfig, that.webhookConfig) && Objects.equals(replayConfig, that.replayConfig);
 
     }
 
@@ -193,6 +350,8 @@ public class AphroditeConfig {
         int result = issueTrackerConfigs != null ? issueTrackerConfigs.hashCode() : 0;
         result = 31 * result + (repositoryConfigs != null ? repositoryConfigs.hashCode() : 0);
         result = 31 * result + (streamConfigs != null ? streamConfigs.hashCode() : 0);
+        result = 31 * result + Objects.hashCode(webhookConfig);
+        result = 31 * result + Objects.hashCode(replayConfig);
         return result;
     }
 
@@ -202,6 +361,8 @@ public class AphroditeConfig {
                 "issueTrackerConfigs=" + issueTrackerConfigs +
                 ", repositoryConfigs=" + repositoryConfigs +
                 ",streamConfigs=" + streamConfigs+
+                ", webhookConfig=" + webhookConfig +
+                ", replayConfig=" + replayConfig +
                 '}';
     }
 }
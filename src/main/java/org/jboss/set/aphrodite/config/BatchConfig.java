@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import javax.json.JsonObject;
+
+/**
+ * Opt-in settings which allow an issue tracker to combine single issue requests, made concurrently by different
+ * threads, into bulk requests. A bulk request is made once <code>maxBatchSize</code> distinct issues have been
+ * requested, or <code>maxDelayMillis</code> after the first issue of the batch was requested, whichever is sooner.
+ *
+ * @author Ryan Emerson
+ */
+public class BatchConfig {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+    /**
+     * Every issue is requested individually.
+     */
+    public static final BatchConfig DISABLED = new BatchConfig(1, 0);
+
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+
+    public BatchConfig(int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("'maxBatchSize' must be greater than zero");
+        if (maxDelayMillis < 0)
+            throw new IllegalArgumentException("'maxDelayMillis' cannot be negative");
+
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Create a <code>BatchConfig</code> from the optional "batching" object of an issue tracker's json
+     * configuration. Batching is disabled if the object is not specified, otherwise any fields which are not
+     * specified take their default values.
+     *
+     * @param json the "batching" json object, or null if one was not specified.
+     * @return the resulting <code>BatchConfig</code>.
+     */
+    public static BatchConfig fromJson(JsonObject json) {
+        if (json == null)
+            return DISABLED;
+
+        return new BatchConfig(
+                json.getInt("maxBatchSize", DEFAULT_MAX_BATCH_SIZE),
+                json.getInt("maxDelayMillis", (int) DEFAULT_MAX_DELAY_MILLIS));
+    }
+
+    public boolean isEnabled() {
+        return maxBatchSize > 1;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BatchConfig that = (BatchConfig) o;
+
+        if (maxBatchSize != that.maxBatchSize) return false;
+        return maxDelayMillis == that.maxDelayMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxBatchSize;
+        result = 31 * result + (int) (maxDelayMillis ^ (maxDelayMillis >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConfig{" +
+                "maxBatchSize=" + maxBatchSize +
+                ", maxDelayMillis=" + maxDelayMillis +
+                '}';
+    }
+}
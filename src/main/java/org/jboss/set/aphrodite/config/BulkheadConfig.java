@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import java.util.Objects;
+
+import javax.json.JsonObject;
+
+/**
+ * Limits applied to the executor which is dedicated to a single issue tracker or repository service, so that
+ * a slow or misbehaving backend cannot exhaust the threads available to the rest of Aphrodite.
+ *
+ * @author Ryan Emerson
+ */
+public class BulkheadConfig {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 10;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final BulkheadConfig DEFAULT = new BulkheadConfig(DEFAULT_MAX_CONCURRENCY, DEFAULT_QUEUE_CAPACITY,
+            RejectionPolicy.CALLER_RUNS);
+
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+
+    public BulkheadConfig(int maxConcurrency, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        Objects.requireNonNull(rejectionPolicy, "A bulkhead's 'rejectionPolicy' cannot be null");
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("A bulkhead's 'maxConcurrency' must be greater than zero");
+        if (queueCapacity < 0)
+            throw new IllegalArgumentException("A bulkhead's 'queueCapacity' cannot be negative");
+
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    /**
+     * Create a <code>BulkheadConfig</code> from the optional "bulkhead" object of a service's json configuration.
+     * Any fields which are not specified take the values of {@link #DEFAULT}.
+     *
+     * @param json the "bulkhead" json object, or null if one was not specified.
+     * @return the resulting <code>BulkheadConfig</code>.
+     */
+    public static BulkheadConfig fromJson(JsonObject json) {
+        if (json == null)
+            return DEFAULT;
+
+        return new BulkheadConfig(
+                json.getInt("maxConcurrency", DEFAULT.maxConcurrency),
+                json.getInt("queueCapacity", DEFAULT.queueCapacity),
+                RejectionPolicy.valueOf(json.getString("rejectionPolicy", DEFAULT.rejectionPolicy.name())));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BulkheadConfig that = (BulkheadConfig) o;
+
+        if (maxConcurrency != that.maxConcurrency) return false;
+        if (queueCapacity != that.queueCapacity) return false;
+        return rejectionPolicy == that.rejectionPolicy;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxConcurrency;
+        result = 31 * result + queueCapacity;
+        result = 31 * result + rejectionPolicy.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadConfig{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", queueCapacity=" + queueCapacity +
+                ", rejectionPolicy=" + rejectionPolicy +
+                '}';
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import javax.json.JsonObject;
+
+/**
+ * Settings of the HTTP connections which a repository service makes to its host. Responses are requested gzip
+ * compressed unless <code>compression</code> is disabled, and at most <code>maxConnectionsPerHost</code> requests are
+ * in flight at once.
+ *
+ * Connections are reused via the JDK's keep-alive cache, which retains at most <code>http.maxConnections</code> idle
+ * connections per host, 5 unless the system property is set. Any further connections are closed once their response
+ * has been read, so by default the connection limit is the <code>maxConcurrency</code> of the service's bulkhead
+ * capped at {@link #getKeepAliveConnections()}. An explicit <code>maxConnectionsPerHost</code> above that cap should be
+ * accompanied by a larger <code>http.maxConnections</code>.
+ *
+ * @author Ryan Emerson
+ */
+public class HttpConfig {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * A <code>maxConnectionsPerHost</code> which limits connections to the <code>maxConcurrency</code> of the
+     * service's bulkhead, or to {@link #getKeepAliveConnections()} if that is lower.
+     */
+    public static final int MATCH_BULKHEAD = 0;
+
+    /**
+     * The number of idle connections per host retained by the JDK's keep-alive cache if
+     * <code>http.maxConnections</code> is not set.
+     */
+    public static final int DEFAULT_KEEP_ALIVE_CONNECTIONS = 5;
+
+    public static final HttpConfig DEFAULT = new HttpConfig(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS,
+            true, MATCH_BULKHEAD);
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final boolean compression;
+    private final int maxConnectionsPerHost;
+
+    public HttpConfig(int connectTimeoutMillis, int readTimeoutMillis, boolean compression, int maxConnectionsPerHost) {
+        if (connectTimeoutMillis < 0)
+            throw new IllegalArgumentException("'connectTimeoutMillis' cannot be negative");
+        if (readTimeoutMillis < 0)
+            throw new IllegalArgumentException("'readTimeoutMillis' cannot be negative");
+        if (maxConnectionsPerHost < 0)
+            throw new IllegalArgumentException("'maxConnectionsPerHost' cannot be negative");
+
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.compression = compression;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Create a <code>HttpConfig</code> from the optional "http" object of a repository's json configuration.
+     * Any fields which are not specified take the values of {@link #DEFAULT}.
+     *
+     * @param json the "http" json object, or null if one was not specified.
+     * @return the resulting <code>HttpConfig</code>.
+     */
+    public static HttpConfig fromJson(JsonObject json) {
+        if (json == null)
+            return DEFAULT;
+
+        return new HttpConfig(
+                json.getInt("connectTimeoutMillis", DEFAULT.connectTimeoutMillis),
+                json.getInt("readTimeoutMillis", DEFAULT.readTimeoutMillis),
+                json.getBoolean("compression", DEFAULT.compression),
+                json.getInt("maxConnectionsPerHost", DEFAULT.maxConnectionsPerHost));
+    }
+
+    /**
+     * @return the connect timeout in milliseconds, where zero is an infinite timeout.
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * @return the read timeout in milliseconds, where zero is an infinite timeout.
+     */
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * @param bulkheadConfig the bulkhead of the service which makes the connections.
+     * @return the maximum number of connections to the service's host.
+     */
+    public int getMaxConnectionsPerHost(BulkheadConfig bulkheadConfig) {
+        if (maxConnectionsPerHost == MATCH_BULKHEAD)
+            return Math.min(bulkheadConfig.getMaxConcurrency(), getKeepAliveConnections());
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * @return the maximum number of idle connections per host which the JDK's keep-alive cache retains for reuse, as
+     *         set by the <code>http.maxConnections</code> system property.
+     */
+    public static int getKeepAliveConnections() {
+        // The JDK ignores values which are not positive
+        int maxConnections = Integer.getInteger("http.maxConnections", DEFAULT_KEEP_ALIVE_CONNECTIONS);
+        return maxConnections > 0 ? maxConnections : DEFAULT_KEEP_ALIVE_CONNECTIONS;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        HttpConfig that = (HttpConfig) o;
+
+        if (connectTimeoutMillis != that.connectTimeoutMillis) return false;
+        if (readTimeoutMillis != that.readTimeoutMillis) return false;
+        if (compression != that.compression) return false;
+        return maxConnectionsPerHost == that.maxConnectionsPerHost;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = connectTimeoutMillis;
+        result = 31 * result + readTimeoutMillis;
+        result = 31 * result + (compression ? 1 : 0);
+        result = 31 * result + maxConnectionsPerHost;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpConfig{" +
+                "connectTimeoutMillis=" + connectTimeoutMillis +
+                ", readTimeoutMillis=" + readTimeoutMillis +
+                ", compression=" + compression +
+                ", maxConnectionsPerHost=" + maxConnectionsPerHost +
+                '}';
+    }
+}
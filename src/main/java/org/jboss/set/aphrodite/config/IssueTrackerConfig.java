@@ -22,7 +22,11 @@
 
 package org.jboss.set.aphrodite.config;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * @author Ryan Emerson
@@ -30,14 +34,47 @@ import java.util.Objects;
 public class IssueTrackerConfig extends AbstractServiceConfig {
     private final TrackerType tracker;
     private final int defaultIssueLimit;
+    private final BatchConfig batchConfig;
+    private final Map<String, String> properties;
 
     public IssueTrackerConfig(String url, String username, String password, TrackerType tracker,
             int defaultIssueLimit) {
-        super(url, username, password);
+        this(url, username, password, tracker, defaultIssueLimit, BulkheadConfig.DEFAULT);
+    }
+
+    public IssueTrackerConfig(String url, String username, String password, TrackerType tracker,
+            int defaultIssueLimit, BulkheadConfig bulkheadConfig) {
+        this(url, username, password, tracker, defaultIssueLimit, bulkheadConfig, ResilienceConfig.DEFAULT);
+    }
+
+    public IssueTrackerConfig(String url, String username, String password, TrackerType tracker,
+            int defaultIssueLimit, BulkheadConfig bulkheadConfig, ResilienceConfig resilienceConfig) {
+        this(url, username, password, tracker, defaultIssueLimit, bulkheadConfig, resilienceConfig,
+                BatchConfig.DISABLED);
+    }
+
+    public IssueTrackerConfig(String url, String username, String password, TrackerType tracker,
+            int defaultIssueLimit, BulkheadConfig bulkheadConfig, ResilienceConfig resilienceConfig,
+            BatchConfig batchConfig) {
+        this(url, username, password, tracker, defaultIssueLimit, bulkheadConfig, resilienceConfig, batchConfig,
+                Collections.emptyMap());
+    }
+
+    /**
+     * @param properties tracker specific settings, e.g. <code>bugzilla.transport</code>.
+     */
+    public IssueTrackerConfig(String url, String username, String password, TrackerType tracker,
+            int defaultIssueLimit, BulkheadConfig bulkheadConfig, ResilienceConfig resilienceConfig,
+            BatchConfig batchConfig, Map<String, String> properties) {
+        super(url, username, password, bulkheadConfig, resilienceConfig);
 
         Objects.requireNonNull(tracker, "The 'tracker' field must be set for all IssueTrackers");
         this.tracker = tracker;
         this.defaultIssueLimit = defaultIssueLimit;
+        Objects.requireNonNull(batchConfig, "The 'batchConfig' of an IssueTracker cannot be null");
+        this.batchConfig = batchConfig;
+        Objects.requireNonNull(properties, "The 'properties' of an IssueTracker cannot be null");
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
     }
 
     public TrackerType getTracker() {
@@ -48,6 +85,18 @@ public class IssueTrackerConfig extends AbstractServiceConfig {
         return defaultIssueLimit;
     }
 
+    public BatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public Optional<String> getProperty(String name) {
+        return Optional.ofNullable(properties.get(name));
+    }
+
     @Override
     public String toString() {
         return "IssueTrackerConfig{" +
@@ -56,6 +105,10 @@ public class IssueTrackerConfig extends AbstractServiceConfig {
                 ", password='" + getPassword() + '\'' +
                 ", tracker='" + tracker + '\'' +
                 ", defaultIssueLimit='" + defaultIssueLimit + '\'' +
+                ", bulkheadConfig=" + getBulkheadConfig() +
+                ", resilienceConfig=" + getResilienceConfig() +
+                ", batchConfig=" + batchConfig +
+                ", properties=" + properties +
                 '}';
     }
 
@@ -65,6 +118,8 @@ public class IssueTrackerConfig extends AbstractServiceConfig {
         int result = super.hashCode();
         result = prime * result + defaultIssueLimit;
         result = prime * result + ((tracker == null) ? 0 : tracker.hashCode());
+        result = prime * result + batchConfig.hashCode();
+        result = prime * result + properties.hashCode();
         return result;
     }
 
@@ -77,7 +132,8 @@ public class IssueTrackerConfig extends AbstractServiceConfig {
         if (getClass() != obj.getClass())
             return false;
         IssueTrackerConfig other = (IssueTrackerConfig) obj;
-        return defaultIssueLimit == other.defaultIssueLimit && tracker == other.tracker;
+        return defaultIssueLimit == other.defaultIssueLimit && tracker == other.tracker
+                && batchConfig.equals(other.batchConfig) && properties.equals(other.properties);
     }
 
 }
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+
+/**
+ * Settings of the recording and replaying of the HTTP exchanges between the services and their remote hosts, so that
+ * performance tests can run without a network. Each service connects to its host via a local proxy, which in
+ * {@link ReplayMode#RECORD} mode forwards each request and appends the exchange to a file in the <code>archive</code>
+ * directory, and in {@link ReplayMode#REPLAY} mode serves the recorded responses.
+ *
+ * A replayed response is delayed by <code>latencyFactor</code> times its recorded latency, plus
+ * <code>latencyMillis</code>. By default responses are replayed without a delay.
+ *
+ * @author Ryan Emerson
+ */
+public class ReplayConfig {
+
+    private final ReplayMode mode;
+    private final Path archive;
+    private final double latencyFactor;
+    private final long latencyMillis;
+
+    public ReplayConfig(ReplayMode mode, Path archive) {
+        this(mode, archive, 0, 0);
+    }
+
+    public ReplayConfig(ReplayMode mode, Path archive, double latencyFactor, long latencyMillis) {
+        Objects.requireNonNull(mode, "A replay 'mode' must be specified.");
+        Objects.requireNonNull(archive, "A replay 'archive' must be specified.");
+        if (latencyFactor < 0 || Double.isNaN(latencyFactor))
+            throw new IllegalArgumentException("'latencyFactor' cannot be negative");
+        if (latencyMillis < 0)
+            throw new IllegalArgumentException("'latencyMillis' cannot be negative");
+
+        this.mode = mode;
+        this.archive = archive;
+        this.latencyFactor = latencyFactor;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Create a <code>ReplayConfig</code> from the optional "replay" object of the json configuration.
+     *
+     * @param json the "replay" json object, or null if one was not specified.
+     * @return the resulting <code>ReplayConfig</code>, or null if exchanges are neither recorded nor replayed.
+     */
+    public static ReplayConfig fromJson(JsonObject json) {
+        if (json == null)
+            return null;
+
+        JsonNumber latencyFactor = json.getJsonNumber("latencyFactor");
+        return new ReplayConfig(
+                ReplayMode.valueOf(json.getString("mode").toUpperCase()),
+                Paths.get(json.getString("archive")),
+                latencyFactor == null ? 0 : latencyFactor.doubleValue(),
+                json.getInt("latencyMillis", 0));
+    }
+
+    public ReplayMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the directory which contains a file of recorded exchanges for each remote host.
+     */
+    public Path getArchive() {
+        return archive;
+    }
+
+    public double getLatencyFactor() {
+        return latencyFactor;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @param recordedMillis the latency of the exchange when it was recorded.
+     * @return the delay before a replayed response is sent.
+     */
+    public long getReplayLatencyMillis(long recordedMillis) {
+        return (long) (recordedMillis * latencyFactor) + latencyMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ReplayConfig that = (ReplayConfig) o;
+        return mode == that.mode && archive.equals(that.archive)
+                && Double.compare(latencyFactor, that.latencyFactor) == 0 && latencyMillis == that.latencyMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, archive, latencyFactor, latencyMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayConfig{" +
+                "mode=" + mode +
+                ", archive=" + archive +
+                ", latencyFactor=" + latencyFactor +
+                ", latencyMillis=" + latencyMillis +
+                '}';
+    }
+}
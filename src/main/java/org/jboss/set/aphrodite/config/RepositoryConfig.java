@@ -32,18 +32,40 @@ import org.jboss.set.aphrodite.repository.services.common.RepositoryType;
 public class RepositoryConfig extends AbstractServiceConfig {
 
     private final RepositoryType type;
+    private final HttpConfig httpConfig;
 
     public RepositoryConfig(String url, String username, String password, RepositoryType type) {
-        super(url, username, password);
+        this(url, username, password, type, BulkheadConfig.DEFAULT);
+    }
+
+    public RepositoryConfig(String url, String username, String password, RepositoryType type,
+            BulkheadConfig bulkheadConfig) {
+        this(url, username, password, type, bulkheadConfig, ResilienceConfig.DEFAULT);
+    }
+
+    public RepositoryConfig(String url, String username, String password, RepositoryType type,
+            BulkheadConfig bulkheadConfig, ResilienceConfig resilienceConfig) {
+        this(url, username, password, type, bulkheadConfig, resilienceConfig, HttpConfig.DEFAULT);
+    }
+
+    public RepositoryConfig(String url, String username, String password, RepositoryType type,
+            BulkheadConfig bulkheadConfig, ResilienceConfig resilienceConfig, HttpConfig httpConfig) {
+        super(url, username, password, bulkheadConfig, resilienceConfig);
 
         Objects.requireNonNull(type, "A 'type' must be specified for each repository.");
+        Objects.requireNonNull(httpConfig, "A repository's 'httpConfig' cannot be null.");
         this.type = type;
+        this.httpConfig = httpConfig;
     }
 
     public RepositoryType getType() {
         return type;
     }
 
+    public HttpConfig getHttpConfig() {
+        return httpConfig;
+    }
+
     @Override
     public String toString() {
         return "RepositoryConfig{" +
@@ -51,6 +73,9 @@ public class RepositoryConfig extends AbstractServiceConfig {
                 ", username='" + getUsername() + '\'' +
                 ", password='" + getPassword() + '\'' +
                 ", type='" + type + '\'' +
+                ", bulkheadConfig=" + getBulkheadConfig() +
+                ", resilienceConfig=" + getResilienceConfig() +
+                ", httpConfig=" + httpConfig +
                 '}';
     }
 
@@ -59,6 +84,7 @@ public class RepositoryConfig extends AbstractServiceConfig {
         final int prime = 31;
         int result = super.hashCode();
         result = prime * result + ((type == null) ? 0 : type.hashCode());
+        result = prime * result + httpConfig.hashCode();
         return result;
     }
 
@@ -71,6 +97,6 @@ public class RepositoryConfig extends AbstractServiceConfig {
         if (getClass() != obj.getClass())
             return false;
         RepositoryConfig other = (RepositoryConfig) obj;
-        return type == other.type;
+        return type == other.type && httpConfig.equals(other.httpConfig);
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import javax.json.JsonObject;
+
+/**
+ * The retry and circuit breaker settings applied to the remote calls of a single issue tracker or repository
+ * service. Calls which fail with a transient error are retried up to <code>maxAttempts</code> times, with an
+ * exponential backoff between <code>initialBackoffMillis</code> and <code>maxBackoffMillis</code>. Once
+ * <code>failureThreshold</code> consecutive calls have failed the service's circuit breaker opens, and all calls
+ * fail fast for <code>openDurationMillis</code> before a single trial call is permitted.
+ *
+ * @author Ryan Emerson
+ */
+public class ResilienceConfig {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 200;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 10_000;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 30_000;
+
+    public static final ResilienceConfig DEFAULT = new ResilienceConfig(DEFAULT_MAX_ATTEMPTS,
+            DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS, DEFAULT_FAILURE_THRESHOLD,
+            DEFAULT_OPEN_DURATION_MILLIS);
+
+    /**
+     * Calls are attempted once and the circuit breaker never opens.
+     */
+    public static final ResilienceConfig DISABLED = new ResilienceConfig(1, 0, 0, 0, 0);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    /**
+     * @param maxAttempts the maximum number of times a call is attempted, including the first attempt.
+     * @param initialBackoffMillis the upper bound of the delay before the first retry.
+     * @param maxBackoffMillis the upper bound of the delay before any retry. A Retry-After period which exceeds
+     *                         this value is not waited for, instead the service's circuit breaker is opened for the
+     *                         requested period.
+     * @param failureThreshold the number of consecutive failures which open the circuit breaker, or 0 if the
+     *                         circuit breaker should never open.
+     * @param openDurationMillis the period for which the circuit breaker remains open.
+     */
+    public ResilienceConfig(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, int failureThreshold,
+            long openDurationMillis) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("'maxAttempts' must be greater than zero");
+        if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis)
+            throw new IllegalArgumentException("'initialBackoffMillis' cannot be negative or exceed 'maxBackoffMillis'");
+        if (failureThreshold < 0)
+            throw new IllegalArgumentException("'failureThreshold' cannot be negative");
+        if (openDurationMillis < 0)
+            throw new IllegalArgumentException("'openDurationMillis' cannot be negative");
+
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Create a <code>ResilienceConfig</code> from the optional "resilience" object of a service's json
+     * configuration. Any fields which are not specified take the values of {@link #DEFAULT}.
+     *
+     * @param json the "resilience" json object, or null if one was not specified.
+     * @return the resulting <code>ResilienceConfig</code>.
+     */
+    public static ResilienceConfig fromJson(JsonObject json) {
+        if (json == null)
+            return DEFAULT;
+
+        return new ResilienceConfig(
+                json.getInt("maxAttempts", DEFAULT.maxAttempts),
+                json.getInt("initialBackoffMillis", (int) DEFAULT.initialBackoffMillis),
+                json.getInt("maxBackoffMillis", (int) DEFAULT.maxBackoffMillis),
+                json.getInt("failureThreshold", DEFAULT.failureThreshold),
+                json.getInt("openDurationMillis", (int) DEFAULT.openDurationMillis));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ResilienceConfig that = (ResilienceConfig) o;
+
+        if (maxAttempts != that.maxAttempts) return false;
+        if (initialBackoffMillis != that.initialBackoffMillis) return false;
+        if (maxBackoffMillis != that.maxBackoffMillis) return false;
+        if (failureThreshold != that.failureThreshold) return false;
+        return openDurationMillis == that.openDurationMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxAttempts;
+        result = 31 * result + (int) (initialBackoffMillis ^ (initialBackoffMillis >>> 32));
+        result = 31 * result + (int) (maxBackoffMillis ^ (maxBackoffMillis >>> 32));
+        result = 31 * result + failureThreshold;
+        result = 31 * result + (int) (openDurationMillis ^ (openDurationMillis >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceConfig{" +
+                "maxAttempts=" + maxAttempts +
+                ", initialBackoffMillis=" + initialBackoffMillis +
+                ", maxBackoffMillis=" + maxBackoffMillis +
+                ", failureThreshold=" + failureThreshold +
+                ", openDurationMillis=" + openDurationMillis +
+                '}';
+    }
+}
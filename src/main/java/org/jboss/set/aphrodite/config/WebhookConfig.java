@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.config;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.json.JsonObject;
+
+/**
+ * Settings of the embedded HTTP listener which receives webhooks from GitHub, Jira and Bugzilla. A source's
+ * endpoint, <code>path/github</code>, <code>path/jira</code> or <code>path/bugzilla</code>, is only available if the
+ * secret with which that source signs its payloads has been configured. Bugzilla payloads only contain the id of a bug,
+ * so the <code>bugzillaUrl</code> is also required to determine the bug's url.
+ *
+ * @author Ryan Emerson
+ */
+public class WebhookConfig {
+
+    public static final String DEFAULT_PATH = "/webhooks";
+    public static final int DEFAULT_MAX_PAYLOAD_BYTES = 25 * 1024 * 1024;
+
+    private final String host;
+    private final int port;
+    private final String path;
+    private final int maxPayloadBytes;
+    private final String githubSecret;
+    private final String jiraSecret;
+    private final String bugzillaSecret;
+    private final String bugzillaUrl;
+
+    public WebhookConfig(int port, String githubSecret, String jiraSecret, String bugzillaSecret, String bugzillaUrl) {
+        this(null, port, DEFAULT_PATH, DEFAULT_MAX_PAYLOAD_BYTES, githubSecret, jiraSecret, bugzillaSecret, bugzillaUrl);
+    }
+
+    /**
+     * @param host the address which the listener binds to, or null to bind to all addresses.
+     * @param port the port which the listener binds to, or 0 to bind to an ephemeral port.
+     */
+    public WebhookConfig(String host, int port, String path, int maxPayloadBytes, String githubSecret,
+            String jiraSecret, String bugzillaSecret, String bugzillaUrl) {
+        Objects.requireNonNull(path, "A webhook 'path' cannot be null.");
+        if (port < 0 || port > 65535)
+            throw new IllegalArgumentException("'port' must be between 0 and 65535");
+        if (maxPayloadBytes <= 0)
+            throw new IllegalArgumentException("'maxPayloadBytes' must be greater than zero");
+        if (bugzillaSecret != null && bugzillaUrl == null)
+            throw new IllegalArgumentException("A 'bugzillaUrl' must be specified with the 'bugzillaSecret'");
+
+        this.host = host;
+        this.port = port;
+        this.path = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.githubSecret = githubSecret;
+        this.jiraSecret = jiraSecret;
+        this.bugzillaSecret = bugzillaSecret;
+        this.bugzillaUrl = bugzillaUrl == null || bugzillaUrl.endsWith("/") ? bugzillaUrl : bugzillaUrl + "/";
+    }
+
+    /**
+     * Create a <code>WebhookConfig</code> from the optional "webhook" object of the json configuration.
+     *
+     * @param json the "webhook" json object, or null if one was not specified.
+     * @return the resulting <code>WebhookConfig</code>, or null if webhooks are not enabled.
+     */
+    public static WebhookConfig fromJson(JsonObject json) {
+        if (json == null)
+            return null;
+
+        return new WebhookConfig(
+                json.getString("host", null),
+                json.getInt("port"),
+                json.getString("path", DEFAULT_PATH),
+                json.getInt("maxPayloadBytes", DEFAULT_MAX_PAYLOAD_BYTES),
+                json.getString("githubSecret", null),
+                json.getString("jiraSecret", null),
+                json.getString("bugzillaSecret", null),
+                json.getString("bugzillaUrl", null));
+    }
+
+    public Optional<String> getHost() {
+        return Optional.ofNullable(host);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the path under which the endpoint of each source is available, without a trailing '/'.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public int getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+
+    public Optional<String> getGithubSecret() {
+        return Optional.ofNullable(githubSecret);
+    }
+
+    public Optional<String> getJiraSecret() {
+        return Optional.ofNullable(jiraSecret);
+    }
+
+    public Optional<String> getBugzillaSecret() {
+        return Optional.ofNullable(bugzillaSecret);
+    }
+
+    /**
+     * @return the base url of the Bugzilla instance which sends webhooks, with a trailing '/'.
+     */
+    public Optional<String> getBugzillaUrl() {
+        return Optional.ofNullable(bugzillaUrl);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        WebhookConfig that = (WebhookConfig) o;
+        return port == that.port && maxPayloadBytes == that.maxPayloadBytes && Objects.equals(host, that.host)
+                && path.equals(that.path) && Objects.equals(githubSecret, that.githubSecret)
+                && Objects.equals(jiraSecret, that.jiraSecret) && Objects.equals(bugzillaSecret, that.bugzillaSecret)
+                && Objects.equals(bugzillaUrl, that.bugzillaUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, path, maxPayloadBytes, githubSecret, jiraSecret, bugzillaSecret, bugzillaUrl);
+    }
+
+    @Override
+    public String toString() {
+        // The secrets are omitted
+        return "WebhookConfig{" +
+                "host='" + host + '\'' +
+                ", port=" + port +
+                ", path='" + path + '\'' +
+                ", maxPayloadBytes=" + maxPayloadBytes +
+                ", github=" + (githubSecret != null) +
+                ", jira=" + (jiraSecret != null) +
+                ", bugzilla=" + (bugzillaSecret != null) +
+                ", bugzillaUrl='" + bugzillaUrl + '\'' +
+                '}';
+    }
+}
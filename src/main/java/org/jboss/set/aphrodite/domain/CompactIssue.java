@@ -0,0 +1,422 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable, memory efficient snapshot of an {@link Issue}, intended for applications which hold a large number of
+ * issues in memory. URLs are stored as strings, dates as longs and the stage as a bit-packed short, empty collections
+ * are shared, and the values which repeat across issues (products, components, users, releases, stream statuses and
+ * estimations) are de-duplicated via an {@link Interner} which should be shared by all of the snapshots of a dataset.
+ *
+ * Use {@link #toIssue()} to obtain a mutable {@link Issue} which can be updated via Aphrodite.
+ *
+ * @author Ryan Emerson
+ */
+public final class CompactIssue {
+
+    private static final String[] NO_URLS = new String[0];
+    private static final long NO_DATE = Long.MIN_VALUE;
+    // Marks an issue which was tracking modifications and had none, as its original values are its current values
+    private static final Map<Issue.Field, Object> UNMODIFIED =
+            Collections.unmodifiableMap(new EnumMap<>(Issue.Field.class));
+
+    // Each flag's status occupies STAGE_BITS bits, holding 0 if the flag is absent or the status ordinal + 1
+    private static final int STAGE_BITS = 3;
+    private static final int STAGE_MASK = (1 << STAGE_BITS) - 1;
+    private static final Flag[] FLAGS = Flag.values();
+    private static final FlagStatus[] FLAG_STATUSES = FlagStatus.values();
+
+    static {
+        if (FLAGS.length * STAGE_BITS > Short.SIZE - 1 || FLAG_STATUSES.length >= STAGE_MASK)
+            throw new IllegalStateException("The stage of an issue can no longer be packed into a short");
+    }
+
+    private final String url;
+    private final String trackerId;
+    private final String product;
+    private final List<String> components;
+    private final String summary;
+    private final String description;
+    private final User assignee;
+    private final User reporter;
+    private final short stage;
+    private final IssueStatus status;
+    private final IssueType type;
+    private final List<Release> releases;
+    private final Map<String, FlagStatus> streamStatus;
+    private final String[] dependsOn;
+    private final String[] blocks;
+    private final long creationTime;
+    private final long lastUpdated;
+    private final IssueEstimation estimation;
+    private final List<Comment> comments;
+    // Null if the issue was not tracking modifications, otherwise UNMODIFIED or the issue's original values
+    private final Map<Issue.Field, Object> originalValues;
+
+    private CompactIssue(Issue issue, Interner interner) {
+        this.url = issue.getURL().toString();
+        this.trackerId = issue.getTrackerId().orElse(null);
+        this.product = interner.intern(issue.getProduct().orElse(null));
+        this.components = interner.internStrings(issue.getComponents());
+        this.summary = issue.getSummary().orElse(null);
+        this.description = issue.getDescription().orElse(null);
+        this.assignee = interner.intern(issue.getAssignee().orElse(null));
+        this.reporter = interner.intern(issue.getReporter().orElse(null));
+        this.stage = packStage(issue.getStage());
+        this.status = issue.getStatus();
+        this.type = issue.getType();
+        this.releases = interner.internReleases(issue.getReleases());
+        this.streamStatus = interner.internStreamStatus(issue.getStreamStatus());
+        this.dependsOn = toStrings(issue.getDependsOn());
+        this.blocks = toStrings(issue.getBlocks());
+        this.creationTime = issue.getCreationTime().map(Date::getTime).orElse(NO_DATE);
+        this.lastUpdated = issue.getLastUpdated().map(Date::getTime).orElse(NO_DATE);
+        this.estimation = interner.intern(issue.getEstimation().orElse(null));
+        this.comments = issue.getComments().isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(issue.getComments()));
+        if (!issue.isTrackingModifications())
+            this.originalValues = null;
+        else if (issue.getModifiedFields().isEmpty())
+            this.originalValues = UNMODIFIED;
+        else
+            this.originalValues = new EnumMap<>(issue.getOriginalValues());
+    }
+
+    /**
+     * Create a compact snapshot of the current state of an issue. Subsequent changes to the issue are not reflected by
+     * the snapshot.
+     *
+     * @param issue the issue to be copied.
+     * @param interner the interner used to de-duplicate values shared with other snapshots.
+     * @return a compact copy of the issue.
+     */
+    public static CompactIssue of(Issue issue, Interner interner) {
+        if (issue == null)
+            throw new IllegalArgumentException("Issue cannot be null");
+        if (interner == null)
+            throw new IllegalArgumentException("Interner cannot be null");
+        return new CompactIssue(issue, interner);
+    }
+
+    /**
+     * Create a new mutable {@link Issue} equivalent to the issue this snapshot was taken from. If the original issue
+     * was tracking modifications, then the returned issue has the same original values, so any modifications which
+     * had not been applied when the snapshot was taken are still reported by {@link Issue#getModifiedFields()}.
+     *
+     * @return a new Issue.
+     */
+    public Issue toIssue() {
+        Issue issue = new Issue(toURL(url));
+        issue.setTrackerId(trackerId);
+        issue.setProduct(product);
+        issue.setComponents(new ArrayList<>(components));
+        issue.setSummary(summary);
+        issue.setDescription(description);
+        issue.setAssignee(assignee);
+        issue.setReporter(reporter);
+        issue.setStage(getStage());
+        issue.setStatus(status);
+        issue.setType(type);
+        issue.setReleases(getReleases());
+        issue.setStreamStatus(new HashMap<>(streamStatus));
+        issue.setDependsOn(toURLs(dependsOn));
+        issue.setBlocks(toURLs(blocks));
+        issue.setCreationTime(getCreationTime().orElse(null));
+        issue.setLastUpdated(getLastUpdated().orElse(null));
+        issue.setEstimation(estimation);
+        issue.setComments(new ArrayList<>(comments));
+        if (originalValues == UNMODIFIED)
+            issue.markUnmodified();
+        else if (originalValues != null)
+            issue.setOriginalValues(new EnumMap<>(originalValues));
+        return issue;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public URL getURL() {
+        return toURL(url);
+    }
+
+    public Optional<String> getTrackerId() {
+        return Optional.ofNullable(trackerId);
+    }
+
+    public Optional<String> getProduct() {
+        return Optional.ofNullable(product);
+    }
+
+    /**
+     * @return an unmodifiable list of the issue's components.
+     */
+    public List<String> getComponents() {
+        return components;
+    }
+
+    public Optional<String> getSummary() {
+        return Optional.ofNullable(summary);
+    }
+
+    public Optional<String> getDescription() {
+        return Optional.ofNullable(description);
+    }
+
+    public Optional<User> getAssignee() {
+        return Optional.ofNullable(assignee);
+    }
+
+    public Optional<User> getReporter() {
+        return Optional.ofNullable(reporter);
+    }
+
+    public FlagStatus getStageStatus(Flag flag) {
+        int value = (stage >>> (flag.ordinal() * STAGE_BITS)) & STAGE_MASK;
+        return value == 0 ? FlagStatus.NO_SET : FLAG_STATUSES[value - 1];
+    }
+
+    /**
+     * @return a new Stage containing the issue's flags.
+     */
+    public Stage getStage() {
+        Stage result = new Stage();
+        for (Flag flag : FLAGS) {
+            int value = (stage >>> (flag.ordinal() * STAGE_BITS)) & STAGE_MASK;
+            if (value != 0)
+                result.setStatus(flag, FLAG_STATUSES[value - 1]);
+        }
+        return result;
+    }
+
+    public IssueStatus getStatus() {
+        return status;
+    }
+
+    public IssueType getType() {
+        return type;
+    }
+
+    /**
+     * @return a new list containing copies of the issue's releases, as a {@link Release} is mutable.
+     */
+    public List<Release> getReleases() {
+        List<Release> copies = new ArrayList<>(releases.size());
+        for (Release release : releases)
+            copies.add(new Release(release.getVersion().orElse(null), release.getMilestone().orElse(null)));
+        return copies;
+    }
+
+    /**
+     * @return an unmodifiable map of the issue's stream statuses.
+     */
+    public Map<String, FlagStatus> getStreamStatus() {
+        return streamStatus;
+    }
+
+    /**
+     * @return a new list containing the URLs of the issues this issue depends on.
+     */
+    public List<URL> getDependsOn() {
+        return toURLs(dependsOn);
+    }
+
+    /**
+     * @return a new list containing the URLs of the issues blocked by this issue.
+     */
+    public List<URL> getBlocks() {
+        return toURLs(blocks);
+    }
+
+    public Optional<Date> getCreationTime() {
+        return creationTime == NO_DATE ? Optional.empty() : Optional.of(new Date(creationTime));
+    }
+
+    public Optional<Date> getLastUpdated() {
+        return lastUpdated == NO_DATE ? Optional.empty() : Optional.of(new Date(lastUpdated));
+    }
+
+    public Optional<IssueEstimation> getEstimation() {
+        return Optional.ofNullable(estimation);
+    }
+
+    /**
+     * @return an unmodifiable list of the issue's comments.
+     */
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactIssue{" +
+                "url=" + url +
+                ", trackerId='" + trackerId + '\'' +
+                ", product='" + product + '\'' +
+                ", status=" + status +
+                ", stage=" + getStage() +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        return url.equals(((CompactIssue) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    private static short packStage(Stage stage) {
+        int packed = 0;
+        for (Map.Entry<Flag, FlagStatus> entry : stage.getStateMap().entrySet()) {
+            if (entry.getValue() != null)
+                packed |= (entry.getValue().ordinal() + 1) << (entry.getKey().ordinal() * STAGE_BITS);
+        }
+        return (short) packed;
+    }
+
+    private static String[] toStrings(List<URL> urls) {
+        if (urls.isEmpty())
+            return NO_URLS;
+
+        String[] result = new String[urls.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = urls.get(i).toString();
+        return result;
+    }
+
+    private static List<URL> toURLs(String[] urls) {
+        List<URL> result = new ArrayList<>(urls.length);
+        for (String url : urls)
+            result.add(toURL(url));
+        return result;
+    }
+
+    private static URL toURL(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            // Only reachable if the string was not obtained from a URL
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * De-duplicates the values which are commonly shared across issues, so that each distinct value is held in memory
+     * only once. An interner is thread-safe and retains every value passed to it, so its lifetime should match that of
+     * the dataset it is used with.
+     */
+    public static final class Interner {
+
+        private final ConcurrentMap<Object, Object> values = new ConcurrentHashMap<>();
+
+        /**
+         * @return the number of distinct values held by this interner.
+         */
+        public int size() {
+            return values.size();
+        }
+
+        /**
+         * Remove all of the values held by this interner. Existing snapshots are unaffected.
+         */
+        public void clear() {
+            values.clear();
+        }
+
+        String intern(String value) {
+            return canonical(value);
+        }
+
+        User intern(User value) {
+            if (value == null)
+                return null;
+            // The user's strings are interned first, so that they are shared with users which differ by a single field
+            return canonical(new User(canonical(value.getEmail().orElse(null)), canonical(value.getName().orElse(null))));
+        }
+
+        IssueEstimation intern(IssueEstimation value) {
+            return canonical(value);
+        }
+
+        List<String> internStrings(List<String> list) {
+            if (list.isEmpty())
+                return Collections.emptyList();
+
+            List<String> copy = new ArrayList<>(list.size());
+            for (String value : list)
+                copy.add(canonical(value));
+            return canonical(Collections.unmodifiableList(copy));
+        }
+
+        List<Release> internReleases(List<Release> list) {
+            if (list.isEmpty())
+                return Collections.emptyList();
+
+            // Releases are mutable, so the interned list holds copies which are never exposed
+            List<Release> copy = new ArrayList<>(list.size());
+            for (Release release : list)
+                copy.add(canonical(new Release(canonical(release.getVersion().orElse(null)),
+                        canonical(release.getMilestone().orElse(null)))));
+            return canonical(Collections.unmodifiableList(copy));
+        }
+
+        Map<String, FlagStatus> internStreamStatus(Map<String, FlagStatus> map) {
+            if (map.isEmpty())
+                return Collections.emptyMap();
+
+            Map<String, FlagStatus> copy = new HashMap<>(map.size() * 4 / 3 + 1);
+            map.forEach((stream, status) -> copy.put(canonical(stream), status));
+            return canonical(Collections.unmodifiableMap(copy));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T canonical(T value) {
+            if (value == null)
+                return null;
+
+            Object existing = values.putIfAbsent(value, value);
+            return existing == null ? value : (T) existing;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The issues which can be reached from a root issue by following either its <code>dependsOn</code> or its
+ * <code>blocks</code> links, up to a maximum depth.
+ *
+ * The graph is built breadth first, so that all of the issues at the same depth are retrieved with a single bulk
+ * request, i.e. a graph of depth <i>n</i> requires at most <i>n</i> bulk requests regardless of its size. Each issue is
+ * retrieved at most once, so cycles are only followed as far as the first issue which has already been visited.
+ *
+ * @author Ryan Emerson
+ */
+public class DependencyGraph {
+
+    public enum Direction {
+        DEPENDS_ON, BLOCKS;
+
+        /**
+         * @return the links of <code>issue</code> which are followed in this direction.
+         */
+        public List<URL> getLinks(Issue issue) {
+            return this == DEPENDS_ON ? issue.getDependsOn() : issue.getBlocks();
+        }
+    }
+
+    private final Issue root;
+    private final Direction direction;
+    private final Map<String, Issue> issues = new LinkedHashMap<>();
+    private final Map<String, URL> unresolved = new LinkedHashMap<>();
+
+    private DependencyGraph(Issue root, Direction direction) {
+        this.root = root;
+        this.direction = direction;
+        issues.put(key(root.getURL()), root);
+    }
+
+    /**
+     * Build the dependency graph of <code>root</code>.
+     *
+     * @param root the issue at the root of the graph.
+     * @param depth the maximum number of links between the root and any issue of the graph.
+     * @param direction the links which are followed.
+     * @param bulkRequest retrieves the issues of the given URLs, omitting any which cannot be retrieved.
+     * @return the resulting graph.
+     */
+    public static DependencyGraph build(Issue root, int depth, Direction direction,
+            Function<Collection<URL>, List<Issue>> bulkRequest) {
+        Objects.requireNonNull(root, "root cannot be null");
+        Objects.requireNonNull(direction, "direction cannot be null");
+        Objects.requireNonNull(bulkRequest, "bulkRequest cannot be null");
+        if (depth < 0)
+            throw new IllegalArgumentException("depth cannot be negative");
+
+        DependencyGraph graph = new DependencyGraph(root, direction);
+        Set<String> visited = new HashSet<>(graph.issues.keySet());
+        List<Issue> frontier = Collections.singletonList(root);
+        for (int level = 0; level < depth && !frontier.isEmpty(); level++) {
+            Map<String, URL> requested = new LinkedHashMap<>();
+            for (Issue issue : frontier) {
+                for (URL url : direction.getLinks(issue)) {
+                    if (visited.add(key(url)))
+                        requested.put(key(url), url);
+                }
+            }
+            if (requested.isEmpty())
+                break;
+
+            frontier = new ArrayList<>();
+            for (Issue issue : bulkRequest.apply(requested.values())) {
+                String key = key(issue.getURL());
+                requested.remove(key);
+                visited.add(key);
+                if (graph.issues.putIfAbsent(key, issue) == null)
+                    frontier.add(issue);
+            }
+            graph.unresolved.putAll(requested);
+        }
+        return graph;
+    }
+
+    // URL.equals resolves host names, so URLs are compared by their string representation instead
+    private static String key(URL url) {
+        return url.toExternalForm();
+    }
+
+    public Issue getRoot() {
+        return root;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return every issue of the graph, including the root, in the order in which they were visited.
+     */
+    public Collection<Issue> getIssues() {
+        return Collections.unmodifiableCollection(issues.values());
+    }
+
+    public Optional<Issue> getIssue(URL url) {
+        return Optional.ofNullable(issues.get(key(url)));
+    }
+
+    public boolean contains(URL url) {
+        return issues.containsKey(key(url));
+    }
+
+    /**
+     * @param issue an issue of the graph.
+     * @return the issues of the graph which <code>issue</code> links to in the graph's direction. Links to issues
+     *         which are beyond the graph's depth, or which could not be retrieved, are omitted.
+     */
+    public List<Issue> getLinkedIssues(Issue issue) {
+        List<Issue> linked = new ArrayList<>();
+        for (URL url : direction.getLinks(issue)) {
+            Issue target = issues.get(key(url));
+            if (target != null)
+                linked.add(target);
+        }
+        return linked;
+    }
+
+    /**
+     * @return the URLs of linked issues which were requested but could not be retrieved.
+     */
+    public Collection<URL> getUnresolved() {
+        return Collections.unmodifiableCollection(unresolved.values());
+    }
+
+    public int size() {
+        return issues.size();
+    }
+
+    @Override
+    public String toString() {
+        return "DependencyGraph{" +
+                "root=" + root.getURL() +
+                ", direction=" + direction +
+                ", size=" + issues.size() +
+                ", unresolved=" + unresolved.keySet() +
+                '}';
+    }
+}
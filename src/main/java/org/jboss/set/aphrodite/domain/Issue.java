@@ -24,20 +24,36 @@ package org.jboss.set.aphrodite.domain;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Represents an issue in a issue tracker (bugzilla, jira...)
  *
+ * An issue which has been retrieved from an issue tracker records the original value of each of its updatable
+ * {@link Field}s, so that an update only needs to send the fields which have since been modified. An issue which was
+ * not retrieved from an issue tracker has no original values, so all of its fields are considered modified.
+ *
  * @author egonzalez
  */
 public class Issue {
 
+    /**
+     * The fields of an issue which can be updated at an issue tracker.
+     */
+    public enum Field {
+        PRODUCT, COMPONENTS, SUMMARY, DESCRIPTION, ASSIGNEE, REPORTER, STAGE, STATUS, TYPE, RELEASES, STREAM_STATUS,
+        DEPENDS_ON, BLOCKS, ESTIMATION
+    }
+
     private URL url;
 
     // The unique id of an issue within its issue tracker domain e.g WFLY-5048
@@ -77,6 +93,9 @@ public class Issue {
 
     private List<Comment> comments;
 
+    // The value of each field when the issue was retrieved, or null if modifications are not tracked
+    private Map<Field, Object> originalValues;
+
     public Issue(URL url) {
         if (url == null)
             throw new IllegalArgumentException("Issue URL cannot be null");
@@ -93,6 +112,37 @@ public class Issue {
         this.components = new ArrayList<>();
     }
 
+    /**
+     * Create a copy of an issue which shares no mutable state with it, including its original field values if it is
+     * tracking modifications.
+     *
+     * @param issue the issue to copy.
+     */
+    public Issue(Issue issue) {
+        this(issue.url);
+        this.trackerId = issue.trackerId;
+        this.product = issue.product;
+        this.components.addAll(issue.components);
+        this.summary = issue.summary;
+        this.description = issue.description;
+        this.assignee = issue.assignee;
+        this.reporter = issue.reporter;
+        this.stage.getStateMap().putAll(issue.stage.getStateMap());
+        this.status = issue.status;
+        this.type = issue.type;
+        for (Release release : issue.releases)
+            this.releases.add(new Release(release.getVersion().orElse(null), release.getMilestone().orElse(null)));
+        this.streamStatus.putAll(issue.streamStatus);
+        this.dependsOn.addAll(issue.dependsOn);
+        this.blocks.addAll(issue.blocks);
+        this.creationTime = issue.creationTime == null ? null : new Date(issue.creationTime.getTime());
+        this.lastUpdated = issue.lastUpdated == null ? null : new Date(issue.lastUpdated.getTime());
+        this.estimation = issue.estimation;
+        this.comments.addAll(issue.comments);
+        // The original values are unmodifiable copies, so can be shared
+        this.originalValues = issue.originalValues == null ? null : new EnumMap<>(issue.originalValues);
+    }
+
     public URL getURL() {
         return url;
     }
@@ -249,6 +299,132 @@ public class Issue {
         this.comments = comments;
     }
 
+    /**
+     * Record the current value of every updatable field as its original value, so that subsequent changes are reported
+     * by {@link #getModifiedFields()}. Issue trackers call this once an issue has been retrieved, and again once an
+     * update has been applied.
+     */
+    public void markUnmodified() {
+        Map<Field, Object> values = new EnumMap<>(Field.class);
+        for (Field field : Field.values())
+            values.put(field, getFieldValue(field));
+        originalValues = values;
+    }
+
+    // The original values are unmodifiable copies, so can be shared with a CompactIssue
+    Map<Field, Object> getOriginalValues() {
+        return originalValues;
+    }
+
+    void setOriginalValues(Map<Field, Object> originalValues) {
+        this.originalValues = originalValues;
+    }
+
+    /**
+     * @return true if the original values of this issue's fields are known, otherwise false.
+     */
+    public boolean isTrackingModifications() {
+        return originalValues != null;
+    }
+
+    /**
+     * @return the fields whose value differs from their original value, or all fields if modifications are not tracked.
+     */
+    public Set<Field> getModifiedFields() {
+        if (originalValues == null)
+            return EnumSet.allOf(Field.class);
+
+        Set<Field> modified = EnumSet.noneOf(Field.class);
+        for (Field field : Field.values()) {
+            if (!Objects.equals(originalValues.get(field), getFieldValue(field)))
+                modified.add(field);
+        }
+        return modified;
+    }
+
+    public boolean isModified(Field field) {
+        return originalValues == null || !Objects.equals(originalValues.get(field), getFieldValue(field));
+    }
+
+    /**
+     * Return a copy of the field's value when this issue was retrieved. Collections are returned as unmodifiable copies,
+     * and the original value of {@link Field#STAGE} is its state map.
+     *
+     * @return the original value of the field, or an empty optional if it was not set or modifications are not tracked.
+     */
+    public Optional<Object> getOriginalValue(Field field) {
+        return originalValues == null ? Optional.empty() : Optional.ofNullable(originalValues.get(field));
+    }
+
+    /**
+     * @return the stream statuses which differ from their original value, or all stream statuses if modifications are
+     *         not tracked.
+     */
+    public Map<String, FlagStatus> getModifiedStreamStatus() {
+        return getModifiedEntries(Field.STREAM_STATUS, streamStatus);
+    }
+
+    /**
+     * @return the stage flags whose status differs from its original value, or all stage flags if modifications are
+     *         not tracked.
+     */
+    public Map<Flag, FlagStatus> getModifiedStageStatus() {
+        return getModifiedEntries(Field.STAGE, stage.getStateMap());
+    }
+
+    private <K> Map<K, FlagStatus> getModifiedEntries(Field field, Map<K, FlagStatus> current) {
+        if (originalValues == null)
+            return current;
+
+        @SuppressWarnings("unchecked")
+        Map<K, FlagStatus> original = (Map<K, FlagStatus>) originalValues.get(field);
+        Map<K, FlagStatus> modified = new HashMap<>();
+        current.forEach((key, status) -> {
+            if (status != original.get(key))
+                modified.put(key, status);
+        });
+        return modified;
+    }
+
+    // Mutable values are copied, so that in-place modifications, e.g. getComponents().add(...), are detected
+    private Object getFieldValue(Field field) {
+        switch (field) {
+            case PRODUCT:
+                return product;
+            case COMPONENTS:
+                return Collections.unmodifiableList(new ArrayList<>(components));
+            case SUMMARY:
+                return summary;
+            case DESCRIPTION:
+                return description;
+            case ASSIGNEE:
+                return assignee;
+            case REPORTER:
+                return reporter;
+            case STAGE:
+                return Collections.unmodifiableMap(new EnumMap<>(stage.getStateMap()));
+            case STATUS:
+                return status;
+            case TYPE:
+                return type;
+            case RELEASES:
+                List<Release> copies = new ArrayList<>();
+                for (Release release : releases)
+                    copies.add(new Release(release.getVersion().orElse(null), release.getMilestone().orElse(null)));
+                return Collections.unmodifiableList(copies);
+            case STREAM_STATUS:
+                return Collections.unmodifiableMap(new HashMap<>(streamStatus));
+            case DEPENDS_ON:
+                return Collections.unmodifiableList(new ArrayList<>(dependsOn));
+            case BLOCKS:
+                return Collections.unmodifiableList(new ArrayList<>(blocks));
+            case ESTIMATION:
+                return estimation;
+            default:
+                throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+
     @Override
     public String toString() {
         return "Issue{" +
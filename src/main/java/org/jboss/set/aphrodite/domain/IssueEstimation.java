@@ -51,6 +51,24 @@ public class IssueEstimation {
         return hoursWorked;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        IssueEstimation that = (IssueEstimation) o;
+        return Double.compare(that.initialEstimate, initialEstimate) == 0 &&
+                Double.compare(that.hoursWorked, hoursWorked) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        long temp = Double.doubleToLongBits(initialEstimate);
+        int result = (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(hoursWorked);
+        return 31 * result + (int) (temp ^ (temp >>> 32));
+    }
+
     @Override
     public String toString() {
         return "IssueEstimation{" +
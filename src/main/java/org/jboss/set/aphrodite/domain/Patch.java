@@ -49,6 +49,16 @@ public class Patch {
 
     }
 
+    /**
+     * Create a copy of a patch which shares no mutable state with it.
+     *
+     * @param patch the patch to copy.
+     */
+    public Patch(Patch patch) {
+        this(patch.id, patch.url, patch.repository == null ? null : new Repository(patch.repository), patch.codebase,
+                patch.state, patch.title, patch.body);
+    }
+
     public String getId() {
         return id;
     }
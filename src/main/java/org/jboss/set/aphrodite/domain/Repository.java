@@ -36,6 +36,16 @@ public class Repository {
         this.url = url;
     }
 
+    /**
+     * Create a copy of a repository which shares no mutable state with it.
+     *
+     * @param repository the repository to copy.
+     */
+    public Repository(Repository repository) {
+        this(repository.url);
+        this.codebases.addAll(repository.codebases);
+    }
+
     public URL getURL() {
         return url;
     }
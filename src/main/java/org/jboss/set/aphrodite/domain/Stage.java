@@ -22,7 +22,7 @@
 
 package org.jboss.set.aphrodite.domain;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 public class Stage {
@@ -30,7 +30,7 @@ public class Stage {
     private final Map<Flag, FlagStatus> state;
 
     public Stage() {
-        this.state = new HashMap<>();
+        this.state = new EnumMap<>(Flag.class);
     }
 
     public FlagStatus getStatus(Flag flag) {
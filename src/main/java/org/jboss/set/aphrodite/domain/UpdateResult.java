@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of updating a single <code>Issue</code> as part of a bulk update.
+ *
+ * @author Ryan Emerson
+ */
+public class UpdateResult {
+
+    private final Issue issue;
+    private final Exception error;
+
+    private UpdateResult(Issue issue, Exception error) {
+        this.issue = Objects.requireNonNull(issue, "issue cannot be null");
+        this.error = error;
+    }
+
+    public static UpdateResult success(Issue issue) {
+        return new UpdateResult(issue, null);
+    }
+
+    public static UpdateResult failure(Issue issue, Exception error) {
+        return new UpdateResult(issue, Objects.requireNonNull(error, "error cannot be null"));
+    }
+
+    public Issue getIssue() {
+        return issue;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return the exception which caused the update to fail, or an empty optional if the update succeeded.
+     */
+    public Optional<Exception> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateResult{" +
+                "issue=" + issue.getURL() +
+                ", error=" + error +
+                '}';
+    }
+}
@@ -22,12 +22,14 @@
 
 package org.jboss.set.aphrodite.issue.trackers.bugzilla;
 
-import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.API_URL;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_BODY;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_FIELDS;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_ID;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_IS_PRIVATE;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_NEW_SINCE;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_TIME;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENTS;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.ESTIMATED_TIME;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.FILTER_SHARER_ID;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.ID;
@@ -51,37 +53,45 @@ import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.STA
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.TARGET_RELEASE;
 import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.UPDATE_FIELDS;
 
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.xmlrpc.XmlRpcException;
-import org.apache.xmlrpc.client.XmlRpcClient;
-import org.apache.xmlrpc.client.XmlRpcClientConfig;
-import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.ExpiringCache;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.FlagStatus;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.IssueStatus;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.domain.UpdateResult;
 import org.jboss.set.aphrodite.spi.AphroditeException;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteServiceException;
 
 /**
  * @author Ryan Emerson
@@ -90,18 +100,44 @@ public class BugzillaClient {
 
     private static final Log LOG = LogFactory.getLog(BugzillaClient.class);
 
+    // Bugzilla comments can't be deleted, but their privacy can be changed, so cached comments are periodically refreshed
+    private static final long COMMENT_CACHE_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Bugs whose last comments are within this period of each other always share a comments request
+    static final long COMMENT_GROUP_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final ErrorClassifier ERROR_CLASSIFIER = ErrorClassifier.forStatusCode(BugzillaClient::getStatusCode);
+
     static final Pattern ID_PARAM_PATTERN = Pattern.compile("id=([^&]+)");
     static final Pattern FILTER_NAME_PARAM_PATTERN = Pattern.compile("namedcmd=([^&]+)");
     static final Pattern SHARER_ID_PARAM_PATTERN = Pattern.compile("sharer_id=([^&]+)");
 
     private final ExecutorService executorService;
+    private final RemoteCallTracker remoteCalls;
     private final IssueWrapper WRAPPER = new IssueWrapper();
     private final URL baseURL;
+    private final BugzillaTransport transport;
     private final Map<String, Object> loginDetails;
+    private final ExpiringCache<String, CommentHistory> commentCache =
+            new ExpiringCache<>("bugzilla-comments", COMMENT_CACHE_TTL_MILLIS);
+
+    public BugzillaClient(URL baseURL, String login, String password, ExecutorService executorService) throws RemoteServiceException {
+        this(baseURL, login, password, executorService, new RemoteCallTracker("bugzilla", baseURL.getHost(), null));
+    }
+
+    public BugzillaClient(URL baseURL, String login, String password, ExecutorService executorService,
+            RemoteCallTracker remoteCalls) throws RemoteServiceException {
+        this(baseURL, baseURL, login, password, executorService, remoteCalls, BugzillaTransport.Type.XMLRPC);
+    }
 
-    public BugzillaClient(URL baseURL, String login, String password, ExecutorService executorService) throws IllegalStateException {
+    /**
+     * @param connectionURL the url which the transport connects to in place of the <code>baseURL</code>, e.g. that
+     * of an <code>ExchangeProxy</code>.
+     */
+    BugzillaClient(URL baseURL, URL connectionURL, String login, String password, ExecutorService executorService,
+            RemoteCallTracker remoteCalls, BugzillaTransport.Type transportType) throws RemoteServiceException {
         this.executorService = executorService;
+        this.remoteCalls = remoteCalls;
         this.baseURL = baseURL;
+        this.transport = transportType.create(connectionURL);
 
         Map<String, String> params = new HashMap<>();
         if (login != null)
@@ -111,7 +147,7 @@ public class BugzillaClient {
         loginDetails = Collections.unmodifiableMap(params);
 
         // Check that the provided login details are correct - Fail fast.
-        runCommand(METHOD_USER_LOGIN, params);
+        executeRequest(XMLRPC.RPC_STRUCT, METHOD_USER_LOGIN, params);
     }
 
     public Issue getIssue(String trackerId) throws NotFoundException {
@@ -120,18 +156,39 @@ public class BugzillaClient {
         params.put(ISSUE_IDS, trackerId);
         params.put(RESULT_PERMISSIVE_SEARCH, true);
 
-        Map<String, ?> resultMap = executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_BUG, params);
-        Object[] bugs = (Object[]) resultMap.get(RESULT_BUGS);
-        if (bugs.length == 1) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> results = (Map<String, Object>) bugs[0];
-            return WRAPPER.bugzillaBugToIssue(results, baseURL);
+        List<Issue> issues = streamIssues(METHOD_GET_BUG, params);
+        if (issues.size() == 1) {
+            return issues.get(0);
         } else {
             Utils.logWarnMessage(LOG, "Zero or more than one bug found with id: " + trackerId);
         }
         throw new NotFoundException("No issues found with id: " + trackerId);
     }
 
+    /**
+     * Retrieve multiple issues and their comments with a single <code>Bug.get</code> and a single
+     * <code>Bug.comments</code> request.
+     *
+     * @param trackerIds the ids of the issues to retrieve.
+     * @return the issues which exist, indexed by their id.
+     */
+    public Map<String, Issue> getIssuesWithComments(Collection<String> trackerIds) {
+        Map<String, Object> params = new HashMap<>(loginDetails);
+        params.put(RESULT_INCLUDE_FIELDS, RESULT_FIELDS);
+        params.put(ISSUE_IDS, trackerIds.toArray());
+        params.put(RESULT_PERMISSIVE_SEARCH, true);
+
+        Map<String, Issue> issues = new HashMap<>();
+        for (Issue issue : streamIssues(METHOD_GET_BUG, params))
+            issues.put(issue.getTrackerId().get(), issue);
+
+        if (!issues.isEmpty()) {
+            Map<String, List<Comment>> comments = getCommentsForIssues(issues);
+            issues.forEach((id, issue) -> issue.setComments(comments.getOrDefault(id, new ArrayList<>())));
+        }
+        return issues;
+    }
+
     public List<Issue> getIssues(Collection<URL> urls) {
         List<String> ids = new ArrayList<>();
         for (URL url : urls) {
@@ -148,16 +205,7 @@ public class BugzillaClient {
         params.put(ISSUE_IDS, ids.toArray());
         params.put(RESULT_PERMISSIVE_SEARCH, true);
 
-        Map<String, ?> resultMap = executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_BUG, params);
-        Object[] bugs = (Object[]) resultMap.get(RESULT_BUGS);
-
-        List<Issue> issues = new ArrayList<>();
-        for (Object bugObject : bugs) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> bug = (Map<String, Object>) bugObject;
-            issues.add(WRAPPER.bugzillaBugToIssue(bug, baseURL));
-        }
-        return issues;
+        return streamIssues(METHOD_GET_BUG, params);
     }
 
     public Issue getIssueWithComments(URL url) throws NotFoundException {
@@ -190,68 +238,136 @@ public class BugzillaClient {
     }
 
     public Map<String, List<Comment>> getCommentsForIssues(Map<String, Issue> issues) {
-        if (issues == null || issues.isEmpty()) {
-            Collections.emptyMap();
-        }
+        if (issues == null || issues.isEmpty())
+            return Collections.emptyMap();
 
-        Map<String, Object> params = new HashMap<>(loginDetails);
-        params.put(ISSUE_IDS, extractIssueIdsList(issues.values()));
-        params.put(RESULT_INCLUDE_FIELDS, COMMENT_FIELDS);
+        return getComments(extractIssueIdsList(issues.values()));
+    }
 
-        return buildMapOfCommentsIndexedByBugId(executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_COMMENT, params));
+    private Object[] extractIssueIdsList(Collection<Issue> collection) {
+        return collection.stream()
+                .filter(Objects::nonNull)
+                .map(issue -> issue.getTrackerId().get())
+                .collect(Collectors.toList())
+                .toArray();
     }
 
-    private Map<String, List<Comment>> buildMapOfCommentsIndexedByBugId(Map<String, Object> results) {
-        Map<String, List<Comment>> commentsMap = new HashMap<>();
-        if (results != null && !results.isEmpty() && results.containsKey(RESULT_BUGS)) {
-            for (Map<String, Object> comments : XMLRPC.iterable(XMLRPC.RPC_STRUCT, results.values())) {
-                for (Entry<String, Object> comment : comments.entrySet()) {
-                    final String bugId = comment.getKey();
-                    commentsMap.put(
-                            bugId,
-                            buildCommentsForBug(
-                                    XMLRPC.cast(XMLRPC.RPC_ARRAY,
-                                            XMLRPC.cast(XMLRPC.RPC_STRUCT, comment.getValue()).get("comments"))));
-                }
-            }
-        }
-        return commentsMap;
+    /**
+     * Discard the cached comments of the bug, so that they are retrieved in full by the next request.
+     */
+    public void invalidateComments(String trackerId) {
+        commentCache.invalidate(trackerId);
     }
 
-    private List<Comment> buildCommentsForBug(final Object[] commentObjArray) {
-        List<Comment> comments = new ArrayList<>(commentObjArray.length);
-        for (Object o : commentObjArray) {
-            comments.add(buildComment(XMLRPC.cast(XMLRPC.RPC_STRUCT, o)));
+    public List<Comment> getCommentsForIssue(String trackerId) {
+        return getComments(new Object[] {trackerId}).getOrDefault(trackerId, new ArrayList<>());
+    }
+
+    /**
+     * Retrieve the comments of each bug. The comments of bugs which have been retrieved before are cached, so that
+     * only the comments which have been added since are requested, via <code>new_since</code>, and appended to the
+     * cached comments. Cached bugs are grouped by the time of their last comment, see
+     * {@link #groupByCommentTime(Map, long)}, with one request per group. The comments of all other bugs, including
+     * cached bugs without a comment time, are retrieved in full by a separate request.
+     */
+    private Map<String, List<Comment>> getComments(Object[] trackerIds) {
+        Map<String, CommentHistory> uncached = new HashMap<>();
+        Map<String, CommentHistory> cached = new HashMap<>();
+        for (Object id : trackerIds) {
+            String trackerId = id.toString();
+            Optional<CommentHistory> history = commentCache.getIfPresent(trackerId);
+            if (history.isPresent() && history.get().lastCommentTime > 0)
+                cached.put(trackerId, history.get());
+            else
+                uncached.put(trackerId, history.orElse(null));
         }
+
+        Map<String, List<Comment>> comments = new HashMap<>();
+        if (!uncached.isEmpty())
+            appendComments(uncached, requestComments(uncached.keySet(), null), comments);
+
+        groupByCommentTime(cached, System.currentTimeMillis()).forEach((oldest, group) -> {
+            // new_since only returns comments which are strictly newer, so request from a second earlier to include
+            // any comments which were added within the same second as the last cached comment
+            appendComments(group, requestComments(group.keySet(), new Date(oldest - 1000)), comments);
+        });
         return comments;
     }
 
-    private Comment buildComment(Map<String, Object> comment) {
-        String id = String.valueOf(comment.get(COMMENT_ID));
-        String body = (String) comment.get(COMMENT_BODY);
-        boolean isPrivate = (Boolean) comment.get(COMMENT_IS_PRIVATE);
-        return new Comment(id, body, isPrivate);
+    /**
+     * Group bugs by the time of their last comment, so that a single <code>new_since</code> can be used for each
+     * group. A group starts with the oldest remaining last comment, and includes every bug whose last comment was
+     * made within half of that comment's age, or within {@link #COMMENT_GROUP_WINDOW_MILLIS}, of it. So no bug
+     * refetches comments from a period longer than the period whose comments it needs, whilst the number of groups
+     * only grows logarithmically with the spread of the bugs' comment times.
+     *
+     * @return the groups of bugs, keyed by the time of the oldest last comment in the group.
+     */
+    static Map<Long, Map<String, CommentHistory>> groupByCommentTime(Map<String, CommentHistory> histories, long now) {
+        List<Entry<String, CommentHistory>> entries = new ArrayList<>(histories.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastCommentTime));
+
+        Map<Long, Map<String, CommentHistory>> groups = new LinkedHashMap<>();
+        Map<String, CommentHistory> group = null;
+        long limit = Long.MIN_VALUE;
+        for (Entry<String, CommentHistory> entry : entries) {
+            long time = entry.getValue().lastCommentTime;
+            if (group == null || time > limit) {
+                group = new HashMap<>();
+                groups.put(time, group);
+                limit = time + Math.max(COMMENT_GROUP_WINDOW_MILLIS, (now - time) / 2);
+            }
+            group.put(entry.getKey(), entry.getValue());
+        }
+        return groups;
     }
 
-    private Object[] extractIssueIdsList(Collection<Issue> collection) {
-        return collection.stream()
-                .filter(Objects::nonNull)
-                .map(issue -> issue.getTrackerId().get())
-                .collect(Collectors.toList())
-                .toArray();
+    /**
+     * Append the new comments of each bug to its history, caching the result. A bug without a history is only
+     * included if it was returned by Bugzilla.
+     */
+    private void appendComments(Map<String, CommentHistory> histories,
+            Map<String, List<Map<String, Object>>> newComments, Map<String, List<Comment>> comments) {
+        histories.forEach((trackerId, history) -> {
+            List<Map<String, Object>> added = newComments.get(trackerId);
+            if (history == null && added == null)
+                return;
+
+            CommentHistory updated = (history == null ? CommentHistory.EMPTY : history)
+                    .append(added == null ? Collections.emptyList() : added);
+            if (updated != history)
+                commentCache.put(trackerId, updated);
+            comments.put(trackerId, new ArrayList<>(updated.comments));
+        });
     }
 
-    public List<Comment> getCommentsForIssue(String trackerId) {
+    private Map<String, List<Map<String, Object>>> requestComments(Collection<String> trackerIds, Date newSince) {
         Map<String, Object> params = new HashMap<>(loginDetails);
-        params.put(ISSUE_IDS, trackerId);
+        params.put(ISSUE_IDS, trackerIds.toArray());
         params.put(RESULT_INCLUDE_FIELDS, COMMENT_FIELDS);
-        Map<String, ?> results = executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_COMMENT, params);
+        if (newSince != null)
+            params.put(COMMENT_NEW_SINCE, newSince);
 
-        if (results != null && !results.isEmpty() && results.containsKey(RESULT_BUGS)) {
-            Map<String, Object> issues = XMLRPC.cast(XMLRPC.RPC_STRUCT, results.get(RESULT_BUGS));
-            return getCommentList(XMLRPC.cast(XMLRPC.RPC_STRUCT, issues.get(trackerId)));
+        Map<String, List<Map<String, Object>>> commentsByBug = new HashMap<>();
+        Map<String, ?> results = executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_COMMENT, params);
+        if (results != null && results.containsKey(RESULT_BUGS)) {
+            Map<String, Object> bugs = XMLRPC.cast(XMLRPC.RPC_STRUCT, results.get(RESULT_BUGS));
+            for (Entry<String, Object> bug : bugs.entrySet()) {
+                Object[] bugComments = XMLRPC.cast(XMLRPC.RPC_ARRAY, XMLRPC.cast(XMLRPC.RPC_STRUCT, bug.getValue()).get(COMMENTS));
+                List<Map<String, Object>> list = new ArrayList<>(bugComments.length);
+                for (Map<String, Object> comment : XMLRPC.iterable(XMLRPC.RPC_STRUCT, bugComments))
+                    list.add(comment);
+                commentsByBug.put(bug.getKey(), list);
+            }
         }
-        return new ArrayList<>();
+        return commentsByBug;
+    }
+
+    private static Comment buildComment(Map<String, Object> comment) {
+        String id = String.valueOf(comment.get(COMMENT_ID));
+        String body = (String) comment.get(COMMENT_BODY);
+        boolean isPrivate = (Boolean) comment.get(COMMENT_IS_PRIVATE);
+        return new Comment(id, body, isPrivate);
     }
 
     public List<Issue> searchIssuesByFilter(URL filterUrl) throws NotFoundException {
@@ -281,37 +397,226 @@ public class BugzillaClient {
     }
 
     private List<Issue> searchIssues(Map<String, Object> queryMap) {
-        List<Issue> issueList = new ArrayList<>(0);
-        Map<String, ?> resultMap = executeRequest(XMLRPC.RPC_STRUCT, METHOD_SEARCH, queryMap);
-        if (resultMap != null && !resultMap.isEmpty()) {
-            Map<String, Issue> issues = fetchAllIssues(XMLRPC.cast(XMLRPC.RPC_ARRAY, resultMap.get(RESULT_BUGS)));
-            Map<String, List<Comment>> comments = getCommentsForIssues(issues);
+        List<Issue> issues = streamIssues(METHOD_SEARCH, queryMap);
+        if (!issues.isEmpty()) {
+            Map<String, List<Comment>> comments = getComments(extractIssueIdsList(issues));
+            for (Issue issue : issues)
+                issue.setComments(comments.getOrDefault(issue.getTrackerId().get(), new ArrayList<>()));
+        }
+        return issues;
+    }
 
-            issueList = issues.keySet().stream()
-                    .filter(Objects::nonNull)
-                    .map(id -> associateCommentsToIssue(issues.get(id), comments))
-                    .collect(Collectors.toList());
+    /**
+     * Execute a <code>Bug.get</code> or <code>Bug.search</code> request, converting each bug to an <code>Issue</code>
+     * as soon as it has been read from the response, so that the response is never held in memory in full. The issues
+     * are collected afresh by each attempt, so that a retried request does not return duplicates.
+     */
+    private List<Issue> streamIssues(String method, Map<String, ?> params) {
+        try {
+            return remoteCalls.call(method, transport.getEndpoint(), () -> {
+                List<Issue> issues = new ArrayList<>();
+                transport.stream(method, params, RESULT_BUGS, bug -> issues.add(WRAPPER.bugzillaBugToIssue(bug, baseURL)));
+                return issues;
+            });
+        } catch (BugzillaTransportException e) {
+            Utils.logException(LOG, e);
+            throw new RemoteServiceException("Bugzilla request '" + method + "' failed: " + e.getMessage(), e);
         }
-        return issueList;
     }
 
-    private Issue associateCommentsToIssue(Issue issue, Map<String, List<Comment>> comments) {
-        issue.setComments(comments.get(issue.getTrackerId().get()));
-        return issue;
+    /**
+     * Update the issue at Bugzilla. If the issue was retrieved from Bugzilla only its modified fields are sent, and no
+     * request is made if none of its fields have been modified.
+     */
+    public boolean updateIssue(Issue issue) throws AphroditeException {
+        if (issue.isTrackingModifications() && issue.getModifiedFields().isEmpty())
+            return true;
+
+        Map<String, Object> params = WRAPPER.issueToBugzillaBug(issue, loginDetails);
+        runCommand(METHOD_UPDATE_BUG, params);
+        issue.markUnmodified();
+        return true;
+    }
+
+    /**
+     * Update multiple issues with the minimum number of <code>Bug.update</code> requests. Only the fields which have
+     * been modified since an issue was retrieved from Bugzilla are sent. The current state of any issues which were
+     * not retrieved from Bugzilla is fetched with a single <code>Bug.get</code>, so that only the fields which differ
+     * from it are sent. Issues which require identical changes are then updated together by a single
+     * <code>Bug.update</code> that specifies all of their ids. If a grouped update is rejected, each of its issues is retried
+     * individually so that the failure can be attributed to the offending issue.
+     *
+     * @param issues the issues to update.
+     * @return the result of each update, in the iteration order of <code>issues</code>. An issue whose bug has
+     *         already been included in this update fails, rather than overwriting the earlier changes.
+     */
+    public List<UpdateResult> updateIssues(Collection<Issue> issues) {
+        // Results are stored by position, so that equal issues each receive their own result
+        List<Issue> requested = new ArrayList<>(issues);
+        UpdateResult[] results = new UpdateResult[requested.size()];
+        Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        Map<String, Integer> indicesById = new HashMap<>();
+        for (int i = 0; i < requested.size(); i++) {
+            Issue issue = requested.get(i);
+            try {
+                String trackerId = issue.getTrackerId().orElse(Utils.getParamaterFromUrl(ID_PARAM_PATTERN, issue.getURL()));
+                if (indicesById.containsKey(trackerId))
+                    throw new AphroditeException("Bug " + trackerId + " is included more than once in a single update");
+
+                Map<String, Object> params = WRAPPER.issueToBugzillaBug(issue, Collections.emptyMap());
+                params.remove(ISSUE_IDS);
+                updates.put(trackerId, params);
+                indicesById.put(trackerId, i);
+            } catch (NotFoundException | AphroditeException | IllegalArgumentException e) {
+                results[i] = UpdateResult.failure(issue, e);
+            }
+        }
+        Map<String, Issue> issuesById = indicesById.entrySet().stream()
+                .collect(Collectors.toMap(Entry::getKey, entry -> requested.get(entry.getValue())));
+
+        List<String> untracked = updates.keySet().stream()
+                .filter(id -> !issuesById.get(id).isTrackingModifications())
+                .collect(Collectors.toList());
+        Map<String, Map<String, Object>> currentState = getCurrentState(untracked);
+        Map<Map<String, Object>, List<String>> groups = new LinkedHashMap<>();
+        Map<Map<String, Object>, Map<String, Object>> groupChanges = new HashMap<>();
+        for (Entry<String, Map<String, Object>> update : updates.entrySet()) {
+            Map<String, Object> changes = getChangedFields(update.getValue(), currentState.get(update.getKey()));
+            if (changes.isEmpty()) {
+                results[indicesById.get(update.getKey())] = UpdateResult.success(issuesById.get(update.getKey()));
+                continue;
+            }
+            Map<String, Object> key = comparableParameters(changes);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(update.getKey());
+            groupChanges.putIfAbsent(key, changes);
+        }
+
+        List<List<String>> groupIds = new ArrayList<>(groups.values());
+        List<CompletableFuture<List<UpdateResult>>> requests = groups.entrySet().stream()
+                .map(group -> CompletableFuture.supplyAsync(
+                        () -> updateGroup(groupChanges.get(group.getKey()), group.getValue(), issuesById), executorService))
+                .collect(Collectors.toList());
+        for (int g = 0; g < requests.size(); g++) {
+            List<String> trackerIds = groupIds.get(g);
+            List<UpdateResult> groupResults = requests.get(g).join();
+            for (int i = 0; i < trackerIds.size(); i++)
+                results[indicesById.get(trackerIds.get(i))] = groupResults.get(i);
+        }
+        return Arrays.asList(results);
     }
 
-    private Map<String, Issue> fetchAllIssues(final Object[] bugs) {
-        Map<String, Issue> issues = new HashMap<>();
-        for (Map<String, Object> struct : XMLRPC.iterable(XMLRPC.RPC_STRUCT, bugs)) {
-            Issue issue = WRAPPER.bugzillaBugToIssue(struct, baseURL);
-            issues.put(issue.getTrackerId().get(), issue);
+    /**
+     * @return the result of updating each bug, in the order of <code>trackerIds</code>.
+     */
+    private List<UpdateResult> updateGroup(Map<String, Object> changes, List<String> trackerIds, Map<String, Issue> issuesById) {
+        try {
+            updateBugs(trackerIds, changes);
+            return trackerIds.stream()
+                    .map(id -> updated(issuesById.get(id)))
+                    .collect(Collectors.toList());
+        } catch (RemoteServiceException e) {
+            if (trackerIds.size() == 1)
+                return Collections.singletonList(UpdateResult.failure(issuesById.get(trackerIds.get(0)), e));
+
+            Utils.logWarnMessage(LOG, "Grouped update of bugs " + trackerIds + " failed, updating each bug individually: "
+                    + e.getMessage());
         }
-        return issues;
+
+        List<UpdateResult> results = new ArrayList<>();
+        for (String trackerId : trackerIds) {
+            Issue issue = issuesById.get(trackerId);
+            try {
+                updateBugs(Collections.singletonList(trackerId), changes);
+                results.add(updated(issue));
+            } catch (RemoteServiceException e) {
+                results.add(UpdateResult.failure(issue, e));
+            }
+        }
+        return results;
     }
 
-    public boolean updateIssue(Issue issue) throws AphroditeException {
-        Map<String, Object> params = WRAPPER.issueToBugzillaBug(issue, loginDetails);
-        return runCommand(METHOD_UPDATE_BUG, params);
+    private UpdateResult updated(Issue issue) {
+        issue.markUnmodified();
+        return UpdateResult.success(issue);
+    }
+
+    private void updateBugs(List<String> trackerIds, Map<String, Object> changes) {
+        Map<String, Object> params = new HashMap<>(loginDetails);
+        params.putAll(changes);
+        params.put(ISSUE_IDS, trackerIds.toArray());
+        runCommand(METHOD_UPDATE_BUG, params);
+    }
+
+    /**
+     * Retrieve the update parameters which represent the current state of each bug. Bugs which cannot be retrieved,
+     * or if the request fails, are absent from the returned map and so are updated with all of their fields.
+     */
+    private Map<String, Map<String, Object>> getCurrentState(Collection<String> trackerIds) {
+        Map<String, Map<String, Object>> currentState = new HashMap<>();
+        if (trackerIds.isEmpty())
+            return currentState;
+
+        Map<String, Object> params = new HashMap<>(loginDetails);
+        params.put(RESULT_INCLUDE_FIELDS, RESULT_FIELDS);
+        params.put(ISSUE_IDS, trackerIds.toArray());
+        params.put(RESULT_PERMISSIVE_SEARCH, true);
+        try {
+            Map<String, ?> resultMap = executeRequest(XMLRPC.RPC_STRUCT, METHOD_GET_BUG, params);
+            for (Map<String, Object> bug : XMLRPC.iterable(XMLRPC.RPC_STRUCT, (Object[]) resultMap.get(RESULT_BUGS))) {
+                Issue issue = WRAPPER.bugzillaBugToIssue(bug, baseURL);
+                currentState.put(issue.getTrackerId().get(), WRAPPER.currentStateToBugzillaBug(issue));
+            }
+        } catch (RemoteServiceException | IllegalArgumentException e) {
+            Utils.logWarnMessage(LOG, "Unable to retrieve the current state of bugs " + trackerIds
+                    + ", all fields will be updated: " + e.getMessage());
+        }
+        return currentState;
+    }
+
+    /**
+     * @return the parameters in <code>update</code> which differ from <code>current</code>, or all of the parameters
+     *         if the current state is unknown.
+     */
+    static Map<String, Object> getChangedFields(Map<String, Object> update, Map<String, Object> current) {
+        if (current == null)
+            return update;
+
+        Map<String, Object> changes = new HashMap<>();
+        for (Entry<String, Object> entry : update.entrySet()) {
+            Object currentValue = current.get(entry.getKey());
+            if (!comparableValue(entry.getValue()).equals(comparableValue(currentValue)))
+                changes.put(entry.getKey(), entry.getValue());
+        }
+        return changes;
+    }
+
+    /**
+     * Convert update parameters to a form with value-based equality, so that they can be compared and grouped.
+     * Multi-valued fields, such as components and flags, are compared irrespective of their order.
+     */
+    static Map<String, Object> comparableParameters(Map<String, Object> params) {
+        Map<String, Object> comparable = new HashMap<>();
+        params.forEach((key, value) -> comparable.put(key, comparableValue(value)));
+        return comparable;
+    }
+
+    private static Object comparableValue(Object value) {
+        if (value == null)
+            return Collections.emptySet();
+        if (value instanceof Object[])
+            value = Arrays.asList((Object[]) value);
+        if (value instanceof Collection) {
+            Set<Object> values = new HashSet<>();
+            for (Object element : (Collection<?>) value)
+                values.add(comparableValue(element));
+            return values;
+        }
+        if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            return comparableParameters(map);
+        }
+        return value;
     }
 
     public boolean updateTargetRelease(int id, final String... targetRelease) {
@@ -375,6 +680,13 @@ public class BugzillaClient {
     }
 
     public boolean updateFlags(int ids, String name, FlagStatus status) {
+        return updateFlags(Collections.singletonList(ids), name, status);
+    }
+
+    /**
+     * Set the status of a flag on multiple bugs with a single <code>Bug.update</code> request.
+     */
+    public boolean updateFlags(Collection<Integer> ids, String name, FlagStatus status) {
         String flagStatus = status.getSymbol();
         Map<String, String> updates = new HashMap<>();
         updates.put(NAME, name);
@@ -382,23 +694,13 @@ public class BugzillaClient {
         Object[] updateArray = { updates };
 
         Map<String, Object> params = new HashMap<>(loginDetails);
-        params.put(ISSUE_IDS, ids);
+        params.put(ISSUE_IDS, ids.toArray());
         params.put(UPDATE_FIELDS, updateArray);
         params.put(RESULT_PERMISSIVE_SEARCH, true);
 
         return runCommand(METHOD_UPDATE_BUG, params);
     }
 
-    private List<Comment> getCommentList(Map<String, Object> issues) {
-        List<Comment> issueComments = new ArrayList<>();
-        for (Object[] comments : XMLRPC.iterable(XMLRPC.RPC_ARRAY, issues.values())) {
-            for (Map<String, Object> comment : XMLRPC.iterable(XMLRPC.RPC_STRUCT, comments)) {
-                issueComments.add(buildComment(comment));
-            }
-        }
-        return issueComments;
-    }
-
     private boolean updateField(int bugzillaId, String field, Object content) {
         Map<String, Object> params = new HashMap<>(loginDetails);
         params.put(ID, bugzillaId);
@@ -406,43 +708,78 @@ public class BugzillaClient {
         return runCommand(METHOD_UPDATE_BUG, params);
     }
 
-    private <T> T executeRequest(final XMLRPC<T> type, String method, Object... params) {
+    private <T> T executeRequest(final XMLRPC<T> type, String method, Map<String, ?> params) {
         try {
-            return type.cast(getRpcClient().execute(method, params));
-        } catch (XmlRpcException e) {
+            return type.cast(remoteCalls.call(method, transport.getEndpoint(), () -> transport.execute(method, params)));
+        } catch (BugzillaTransportException e) {
             Utils.logException(LOG, e);
-            throw new RuntimeException(e); // TODO improve exception handling
+            throw new RemoteServiceException("Bugzilla request '" + method + "' failed: " + e.getMessage(), e);
         }
     }
 
-    private XmlRpcClient getRpcClient() {
-        String apiURL = baseURL + API_URL;
-        XmlRpcClient rpcClient;
-        rpcClient = new XmlRpcClient();
-
+    // Commands modify bugs, so are not repeated unless Bugzilla did not process the failed request
+    private boolean runCommand(String method, Map<String, ?> params) {
         try {
-            URL url = new URL(apiURL);
-            rpcClient.setConfig(getClientConfig(url));
-        } catch (MalformedURLException e) {
-            Utils.logException(LOG, e);
-            throw new RuntimeException(e);
+            remoteCalls.callNonIdempotent(method, transport.getEndpoint(), () -> transport.execute(method, params));
+            return true;
+        } catch (BugzillaTransportException e) {
+            throw new RemoteServiceException("Bugzilla request '" + method + "' failed: " + e.getMessage(), e);
         }
-        return rpcClient;
     }
 
-    private XmlRpcClientConfig getClientConfig(URL apiURL) {
-        XmlRpcClientConfigImpl config;
-        config = new XmlRpcClientConfigImpl();
-        config.setServerURL(apiURL);
-        return config;
+    /**
+     * A fault means that Bugzilla processed and rejected the request, so only transport failures and responses which
+     * indicate that Bugzilla is temporarily unavailable are retryable.
+     */
+    static boolean isRetryable(Throwable error) {
+        return ERROR_CLASSIFIER.isRetryable(error);
     }
 
-    private boolean runCommand(String method, Object... params) {
-        try {
-            getRpcClient().execute(method, params);
-            return true;
-        } catch (XmlRpcException e) {
-            throw new IllegalStateException(e);
+    private static OptionalInt getStatusCode(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof BugzillaTransportException && ((BugzillaTransportException) t).getStatusCode().isPresent())
+                return ((BugzillaTransportException) t).getStatusCode();
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * The comments of a bug, ordered by id, and the id and creation time of the most recent comment.
+     */
+    static class CommentHistory {
+        static final CommentHistory EMPTY = new CommentHistory(Collections.emptyList(), -1, 0);
+
+        final List<Comment> comments;
+        final int lastCommentId;
+        final long lastCommentTime;
+
+        CommentHistory(List<Comment> comments, int lastCommentId, long lastCommentTime) {
+            this.comments = comments;
+            this.lastCommentId = lastCommentId;
+            this.lastCommentTime = lastCommentTime;
+        }
+
+        /**
+         * @return a history which also contains any of the comments that are newer than this history's last comment,
+         *         or this history if there are no such comments.
+         */
+        CommentHistory append(List<Map<String, Object>> newComments) {
+            List<Comment> comments = new ArrayList<>(this.comments);
+            int lastId = lastCommentId;
+            long lastTime = lastCommentTime;
+            for (Map<String, Object> comment : newComments) {
+                int id = (Integer) comment.get(COMMENT_ID);
+                if (id <= lastCommentId)
+                    continue;
+
+                comments.add(buildComment(comment));
+                lastId = Math.max(lastId, id);
+                Date time = (Date) comment.get(COMMENT_TIME);
+                if (time != null)
+                    lastTime = Math.max(lastTime, time.getTime());
+            }
+            return lastId == lastCommentId ? this :
+                    new CommentHistory(Collections.unmodifiableList(comments), lastId, lastTime);
         }
     }
 
@@ -31,6 +31,7 @@ import java.util.Optional;
  */
 class BugzillaFields {
     static final String API_URL = "xmlrpc.cgi";
+    static final String JSON_API_URL = "jsonrpc.cgi";
     static final String ID_QUERY = "show_bug.cgi?id=";
 
     static final String LOGIN = "Bugzilla_login";
@@ -44,6 +45,9 @@ class BugzillaFields {
     static final String COMMENT_IS_PRIVATE = "is_private";
     static final String COMMENT_BODY = "text";
     static final String COMMENT_BUG_ID = "bug_id";
+    static final String COMMENT_TIME = "creation_time";
+    static final String COMMENT_NEW_SINCE = "new_since";
+    static final String COMMENTS = "comments";
     static final String COMPONENT = "component";
     static final String CREATION_TIME = "creation_time";
     static final String DEPENDS_ON = "depends_on";
@@ -96,7 +100,7 @@ class BugzillaFields {
             DESCRIPTION, ESTIMATED_TIME, FLAGS, HOURS_WORKED, ID, ISSUE_TYPE, PRODUCT, REPORTER, STATUS, TARGET_MILESTONE,
             TARGET_RELEASE, VERSION };
 
-    static final Object[] COMMENT_FIELDS = { COMMENT_BUG_ID, COMMENT_ID, COMMENT_BODY, COMMENT_IS_PRIVATE };
+    static final Object[] COMMENT_FIELDS = { COMMENT_BUG_ID, COMMENT_ID, COMMENT_BODY, COMMENT_IS_PRIVATE, COMMENT_TIME };
 
     static Optional<Flag> getAphroditeFlag(String bzFlag) {
         switch (bzFlag) {
@@ -24,19 +24,26 @@ package org.jboss.set.aphrodite.issue.trackers.bugzilla;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.RequestBatcher;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.IssueTrackerConfig;
 import org.jboss.set.aphrodite.config.TrackerType;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.domain.UpdateResult;
 import org.jboss.set.aphrodite.issue.trackers.common.AbstractIssueTracker;
 import org.jboss.set.aphrodite.spi.AphroditeException;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteServiceException;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,6 +57,7 @@ public class BugzillaIssueTracker extends AbstractIssueTracker {
     private static final Log LOG = LogFactory.getLog(BugzillaIssueTracker.class);
 
     private BugzillaClient bzClient;
+    private RequestBatcher<String, Issue> issueBatcher;
 
     public BugzillaIssueTracker() {
         super(TrackerType.BUGZILLA);
@@ -62,20 +70,83 @@ public class BugzillaIssueTracker extends AbstractIssueTracker {
             return false;
 
         try {
-            bzClient = new BugzillaClient(baseUrl, config.getUsername(), config.getPassword(), executorService);
-        } catch (IllegalStateException e) {
+            BugzillaTransport.Type transport = config.getProperty(BugzillaTransport.TRANSPORT_PROPERTY)
+                    .map(BugzillaTransport.Type::fromString)
+                    .orElse(BugzillaTransport.Type.XMLRPC);
+            bzClient = new BugzillaClient(baseUrl, getConnectionUrl(baseUrl), config.getUsername(),
+                    config.getPassword(), executorService, remoteCalls, transport);
+        } catch (RemoteServiceException | IllegalArgumentException | IOException e) {
             Utils.logException(LOG, e);
             return false;
         }
+        issueBatcher = createBatcher("getIssue", bzClient::getIssuesWithComments);
         return true;
     }
 
+    @Override
+    protected ErrorClassifier getErrorClassifier() {
+        return BugzillaClient.ERROR_CLASSIFIER;
+    }
+
     @Override
     public Issue getIssue(URL url) throws NotFoundException {
         checkHost(url);
+        if (issueBatcher != null) {
+            String trackerId = Utils.getParamaterFromUrl(BugzillaClient.ID_PARAM_PATTERN, url);
+            Issue issue = awaitBatch(issueBatcher.submit(trackerId), trackerId);
+            if (issue != null)
+                return issue;
+            // The bulk request did not return the issue, e.g. as it was requested by alias, so request it individually
+        }
         return bzClient.getIssueWithComments(url);
     }
 
+    /**
+     * Discards the cached comments of the bug, as comments which have been edited or made private since they were
+     * cached are not returned by the incremental comment requests.
+     */
+    @Override
+    public void invalidate(URL url) {
+        if (bzClient == null || !urlExists(url))
+            return;
+
+        try {
+            bzClient.invalidateComments(Utils.getParamaterFromUrl(BugzillaClient.ID_PARAM_PATTERN, url));
+        } catch (NotFoundException e) {
+            Utils.logException(LOG, "Unable to invalidate Issue at " + url + ":", e);
+        }
+    }
+
+    /**
+     * Retrieves the linked issues and their comments, like {@link #getIssue(URL)}, with a single <code>Bug.get</code>
+     * and a single <code>Bug.comments</code> request.
+     */
+    @Override
+    protected Map<String, Issue> getLinkedIssues(Collection<URL> urls) {
+        Map<String, List<URL>> links = new LinkedHashMap<>();
+        for (URL url : urls) {
+            try {
+                String trackerId = Utils.getParamaterFromUrl(BugzillaClient.ID_PARAM_PATTERN, url);
+                links.computeIfAbsent(trackerId, id -> new ArrayList<>()).add(url);
+            } catch (NotFoundException e) {
+                Utils.logException(LOG, "Unable to retrieve Issue at " + url + ":", e);
+            }
+        }
+        if (links.isEmpty())
+            return new HashMap<>();
+
+        Map<String, Issue> issues = bzClient.getIssuesWithComments(links.keySet());
+        Map<String, Issue> linkedIssues = new HashMap<>();
+        links.forEach((trackerId, trackerUrls) -> {
+            Issue issue = issues.get(trackerId);
+            if (issue == null)
+                Utils.logWarnMessage(LOG, "Unable to retrieve Issue with id: " + trackerId);
+            else
+                trackerUrls.forEach(url -> linkedIssues.put(url.toExternalForm(), issue));
+        });
+        return linkedIssues;
+    }
+
     @Override
     public List<Issue> getIssues(Collection<URL> urls) {
         urls = filterUrlsByHost(urls);
@@ -102,6 +173,15 @@ public class BugzillaIssueTracker extends AbstractIssueTracker {
         return bzClient.updateIssue(issue);
     }
 
+    /**
+     * Issues which require identical changes are updated by a single <code>Bug.update</code> request, see
+     * {@link BugzillaClient#updateIssues(Collection)}.
+     */
+    @Override
+    public List<UpdateResult> updateIssues(Collection<Issue> issues) {
+        return updateIssuesByHost(issues, bzClient::updateIssues);
+    }
+
     @Override
     public void addCommentToIssue(Issue issue, Comment comment) throws NotFoundException {
         super.addCommentToIssue(issue, comment);
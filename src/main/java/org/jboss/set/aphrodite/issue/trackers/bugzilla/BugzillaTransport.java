@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Executes Bugzilla web service methods, e.g. <code>Bug.get</code>, over a particular wire protocol.
+ *
+ * Regardless of the protocol, results use the XML-RPC representation expected by {@link IssueWrapper}: structs are
+ * returned as <code>Map&lt;String, Object&gt;</code>, arrays as <code>Object[]</code>, and date-times as
+ * <code>java.util.Date</code>.
+ *
+ * @author Ryan Emerson
+ */
+interface BugzillaTransport {
+
+    /**
+     * The property of an <code>IssueTrackerConfig</code> which selects the transport used by a Bugzilla tracker.
+     */
+    String TRANSPORT_PROPERTY = "bugzilla.transport";
+
+    enum Type {
+        XMLRPC, JSONRPC;
+
+        static Type fromString(String type) {
+            try {
+                return valueOf(type.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + TRANSPORT_PROPERTY + " '" + type + "', expected one of "
+                        + Arrays.toString(values()).toLowerCase(Locale.ENGLISH), e);
+            }
+        }
+
+        BugzillaTransport create(URL baseURL) {
+            return this == JSONRPC ? new JsonRpcBugzillaTransport(baseURL) : new XmlRpcBugzillaTransport(baseURL);
+        }
+    }
+
+    /**
+     * @return the URL of the web service endpoint.
+     */
+    String getEndpoint();
+
+    /**
+     * @param method the web service method to execute.
+     * @param params the method's parameters.
+     * @return the method's result.
+     * @throws BugzillaTransportException if the request could not be sent, or Bugzilla returned an error.
+     */
+    Object execute(String method, Map<String, ?> params) throws BugzillaTransportException;
+
+    /**
+     * Execute a method whose result is a struct, passing each struct of the result's array member
+     * <code>arrayName</code> to <code>consumer</code> as soon as it has been read, so that the array is never held in
+     * memory in full. The result's other members are discarded.
+     *
+     * @param method the web service method to execute.
+     * @param params the method's parameters.
+     * @param arrayName the name of the result's array member, e.g. <code>bugs</code>.
+     * @param consumer the consumer of each element of the array.
+     * @throws BugzillaTransportException if the request could not be sent, or Bugzilla returned an error.
+     */
+    void stream(String method, Map<String, ?> params, String arrayName, Consumer<Map<String, Object>> consumer)
+            throws BugzillaTransportException;
+}
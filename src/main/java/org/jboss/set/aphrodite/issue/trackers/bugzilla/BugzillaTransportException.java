@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import java.util.OptionalInt;
+
+/**
+ * Thrown by a {@link BugzillaTransport} when a request fails. A failure has a HTTP status code if Bugzilla could not
+ * process the request, whereas a fault returned by Bugzilla, e.g. an invalid bug id, has no status code.
+ *
+ * @author Ryan Emerson
+ */
+class BugzillaTransportException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    BugzillaTransportException(String message, Throwable cause) {
+        this(message, cause, -1);
+    }
+
+    BugzillaTransportException(String message, Throwable cause, int statusCode) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    OptionalInt getStatusCode() {
+        return statusCode < 0 ? OptionalInt.empty() : OptionalInt.of(statusCode);
+    }
+}
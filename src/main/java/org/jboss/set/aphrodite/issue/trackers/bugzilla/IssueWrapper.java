@@ -51,11 +51,14 @@ import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.get
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -63,6 +66,7 @@ import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.domain.Flag;
 import org.jboss.set.aphrodite.domain.FlagStatus;
 import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.Issue.Field;
 import org.jboss.set.aphrodite.domain.IssueEstimation;
 import org.jboss.set.aphrodite.domain.IssueStatus;
 import org.jboss.set.aphrodite.domain.IssueType;
@@ -116,6 +120,7 @@ class IssueWrapper {
 
         checkIsNullEstimation(bug,issue);
         extractStageAndStreams(bug, issue);
+        issue.markUnmodified();
         return issue;
     }
 
@@ -130,32 +135,64 @@ class IssueWrapper {
 
     }
 
+    /**
+     * Convert an issue to the parameters of a <code>Bug.update</code> request. If the issue was retrieved from
+     * Bugzilla, only the fields which have since been modified are included.
+     */
     Map<String, Object> issueToBugzillaBug(Issue issue, Map<String, Object> loginDetails) throws AphroditeException {
         checkUnsupportedUpdateFields(issue);
         checkUnsupportedIssueStatus(issue);
+        return issueToParameters(issue, loginDetails, issue.getModifiedFields(), issue.getModifiedStreamStatus(),
+                issue.getModifiedStageStatus());
+    }
+
+    /**
+     * Convert an issue which has been retrieved from Bugzilla to the parameters which would update a bug to its
+     * current state, without logging warnings for fields which cannot be updated.
+     */
+    Map<String, Object> currentStateToBugzillaBug(Issue issue) {
+        return issueToParameters(issue, Collections.emptyMap(), EnumSet.allOf(Field.class), issue.getStreamStatus(),
+                issue.getStage().getStateMap());
+    }
 
+    private Map<String, Object> issueToParameters(Issue issue, Map<String, Object> loginDetails, Set<Field> fields,
+            Map<String, FlagStatus> streams, Map<Flag, FlagStatus> stateMap) {
         Map<String, Object> params = new HashMap<>(loginDetails);
         issue.getTrackerId().ifPresent(trackerId -> params.put(ISSUE_IDS, trackerId));
-        issue.getSummary().ifPresent(summary -> params.put(SUMMARY, summary));
-        issue.getProduct().ifPresent(product -> params.put(PRODUCT, product));
-        params.put(COMPONENT, issue.getComponents().toArray(new String[issue.getComponents().size()]));
-        issue.getAssignee().ifPresent(assignee -> params.put(ASSIGNEE, assignee.getEmail().orElseThrow(this::nullUserEmail)));
-        issue.getReporter().ifPresent(reporter -> params.put(REPORTER, reporter.getEmail().orElseThrow(this::nullUserEmail)));
+        if (fields.contains(Field.SUMMARY))
+            issue.getSummary().ifPresent(summary -> params.put(SUMMARY, summary));
+        if (fields.contains(Field.PRODUCT))
+            issue.getProduct().ifPresent(product -> params.put(PRODUCT, product));
+        if (fields.contains(Field.COMPONENTS))
+            params.put(COMPONENT, issue.getComponents().toArray(new String[issue.getComponents().size()]));
+        if (fields.contains(Field.ASSIGNEE))
+            issue.getAssignee().ifPresent(assignee -> params.put(ASSIGNEE, assignee.getEmail().orElseThrow(this::nullUserEmail)));
+        if (fields.contains(Field.REPORTER))
+            issue.getReporter().ifPresent(reporter -> params.put(REPORTER, reporter.getEmail().orElseThrow(this::nullUserEmail)));
+
+        if (fields.contains(Field.ESTIMATION)) {
+            issue.getEstimation().ifPresent(tracking -> {
+                params.put(HOURS_WORKED, tracking.getHoursWorked());
+                params.put(ESTIMATED_TIME, tracking.getInitialEstimate());
+            });
+        }
 
-        issue.getEstimation().ifPresent(tracking -> {
-            params.put(HOURS_WORKED, tracking.getHoursWorked());
-            params.put(ESTIMATED_TIME, tracking.getInitialEstimate());
-        });
+        if (fields.contains(Field.STATUS))
+            params.put(STATUS, issue.getStatus().toString());
 
-        params.put(STATUS, issue.getStatus().toString());
-        params.put(FLAGS, getStageAndStreamsMap(issue.getStreamStatus(), issue.getStage().getStateMap()));
+        List<Map<String, Object>> flags = getStageAndStreamsMap(streams, stateMap);
+        if (!flags.isEmpty() || !issue.isTrackingModifications())
+            params.put(FLAGS, flags);
 
-        if (issue.getType() != IssueType.UNDEFINED)
+        if (fields.contains(Field.TYPE) && issue.getType() != IssueType.UNDEFINED)
             params.put(ISSUE_TYPE, issue.getType().toString());
 
-        addReleaseToUpdate(issue, params);
-        addURLCollectionToParameters(issue.getDependsOn(), DEPENDS_ON, params);
-        addURLCollectionToParameters(issue.getBlocks(), BLOCKS, params);
+        if (fields.contains(Field.RELEASES))
+            addReleaseToUpdate(issue, params);
+        if (fields.contains(Field.DEPENDS_ON))
+            addURLCollectionToParameters(issue.getDependsOn(), DEPENDS_ON, params);
+        if (fields.contains(Field.BLOCKS))
+            addURLCollectionToParameters(issue.getBlocks(), BLOCKS, params);
         return params;
     }
 
@@ -164,10 +201,10 @@ class IssueWrapper {
     }
 
     private void checkUnsupportedUpdateFields(Issue issue) {
-        if (issue.getReporter().isPresent() && LOG.isWarnEnabled())
+        if (issue.getReporter().isPresent() && issue.isModified(Field.REPORTER) && LOG.isWarnEnabled())
             LOG.warn("Bugzilla does not support updating the reporter field, field ignored.");
 
-        if (issue.getStatus() == IssueStatus.UNDEFINED && LOG.isWarnEnabled())
+        if (issue.getStatus() == IssueStatus.UNDEFINED && issue.isModified(Field.STATUS) && LOG.isWarnEnabled())
             LOG.warn("IssueStatus.UNDEFINED is ignored when updating a Bugzilla operation.");
     }
 
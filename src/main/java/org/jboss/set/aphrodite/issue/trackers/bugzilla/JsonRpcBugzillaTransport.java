@@ -0,0 +1,329 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.COMMENT_TIME;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.CREATION_TIME;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.ESTIMATED_TIME;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.HOURS_WORKED;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.JSON_API_URL;
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.LAST_UPDATED;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+
+import org.jboss.set.aphrodite.common.CountingInputStream;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.config.HttpConfig;
+
+/**
+ * Executes Bugzilla methods via the JSON-RPC endpoint, <code>jsonrpc.cgi</code>, which accepts the same methods and
+ * parameters as the XML-RPC endpoint. Responses are requested gzip compressed, and are read with a streaming parser
+ * directly into the XML-RPC representation of their result, without first building a JSON object tree.
+ *
+ * JSON has no date-time or floating point types, so the fields which XML-RPC returns as a <code>Date</code> or a
+ * <code>Double</code> are converted by name.
+ *
+ * @author Ryan Emerson
+ */
+class JsonRpcBugzillaTransport implements BugzillaTransport {
+
+    private static final Set<String> DATE_FIELDS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(CREATION_TIME, LAST_UPDATED, COMMENT_TIME, "time")));
+    private static final Set<String> DOUBLE_FIELDS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(ESTIMATED_TIME, HOURS_WORKED, "remaining_time")));
+    // The format of XML-RPC date-times, which older versions of Bugzilla also use for JSON-RPC
+    private static final DateTimeFormatter XMLRPC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HH:mm:ss");
+
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
+    private final URL endpoint;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    JsonRpcBugzillaTransport(URL baseURL) {
+        try {
+            this.endpoint = new URL(baseURL + JSON_API_URL);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public String getEndpoint() {
+        return endpoint.toString();
+    }
+
+    @Override
+    public Object execute(String method, Map<String, ?> params) throws BugzillaTransportException {
+        return send(method, params, null, null);
+    }
+
+    @Override
+    public void stream(String method, Map<String, ?> params, String arrayName, Consumer<Map<String, Object>> consumer)
+            throws BugzillaTransportException {
+        send(method, params, arrayName, consumer);
+    }
+
+    private Object send(String method, Map<String, ?> params, String arrayName, Consumer<Map<String, Object>> consumer)
+            throws BugzillaTransportException {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+            connection.setConnectTimeout(HttpConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HttpConfig.DEFAULT_READ_TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+
+            try (OutputStream out = connection.getOutputStream()) {
+                writeRequest(out, method, params);
+            }
+
+            int status = connection.getResponseCode();
+            RemoteCallTracker.recordRetryAfter(connection.getHeaderField("Retry-After"));
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body == null)
+                throw new BugzillaTransportException("HTTP " + status + " returned by " + endpoint, null, status);
+
+            Map<String, Object> response;
+            try (InputStream in = decode(connection, new CountingInputStream(body))) {
+                response = readResponse(in, arrayName, consumer);
+            } catch (JsonException e) {
+                if (status != HttpURLConnection.HTTP_OK)
+                    throw new BugzillaTransportException("HTTP " + status + " returned by " + endpoint, e, status);
+                throw new BugzillaTransportException("Invalid JSON-RPC response: " + e.getMessage(), e);
+            }
+            return getResult(response, status);
+        } catch (IOException e) {
+            throw new BugzillaTransportException(e.getMessage(), e);
+        }
+    }
+
+    private Object getResult(Map<String, Object> response, int status) throws BugzillaTransportException {
+        Object error = response.get("error");
+        if (error instanceof Map) {
+            Map<?, ?> fault = (Map<?, ?>) error;
+            String message = "Bugzilla fault " + fault.get("code") + ": " + fault.get("message");
+            // Faults are usually returned with a 200 status, otherwise the status determines whether to retry
+            throw status == HttpURLConnection.HTTP_OK ? new BugzillaTransportException(message, null)
+                    : new BugzillaTransportException(message, null, status);
+        }
+        if (status != HttpURLConnection.HTTP_OK)
+            throw new BugzillaTransportException("HTTP " + status + " returned by " + endpoint, null, status);
+        return response.get("result");
+    }
+
+    private void writeRequest(OutputStream out, String method, Map<String, ?> params) {
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(out)) {
+            generator.writeStartObject()
+                    .write("method", method)
+                    .write("id", requestIds.incrementAndGet())
+                    .writeStartArray("params");
+            writeValue(generator, null, params);
+            generator.writeEnd()
+                    .writeEnd();
+        }
+    }
+
+    private static InputStream decode(HttpURLConnection connection, InputStream in) throws IOException {
+        return "gzip".equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(in) : in;
+    }
+
+    static Map<String, Object> readResponse(InputStream in) {
+        return readResponse(in, null, null);
+    }
+
+    /**
+     * If <code>consumer</code> is not null, each object of the result's array member <code>arrayName</code> is passed
+     * to it as soon as it has been read, and the rest of the result is discarded.
+     */
+    static Map<String, Object> readResponse(InputStream in, String arrayName, Consumer<Map<String, Object>> consumer) {
+        try (JsonParser parser = PARSER_FACTORY.createParser(in)) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT)
+                throw new JsonException("A JSON-RPC response must be an object");
+            if (consumer == null)
+                return readObject(parser);
+
+            Map<String, Object> response = new HashMap<>();
+            while (parser.next() != JsonParser.Event.END_OBJECT) {
+                String name = parser.getString();
+                JsonParser.Event event = parser.next();
+                if (name.equals("result") && event == JsonParser.Event.START_OBJECT) {
+                    streamObject(parser, arrayName, consumer);
+                    continue;
+                }
+                Object value = readValue(parser, event, name);
+                if (value != null)
+                    response.put(name, value);
+            }
+            return response;
+        }
+    }
+
+    private static void streamObject(JsonParser parser, String arrayName, Consumer<Map<String, Object>> consumer) {
+        while (parser.next() != JsonParser.Event.END_OBJECT) {
+            String name = parser.getString();
+            JsonParser.Event event = parser.next();
+            if (!name.equals(arrayName) || event != JsonParser.Event.START_ARRAY) {
+                readValue(parser, event, name);
+                continue;
+            }
+
+            while ((event = parser.next()) != JsonParser.Event.END_ARRAY) {
+                if (event != JsonParser.Event.START_OBJECT)
+                    throw new JsonException("Expected an object in array '" + arrayName + "'");
+                consumer.accept(readObject(parser));
+            }
+        }
+    }
+
+    private static Object readValue(JsonParser parser, JsonParser.Event event, String name) {
+        switch (event) {
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                return readArray(parser, name);
+            case VALUE_STRING:
+                return DATE_FIELDS.contains(name) ? parseDate(parser.getString()) : parser.getString();
+            case VALUE_NUMBER:
+                return readNumber(parser, name);
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonException("Unexpected JSON event: " + event);
+        }
+    }
+
+    // XML-RPC has no null values, so null members are omitted
+    private static Map<String, Object> readObject(JsonParser parser) {
+        Map<String, Object> object = new HashMap<>();
+        while (parser.next() != JsonParser.Event.END_OBJECT) {
+            String name = parser.getString();
+            Object value = readValue(parser, parser.next(), name);
+            if (value != null)
+                object.put(name, value);
+        }
+        return object;
+    }
+
+    // Elements inherit the array's name, so that e.g. an array of date-times is converted
+    private static Object[] readArray(JsonParser parser, String name) {
+        List<Object> array = new ArrayList<>();
+        JsonParser.Event event;
+        while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+            array.add(readValue(parser, event, name));
+        return array.toArray();
+    }
+
+    private static Object readNumber(JsonParser parser, String name) {
+        if (DOUBLE_FIELDS.contains(name) || !parser.isIntegralNumber())
+            return parser.getBigDecimal().doubleValue();
+
+        long value = parser.getLong();
+        if (value == (int) value)
+            return (int) value;
+        return value;
+    }
+
+    static Date parseDate(String value) {
+        try {
+            return Date.from(OffsetDateTime.parse(value).toInstant());
+        } catch (DateTimeParseException e) {
+            return Date.from(LocalDateTime.parse(value, XMLRPC_DATE_TIME).toInstant(ZoneOffset.UTC));
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, String name, Object value) {
+        if (value instanceof Map) {
+            startObject(generator, name);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                writeValue(generator, entry.getKey().toString(), entry.getValue());
+            generator.writeEnd();
+        } else if (value instanceof Object[] || value instanceof Collection) {
+            startArray(generator, name);
+            for (Object element : value instanceof Object[] ? Arrays.asList((Object[]) value) : (Collection<?>) value)
+                writeValue(generator, null, element);
+            generator.writeEnd();
+        } else if (value == null) {
+            if (name == null) generator.writeNull(); else generator.writeNull(name);
+        } else if (value instanceof Boolean) {
+            if (name == null) generator.write((Boolean) value); else generator.write(name, (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            long number = ((Number) value).longValue();
+            if (name == null) generator.write(number); else generator.write(name, number);
+        } else if (value instanceof Number) {
+            BigDecimal number = new BigDecimal(value.toString());
+            if (name == null) generator.write(number); else generator.write(name, number);
+        } else {
+            String string = value instanceof Date
+                    ? ((Date) value).toInstant().truncatedTo(ChronoUnit.SECONDS).toString()
+                    : value.toString();
+            if (name == null) generator.write(string); else generator.write(name, string);
+        }
+    }
+
+    private static void startObject(JsonGenerator generator, String name) {
+        if (name == null) generator.writeStartObject(); else generator.writeStartObject(name);
+    }
+
+    private static void startArray(JsonGenerator generator, String name) {
+        if (name == null) generator.writeStartArray(); else generator.writeStartArray(name);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaFields.API_URL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+import org.apache.xmlrpc.client.XmlRpcClientRequestImpl;
+import org.apache.xmlrpc.client.XmlRpcHttpTransportException;
+import org.apache.xmlrpc.client.XmlRpcSunHttpTransport;
+import org.apache.xmlrpc.client.XmlRpcSunHttpTransportFactory;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.jboss.set.aphrodite.common.CountingInputStream;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.config.HttpConfig;
+
+/**
+ * Executes Bugzilla methods via the XML-RPC endpoint, <code>xmlrpc.cgi</code>.
+ *
+ * @author Ryan Emerson
+ */
+class XmlRpcBugzillaTransport implements BugzillaTransport {
+
+    private final String endpoint;
+    private final XmlRpcClient rpcClient;
+
+    XmlRpcBugzillaTransport(URL baseURL) {
+        this.endpoint = baseURL + API_URL;
+
+        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        try {
+            config.setServerURL(new URL(endpoint));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+        rpcClient = new XmlRpcClient();
+        rpcClient.setConfig(config);
+        rpcClient.setTransportFactory(new CountingTransportFactory(rpcClient));
+    }
+
+    @Override
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public Object execute(String method, Map<String, ?> params) throws BugzillaTransportException {
+        try {
+            return rpcClient.execute(method, new Object[] {params});
+        } catch (XmlRpcException e) {
+            throw toTransportException(e);
+        }
+    }
+
+    @Override
+    public void stream(String method, Map<String, ?> params, String arrayName, Consumer<Map<String, Object>> consumer)
+            throws BugzillaTransportException {
+        XmlRpcRequest request = new XmlRpcClientRequestImpl(rpcClient.getClientConfig(), method, new Object[] {params});
+        try {
+            new StreamingTransport(rpcClient, arrayName, consumer).sendRequest(request);
+        } catch (XmlRpcException e) {
+            throw toTransportException(e);
+        }
+    }
+
+    private static BugzillaTransportException toTransportException(XmlRpcException e) {
+        if (e instanceof XmlRpcHttpTransportException)
+            return new BugzillaTransportException(e.getMessage(), e, ((XmlRpcHttpTransportException) e).getStatusCode());
+        return new BugzillaTransportException(e.getMessage(), e);
+    }
+
+    private static class CountingTransportFactory extends XmlRpcSunHttpTransportFactory {
+        CountingTransportFactory(XmlRpcClient client) {
+            super(client);
+        }
+
+        @Override
+        public XmlRpcTransport getTransport() {
+            return new CountingTransport(getClient());
+        }
+    }
+
+    /**
+     * Reports the size and any Retry-After header of each XML-RPC response to the <code>RemoteCallTracker</code> of
+     * the calling thread. The client's connection and reply timeouts are ignored by <code>XmlRpcSunHttpTransport</code>,
+     * so the default timeouts are applied to each connection instead.
+     */
+    private static class CountingTransport extends XmlRpcSunHttpTransport {
+        CountingTransport(XmlRpcClient client) {
+            super(client);
+        }
+
+        @Override
+        protected URLConnection newURLConnection(URL url) throws IOException {
+            URLConnection connection = super.newURLConnection(url);
+            connection.setConnectTimeout(HttpConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HttpConfig.DEFAULT_READ_TIMEOUT_MILLIS);
+            return connection;
+        }
+
+        @Override
+        protected InputStream getInputStream() throws XmlRpcException {
+            RemoteCallTracker.recordRetryAfter(getURLConnection().getHeaderField("Retry-After"));
+            return new CountingInputStream(super.getInputStream());
+        }
+    }
+
+    /**
+     * Reads the response with an <code>XmlRpcResponseReader</code> instead of the client's parser, which would build
+     * the complete result before returning it.
+     */
+    private static class StreamingTransport extends CountingTransport {
+        private final String arrayName;
+        private final Consumer<Map<String, Object>> consumer;
+
+        StreamingTransport(XmlRpcClient client, String arrayName, Consumer<Map<String, Object>> consumer) {
+            super(client);
+            this.arrayName = arrayName;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected Object readResponse(XmlRpcStreamRequestConfig config, InputStream in) throws XmlRpcException {
+            new XmlRpcResponseReader(config.getTimeZone()).read(in, arrayName, consumer);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.util.XmlRpcDateTimeDateFormat;
+
+/**
+ * A StAX reader of XML-RPC method responses whose result is a struct, which passes each struct of one of the result's
+ * array members to a consumer as soon as it has been read. Unlike the SAX parser of the XML-RPC client, which builds
+ * the complete result before returning it, at most one element of the array is held in memory at a time.
+ *
+ * Values are read into the same types as those produced by the XML-RPC client. Any other members of the result are
+ * read and discarded.
+ *
+ * @author Ryan Emerson
+ */
+class XmlRpcResponseReader {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final XmlRpcDateTimeDateFormat dateFormat;
+
+    XmlRpcResponseReader(TimeZone timeZone) {
+        this.dateFormat = new XmlRpcDateTimeDateFormat() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected TimeZone getTimeZone() {
+                return timeZone;
+            }
+        };
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * @param in the XML-RPC method response.
+     * @param arrayName the name of the result's array member whose elements are streamed.
+     * @param consumer the consumer of each element of the array.
+     * @throws XmlRpcException if the response is a fault, or is not a valid XML-RPC response.
+     */
+    void read(InputStream in, String arrayName, Consumer<Map<String, Object>> consumer) throws XmlRpcException {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            reader.nextTag();
+            requireElement(reader, "methodResponse");
+            reader.nextTag();
+            if ("fault".equals(reader.getLocalName()))
+                throw readFault(reader);
+
+            requireElement(reader, "params");
+            reader.nextTag();
+            requireElement(reader, "param");
+            reader.nextTag();
+            requireElement(reader, "value");
+            reader.nextTag();
+            requireElement(reader, "struct");
+            readStreamedStruct(reader, arrayName, consumer);
+        } catch (XMLStreamException | ParseException | IllegalArgumentException e) {
+            throw new XmlRpcException("Invalid XML-RPC response: " + e.getMessage(), e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    private void readStreamedStruct(XMLStreamReader reader, String arrayName, Consumer<Map<String, Object>> consumer)
+            throws XMLStreamException, ParseException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            requireElement(reader, "member");
+            String name = readMemberName(reader);
+            if (!name.equals(arrayName)) {
+                readValue(reader);
+                reader.nextTag();
+                continue;
+            }
+
+            reader.nextTag();
+            requireElement(reader, "array");
+            reader.nextTag();
+            requireElement(reader, "data");
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                Object element = readValue(reader);
+                if (!(element instanceof Map))
+                    throw new XMLStreamException("Expected a struct in array '" + arrayName + "'", reader.getLocation());
+
+                @SuppressWarnings("unchecked")
+                Map<String, Object> struct = (Map<String, Object>) element;
+                consumer.accept(struct);
+            }
+            reader.nextTag(); // </array>
+            reader.nextTag(); // </value>
+            reader.nextTag(); // </member>
+        }
+    }
+
+    private XmlRpcException readFault(XMLStreamReader reader) throws XMLStreamException, ParseException {
+        reader.nextTag();
+        Object fault = readValue(reader);
+        if (!(fault instanceof Map))
+            return new XmlRpcException("Invalid XML-RPC fault");
+
+        Map<?, ?> struct = (Map<?, ?>) fault;
+        Object code = struct.get("faultCode");
+        return new XmlRpcException(code instanceof Integer ? (Integer) code : 0, String.valueOf(struct.get("faultString")));
+    }
+
+    // Positioned on <member>, leaves the reader positioned on the member's <value>
+    private String readMemberName(XMLStreamReader reader) throws XMLStreamException {
+        reader.nextTag();
+        requireElement(reader, "name");
+        String name = reader.getElementText();
+        reader.nextTag();
+        requireElement(reader, "value");
+        return name;
+    }
+
+    // Positioned on <value>, leaves the reader positioned on </value>
+    private Object readValue(XMLStreamReader reader) throws XMLStreamException, ParseException {
+        StringBuilder text = new StringBuilder();
+        Object value = null;
+        boolean typed = false;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                value = readTypedValue(reader);
+                typed = true;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            }
+        }
+        // A value without a type element is a string
+        return typed ? value : text.toString();
+    }
+
+    // Positioned on the type element, leaves the reader positioned on its end element
+    private Object readTypedValue(XMLStreamReader reader) throws XMLStreamException, ParseException {
+        String type = reader.getLocalName();
+        switch (type) {
+            case "struct":
+                return readStruct(reader);
+            case "array":
+                return readArray(reader);
+            case "nil":
+                reader.getElementText();
+                return null;
+            case "string":
+                return reader.getElementText();
+            case "int":
+            case "i4":
+                return Integer.valueOf(reader.getElementText().trim());
+            case "i8":
+                return Long.valueOf(reader.getElementText().trim());
+            case "boolean":
+                return "1".equals(reader.getElementText().trim());
+            case "double":
+                return Double.valueOf(reader.getElementText().trim());
+            case "dateTime.iso8601":
+                return dateFormat.parseObject(reader.getElementText().trim());
+            case "base64":
+                return Base64.getMimeDecoder().decode(reader.getElementText());
+            default:
+                throw new XMLStreamException("Unknown XML-RPC type: " + type, reader.getLocation());
+        }
+    }
+
+    // Null members, which Bugzilla does not send, are omitted like they are by the XML-RPC client
+    private Map<String, Object> readStruct(XMLStreamReader reader) throws XMLStreamException, ParseException {
+        Map<String, Object> struct = new HashMap<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = readMemberName(reader);
+            Object value = readValue(reader);
+            if (value != null)
+                struct.put(name, value);
+            reader.nextTag(); // </member>
+        }
+        return struct;
+    }
+
+    private Object[] readArray(XMLStreamReader reader) throws XMLStreamException, ParseException {
+        List<Object> array = new ArrayList<>();
+        reader.nextTag();
+        requireElement(reader, "data");
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+            array.add(readValue(reader));
+        reader.nextTag(); // </array>
+        return array.toArray();
+    }
+
+    private static void requireElement(XMLStreamReader reader, String name) throws XMLStreamException {
+        if (!reader.isStartElement() || !name.equals(reader.getLocalName()))
+            throw new XMLStreamException("Expected <" + name + ">", reader.getLocation());
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader == null)
+            return;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // The underlying stream is closed by the transport
+        }
+    }
+}
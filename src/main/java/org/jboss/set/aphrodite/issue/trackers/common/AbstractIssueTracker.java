@@ -23,26 +23,48 @@
 package org.jboss.set.aphrodite.issue.trackers.common;
 
 import org.apache.commons.logging.Log;
+import org.jboss.set.aphrodite.common.Bulkhead;
+import org.jboss.set.aphrodite.common.CircuitBreaker;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.LinkScanner;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.common.RequestBatcher;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
+import org.jboss.set.aphrodite.config.ExecutorType;
 import org.jboss.set.aphrodite.config.IssueTrackerConfig;
+import org.jboss.set.aphrodite.config.ReplayConfig;
 import org.jboss.set.aphrodite.config.TrackerType;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.Patch;
+import org.jboss.set.aphrodite.domain.UpdateResult;
+import org.jboss.set.aphrodite.replay.ExchangeProxy;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
 import org.jboss.set.aphrodite.spi.IssueTrackerService;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
+import org.jboss.set.aphrodite.trace.TracingExecutorService;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -52,13 +74,27 @@ import java.util.stream.Collectors;
  * @author Ryan Emerson
  */
 public abstract class AbstractIssueTracker implements IssueTrackerService {
+    /**
+     * @deprecated links are found with a <code>LinkScanner</code>, which matches urls in the same way in a single pass.
+     */
+    @Deprecated
     public static final Pattern URL_REGEX = Pattern
             .compile("(http|ftp|https)://([\\w_-]+(?:(?:\\.[\\w_-]+)+))([\\w.,@?^=%&:/~+#-]*[\\w@?^=%&/~+#-])?");
 
     protected final TrackerType TRACKER_TYPE;
     protected ExecutorService executorService;
+    protected Bulkhead bulkhead;
+    protected ExecutorType executorType = ExecutorType.PLATFORM;
+    protected AphroditeMetrics metrics = AphroditeMetrics.NOOP;
+    protected List<RemoteCallInterceptor> interceptors = Collections.emptyList();
+    protected RemoteCallTracker remoteCalls;
     protected IssueTrackerConfig config;
     protected URL baseUrl;
+    protected ReplayConfig replayConfig;
+
+    private final Map<String, ExchangeProxy> proxies = new HashMap<>();
+
+    private final List<RequestBatcher<?, ?>> batchers = new ArrayList<>();
 
     protected abstract Log getLog();
 
@@ -68,7 +104,10 @@ public abstract class AbstractIssueTracker implements IssueTrackerService {
 
     @Override
     public boolean init(AphroditeConfig aphroditeConfig) {
-        executorService = aphroditeConfig.getExecutorService();
+        executorType = aphroditeConfig.getExecutorType();
+        metrics = aphroditeConfig.getMetrics();
+        interceptors = aphroditeConfig.getInterceptors();
+        replayConfig = aphroditeConfig.getReplayConfig().orElse(null);
 
         Iterator<IssueTrackerConfig> i = aphroditeConfig.getIssueTrackerConfigs().iterator();
         while (i.hasNext()) {
@@ -96,26 +135,179 @@ public abstract class AbstractIssueTracker implements IssueTrackerService {
             Utils.logException(getLog(), errorMsg, e);
             return false;
         }
+
+        bulkhead = Bulkhead.create(TRACKER_TYPE.name().toLowerCase() + "-" + baseUrl.getHost(),
+                config.getBulkheadConfig(), executorType);
+        executorService = new TracingExecutorService(bulkhead);
+        remoteCalls = new RemoteCallTracker(TRACKER_TYPE.toString(), baseUrl.getHost(), metrics, interceptors,
+                config.getResilienceConfig(), getErrorClassifier());
         return true;
     }
 
+    @Override
+    public Optional<Bulkhead> getBulkhead() {
+        return Optional.ofNullable(bulkhead);
+    }
+
+    @Override
+    public Optional<CircuitBreaker> getCircuitBreaker() {
+        return remoteCalls == null ? Optional.empty() : Optional.of(remoteCalls.getCircuitBreaker());
+    }
+
+    /**
+     * Retrieve the url which this service must connect to in place of a url on its remote host. If the exchanges of
+     * this service are recorded or replayed, this is the url of a local <code>ExchangeProxy</code> for the host, which
+     * is closed when this service is destroyed.
+     *
+     * @param url a url on the remote host.
+     * @return the url to connect to.
+     * @throws IOException if the proxy cannot be started.
+     */
+    protected synchronized URL getConnectionUrl(URL url) throws IOException {
+        if (replayConfig == null)
+            return url;
+
+        String host = url.getProtocol() + "://" + url.getAuthority();
+        ExchangeProxy proxy = proxies.get(host);
+        if (proxy == null) {
+            proxy = ExchangeProxy.start(replayConfig, url);
+            proxies.put(host, proxy);
+        }
+        return proxy.getEndpoint(url);
+    }
+
+    /**
+     * @return the <code>ErrorClassifier</code> which decides which failed remote calls made by this service are
+     * retried. By default only connection failures and timeouts are retried.
+     */
+    protected ErrorClassifier getErrorClassifier() {
+        return ErrorClassifier.DEFAULT;
+    }
+
+    @Override
+    public void destroy() {
+        batchers.forEach(RequestBatcher::close);
+        batchers.clear();
+        if (bulkhead != null)
+            bulkhead.shutdown();
+        closeProxies();
+    }
+
+    private synchronized void closeProxies() {
+        proxies.values().forEach(ExchangeProxy::close);
+        proxies.clear();
+    }
+
+    /**
+     * Create a <code>RequestBatcher</code> which combines concurrent single issue requests into bulk requests,
+     * according to this tracker's <code>BatchConfig</code>. The batcher is closed when this tracker is destroyed.
+     *
+     * @param operation the name of the batched operation.
+     * @param request the bulk request.
+     * @return the batcher, or null if batching is not enabled for this tracker.
+     */
+    protected <K, V> RequestBatcher<K, V> createBatcher(String operation, RequestBatcher.BulkRequest<K, V> request) {
+        if (!config.getBatchConfig().isEnabled())
+            return null;
+
+        RequestBatcher<K, V> batcher = new RequestBatcher<>(TRACKER_TYPE.name().toLowerCase() + "-" + operation,
+                config.getBatchConfig(), executorService, request);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    /**
+     * Wait for the result of a batched issue request.
+     *
+     * @param future the future returned by the batcher.
+     * @param trackerId the id of the requested issue.
+     * @return the batched result, or null if the issue was not returned by the bulk request.
+     * @throws NotFoundException if the bulk request failed or was interrupted.
+     */
+    protected <V> V awaitBatch(CompletableFuture<V> future, String trackerId) throws NotFoundException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotFoundException("Something interrupted the execution when trying to retrieve issue " + trackerId, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new NotFoundException("Unable to retrieve issue with id: " + trackerId, cause);
+        }
+    }
+
+    /**
+     * Collects the distinct links to this tracker which appear in the patch's title and body, before retrieving them
+     * all with {@link #getLinkedIssues(Collection)}.
+     */
     @Override
     public List<Issue> getIssuesAssociatedWith(Patch patch) {
-        List<Issue> issues = new ArrayList<>();
-        Matcher m = URL_REGEX.matcher(patch.getTitle() + patch.getBody());
-        while (m.find()) {
-            String link = m.group();
-            try {
-                URL url = new URL(link);
-                if (url.getHost().equals(baseUrl.getHost()))
-                    issues.add(getIssue(url));
-            } catch (MalformedURLException e) {
-                if (getLog().isTraceEnabled())
-                    getLog().trace(e);
-            } catch (NotFoundException e) {
-                Utils.logException(getLog(), "Unable to retrieve Issue at " + link + ":", e);
-            }
+        Collection<URL> urls = getLinks(createLinkScanner(), patch);
+        if (urls.isEmpty())
+            return new ArrayList<>();
+
+        return toIssues(urls, getLinkedIssues(urls));
+    }
+
+    /**
+     * Collects the distinct links to this tracker from all of the patches, so that each linked issue is retrieved
+     * once by a single call to {@link #getLinkedIssues(Collection)}, however many patches link to it.
+     */
+    @Override
+    public Map<Patch, List<Issue>> getIssuesAssociatedWith(Collection<Patch> patches) {
+        LinkScanner scanner = createLinkScanner();
+        Map<Patch, Collection<URL>> patchLinks = new LinkedHashMap<>();
+        Map<String, URL> urls = new LinkedHashMap<>();
+        for (Patch patch : patches) {
+            Collection<URL> links = getLinks(scanner, patch);
+            patchLinks.put(patch, links);
+            links.forEach(url -> urls.putIfAbsent(url.toExternalForm(), url));
+        }
+
+        Map<String, Issue> issues = urls.isEmpty() ? Collections.emptyMap() : getLinkedIssues(urls.values());
+        Map<Patch, List<Issue>> patchIssues = new LinkedHashMap<>();
+        patchLinks.forEach((patch, links) -> patchIssues.put(patch, toIssues(links, issues)));
+        return patchIssues;
+    }
+
+    private LinkScanner createLinkScanner() {
+        return new LinkScanner(Collections.singleton(baseUrl.getHost()));
+    }
+
+    private static Collection<URL> getLinks(LinkScanner scanner, Patch patch) {
+        Map<String, URL> urls = new LinkedHashMap<>();
+        for (URL url : scanner.scan(patch.getTitle(), patch.getBody()).getUrls())
+            urls.putIfAbsent(url.toExternalForm(), url);
+        return urls.values();
+    }
+
+    // Different links to the same issue, e.g. to different comments, resolve to the same instance which is only added once
+    private static List<Issue> toIssues(Collection<URL> links, Map<String, Issue> linkedIssues) {
+        Set<Issue> issues = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Issue> list = new ArrayList<>();
+        for (URL url : links) {
+            Issue issue = linkedIssues.get(url.toExternalForm());
+            if (issue != null && issues.add(issue))
+                list.add(issue);
         }
+        return list;
+    }
+
+    /**
+     * Retrieve the issues which are linked from patches. Issues which cannot be retrieved are logged and omitted.
+     * By default the issues are retrieved with {@link #getIssues(Collection)} and matched to the links by their url,
+     * so implementations should override this method if their bulk retrieval returns less detail than
+     * {@link #getIssue(URL)}, or if an issue's url can differ from the links to it.
+     *
+     * @param urls the distinct URLs of the linked issues, all of which belong to this tracker.
+     * @return the linked issues, indexed by the external form of each URL which links to them.
+     */
+    protected Map<String, Issue> getLinkedIssues(Collection<URL> urls) {
+        Map<String, Issue> issues = new HashMap<>();
+        for (Issue issue : getIssues(urls))
+            issues.put(issue.getURL().toExternalForm(), issue);
         return issues;
     }
 
@@ -128,6 +320,29 @@ public abstract class AbstractIssueTracker implements IssueTrackerService {
         );
     }
 
+    /**
+     * Update the issues which belong to this tracker with <code>update</code>, and fail the remaining issues with a
+     * <code>NotFoundException</code>, so that each issue's result remains in the same position as the issue.
+     */
+    protected List<UpdateResult> updateIssuesByHost(Collection<Issue> issues,
+            Function<List<Issue>, List<UpdateResult>> update) {
+        Objects.requireNonNull(issues);
+
+        List<Issue> hostIssues = new ArrayList<>(filterIssuesByHost(issues));
+        Iterator<UpdateResult> updated = hostIssues.isEmpty() ? Collections.emptyIterator() :
+                update.apply(hostIssues).iterator();
+        List<UpdateResult> results = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            try {
+                checkHost(Objects.requireNonNull(issue, "issues cannot contain a null issue").getURL());
+                results.add(updated.next());
+            } catch (NotFoundException e) {
+                results.add(UpdateResult.failure(issue, e));
+            }
+        }
+        return results;
+    }
+
     protected void checkHost(URL url) throws NotFoundException {
         if (!urlExists(url))
             throw new NotFoundException("The requested entity cannot be found at this tracker as " +
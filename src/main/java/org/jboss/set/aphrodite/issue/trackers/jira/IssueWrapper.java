@@ -35,8 +35,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -52,6 +54,7 @@ import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.Flag;
 import org.jboss.set.aphrodite.domain.FlagStatus;
 import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.Issue.Field;
 import org.jboss.set.aphrodite.domain.IssueEstimation;
 import org.jboss.set.aphrodite.domain.IssueType;
 import org.jboss.set.aphrodite.domain.Release;
@@ -77,6 +80,9 @@ import org.jboss.set.aphrodite.spi.NotFoundException;
 class IssueWrapper {
 
     private static final Log LOG = LogFactory.getLog(JiraIssueTracker.class);
+    // The fields which are set by an IssueInput. Status and issue links are updated by separate requests.
+    private static final Set<Field> UPDATED_FIELDS = Collections.unmodifiableSet(EnumSet.of(Field.SUMMARY,
+            Field.COMPONENTS, Field.DESCRIPTION, Field.ASSIGNEE, Field.STAGE, Field.RELEASES, Field.STREAM_STATUS));
 
     Issue jiraSearchIssueToIssue(URL baseURL, com.atlassian.jira.rest.client.api.domain.Issue jiraIssue) {
         URL url = trackerIdToBrowsableUrl(baseURL, jiraIssue.getKey());
@@ -121,34 +127,56 @@ class IssueWrapper {
         setCreationTime(issue, jiraIssue);
         setLastUpdated(issue, jiraIssue);
 
+        issue.markUnmodified();
         return issue;
     }
 
+    /**
+     * @return true if any of the issue's modified fields are set by {@link #issueToFluentUpdate}, otherwise false.
+     */
+    boolean hasFieldUpdates(Issue issue) {
+        Set<Field> modified = issue.getModifiedFields();
+        modified.retainAll(UPDATED_FIELDS);
+        return !modified.isEmpty();
+    }
+
+    /**
+     * Convert an issue to a Jira update. If the issue was retrieved from Jira, only the fields which have since been
+     * modified are included.
+     */
     // TODO find a solution for updating time estimates, see https://github.com/jboss-set/aphrodite/issues/23
     IssueInput issueToFluentUpdate(Issue issue, com.atlassian.jira.rest.client.api.domain.Issue jiraIssue, Project project) throws NotFoundException {
         checkUnsupportedUpdateFields(issue);
         IssueInputBuilder inputBuilder = new IssueInputBuilder(jiraIssue.getProject().getKey(), jiraIssue.getIssueType().getId());
+        Set<Field> modified = issue.getModifiedFields();
+
+        if (modified.contains(Field.SUMMARY))
+            issue.getSummary().ifPresent(inputBuilder::setSummary);
+        if (modified.contains(Field.COMPONENTS)) {
+            inputBuilder.setFieldInput(new FieldInput(IssueFieldId.COMPONENTS_FIELD,
+                    issue.getComponents().stream().map(e -> ComplexIssueInputFieldValue.with("name", e)).collect(Collectors.toList()))
+            );
+        }
+        if (modified.contains(Field.DESCRIPTION))
+            issue.getDescription().ifPresent(inputBuilder::setDescription);
 
-
-        issue.getSummary().ifPresent(inputBuilder::setSummary);
-        inputBuilder.setFieldInput(new FieldInput(IssueFieldId.COMPONENTS_FIELD,
-                issue.getComponents().stream().map(e -> ComplexIssueInputFieldValue.with("name", e)).collect(Collectors.toList()))
-        );
-        issue.getDescription().ifPresent(inputBuilder::setDescription);
-
-        issue.getAssignee().ifPresent(assignee -> inputBuilder.setFieldInput(
-                new FieldInput(IssueFieldId.ASSIGNEE_FIELD, ComplexIssueInputFieldValue.with("name",
-                        assignee.getName().orElseThrow(this::nullUsername)))));
+        if (modified.contains(Field.ASSIGNEE)) {
+            issue.getAssignee().ifPresent(assignee -> inputBuilder.setFieldInput(
+                    new FieldInput(IssueFieldId.ASSIGNEE_FIELD, ComplexIssueInputFieldValue.with("name",
+                            assignee.getName().orElseThrow(this::nullUsername)))));
+        }
 
         // this is ok but does nothing if there is no permissions.
-        issue.getStage().getStateMap().entrySet()
+        issue.getModifiedStageStatus().entrySet()
             .stream().filter(entry -> entry.getValue() != FlagStatus.NO_SET)
             .forEach(entry -> inputBuilder.setFieldInput(new FieldInput(JSON_CUSTOM_FIELD + FLAG_MAP.get(entry.getKey()), entry.getValue().getSymbol())));
 
         Map<String, Version> versionsMap = StreamSupport.stream(project.getVersions().spliterator(), false)
                 .collect(Collectors.toMap(Version::getName, Function.identity()));
-        updateFixVersions(issue, versionsMap, inputBuilder);
-        updateStreamStatus(issue, jiraIssue, versionsMap, inputBuilder);
+        if (modified.contains(Field.RELEASES))
+            updateFixVersions(issue, versionsMap, inputBuilder);
+        if (modified.contains(Field.STREAM_STATUS))
+            updateStreamStatus(issue, jiraIssue, versionsMap, inputBuilder);
 
         return inputBuilder.build();
     }
@@ -164,7 +192,7 @@ class IssueWrapper {
             return;
         }
 
-        for (Map.Entry<String, FlagStatus> entry : issue.getStreamStatus().entrySet()) {
+        for (Map.Entry<String, FlagStatus> entry : issue.getModifiedStreamStatus().entrySet()) {
             if (entry.getValue() != FlagStatus.ACCEPTED) {
                 String streamName = entry.getKey();
                 Version version = versionsMap.get(streamName);
@@ -192,7 +220,7 @@ class IssueWrapper {
     }
 
     private void checkUnsupportedUpdateFields(Issue issue) {
-        if (issue.getReporter().isPresent() && LOG.isDebugEnabled())
+        if (issue.getReporter().isPresent() && issue.isModified(Field.REPORTER) && LOG.isDebugEnabled())
             LOG.debug("JIRA does not support updating the reporter field, field ignored.");
     }
 
@@ -34,12 +34,21 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -48,19 +57,26 @@ import com.atlassian.jira.rest.client.api.IssueRestClient;
 import com.atlassian.jira.rest.client.api.domain.Project;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.ExpiringCache;
+import org.jboss.set.aphrodite.common.RequestBatcher;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.IssueTrackerConfig;
 import org.jboss.set.aphrodite.config.TrackerType;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.Flag;
 import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.Issue.Field;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.domain.UpdateResult;
 import org.jboss.set.aphrodite.issue.trackers.common.AbstractIssueTracker;
 import org.jboss.set.aphrodite.spi.AphroditeException;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteServiceException;
 
 import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.JiraRestClientFactory;
+import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.SearchRestClient;
 import com.atlassian.jira.rest.client.api.domain.Filter;
 import com.atlassian.jira.rest.client.api.domain.IssueLink;
@@ -71,6 +87,7 @@ import com.atlassian.jira.rest.client.api.domain.input.IssueInput;
 import com.atlassian.jira.rest.client.api.domain.input.LinkIssuesInput;
 import com.atlassian.jira.rest.client.api.domain.input.TransitionInput;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientFactory;
+import com.atlassian.util.concurrent.Promise;
 
 
 /**
@@ -81,10 +98,20 @@ import com.atlassian.jira.rest.client.internal.async.AsynchronousJiraRestClientF
 public class JiraIssueTracker extends AbstractIssueTracker {
 
     private static final Log LOG = LogFactory.getLog(JiraIssueTracker.class);
+    private static final Set<String> ALL_FIELDS = Collections.singleton("*all");
+    // Project versions and components, and workflow transitions, are rarely changed
+    private static final long METADATA_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // A response from JIRA is only retryable if its status indicates that JIRA is temporarily unavailable
+    private static final ErrorClassifier ERROR_CLASSIFIER =
+            ErrorClassifier.forStatusCode(JiraIssueTracker::getStatusCode);
 
     private final IssueWrapper WRAPPER = new IssueWrapper();
     private final JiraQueryBuilder queryBuilder = new JiraQueryBuilder();
     private JiraRestClient restClient ;
+    private RequestBatcher<String, com.atlassian.jira.rest.client.api.domain.Issue> issueBatcher;
+    private final ExpiringCache<URI, Project> projectCache = new ExpiringCache<>("jira-projects", METADATA_TTL_MILLIS);
+    private final ExpiringCache<String, List<Transition>> transitionCache =
+            new ExpiringCache<>("jira-transitions", METADATA_TTL_MILLIS);
 
     public JiraIssueTracker() {
         super(TrackerType.JIRA);
@@ -98,30 +125,116 @@ public class JiraIssueTracker extends AbstractIssueTracker {
 
         try {
             JiraRestClientFactory factory = new AsynchronousJiraRestClientFactory();
-            URI jiraServerUri = baseUrl.toURI();
+            URI jiraServerUri = getConnectionUrl(baseUrl).toURI();
             restClient = factory.createWithBasicHttpAuthentication(jiraServerUri, config.getUsername(), config.getPassword());
         } catch (Exception e) {
             Utils.logException(LOG, e);
             return false;
         }
+        issueBatcher = createBatcher("getIssue", this::getJiraIssues);
         return true;
     }
 
+    @Override
+    protected ErrorClassifier getErrorClassifier() {
+        return ERROR_CLASSIFIER;
+    }
+
+    private static OptionalInt getStatusCode(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RestClientException && ((RestClientException) t).getStatusCode().isPresent())
+                return OptionalInt.of(((RestClientException) t).getStatusCode().get());
+        }
+        return OptionalInt.empty();
+    }
+
     @Override
     public Issue getIssue(URL url) throws NotFoundException {
         String issueKey = getIssueKey(url);
+        checkHost(url);
+        if (issueBatcher != null) {
+            com.atlassian.jira.rest.client.api.domain.Issue issue =
+                    awaitBatch(issueBatcher.submit(issueKey.toUpperCase(Locale.ENGLISH)), issueKey);
+            if (issue != null)
+                return WRAPPER.jiraIssueToIssue(url, issue);
+            // The bulk search did not return the issue, e.g. as it has been moved, so request it individually
+        }
+
         try {
-            checkHost(url);
-            com.atlassian.jira.rest.client.api.domain.Issue issue = restClient.getIssueClient().getIssue(issueKey).get();
+            com.atlassian.jira.rest.client.api.domain.Issue issue =
+                    execute("getIssue", url, () -> restClient.getIssueClient().getIssue(issueKey));
             return WRAPPER.jiraIssueToIssue(url, issue);
-        } catch (InterruptedException e) {
-            throw new NotFoundException("Something interrupted the execution when trying to retrieve issue " + issueKey, e);
         } catch (ExecutionException e) {
+            if (e.getCause() instanceof InterruptedException)
+                throw new NotFoundException("Something interrupted the execution when trying to retrieve issue " + issueKey, e);
             throw new NotFoundException("Unable to retrieve issue with id: " + issueKey , e);
         }
 
     }
 
+    /**
+     * Retrieves the linked issues with all of their fields, like {@link #getIssue(URL)}, with a single JQL search.
+     * Issues which the search does not return, e.g. as they have been moved, are requested individually.
+     */
+    @Override
+    protected Map<String, Issue> getLinkedIssues(Collection<URL> urls) {
+        Map<String, List<URL>> keys = new LinkedHashMap<>();
+        for (URL url : urls) {
+            try {
+                keys.computeIfAbsent(getIssueKey(url).toUpperCase(Locale.ENGLISH), key -> new ArrayList<>()).add(url);
+            } catch (NotFoundException e) {
+                Utils.logException(LOG, "Unable to retrieve Issue at " + url + ":", e);
+            }
+        }
+
+        Map<String, com.atlassian.jira.rest.client.api.domain.Issue> jiraIssues = Collections.emptyMap();
+        if (keys.size() > 1) {
+            try {
+                jiraIssues = getJiraIssues(keys.keySet());
+            } catch (ExecutionException e) {
+                Utils.logException(LOG, "Bulk retrieval failed, requesting issues individually", e);
+            }
+        }
+
+        Map<String, Issue> issues = new HashMap<>();
+        for (Map.Entry<String, List<URL>> entry : keys.entrySet()) {
+            URL url = entry.getValue().get(0);
+            com.atlassian.jira.rest.client.api.domain.Issue jiraIssue = jiraIssues.get(entry.getKey());
+            try {
+                Issue issue = jiraIssue != null ? WRAPPER.jiraIssueToIssue(url, jiraIssue) : getIssue(url);
+                entry.getValue().forEach(link -> issues.put(link.toExternalForm(), issue));
+            } catch (NotFoundException e) {
+                Utils.logException(LOG, "Unable to retrieve Issue at " + url + ":", e);
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Retrieve multiple issues with a single JQL search, indexed by their key. An empty map is returned if JIRA
+     * rejects the query, which happens when any of the keys does not exist, so that the issues are requested
+     * individually instead.
+     */
+    private Map<String, com.atlassian.jira.rest.client.api.domain.Issue> getJiraIssues(Collection<String> keys)
+            throws ExecutionException {
+        String jql = queryBuilder.getIssueKeysJQL(keys);
+        SearchRestClient searchClient = restClient.getSearchClient();
+        SearchResult result;
+        try {
+            result = execute("searchJql", null, () -> searchClient.searchJql(jql, keys.size(), null, ALL_FIELDS));
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof RestClientException) || ERROR_CLASSIFIER.isRetryable(e))
+                throw e;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Bulk retrieval rejected, requesting issues individually: " + jql, e);
+            return Collections.emptyMap();
+        }
+
+        Map<String, com.atlassian.jira.rest.client.api.domain.Issue> issues = new HashMap<>();
+        result.getIssues().forEach(issue -> issues.put(issue.getKey(), issue));
+        return issues;
+    }
+
     private com.atlassian.jira.rest.client.api.domain.Issue getIssue(Issue issue) throws NotFoundException {
         String trackerId = issue.getTrackerId().orElse(getIssueKey(issue.getURL()));
         return getIssue(trackerId);
@@ -129,7 +242,7 @@ public class JiraIssueTracker extends AbstractIssueTracker {
 
     private com.atlassian.jira.rest.client.api.domain.Issue getIssue(String trackerId) throws NotFoundException {
         try {
-            return restClient.getIssueClient().getIssue(trackerId).get();
+            return execute("getIssue", null, () -> restClient.getIssueClient().getIssue(trackerId));
         } catch (Exception e) {
             throw new NotFoundException(e);
         }
@@ -165,12 +278,13 @@ public class JiraIssueTracker extends AbstractIssueTracker {
         try {
             List<Issue> issues = new ArrayList<>();
             SearchRestClient searchClient = restClient.getSearchClient();
-            SearchResult result = searchClient.searchJql(jql, maxResults, null, null).get();
+            SearchResult result = execute("searchJql", null,
+                    () -> searchClient.searchJql(jql, maxResults, null, null));
             result.getIssues().forEach(issue -> issues.add(WRAPPER.jiraSearchIssueToIssue(baseUrl, issue)));
             return issues;
-        } catch (Exception e) {
-            LOG.error("Problem executing jql " + jql, e);
-            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            Utils.logException(LOG, "Problem executing jql " + jql, e);
+            throw new RemoteServiceException("Unable to execute jql: " + jql, e);
         }
     }
 
@@ -184,7 +298,8 @@ public class JiraIssueTracker extends AbstractIssueTracker {
         try {
             // url type example https://issues.jboss.org/rest/api/latest/filter/12322199
             SearchRestClient searchClient = restClient.getSearchClient();
-            Filter filter = searchClient.getFilter(filterUrl.toURI()).get();
+            URI filterUri = filterUrl.toURI();
+            Filter filter = execute("getFilter", filterUrl, () -> searchClient.getFilter(filterUri));
             return filter.getJql();
         } catch (Exception e) {
             throw new NotFoundException("Unable to retrieve filter with url: " + filterUrl, e);
@@ -198,35 +313,154 @@ public class JiraIssueTracker extends AbstractIssueTracker {
      */
     @Override
     public boolean updateIssue(Issue issue) throws NotFoundException, AphroditeException {
-        try {
-            checkHost(issue.getURL());
+        checkHost(issue.getURL());
+        if (issue.isTrackingModifications() && issue.getModifiedFields().isEmpty())
+            return true;
+        return updateIssue(issue, getIssue(issue));
+    }
 
-            com.atlassian.jira.rest.client.api.domain.Issue jiraIssue = getIssue(issue);
-            Project project = restClient.getProjectClient().getProject(jiraIssue.getProject().getSelf()).claim();
-            IssueInput update = WRAPPER.issueToFluentUpdate(issue, jiraIssue, project);
+    /**
+     * Jira has no bulk update operation, so the issues are updated concurrently. The number of concurrent
+     * requests is bounded by this tracker's bulkhead. The current state of all issues is retrieved with a single
+     * search, rather than by each update.
+     */
+    @Override
+    public List<UpdateResult> updateIssues(Collection<Issue> issues) {
+        return updateIssuesByHost(issues, hostIssues -> {
+            Map<String, com.atlassian.jira.rest.client.api.domain.Issue> snapshots = getSnapshots(hostIssues);
+            List<CompletableFuture<UpdateResult>> requests = hostIssues.stream()
+                    .map(issue -> CompletableFuture.supplyAsync(
+                            () -> updateIssueAndCaptureErrors(issue, snapshots), executorService))
+                    .collect(Collectors.toList());
+
+            return requests.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        });
+    }
 
+    private boolean updateIssue(Issue issue, com.atlassian.jira.rest.client.api.domain.Issue jiraIssue)
+            throws NotFoundException, AphroditeException {
+        try {
             IssueRestClient issueClient = restClient.getIssueClient();
-            issueClient.updateIssue(jiraIssue.getKey(), update).claim();
-            if (!JiraFields.hasSameIssueStatus(issue, jiraIssue)) {
+            if (WRAPPER.hasFieldUpdates(issue)) {
+                Project project = getProject(jiraIssue);
+                IssueInput update = WRAPPER.issueToFluentUpdate(issue, jiraIssue, project);
+                claimOnce("updateIssue", issue.getURL(), () -> issueClient.updateIssue(jiraIssue.getKey(), update));
+            }
+
+            // An unmodified status is not reverted if the issue has since been transitioned by somebody else
+            if (issue.isModified(Field.STATUS) && !JiraFields.hasSameIssueStatus(issue, jiraIssue)) {
                 String transition = getJiraTransition(issue, jiraIssue);
-                for(Transition t : issueClient.getTransitions(jiraIssue).get()) {
+                for(Transition t : getTransitions(issue, jiraIssue)) {
                     if(t.getName().equals(transition)) {
-                        issueClient.transition(jiraIssue, new TransitionInput(t.getId())).claim();
+                        claimOnce("transition", issue.getURL(),
+                                () -> issueClient.transition(jiraIssue, new TransitionInput(t.getId())));
                     }
                 }
             }
 
             // only supports add
-            for(LinkIssuesInput linkIssuesInput : calculateNewLinks(issue, jiraIssue)) {
-                issueClient.linkIssue(linkIssuesInput).claim();
-            }
+            if (issue.isModified(Field.BLOCKS))
+                linkIssues(issue.getURL(), calculateNewLinks(issue, jiraIssue));
 
+            issue.markUnmodified();
             return true;
-        } catch (ExecutionException | InterruptedException e) {
+        } catch (ExecutionException e) {
             throw new AphroditeException(getUpdateErrorMessage(issue, e), e);
         }
     }
 
+    private UpdateResult updateIssueAndCaptureErrors(Issue issue,
+            Map<String, com.atlassian.jira.rest.client.api.domain.Issue> snapshots) {
+        try {
+            com.atlassian.jira.rest.client.api.domain.Issue snapshot = snapshots.get(getSnapshotKey(issue));
+            if (snapshot == null)
+                updateIssue(issue);
+            else
+                updateIssue(issue, snapshot);
+            return UpdateResult.success(issue);
+        } catch (NotFoundException | AphroditeException | RuntimeException e) {
+            Utils.logException(LOG, e);
+            return UpdateResult.failure(issue, e);
+        }
+    }
+
+    /**
+     * Retrieve the current state of all issues with a single search. Issues which are not returned, or all issues if
+     * the search fails, are retrieved individually by their update.
+     */
+    private Map<String, com.atlassian.jira.rest.client.api.domain.Issue> getSnapshots(Collection<Issue> issues) {
+        if (issues.size() < 2)
+            return Collections.emptyMap();
+
+        Set<String> keys = new HashSet<>();
+        for (Issue issue : issues) {
+            if (issue.isTrackingModifications() && issue.getModifiedFields().isEmpty())
+                continue;
+            try {
+                keys.add(getSnapshotKey(issue));
+            } catch (NotFoundException e) {
+                // The issue's update will fail with the same exception
+            }
+        }
+
+        try {
+            return keys.isEmpty() ? Collections.emptyMap() : getJiraIssues(keys);
+        } catch (ExecutionException | RuntimeException e) {
+            Utils.logWarnMessage(LOG, "Unable to retrieve issues " + keys + " in bulk, retrieving them individually: "
+                    + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private String getSnapshotKey(Issue issue) throws NotFoundException {
+        String trackerId = issue.getTrackerId().isPresent() ? issue.getTrackerId().get() : getIssueKey(issue.getURL());
+        return trackerId.toUpperCase(Locale.ENGLISH);
+    }
+
+    private Project getProject(com.atlassian.jira.rest.client.api.domain.Issue jiraIssue) {
+        URI projectUri = jiraIssue.getProject().getSelf();
+        return projectCache.get(projectUri,
+                () -> claim("getProject", null, () -> restClient.getProjectClient().getProject(projectUri)));
+    }
+
+    /**
+     * The transitions which are available to an issue are determined by its project's workflow for the issue's type
+     * and its current status, so they can be shared by all issues with the same project, type and status.
+     */
+    private List<Transition> getTransitions(Issue issue, com.atlassian.jira.rest.client.api.domain.Issue jiraIssue)
+            throws ExecutionException {
+        String key = jiraIssue.getProject().getKey() + "/" + jiraIssue.getIssueType().getId() + "/"
+                + jiraIssue.getStatus().getName();
+        return transitionCache.get(key, () -> {
+            Iterable<Transition> transitions = execute("getTransitions", issue.getURL(),
+                    () -> restClient.getIssueClient().getTransitions(jiraIssue));
+            return StreamSupport.stream(transitions.spliterator(), false).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Create all of the links concurrently. Every request is sent before any response is awaited, as the
+     * underlying REST client is asynchronous.
+     */
+    private void linkIssues(URL url, List<LinkIssuesInput> links) {
+        IssueRestClient issueClient = restClient.getIssueClient();
+        List<Promise<Void>> pending = links.stream()
+                .map(issueClient::linkIssue)
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < links.size(); i++) {
+            LinkIssuesInput link = links.get(i);
+            AtomicReference<Promise<Void>> sent = new AtomicReference<>(pending.get(i));
+            // A retry must send a new request, rather than waiting for the response which failed
+            claimOnce("linkIssue", url, () -> {
+                Promise<Void> promise = sent.getAndSet(null);
+                return promise != null ? promise : issueClient.linkIssue(link);
+            });
+        }
+    }
+
     private List<LinkIssuesInput> calculateNewLinks(Issue issue, com.atlassian.jira.rest.client.api.domain.Issue jiraIssue) {
         // When jiraIssueLinks is null, this means that issue links have been disabled, so return an empty list
         Iterable<IssueLink> jiraIssueLinks = jiraIssue.getIssueLinks();
@@ -281,7 +515,8 @@ public class JiraIssueTracker extends AbstractIssueTracker {
 
         com.atlassian.jira.rest.client.api.domain.Comment c =
                 com.atlassian.jira.rest.client.api.domain.Comment.valueOf(comment.getBody());
-        restClient.getIssueClient().addComment(jiraIssue.getCommentsUri(), c).claim();
+        claimOnce("addComment", issue.getURL(),
+                () -> restClient.getIssueClient().addComment(jiraIssue.getCommentsUri(), c));
     }
 
     @Override
@@ -326,6 +561,36 @@ public class JiraIssueTracker extends AbstractIssueTracker {
         return LOG;
     }
 
+    /**
+     * Execute a REST request and wait for its response, recording the call's metrics. An interrupt whilst waiting
+     * is rethrown as an <code>ExecutionException</code>.
+     */
+    private <T> T execute(String method, URL target, Supplier<Promise<T>> request) throws ExecutionException {
+        return remoteCalls.call(method, target, () -> {
+            try {
+                return request.get().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExecutionException(e);
+            }
+        });
+    }
+
+    /**
+     * Execute a REST request and claim its response, recording the call's metrics.
+     */
+    private <T> T claim(String method, URL target, Supplier<Promise<T>> request) {
+        return remoteCalls.call(method, target, () -> request.get().claim());
+    }
+
+    /**
+     * Execute a REST request which modifies JIRA and claim its response, recording the call's metrics. The request is
+     * only repeated if JIRA did not process it.
+     */
+    private <T> T claimOnce(String method, URL target, Supplier<Promise<T>> request) {
+        return remoteCalls.callNonIdempotent(method, target, () -> request.get().claim());
+    }
+
     private String getIssueKey(URL url) throws NotFoundException {
         String path = url.getPath();
         boolean api = path.contains(API_ISSUE_PATH);
@@ -368,5 +633,6 @@ public class JiraIssueTracker extends AbstractIssueTracker {
         } catch (IOException e) {
             LOG.warn("destroyin jira issue tracker", e);
         }
+        super.destroy();
     }
 }
@@ -26,6 +26,7 @@ import org.jboss.set.aphrodite.domain.FlagStatus;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
 
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
 
 import static org.jboss.set.aphrodite.issue.trackers.jira.JiraFields.CUSTOM_FIELD_MAP;
@@ -67,6 +68,10 @@ class JiraQueryBuilder {
         return sb.toString();
     }
 
+    String getIssueKeysJQL(Collection<String> keys) {
+        return "key in (" + String.join(", ", keys) + ")";
+    }
+
     String getMultipleIssueJQL(List<String> ids) {
         StringBuilder sb = new StringBuilder();
         ids.forEach(id -> addCriteriaToJQL("id = ", id, " OR ", sb));
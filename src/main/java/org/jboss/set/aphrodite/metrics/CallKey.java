@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.metrics;
+
+import java.util.Objects;
+
+/**
+ * Identifies the remote calls whose metrics are aggregated together, by service, host and method.
+ *
+ * @author Ryan Emerson
+ */
+public class CallKey {
+
+    private final String service;
+    private final String host;
+    private final String method;
+
+    public CallKey(String service, String host, String method) {
+        Objects.requireNonNull(service, "service cannot be null");
+        Objects.requireNonNull(host, "host cannot be null");
+        Objects.requireNonNull(method, "method cannot be null");
+
+        this.service = service;
+        this.host = host;
+        this.method = method;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CallKey callKey = (CallKey) o;
+
+        if (!service.equals(callKey.service)) return false;
+        if (!host.equals(callKey.host)) return false;
+        return method.equals(callKey.method);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = service.hashCode();
+        result = 31 * result + host.hashCode();
+        result = 31 * result + method.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return service + "[" + host + "]#" + method;
+    }
+}
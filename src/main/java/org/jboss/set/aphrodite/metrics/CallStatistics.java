@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The aggregated metrics of all remote calls which share a {@link CallKey}.
+ *
+ * @author Ryan Emerson
+ */
+public class CallStatistics implements CallStatisticsMXBean {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+
+    void record(long durationNanos, long bytes, boolean success) {
+        latency.record(durationNanos);
+        if (bytes > 0)
+            responseBytes.add(bytes);
+        if (!success)
+            errorCount.increment();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCallCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return latency.getMeanMillis();
+    }
+
+    @Override
+    public double getP50LatencyMillis() {
+        return latency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP90LatencyMillis() {
+        return latency.getPercentileMillis(90);
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return latency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return latency.getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "CallStatistics{" +
+                "callCount=" + getCallCount() +
+                ", errorCount=" + getErrorCount() +
+                ", responseBytes=" + getResponseBytes() +
+                ", latency=" + latency +
+                '}';
+    }
+}
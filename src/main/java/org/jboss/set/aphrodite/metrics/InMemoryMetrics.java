@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.metrics;
+
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default <code>AphroditeMetrics</code> implementation, which aggregates the metrics of all remote calls in
+ * memory by service, host and method.
+ *
+ * @author Ryan Emerson
+ */
+public class InMemoryMetrics implements AphroditeMetrics {
+
+    private final ConcurrentMap<CallKey, CallStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCall(String service, String host, String method, long durationNanos, long responseBytes,
+            boolean success) {
+        CallKey key = new CallKey(service, host, method);
+        CallStatistics stats = statistics.get(key);
+        if (stats == null) {
+            CallStatistics newStats = new CallStatistics();
+            stats = statistics.putIfAbsent(key, newStats);
+            if (stats == null) {
+                stats = newStats;
+                statisticsCreated(key, stats);
+            }
+        }
+        stats.record(durationNanos, responseBytes, success);
+    }
+
+    /**
+     * @return an unmodifiable view of the statistics of every distinct remote call recorded so far.
+     */
+    public Map<CallKey, CallStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    public Optional<CallStatistics> getStatistics(String service, String host, String method) {
+        return Optional.ofNullable(statistics.get(new CallKey(service, host, method)));
+    }
+
+    /**
+     * @return the total number of remote calls recorded across all services.
+     */
+    public long getTotalCallCount() {
+        return statistics.values().stream().mapToLong(CallStatistics::getCallCount).sum();
+    }
+
+    /**
+     * Invoked exactly once when the first call for a given key is recorded.
+     *
+     * @param key the key of the new statistics.
+     * @param stats the statistics which will be updated for all calls with the given key.
+     */
+    protected void statisticsCreated(CallKey key, CallStatistics stats) {
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryMetrics{" +
+                "statistics=" + statistics +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.Utils;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link InMemoryMetrics} which registers the statistics of each distinct remote call as an MXBean named
+ * <code>org.jboss.set.aphrodite:type=RemoteCall,service=...,host=...,method=...</code>.
+ *
+ * @author Ryan Emerson
+ */
+public class JmxMetricsExporter extends InMemoryMetrics implements AutoCloseable {
+
+    public static final String DOMAIN = "org.jboss.set.aphrodite";
+
+    private static final Log LOG = LogFactory.getLog(JmxMetricsExporter.class);
+
+    private final MBeanServer server;
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    public JmxMetricsExporter() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxMetricsExporter(MBeanServer server) {
+        this.server = server;
+    }
+
+    @Override
+    protected void statisticsCreated(CallKey key, CallStatistics stats) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=RemoteCall" +
+                    ",service=" + ObjectName.quote(key.getService()) +
+                    ",host=" + ObjectName.quote(key.getHost()) +
+                    ",method=" + ObjectName.quote(key.getMethod()));
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(stats, name);
+            registered.add(name);
+        } catch (JMException e) {
+            Utils.logException(LOG, "Unable to register metrics MXBean for " + key, e);
+        }
+    }
+
+    /**
+     * Unregister all of the MXBeans registered by this exporter.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                Utils.logException(LOG, "Unable to unregister metrics MXBean " + name, e);
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonWriter;
+
+/**
+ * The recorded HTTP exchanges with a single remote host, stored one json object per line in a file named after the
+ * host. Request bodies are only stored as a hash, and request headers are not stored at all, so that the credentials
+ * which they contain are not written to the archive.
+ *
+ * A request is matched to a recorded exchange by its method, uri and the hash of its body. When the same request was
+ * recorded more than once, the responses are replayed in the order they were recorded, and the last response is
+ * repeated once they have all been replayed.
+ *
+ * @author Ryan Emerson
+ */
+final class ExchangeArchive {
+
+    private final Path file;
+    private final Map<String, List<Exchange>> exchanges;
+    private final Map<String, AtomicInteger> replayed = new ConcurrentHashMap<>();
+
+    private ExchangeArchive(Path file, Map<String, List<Exchange>> exchanges) {
+        this.file = file;
+        this.exchanges = exchanges;
+    }
+
+    /**
+     * Create an empty archive, replacing any exchanges previously recorded with the host.
+     */
+    static ExchangeArchive create(Path directory, URL host) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(getFileName(host));
+        Files.write(file, new byte[0]);
+        return new ExchangeArchive(file, Collections.emptyMap());
+    }
+
+    /**
+     * Load the exchanges previously recorded with the host.
+     */
+    static ExchangeArchive load(Path directory, URL host) throws IOException {
+        Path file = directory.resolve(getFileName(host));
+        Map<String, List<Exchange>> exchanges = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty())
+                    continue;
+                try (JsonReader jsonReader = Json.createReader(new StringReader(line))) {
+                    Exchange exchange = Exchange.fromJson(jsonReader.readObject());
+                    exchanges.computeIfAbsent(exchange.key, key -> new ArrayList<>()).add(exchange);
+                }
+            }
+        }
+        return new ExchangeArchive(file, exchanges);
+    }
+
+    static String getFileName(URL host) {
+        return host.getHost() + (host.getPort() == -1 ? "" : "_" + host.getPort()) + ".jsonl";
+    }
+
+    static String key(String method, String uri, byte[] body) {
+        return method + " " + uri + " " + sha256(body);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    synchronized void append(Exchange exchange) throws IOException {
+        StringWriter line = new StringWriter();
+        try (JsonWriter writer = Json.createWriter(line)) {
+            writer.writeObject(exchange.toJson());
+        }
+        line.write('\n');
+        Files.write(file, line.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return the next recorded response to the request, or an empty optional if the request was not recorded.
+     */
+    Optional<Exchange> next(String key) {
+        List<Exchange> recorded = exchanges.get(key);
+        if (recorded == null)
+            return Optional.empty();
+
+        int index = replayed.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return Optional.of(recorded.get(Math.min(index, recorded.size() - 1)));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes))
+                sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A recorded request and its response.
+     */
+    static final class Exchange {
+        final String key;
+        final int status;
+        final Map<String, List<String>> headers;
+        final byte[] body;
+        final long latencyMillis;
+
+        Exchange(String key, int status, Map<String, List<String>> headers, byte[] body, long latencyMillis) {
+            this.key = key;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.latencyMillis = latencyMillis;
+        }
+
+        JsonObject toJson() {
+            JsonObjectBuilder headersJson = Json.createObjectBuilder();
+            headers.forEach((name, values) -> {
+                JsonArrayBuilder valuesJson = Json.createArrayBuilder();
+                values.forEach(valuesJson::add);
+                headersJson.add(name, valuesJson);
+            });
+            return Json.createObjectBuilder()
+                    .add("request", key)
+                    .add("status", status)
+                    .add("headers", headersJson)
+                    .add("body", Base64.getEncoder().encodeToString(body))
+                    .add("latencyMillis", latencyMillis)
+                    .build();
+        }
+
+        static Exchange fromJson(JsonObject json) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            JsonObject headersJson = json.getJsonObject("headers");
+            headersJson.keySet().forEach(name -> {
+                List<String> values = new ArrayList<>();
+                headersJson.getJsonArray(name).getValuesAs(JsonString.class).forEach(value -> values.add(value.getString()));
+                headers.put(name, values);
+            });
+            return new Exchange(json.getString("request"), json.getInt("status"), headers,
+                    Base64.getDecoder().decode(json.getString("body")), json.getJsonNumber("latencyMillis").longValue());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.Utils;
+import org.jboss.set.aphrodite.config.HttpConfig;
+import org.jboss.set.aphrodite.config.ReplayConfig;
+import org.jboss.set.aphrodite.config.ReplayMode;
+import org.jboss.set.aphrodite.replay.ExchangeArchive.Exchange;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP proxy for a single remote host, through which a service connects to the host when its exchanges are
+ * recorded or replayed, see {@link ReplayConfig}. The proxy is transparent to the service's HTTP client, e.g. the
+ * GitHub, Jira REST or Bugzilla client, which only needs to connect to {@link #getEndpoint(URL)} in place of the
+ * remote url.
+ *
+ * A request which has not been recorded is answered with a 404 and the <code>X-Aphrodite-Replay: miss</code> header
+ * when replaying.
+ *
+ * @author Ryan Emerson
+ */
+public class ExchangeProxy implements AutoCloseable {
+
+    private static final Log LOG = LogFactory.getLog(ExchangeProxy.class);
+
+    static final String REPLAY_HEADER = "X-Aphrodite-Replay";
+
+    // Headers which only apply to a single connection, or which are recomputed by the proxy
+    private static final Set<String> EXCLUDED_HEADERS = new HashSet<>(Arrays.asList("connection", "keep-alive",
+            "proxy-authenticate", "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "host",
+            "content-length"));
+    // Response headers which are not written to the archive
+    private static final Set<String> UNRECORDED_HEADERS = new HashSet<>(Arrays.asList("set-cookie", "date"));
+
+    private final ReplayConfig config;
+    private final URL host;
+    private final ExchangeArchive archive;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ExchangeProxy(ReplayConfig config, URL host, ExchangeArchive archive) throws IOException {
+        this.config = config;
+        this.host = host;
+        this.archive = archive;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "aphrodite-replay-" + host.getHost());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Start a proxy for the host of the url. When recording, any exchanges previously recorded with the host are
+     * replaced.
+     *
+     * @param url a url on the remote host, only its protocol, host and port are used.
+     * @throws IOException if the archive cannot be read or created, or the proxy cannot be started.
+     */
+    public static ExchangeProxy start(ReplayConfig config, URL url) throws IOException {
+        URL host = new URL(url.getProtocol(), url.getHost(), url.getPort(), "");
+        ExchangeArchive archive = config.getMode() == ReplayMode.RECORD ?
+                ExchangeArchive.create(config.getArchive(), host) : ExchangeArchive.load(config.getArchive(), host);
+        ExchangeProxy proxy = new ExchangeProxy(config, host, archive);
+        proxy.server.start();
+
+        if (LOG.isInfoEnabled())
+            LOG.info((config.getMode() == ReplayMode.RECORD ? "Recording" : "Replaying") + " the exchanges with "
+                    + host + " at " + proxy.server.getAddress() + ", archive: " + archive.getFile());
+        return proxy;
+    }
+
+    /**
+     * @param url a url on the remote host.
+     * @return the url with the same path and query on this proxy.
+     */
+    public URL getEndpoint(URL url) {
+        InetSocketAddress address = server.getAddress();
+        try {
+            return new URL("http", address.getHostString(), address.getPort(), url.getFile());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @return the protocol, host and port of the remote host.
+     */
+    public URL getHost() {
+        return host;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            URI requestUri = exchange.getRequestURI();
+            String uri = requestUri.getRawPath() + (requestUri.getRawQuery() == null ? "" : "?" + requestUri.getRawQuery());
+            String method = exchange.getRequestMethod();
+            byte[] body = readAll(exchange.getRequestBody());
+            String key = ExchangeArchive.key(method, uri, body);
+
+            Exchange response;
+            if (config.getMode() == ReplayMode.RECORD) {
+                response = forward(exchange, key, method, uri, body);
+                archive.append(response);
+            } else {
+                Optional<Exchange> recorded = archive.next(key);
+                if (!recorded.isPresent()) {
+                    Utils.logWarnMessage(LOG, "No recorded exchange with " + host + " for: " + method + " " + uri);
+                    exchange.getResponseHeaders().set(REPLAY_HEADER, "miss");
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                response = recorded.get();
+                delay(response);
+            }
+            respond(exchange, method, response);
+        } catch (IOException | RuntimeException e) {
+            Utils.logException(LOG, "Unable to proxy a request to " + host, e);
+            if (exchange.getResponseCode() == -1)
+                exchange.sendResponseHeaders(502, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Exchange forward(HttpExchange exchange, String key, String method, String uri, byte[] body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(host + uri).openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(HttpConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(HttpConfig.DEFAULT_READ_TIMEOUT_MILLIS);
+        connection.setRequestMethod(method);
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH)))
+                values.forEach(value -> connection.addRequestProperty(name, value));
+        });
+
+        long start = System.nanoTime();
+        if (body.length > 0) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream()
+                : connection.getInputStream();
+        byte[] responseBody = in == null ? new byte[0] : readAll(in);
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        connection.getHeaderFields().forEach((name, values) -> {
+            // The status line is returned with a null name
+            if (name != null && !EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))
+                    && !UNRECORDED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH)))
+                headers.put(name, values);
+        });
+        return new Exchange(key, status, headers, responseBody, latencyMillis);
+    }
+
+    private void delay(Exchange exchange) {
+        long delay = config.getReplayLatencyMillis(exchange.latencyMillis);
+        if (delay <= 0)
+            return;
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String method, Exchange response) throws IOException {
+        response.headers.forEach((name, values) -> exchange.getResponseHeaders().put(name, values));
+        boolean noBody = response.body.length == 0 || "HEAD".equals(method)
+                || response.status == HttpURLConnection.HTTP_NO_CONTENT
+                || response.status == HttpURLConnection.HTTP_NOT_MODIFIED;
+        exchange.sendResponseHeaders(response.status, noBody ? -1 : response.body.length);
+        if (!noBody) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+}
@@ -23,21 +23,37 @@
 package org.jboss.set.aphrodite.repository.services.common;
 
 import org.apache.commons.logging.Log;
+import org.jboss.set.aphrodite.common.Bulkhead;
+import org.jboss.set.aphrodite.common.CircuitBreaker;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
+import org.jboss.set.aphrodite.config.ExecutorType;
+import org.jboss.set.aphrodite.config.ReplayConfig;
 import org.jboss.set.aphrodite.config.RepositoryConfig;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.Patch;
 import org.jboss.set.aphrodite.domain.PatchState;
 import org.jboss.set.aphrodite.domain.Repository;
+import org.jboss.set.aphrodite.replay.ExchangeProxy;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
 import org.jboss.set.aphrodite.spi.RepositoryService;
+import org.jboss.set.aphrodite.trace.TracingExecutorService;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Ryan Emerson
@@ -45,8 +61,17 @@ import java.util.Objects;
 public abstract class AbstractRepositoryService implements RepositoryService {
 
     protected final RepositoryType REPOSITORY_TYPE;
+    protected ExecutorService executorService;
+    protected Bulkhead bulkhead;
+    protected ExecutorType executorType = ExecutorType.PLATFORM;
+    protected AphroditeMetrics metrics = AphroditeMetrics.NOOP;
+    protected List<RemoteCallInterceptor> interceptors = Collections.emptyList();
+    protected RemoteCallTracker remoteCalls;
     protected RepositoryConfig config;
     protected URL baseUrl;
+    protected ReplayConfig replayConfig;
+
+    private final Map<String, ExchangeProxy> proxies = new HashMap<>();
 
     protected abstract Log getLog();
 
@@ -56,6 +81,11 @@ public abstract class AbstractRepositoryService implements RepositoryService {
 
     @Override
     public boolean init(AphroditeConfig aphroditeConfig) {
+        executorType = aphroditeConfig.getExecutorType();
+        metrics = aphroditeConfig.getMetrics();
+        interceptors = aphroditeConfig.getInterceptors();
+        replayConfig = aphroditeConfig.getReplayConfig().orElse(null);
+
         Iterator<RepositoryConfig> i = aphroditeConfig.getRepositoryConfigs().iterator();
         while (i.hasNext()) {
             RepositoryConfig config = i.next();
@@ -82,9 +112,67 @@ public abstract class AbstractRepositoryService implements RepositoryService {
             Utils.logException(getLog(), errorMsg, e);
             return false;
         }
+
+        bulkhead = Bulkhead.create(REPOSITORY_TYPE.name().toLowerCase() + "-" + baseUrl.getHost(),
+                config.getBulkheadConfig(), executorType);
+        executorService = new TracingExecutorService(bulkhead);
+        remoteCalls = new RemoteCallTracker(REPOSITORY_TYPE.toString(), baseUrl.getHost(), metrics, interceptors,
+                config.getResilienceConfig(), getErrorClassifier());
         return true;
     }
 
+    @Override
+    public Optional<Bulkhead> getBulkhead() {
+        return Optional.ofNullable(bulkhead);
+    }
+
+    @Override
+    public Optional<CircuitBreaker> getCircuitBreaker() {
+        return remoteCalls == null ? Optional.empty() : Optional.of(remoteCalls.getCircuitBreaker());
+    }
+
+    /**
+     * Retrieve the url which this service must connect to in place of a url on its remote host. If the exchanges of
+     * this service are recorded or replayed, this is the url of a local <code>ExchangeProxy</code> for the host, which
+     * is closed when this service is destroyed.
+     *
+     * @param url a url on the remote host.
+     * @return the url to connect to.
+     * @throws IOException if the proxy cannot be started.
+     */
+    protected synchronized URL getConnectionUrl(URL url) throws IOException {
+        if (replayConfig == null)
+            return url;
+
+        String host = url.getProtocol() + "://" + url.getAuthority();
+        ExchangeProxy proxy = proxies.get(host);
+        if (proxy == null) {
+            proxy = ExchangeProxy.start(replayConfig, url);
+            proxies.put(host, proxy);
+        }
+        return proxy.getEndpoint(url);
+    }
+
+    /**
+     * @return the <code>ErrorClassifier</code> which decides which failed remote calls made by this service are
+     * retried. By default only connection failures and timeouts are retried.
+     */
+    protected ErrorClassifier getErrorClassifier() {
+        return ErrorClassifier.DEFAULT;
+    }
+
+    @Override
+    public void destroy() {
+        if (bulkhead != null)
+            bulkhead.shutdown();
+        closeProxies();
+    }
+
+    private synchronized void closeProxies() {
+        proxies.values().forEach(ExchangeProxy::close);
+        proxies.clear();
+    }
+
     @Override
     public Repository getRepository(URL url) throws NotFoundException {
         throw new UnsupportedOperationException("Not yet implemented.");
@@ -1,34 +1,216 @@
 package org.jboss.set.aphrodite.repository.services.github;
 
 import org.eclipse.egit.github.core.client.GitHubClient;
+import org.eclipse.egit.github.core.client.GitHubRequest;
+import org.eclipse.egit.github.core.client.GitHubResponse;
 import org.eclipse.egit.github.core.client.RequestException;
+import org.jboss.set.aphrodite.common.CountingInputStream;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.config.HttpConfig;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.eclipse.egit.github.core.client.IGitHubConstants.HOST_API;
 import static org.eclipse.egit.github.core.client.IGitHubConstants.HOST_DEFAULT;
 import static org.eclipse.egit.github.core.client.IGitHubConstants.HOST_GISTS;
+import static org.eclipse.egit.github.core.client.IGitHubConstants.PROTOCOL_HTTPS;
 
 /**
  * @author RyanEmerson
  */
 class CustomGitHubClient extends GitHubClient {
 
+    private final HttpConfig httpConfig;
+    private final Semaphore connections;
+    // Whether the current thread holds one of the connection permits, as some requests delegate to others
+    private final ThreadLocal<Boolean> holdsConnection = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    // The protocol, host and port which requests are sent to in place of the baseUri, or null to use the baseUri
+    private volatile String endpoint;
+
     public static CustomGitHubClient createClient(String url) {
+        return createClient(url, HttpConfig.DEFAULT, HttpConfig.DEFAULT.getMaxConnectionsPerHost());
+    }
+
+    /**
+     * @param url the url of the GitHub instance.
+     * @param httpConfig the timeouts and compression of each request.
+     * @param maxConnections the maximum number of requests which can be in flight at once, or zero for no limit.
+     */
+    public static CustomGitHubClient createClient(String url, HttpConfig httpConfig, int maxConnections) {
         try {
-            String host = new URL(url).getHost();
+            URL u = new URL(url);
+            String host = u.getHost();
             if (HOST_DEFAULT.equals(host) || HOST_GISTS.equals(host))
                 host = HOST_API;
-            return new CustomGitHubClient(host);
+            return new CustomGitHubClient(host, u.getPort(), u.getProtocol(), httpConfig, maxConnections);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
     }
 
     public CustomGitHubClient(String hostname) {
-        super(hostname);
+        this(hostname, -1, PROTOCOL_HTTPS, HttpConfig.DEFAULT, HttpConfig.DEFAULT.getMaxConnectionsPerHost());
+    }
+
+    public CustomGitHubClient(String hostname, int port, String scheme, HttpConfig httpConfig, int maxConnections) {
+        super(hostname, port, scheme);
+        this.httpConfig = httpConfig;
+        this.connections = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+    }
+
+    /**
+     * @return the protocol, host and port of the GitHub API, e.g. https://api.github.com.
+     */
+    URL getApiUrl() throws MalformedURLException {
+        return new URL(baseUri);
+    }
+
+    /**
+     * Send all requests to the endpoint in place of the GitHub API, e.g. to record or replay them via an
+     * <code>ExchangeProxy</code>. Links in responses, such as those to the next page of results, still refer to the
+     * GitHub API, so only their paths are used.
+     *
+     * @param endpoint the protocol, host and port to send requests to.
+     */
+    void setEndpoint(URL endpoint) {
+        this.endpoint = endpoint.getProtocol() + "://" + endpoint.getAuthority();
+    }
+
+    @Override
+    protected String createUri(String path) {
+        String uri = super.createUri(path);
+        String target = endpoint;
+        return target == null ? uri : target + uri.substring(baseUri.length());
+    }
+
+    /**
+     * Applies the configured timeouts and requests a gzip compressed response. Connections are pooled by the JDK's
+     * keep-alive cache, which reuses a connection once its response has been read in full, but retains at most
+     * <code>http.maxConnections</code> idle connections, see {@link HttpConfig#getKeepAliveConnections()}.
+     */
+    @Override
+    protected HttpURLConnection configureRequest(HttpURLConnection request) {
+        super.configureRequest(request);
+        request.setConnectTimeout(httpConfig.getConnectTimeoutMillis());
+        request.setReadTimeout(httpConfig.getReadTimeoutMillis());
+        if (httpConfig.isCompression())
+            request.setRequestProperty("Accept-Encoding", "gzip");
+        return request;
+    }
+
+    /**
+     * Wraps each response so that its size, before decompression, is reported to the <code>RemoteCallTracker</code>
+     * of the calling thread.
+     */
+    @Override
+    protected InputStream getStream(HttpURLConnection request) throws IOException {
+        InputStream stream = new CountingInputStream(super.getStream(request));
+        if ("gzip".equalsIgnoreCase(request.getContentEncoding()) && request.getContentLength() != 0)
+            return new GZIPInputStream(stream);
+        return stream;
+    }
+
+    @Override
+    public GitHubResponse get(GitHubRequest request) throws IOException {
+        return withConnection(() -> super.get(request));
+    }
+
+    @Override
+    public void post(String uri) throws IOException {
+        withConnection(() -> {
+            super.post(uri);
+            return null;
+        });
+    }
+
+    @Override
+    public <V> V post(String uri, Object params, Type type) throws IOException {
+        return withConnection(() -> super.post(uri, params, type));
+    }
+
+    @Override
+    public void put(String uri) throws IOException {
+        withConnection(() -> {
+            super.put(uri);
+            return null;
+        });
+    }
+
+    @Override
+    public <V> V put(String uri, Object params, Type type) throws IOException {
+        return withConnection(() -> super.put(uri, params, type));
+    }
+
+    @Override
+    public void delete(String uri) throws IOException {
+        delete(uri, null);
+    }
+
+    @Override
+    public void delete(String uri, Object params) throws IOException {
+        withConnection(() -> {
+            super.delete(uri, params);
+            return null;
+        });
+    }
+
+    /**
+     * Limits the number of requests which are in flight at once to the host, waiting for a connection if the limit
+     * has been reached.
+     */
+    private <V> V withConnection(Request<V> request) throws IOException {
+        if (connections == null || holdsConnection.get())
+            return request.send();
+
+        try {
+            connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for a connection to " + baseUri);
+        }
+        holdsConnection.set(Boolean.TRUE);
+        try {
+            return request.send();
+        } finally {
+            holdsConnection.set(Boolean.FALSE);
+            connections.release();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request<V> {
+        V send() throws IOException;
+    }
+
+    /**
+     * Reports any Retry-After period requested by GitHub, including the time until the rate limit resets once it has
+     * been exhausted, to the <code>RemoteCallTracker</code> of the calling thread.
+     */
+    @Override
+    protected GitHubClient updateRateLimits(HttpURLConnection request) {
+        String retryAfter = request.getHeaderField("Retry-After");
+        String remaining = request.getHeaderField("X-RateLimit-Remaining");
+        String reset = request.getHeaderField("X-RateLimit-Reset");
+        if (retryAfter != null) {
+            RemoteCallTracker.recordRetryAfter(retryAfter);
+        } else if ("0".equals(remaining) && reset != null) {
+            try {
+                long resetMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim()));
+                RemoteCallTracker.recordRetryAfter(resetMillis - System.currentTimeMillis());
+            } catch (NumberFormatException e) {
+                // Ignore an invalid header and fall back to the standard backoff
+            }
+        }
+        return super.updateRateLimits(request);
     }
 
     /**
@@ -43,10 +225,13 @@ class CustomGitHubClient extends GitHubClient {
      */
     public void deleteWith200Response(final String uri)
             throws IOException {
-        HttpURLConnection request = createDelete(uri);
-        final int code = request.getResponseCode();
-        updateRateLimits(request);
-        if (code != 200 && code != 204)
-            throw new RequestException(parseError(getStream(request)), code);
+        withConnection(() -> {
+            HttpURLConnection request = createDelete(uri);
+            final int code = request.getResponseCode();
+            updateRateLimits(request);
+            if (code != 200 && code != 204)
+                throw new RequestException(parseError(getStream(request)), code);
+            return null;
+        });
     }
 }
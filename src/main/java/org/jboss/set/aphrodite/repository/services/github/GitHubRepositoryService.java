@@ -28,10 +28,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -41,6 +43,8 @@ import org.eclipse.egit.github.core.PullRequest;
 import org.eclipse.egit.github.core.RepositoryBranch;
 import org.eclipse.egit.github.core.RepositoryCommit;
 import org.eclipse.egit.github.core.RepositoryId;
+import org.eclipse.egit.github.core.client.NoSuchPageException;
+import org.eclipse.egit.github.core.client.PageIterator;
 import org.eclipse.egit.github.core.client.RequestException;
 import org.eclipse.egit.github.core.service.CollaboratorService;
 import org.eclipse.egit.github.core.service.CommitService;
@@ -49,7 +53,11 @@ import org.eclipse.egit.github.core.service.LabelService;
 import org.eclipse.egit.github.core.service.PullRequestService;
 import org.eclipse.egit.github.core.service.RepositoryService;
 import org.eclipse.egit.github.core.service.UserService;
+import org.jboss.set.aphrodite.common.ErrorClassifier;
+import org.jboss.set.aphrodite.common.LinkScanner;
+import org.jboss.set.aphrodite.common.LinkScanner.PullRequestReference;
 import org.jboss.set.aphrodite.common.Utils;
+import org.jboss.set.aphrodite.config.HttpConfig;
 import org.jboss.set.aphrodite.config.RepositoryConfig;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.Label;
@@ -67,7 +75,10 @@ import org.jboss.set.aphrodite.spi.NotFoundException;
 public class GitHubRepositoryService extends AbstractRepositoryService {
 
     private static final Log LOG = LogFactory.getLog(org.jboss.set.aphrodite.spi.RepositoryService.class);
+    private static final int PULL_REQUEST_PAGE_SIZE = 100;
+
     private final GitHubWrapper WRAPPER = new GitHubWrapper();
+    private final Map<String, PullRequestSync> pullRequestSyncs = new ConcurrentHashMap<>();
     private CustomGitHubClient gitHubClient;
 
     public GitHubRepositoryService() {
@@ -79,6 +90,21 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         return LOG;
     }
 
+    /**
+     * A response from GitHub is only retryable if its status indicates that GitHub is temporarily unavailable. Abuse
+     * and rate limit responses carry a Retry-After period, so are retried by the <code>RemoteCallTracker</code>
+     * regardless of their status.
+     */
+    @Override
+    protected ErrorClassifier getErrorClassifier() {
+        return ErrorClassifier.forStatusCode(GitHubRepositoryService::getStatusCode);
+    }
+
+    private static OptionalInt getStatusCode(Throwable error) {
+        return error instanceof RequestException ? OptionalInt.of(((RequestException) error).getStatus())
+                : OptionalInt.empty();
+    }
+
     @Override
     public boolean init(RepositoryConfig config) {
         boolean parentInitiated = super.init(config);
@@ -86,9 +112,16 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
             return false;
 
         try {
-            gitHubClient = CustomGitHubClient.createClient(baseUrl.toString());
+            HttpConfig httpConfig = config.getHttpConfig();
+            int maxConnections = httpConfig.getMaxConnectionsPerHost(config.getBulkheadConfig());
+            if (maxConnections > HttpConfig.getKeepAliveConnections())
+                Utils.logWarnMessage(LOG, "Only " + HttpConfig.getKeepAliveConnections() + " of the " + maxConnections +
+                        " connections to " + baseUrl.getHost() + " can be reused, increase 'http.maxConnections'");
+            gitHubClient = CustomGitHubClient.createClient(baseUrl.toString(), httpConfig, maxConnections);
+            if (replayConfig != null)
+                gitHubClient.setEndpoint(getConnectionUrl(gitHubClient.getApiUrl()));
             gitHubClient.setCredentials(config.getUsername(), config.getPassword());
-            new UserService(gitHubClient).getUser();
+            remoteCalls.call("getUser", () -> new UserService(gitHubClient).getUser());
         } catch (IOException e) {
             Utils.logException(LOG, "Authentication failed for RepositoryService: " + this.getClass().getName(), e);
             return false;
@@ -114,7 +147,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
 
         PullRequestService pullRequestService = new PullRequestService(gitHubClient);
         try {
-            PullRequest pullRequest = pullRequestService.getPullRequest(repositoryId, pullId);
+            PullRequest pullRequest = remoteCalls.call("getPullRequest", url,
+                    () -> pullRequestService.getPullRequest(repositoryId, pullId));
             return WRAPPER.pullRequestToPatch(pullRequest);
         } catch (IOException e) {
             Utils.logException(LOG, e);
@@ -129,7 +163,7 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         RepositoryId id = RepositoryId.createFromUrl(url);
         RepositoryService rs = new RepositoryService(gitHubClient);
         try {
-            List<RepositoryBranch> branches = rs.getBranches(id);
+            List<RepositoryBranch> branches = remoteCalls.call("getBranches", url, () -> rs.getBranches(id));
             return WRAPPER.toAphroditeRepository(url, branches);
         } catch (IOException e) {
             Utils.logException(LOG, e);
@@ -142,7 +176,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         String trackerId = issue.getTrackerId().orElseThrow(() -> new IllegalArgumentException("Issue.trackerId must be set."));
         try {
             GitHubGlobalSearchService searchService = new GitHubGlobalSearchService(gitHubClient);
-            List<SearchResult> searchResults = searchService.searchAllPullRequests(trackerId);
+            List<SearchResult> searchResults = remoteCalls.call("searchAllPullRequests",
+                    () -> searchService.searchAllPullRequests(trackerId));
             return searchResults.stream()
                     .map(pr -> getPatch(pr.getUrl()))
                     .filter(patch -> patch != null)
@@ -153,16 +188,31 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         }
     }
 
+    /**
+     * The pull requests of each repository and state are held locally, so after the first call for a repository and
+     * state only the pull requests which have been updated since the previous call are retrieved.
+     */
     @Override
     public List<Patch> getPatchesByState(Repository repository, PatchState state) throws NotFoundException {
         URL url = repository.getURL();
         checkHost(url);
 
         RepositoryId id = RepositoryId.createFromUrl(url);
-        PullRequestService pullRequestService = new PullRequestService(gitHubClient);
+        String githubState = state.toString().toLowerCase();
+        PullRequestService pullRequestService = new UpdatedPullRequestService(gitHubClient);
         try {
-            String githubState = state.toString().toLowerCase();
-            List<PullRequest> pullRequests = pullRequestService.getPullRequests(id, githubState);
+            List<PullRequest> pullRequests;
+            if (state == PatchState.UNDEFINED) {
+                pullRequests = remoteCalls.call("getPullRequests", url,
+                        () -> pullRequestService.getPullRequests(id, githubState));
+            } else {
+                PullRequestSync sync = pullRequestSyncs.computeIfAbsent(id.generateId() + "#" + githubState,
+                        key -> new PullRequestSync(githubState));
+                pullRequests = sync.sync(
+                        () -> pages(url, pullRequestService.pagePullRequests(id, githubState, PULL_REQUEST_PAGE_SIZE)),
+                        () -> pages(url, pullRequestService.pagePullRequests(id, UpdatedPullRequestService.STATE_ALL,
+                                PULL_REQUEST_PAGE_SIZE)));
+            }
             return WRAPPER.toAphroditePatches(pullRequests);
         } catch (IOException e) {
             Utils.logException(LOG, e);
@@ -170,6 +220,24 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         }
     }
 
+    /**
+     * Fetch each page as a separate remote call, so that a failed page is retried without refetching the pages before
+     * it. Pages are only fetched on demand, so a sync which stops at its watermark does not fetch later pages.
+     */
+    private PullRequestSync.PageSource pages(URL url, PageIterator<PullRequest> iterator) {
+        return () -> {
+            if (!iterator.hasNext())
+                return null;
+            return remoteCalls.call("getPullRequestsPage", url, () -> {
+                try {
+                    return iterator.next();
+                } catch (NoSuchPageException e) {
+                    throw e.getCause();
+                }
+            });
+        };
+    }
+
     @Override
     public void addCommentToPatch(Patch patch, String comment) throws NotFoundException {
         URL url = patch.getURL();
@@ -179,7 +247,7 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         RepositoryId id = RepositoryId.createFromUrl(url);
         try {
             IssueService is = new IssueService(gitHubClient);
-            is.createComment(id, pullId, comment);
+            remoteCalls.callNonIdempotent("createComment", url, () -> is.createComment(id, pullId, comment));
         } catch (IOException e) {
             Utils.logException(LOG, e);
             throw new NotFoundException(e);
@@ -193,7 +261,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
 
         RepositoryId id = RepositoryId.createFromUrl(url);
         try {
-            return new CollaboratorService(gitHubClient).isCollaborator(id, gitHubClient.getUser());
+            return remoteCalls.call("isCollaborator", url,
+                    () -> new CollaboratorService(gitHubClient).isCollaborator(id, gitHubClient.getUser()));
         } catch (IOException e) {
             if (e instanceof RequestException && ((RequestException) e).getStatus() == 403)
                 return false;
@@ -213,14 +282,15 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         IssueService issueService = new IssueService(gitHubClient);
         try {
             org.eclipse.egit.github.core.Label newLabel = getLabel(repositoryId, labelName);
-            org.eclipse.egit.github.core.Issue issue = issueService.getIssue(repositoryId, patchId);
+            org.eclipse.egit.github.core.Issue issue = remoteCalls.call("getIssue", url,
+                    () -> issueService.getIssue(repositoryId, patchId));
             List<org.eclipse.egit.github.core.Label> issueLabels = issue.getLabels();
             if (issueLabels.contains(newLabel))
                 return;
 
             issueLabels.add(newLabel);
             issue.setLabels(issueLabels);
-            issueService.editIssue(repositoryId, issue);
+            remoteCalls.callNonIdempotent("editIssue", url, () -> issueService.editIssue(repositoryId, issue));
         } catch (IOException e) {
             Utils.logException(LOG, e);
             throw new NotFoundException(e);
@@ -230,7 +300,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
     private org.eclipse.egit.github.core.Label getLabel(RepositoryId repositoryId, String labelName)
             throws NotFoundException, IOException {
         LabelService labelService = new LabelService(gitHubClient);
-        List<org.eclipse.egit.github.core.Label> labels = labelService.getLabels(repositoryId);
+        List<org.eclipse.egit.github.core.Label> labels = remoteCalls.call("getLabels",
+                () -> labelService.getLabels(repositoryId));
         return getLabel(repositoryId, labelName, labels);
     }
 
@@ -255,7 +326,7 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         LabelService labelService = new LabelService(gitHubClient);
         List<org.eclipse.egit.github.core.Label> labels;
         try {
-            labels = labelService.getLabels(repositoryId);
+            labels = remoteCalls.call("getLabels", url, () -> labelService.getLabels(repositoryId));
         } catch (IOException e) {
             Utils.logException(LOG, e);
             throw new NotFoundException(e);
@@ -272,7 +343,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         RepositoryId repositoryId = RepositoryId.createFromUrl(url);
         IssueService issueService = new IssueService(gitHubClient);
         try {
-            org.eclipse.egit.github.core.Issue issue = issueService.getIssue(repositoryId, patchId);
+            org.eclipse.egit.github.core.Issue issue = remoteCalls.call("getIssue", url,
+                    () -> issueService.getIssue(repositoryId, patchId));
             return WRAPPER.pullRequestLabeltoPatchLabel(issue.getLabels());
         } catch (IOException e) {
             Utils.logException(LOG, e);
@@ -290,13 +362,15 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         LabelService labelService = new LabelService(gitHubClient);
         try {
             List<org.eclipse.egit.github.core.Label> issueLabels = new ArrayList<>();
-            List<org.eclipse.egit.github.core.Label> existingLabels = labelService.getLabels(repositoryId);
+            List<org.eclipse.egit.github.core.Label> existingLabels = remoteCalls.call("getLabels", url,
+                    () -> labelService.getLabels(repositoryId));
 
             for (Label label : labels) {
                 issueLabels.add(getLabel(repositoryId, label.getName(), existingLabels));
             }
             issueLabels.add(existingLabels.get(0));
-            labelService.setLabels(repositoryId, Long.toString(patchId), issueLabels);
+            remoteCalls.callNonIdempotent("setLabels", url,
+                    () -> labelService.setLabels(repositoryId, Long.toString(patchId), issueLabels));
         } catch (IOException e) {
             Utils.logException(LOG, e);
             throw new NotFoundException(e);
@@ -311,7 +385,8 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         IssueService issueService = new IssueService(gitHubClient);
         RepositoryId repositoryId = RepositoryId.createFromUrl(url);
         try {
-            List<org.eclipse.egit.github.core.Label> labels = issueService.getIssue(repositoryId, patch.getId()).getLabels();
+            List<org.eclipse.egit.github.core.Label> labels = remoteCalls.call("getIssue", url,
+                    () -> issueService.getIssue(repositoryId, patch.getId())).getLabels();
 
             for (org.eclipse.egit.github.core.Label label : labels)
                 if (label.getName().equalsIgnoreCase(name)) {
@@ -334,18 +409,18 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         try {
             URI uri = new URI(baseUrl.getProtocol(), baseUrl.getHost(), path, null);
             path = uri.toASCIIString().substring(baseUrl.toString().length() - 1); // -1 to keep / at start
-            gitHubClient.deleteWith200Response(path);
+            String escapedPath = path;
+            remoteCalls.call("deleteLabel", () -> {
+                gitHubClient.deleteWith200Response(escapedPath);
+                return null;
+            });
         } catch (URISyntaxException e) {
             throw new IOException(e);
         }
     }
 
-    private static final Pattern RELATED_PR_PATTERN = Pattern
-            .compile(".*github\\.com.*?/([a-zA-Z_0-9-]*)/([a-zA-Z_0-9-]*)/pull.?/(\\d+)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern ABBREVIATED_RELATED_PR_PATTERN = Pattern.compile("([a-zA-Z_0-9-//]*)#(\\d+)",
-            Pattern.CASE_INSENSITIVE);
-    private static final Pattern ABBREVIATED_RELATED_PR_PATTERN_EXTERNAL_REPO = Pattern
-            .compile("([a-zA-Z_0-9-]*)/([a-zA-Z_0-9-]*)#(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final LinkScanner RELATED_PR_SCANNER = new LinkScanner(Collections.emptySet(),
+            Arrays.asList("github.com", "www.github.com", "api.github.com"));
 
     @Override
     public List<Patch> findPatchesRelatedTo(Patch patch) {
@@ -373,37 +448,14 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
 
     private List<URL> getPRFromDescription(URL url, String content) throws MalformedURLException, URISyntaxException {
         String[] paths = url.getPath().split("/");
-        Matcher matcher = RELATED_PR_PATTERN.matcher(content);
         List<URL> relatedPullRequests = new ArrayList<>();
-        while (matcher.find()) {
-            if (matcher.groupCount() == 3) {
-                URL relatedPullRequest = new URI(
-                        "https://github.com/" + matcher.group(1) + "/" + matcher.group(2) + "/pulls/" + matcher.group(3))
-                                .toURL();
-                relatedPullRequests.add(relatedPullRequest);
-            }
-        }
-        Matcher abbreviatedMatcher = ABBREVIATED_RELATED_PR_PATTERN.matcher(content);
-        while (abbreviatedMatcher.find()) {
-            String match = abbreviatedMatcher.group();
-            Matcher abbreviatedExternalMatcher = ABBREVIATED_RELATED_PR_PATTERN_EXTERNAL_REPO.matcher(match);
-            if (abbreviatedExternalMatcher.find()) {
-                if (abbreviatedExternalMatcher.groupCount() == 3) {
-                    URL relatedPullRequest = new URI("https://github.com/"
-                            + abbreviatedExternalMatcher.group(1) + "/"
-                            + abbreviatedExternalMatcher.group(2) + "/pulls/"
-                            + abbreviatedExternalMatcher.group(3)).toURL();
-                    relatedPullRequests.add(relatedPullRequest);
-                    continue;
-                }
-            }
-
-            if (abbreviatedMatcher.groupCount() == 2) {
-                URL relatedPullRequest = new URI(
-                        "https://github.com/" + paths[1] + "/" + paths[2] + "/" + "/pulls/" + abbreviatedMatcher.group(2))
-                                .toURL();
-                relatedPullRequests.add(relatedPullRequest);
-            }
+        for (PullRequestReference reference : RELATED_PR_SCANNER.scan(content).getPullRequests()) {
+            // Shorthand references without an owner and repository refer to the repository of the patch
+            String owner = reference.getOwner().orElse(paths[1]);
+            String repository = reference.getRepository().orElse(paths[2]);
+            URL relatedPullRequest = new URI(
+                    "https://github.com/" + owner + "/" + repository + "/pulls/" + reference.getNumber()).toURL();
+            relatedPullRequests.add(relatedPullRequest);
         }
         return relatedPullRequests;
     }
@@ -420,12 +472,15 @@ public class GitHubRepositoryService extends AbstractRepositoryService {
         RepositoryId repositoryId = RepositoryId.createFromUrl(url);
         try {
             String sha = null;
-            List<RepositoryCommit> commits = pullrequestService.getCommits(repositoryId, patchId);
+            List<RepositoryCommit> commits = remoteCalls.call("getCommits", url,
+                    () -> pullrequestService.getCommits(repositoryId, patchId));
             if (commits.size() > 0) {
                 sha = commits.get(commits.size() - 1).getSha();
             }
             // statuses contains Finished and Started TeamCity Build
-            List<CommitStatus> statuses = commitService.getStatuses(repositoryId, sha);
+            String latestSha = sha;
+            List<CommitStatus> statuses = remoteCalls.call("getStatuses", url,
+                    () -> commitService.getStatuses(repositoryId, latestSha));
             if (statuses.size() > 0) {
                 String sta = getCombineStatus(statuses);
                 status = org.jboss.set.aphrodite.domain.CommitStatus.fromString(sta);
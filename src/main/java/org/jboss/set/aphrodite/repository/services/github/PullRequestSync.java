@@ -0,0 +1,177 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.repository.services.github;
+
+import org.eclipse.egit.github.core.PullRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * A locally held set of the pull requests of a repository which are in a given state, e.g. "open".
+ *
+ * The set is populated by listing every pull request in the state once. After that, each sync lists the pull requests
+ * of the repository in all states, most recently updated first, and stops at the first pull request which has not been
+ * updated since the last sync (the watermark). Updated pull requests which are in the state are added to the set, and
+ * those which have left the state are removed from it, so a sync usually costs a single page.
+ *
+ * The listing which populates the set is paged by offset, so a pull request which leaves the state whilst it is in
+ * progress moves the later pages up by one, and the first pull request of the next page is never listed. The listing
+ * is therefore followed by a sync from the most recent update before it started, and is repeated if that sync removes
+ * a listed pull request, up to {@link #MAX_LISTINGS} times. Should pull requests still be leaving the state after
+ * that, a skipped pull request is only added to the set once it is next updated.
+ *
+ * Pull requests updated at the watermark itself are merged again by the next sync, as the timestamps provided by
+ * GitHub only have a resolution of one second.
+ *
+ * @author Ryan Emerson
+ */
+class PullRequestSync {
+
+    static final int MAX_LISTINGS = 3;
+
+    /**
+     * A source of pages of pull requests.
+     */
+    @FunctionalInterface
+    interface PageSource {
+        /**
+         * @return the next page of pull requests, or null if there are no more pages.
+         */
+        Collection<PullRequest> nextPage() throws IOException;
+    }
+
+    private final String state;
+    private final NavigableMap<Integer, PullRequest> pullRequests = new TreeMap<>(Comparator.reverseOrder());
+    private Date watermark;
+    private int pagesRead;
+
+    /**
+     * @param state the GitHub state of the pull requests in this set, i.e. "open" or "closed".
+     */
+    PullRequestSync(String state) {
+        this.state = state;
+    }
+
+    /**
+     * Bring the set up to date.
+     *
+     * @param all creates a source of the pull requests which are in this set's state, only used if the set has not
+     *            been populated.
+     * @param updated creates a source of the pull requests of the repository in all states, in descending order of
+     *                when they were updated.
+     * @return the pull requests which are in this set's state, newest first.
+     */
+    synchronized List<PullRequest> sync(Supplier<PageSource> all, Supplier<PageSource> updated) throws IOException {
+        if (watermark == null)
+            populate(all, updated);
+        else
+            syncSince(updated.get(), watermark);
+        return new ArrayList<>(pullRequests.values());
+    }
+
+    /**
+     * @return the date at which the most recently updated pull request seen by this set was updated, or null if the
+     * set has not been populated.
+     */
+    synchronized Date getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return the number of pages read by all syncs of this set.
+     */
+    synchronized int getPagesRead() {
+        return pagesRead;
+    }
+
+    private void populate(Supplier<PageSource> all, Supplier<PageSource> updated) throws IOException {
+        for (int listing = 1; listing <= MAX_LISTINGS; listing++) {
+            // Any pull request which changes during the listing is updated after the most recent update before it
+            Collection<PullRequest> latest = nextPage(updated.get());
+            Date started = null;
+            if (latest != null) {
+                for (PullRequest pullRequest : latest) {
+                    Date updatedAt = pullRequest.getUpdatedAt();
+                    if (updatedAt != null && (started == null || updatedAt.after(started)))
+                        started = updatedAt;
+                }
+            }
+
+            pullRequests.clear();
+            PageSource source = all.get();
+            for (Collection<PullRequest> page = nextPage(source); page != null; page = nextPage(source))
+                page.forEach(this::merge);
+
+            if (started == null || !syncSince(updated.get(), started))
+                return;
+        }
+    }
+
+    /**
+     * Merge every pull request which has been updated since the given date.
+     *
+     * @return true if a pull request was removed from the set, as it has left this set's state.
+     */
+    private boolean syncSince(PageSource updated, Date since) throws IOException {
+        boolean removed = false;
+        for (Collection<PullRequest> page = nextPage(updated); page != null; page = nextPage(updated)) {
+            for (PullRequest pullRequest : page) {
+                if (pullRequest.getUpdatedAt() != null && pullRequest.getUpdatedAt().before(since))
+                    return removed;
+                removed |= merge(pullRequest);
+            }
+        }
+        return removed;
+    }
+
+    private Collection<PullRequest> nextPage(PageSource source) throws IOException {
+        Collection<PullRequest> page = source.nextPage();
+        if (page != null)
+            pagesRead++;
+        return page;
+    }
+
+    /**
+     * @return true if the pull request was removed from the set.
+     */
+    private boolean merge(PullRequest pullRequest) {
+        boolean removed = false;
+        if (state.equalsIgnoreCase(pullRequest.getState()))
+            pullRequests.put(pullRequest.getNumber(), pullRequest);
+        else
+            removed = pullRequests.remove(pullRequest.getNumber()) != null;
+
+        Date updatedAt = pullRequest.getUpdatedAt();
+        if (updatedAt != null && (watermark == null || updatedAt.after(watermark)))
+            watermark = updatedAt;
+        return removed;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.repository.services.github;
+
+import org.eclipse.egit.github.core.IRepositoryIdProvider;
+import org.eclipse.egit.github.core.PullRequest;
+import org.eclipse.egit.github.core.client.GitHubClient;
+import org.eclipse.egit.github.core.client.PagedRequest;
+import org.eclipse.egit.github.core.service.PullRequestService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A <code>PullRequestService</code> which lists pull requests in descending order of when they were last updated,
+ * rather than when they were created.
+ *
+ * @author Ryan Emerson
+ */
+public class UpdatedPullRequestService extends PullRequestService {
+
+    public static final String STATE_ALL = "all";
+
+    public UpdatedPullRequestService(GitHubClient client) {
+        super(client);
+    }
+
+    @Override
+    protected PagedRequest<PullRequest> createPullsRequest(IRepositoryIdProvider repository, String state, int start,
+            int size) {
+        PagedRequest<PullRequest> request = super.createPullsRequest(repository, state, start, size);
+        Map<String, String> params = new HashMap<>();
+        if (request.getParams() != null)
+            params.putAll(request.getParams());
+        params.put("sort", "updated");
+        params.put("direction", "desc");
+        request.setParams(params);
+        return request;
+    }
+}
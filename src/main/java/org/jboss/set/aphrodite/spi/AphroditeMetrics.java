@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.spi;
+
+/**
+ * A sink for the metrics recorded for every remote call made by Aphrodite's services. Implementations are
+ * discovered via the <code>ServiceLoader</code>; if none is present, the in-memory implementation
+ * {@link org.jboss.set.aphrodite.metrics.InMemoryMetrics} is used.
+ *
+ * Implementations are invoked concurrently by all services, so must be thread-safe and should not block.
+ *
+ * @author Ryan Emerson
+ */
+public interface AphroditeMetrics {
+
+    /**
+     * An <code>AphroditeMetrics</code> instance which discards all metrics.
+     */
+    AphroditeMetrics NOOP = new AphroditeMetrics() {
+        @Override
+        public void recordCall(String service, String host, String method, long durationNanos, long responseBytes,
+                boolean success) {
+        }
+    };
+
+    /**
+     * Record the completion of a single remote call.
+     *
+     * @param service the type of service which made the call, e.g. "jira" or "github".
+     * @param host the host which the call was made against.
+     * @param method the remote method, or the service operation, which was invoked.
+     * @param durationNanos the time taken to complete the call in nanoseconds.
+     * @param responseBytes the size of the response body in bytes, or 0 if this could not be determined.
+     * @param success <code>true</code> if the call completed without an exception, otherwise <code>false</code>.
+     */
+    void recordCall(String service, String host, String method, long durationNanos, long responseBytes,
+            boolean success);
+}
@@ -22,17 +22,23 @@
 
 package org.jboss.set.aphrodite.spi;
 
+import org.jboss.set.aphrodite.common.Bulkhead;
+import org.jboss.set.aphrodite.common.CircuitBreaker;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
 import org.jboss.set.aphrodite.config.IssueTrackerConfig;
 import org.jboss.set.aphrodite.domain.Comment;
 import org.jboss.set.aphrodite.domain.Issue;
 import org.jboss.set.aphrodite.domain.Patch;
 import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.domain.UpdateResult;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface IssueTrackerService {
 
@@ -75,6 +81,20 @@ public interface IssueTrackerService {
      */
     List<Issue> getIssuesAssociatedWith(Patch patch);
 
+    /**
+     * Retrieve the Issues associated with each of the provided patches. Implementations should retrieve each distinct
+     * issue once, however many of the patches refer to it.
+     *
+     * @param patches the <code>Patch</code> objects whose associated Issues should be returned.
+     * @return the associated issues of each patch, in the iteration order of <code>patches</code>.
+     */
+    default Map<Patch, List<Issue>> getIssuesAssociatedWith(Collection<Patch> patches) {
+        Map<Patch, List<Issue>> issues = new LinkedHashMap<>();
+        for (Patch patch : patches)
+            issues.put(patch, getIssuesAssociatedWith(patch));
+        return issues;
+    }
+
     /**
      * Retrieve an issue object associated with the given <code>URL</code>.
      *
@@ -91,6 +111,7 @@ public interface IssueTrackerService {
      *
      * @param urls a collection of issue URLs.
      * @return a list of <code>Issue</code> objects associated with the provided urls.
+     * @throws RemoteServiceException if the issue tracker cannot be reached.
      */
     List<Issue> getIssues(Collection<URL> urls);
 
@@ -100,6 +121,7 @@ public interface IssueTrackerService {
      * @param searchCriteria all set fields will be search for.
      * @return a list of all <code>Issue</code> objects which match the specified searchCriteria,
      *         or an empty list if no issues match the searched criteria or the searchCriteria object contains no entries.
+     * @throws RemoteServiceException if the issue tracker cannot be reached.
      */
     List<Issue> searchIssues(SearchCriteria searchCriteria);
 
@@ -126,6 +148,29 @@ public interface IssueTrackerService {
      */
     boolean updateIssue(Issue issue) throws NotFoundException, AphroditeException;
 
+    /**
+     * Update all of the provided issues at the remote issue tracker service. A failure to update one issue
+     * does not prevent the remaining issues from being updated.
+     *
+     * The default implementation updates each issue in turn with {@link #updateIssue(Issue)}, implementations
+     * should override this method if the remote service can apply multiple updates in a single request.
+     *
+     * @param issues the issues to be updated at the associated <code>IssueTrackerService</code>
+     * @return the result of each update, in the iteration order of <code>issues</code>.
+     */
+    default List<UpdateResult> updateIssues(Collection<Issue> issues) {
+        List<UpdateResult> results = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            try {
+                results.add(updateIssue(issue) ? UpdateResult.success(issue) :
+                        UpdateResult.failure(issue, new AphroditeException("Unable to update issue: " + issue.getURL())));
+            } catch (NotFoundException | AphroditeException | RuntimeException e) {
+                results.add(UpdateResult.failure(issue, e));
+            }
+        }
+        return results;
+    }
+
     /**
      * Adds a new comment to the specified issue.
      *
@@ -153,6 +198,35 @@ public interface IssueTrackerService {
      */
     boolean addCommentToIssue(Collection<Issue> issues, Comment comment);
 
+    /**
+     * Retrieve the <code>Bulkhead</code> which executes all concurrent requests made by this service.
+     *
+     * @return the <code>Bulkhead</code> used by this service, or an empty <code>Optional</code> if this service
+     * does not execute requests concurrently.
+     */
+    default Optional<Bulkhead> getBulkhead() {
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieve the <code>CircuitBreaker</code> which guards all remote calls made by this service.
+     *
+     * @return the <code>CircuitBreaker</code> used by this service, or an empty <code>Optional</code> if this
+     * service does not use one.
+     */
+    default Optional<CircuitBreaker> getCircuitBreaker() {
+        return Optional.empty();
+    }
+
+    /**
+     * Discard any state held locally for the issue at the provided <code>URL</code>, so that it is retrieved again
+     * by the next request. This is called when a webhook reports that the issue has changed.
+     *
+     * @param url the <code>URL</code> of the issue which has changed.
+     */
+    default void invalidate(URL url) {
+    }
+
     /**
      * allows to destroy and deallocate resources
      */
@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.spi;
+
+import org.jboss.set.aphrodite.trace.Span;
+
+/**
+ * A hook invoked around every remote call made by Aphrodite's services. Implementations are discovered via the
+ * <code>ServiceLoader</code>, and may also be registered programmatically via
+ * {@link org.jboss.set.aphrodite.config.AphroditeConfig#getInterceptors()}.
+ *
+ * Each remote call is represented by a {@link Span}, whose attributes {@link Span#SERVICE}, {@link Span#HOST},
+ * {@link Span#METHOD} and {@link Span#TARGET} describe the call. Interceptors are invoked on the thread making the
+ * call, so must be thread-safe; any exception thrown by an interceptor is logged and ignored.
+ *
+ * @author Ryan Emerson
+ */
+public interface RemoteCallInterceptor {
+
+    /**
+     * Invoked immediately before a remote call is made.
+     *
+     * @param span the span of the remote call.
+     */
+    default void before(Span span) {
+    }
+
+    /**
+     * Invoked once a remote call has completed.
+     *
+     * @param span the span of the remote call, which has ended.
+     * @param error the exception thrown by the call, or null if the call was successful.
+     */
+    default void after(Span span, Throwable error) {
+    }
+
+    /**
+     * Invoked once an <code>Aphrodite</code> facade call has completed, with the root span of its trace. The
+     * descendants of the root span represent every remote call which the facade call produced.
+     *
+     * @param root the root span of the completed trace.
+     */
+    default void traceCompleted(Span root) {
+    }
+}
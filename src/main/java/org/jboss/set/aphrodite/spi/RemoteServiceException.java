@@ -0,0 +1,42 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.spi;
+
+/**
+ * Thrown when a remote service fails to complete a request, for example because the service is unreachable or
+ * responded with a server error, after any retries have been exhausted.
+ *
+ * @author Ryan Emerson
+ */
+public class RemoteServiceException extends RuntimeException {
+
+    private static final long serialVersionUID = 2093187453710935812L;
+
+    public RemoteServiceException(String message) {
+        super(message);
+    }
+
+    public RemoteServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
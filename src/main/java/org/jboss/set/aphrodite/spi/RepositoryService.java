@@ -24,7 +24,10 @@ package org.jboss.set.aphrodite.spi;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Optional;
 
+import org.jboss.set.aphrodite.common.Bulkhead;
+import org.jboss.set.aphrodite.common.CircuitBreaker;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
 import org.jboss.set.aphrodite.config.RepositoryConfig;
 import org.jboss.set.aphrodite.domain.CommitStatus;
@@ -183,6 +186,36 @@ public interface RepositoryService {
      */
     CommitStatus getCommitStatusFromPatch(Patch patch) throws NotFoundException;
 
+    /**
+     * Retrieve the <code>Bulkhead</code> which executes all concurrent requests made by this service.
+     *
+     * @return the <code>Bulkhead</code> used by this service, or an empty <code>Optional</code> if this service
+     * does not execute requests concurrently.
+     */
+    default Optional<Bulkhead> getBulkhead() {
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieve the <code>CircuitBreaker</code> which guards all remote calls made by this service.
+     *
+     * @return the <code>CircuitBreaker</code> used by this service, or an empty <code>Optional</code> if this
+     * service does not use one.
+     */
+    default Optional<CircuitBreaker> getCircuitBreaker() {
+        return Optional.empty();
+    }
+
+    /**
+     * Discard any state held locally for the patch or repository at the provided <code>URL</code>, so that it is
+     * retrieved again by the next request. This is called when a webhook reports that the patch or repository has
+     * changed.
+     *
+     * @param url the <code>URL</code> of the patch or repository which has changed.
+     */
+    default void invalidate(URL url) {
+    }
+
     /**
      * allows to destroy and deallocate resources
      */
@@ -48,6 +48,8 @@ import javax.json.JsonValue;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.jboss.set.aphrodite.Aphrodite;
+import org.jboss.set.aphrodite.common.CountingInputStream;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
 import org.jboss.set.aphrodite.common.Utils;
 import org.jboss.set.aphrodite.config.AphroditeConfig;
 import org.jboss.set.aphrodite.config.StreamConfig;
@@ -56,7 +58,9 @@ import org.jboss.set.aphrodite.domain.Codebase;
 import org.jboss.set.aphrodite.domain.Repository;
 import org.jboss.set.aphrodite.domain.Stream;
 import org.jboss.set.aphrodite.domain.StreamComponent;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
 import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
 import org.jboss.set.aphrodite.spi.StreamService;
 
 /**
@@ -72,10 +76,14 @@ public class JsonStreamService implements StreamService {
 
     private final Map<String, Stream> streamMap = new HashMap<>();
     private Aphrodite aphrodite;
+    private AphroditeMetrics metrics;
+    private List<RemoteCallInterceptor> interceptors;
 
     @Override
     public boolean init(Aphrodite aphrodite, AphroditeConfig config) throws NotFoundException {
         this.aphrodite = aphrodite;
+        this.metrics = config.getMetrics();
+        this.interceptors = config.getInterceptors();
         Iterator<StreamConfig> i = config.getStreamConfigs().iterator();
         while (i.hasNext()) {
             StreamConfig streamConfig = i.next();
@@ -89,9 +97,10 @@ public class JsonStreamService implements StreamService {
 
     private boolean init(StreamConfig config) throws NotFoundException {
         if (config.getURL().isPresent()) {
-            readJsonFromURL(config.getURL().get());
+            URL url = config.getURL().get();
+            readJsonFromURL(url, new RemoteCallTracker("stream", url.getHost(), metrics, interceptors));
         } else if (config.getStreamFile().isPresent()) {
-            readJsonFromFile(config.getStreamFile().get());
+            readJsonFromFile(config.getStreamFile().get(), new RemoteCallTracker("stream", "file", metrics, interceptors));
         } else {
             throw new IllegalArgumentException("StreamConfig requires either a URL or File to be specified");
         }
@@ -108,9 +117,9 @@ public class JsonStreamService implements StreamService {
         return streamMap.get(streamName);
     }
 
-    private void readJsonFromFile(File file) throws NotFoundException {
-        try (JsonReader jr = Json.createReader(new FileInputStream(file))) {
-            parseJson(jr.readObject());
+    private void readJsonFromFile(File file, RemoteCallTracker remoteCalls) throws NotFoundException {
+        try {
+            parseJson(remoteCalls.call("loadStreams", () -> readJson(new FileInputStream(file))));
         } catch (IOException e) {
             Utils.logException(LOG, "Unable to load file: " + file.getPath(), e);
             throw new NotFoundException("Unable to load file: " + file.getPath(), e);
@@ -120,17 +129,22 @@ public class JsonStreamService implements StreamService {
         }
     }
 
-    private void readJsonFromURL(URL url) throws NotFoundException {
-        try (InputStream is = url.openStream()) {
-            BufferedReader rd = new BufferedReader(new InputStreamReader(is));
-            JsonReader jr = Json.createReader(rd);
-            parseJson(jr.readObject());
+    private void readJsonFromURL(URL url, RemoteCallTracker remoteCalls) throws NotFoundException {
+        try {
+            parseJson(remoteCalls.call("loadStreams", () -> readJson(url.openStream())));
         } catch (IOException | NotFoundException e) {
             Utils.logException(LOG, "Unable to load url: " + url.toString(), e);
             throw new NotFoundException(e);
         }
     }
 
+    private JsonObject readJson(InputStream inputStream) throws IOException {
+        try (InputStream is = new CountingInputStream(inputStream);
+             JsonReader jr = Json.createReader(new BufferedReader(new InputStreamReader(is)))) {
+            return jr.readObject();
+        }
+    }
+
     private void parseJson(JsonObject jsonObject) throws NotFoundException {
         JsonArray jsonArray = jsonObject.getJsonArray("streams");
         Objects.requireNonNull(jsonArray, "streams array must be specified in json file");
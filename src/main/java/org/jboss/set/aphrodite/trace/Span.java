@@ -0,0 +1,180 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.trace;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single timed operation within a trace. A root span is opened by each call to the <code>Aphrodite</code>
+ * facade, with a child span created for every remote call made on its behalf, including those executed on
+ * other threads. The spans of a trace therefore form a tree which shows every remote call that a single facade
+ * call produced.
+ *
+ * @author Ryan Emerson
+ */
+public class Span {
+
+    public static final String SERVICE = "aphrodite.service";
+    public static final String HOST = "aphrodite.host";
+    public static final String METHOD = "aphrodite.method";
+    public static final String TARGET = "aphrodite.target";
+    public static final String ATTEMPT = "aphrodite.attempt";
+
+    private final String traceId;
+    private final String spanId;
+    private final Span parent;
+    private final String name;
+    private final long startNanos;
+    private final Map<String, String> attributes = new ConcurrentHashMap<>();
+    private final List<Span> children = new CopyOnWriteArrayList<>();
+    private volatile long endNanos = -1;
+    private volatile Throwable error;
+
+    Span(String name, Span parent) {
+        Objects.requireNonNull(name, "A span's 'name' cannot be null");
+
+        this.name = name;
+        this.parent = parent;
+        this.traceId = parent == null ? randomId() + randomId() : parent.traceId;
+        this.spanId = randomId();
+        this.startNanos = System.nanoTime();
+
+        if (parent != null)
+            parent.children.add(this);
+    }
+
+    private static String randomId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Optional<Span> getParent() {
+        return Optional.ofNullable(parent);
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * @return the spans started as direct children of this span, in the order they were started.
+     */
+    public List<Span> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public Optional<String> getAttribute(String key) {
+        return Optional.ofNullable(attributes.get(key));
+    }
+
+    public Map<String, String> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public Span setAttribute(String key, String value) {
+        if (value == null)
+            attributes.remove(key);
+        else
+            attributes.put(key, value);
+        return this;
+    }
+
+    public Optional<Throwable> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    public boolean isEnded() {
+        return endNanos >= 0;
+    }
+
+    /**
+     * @return the duration of this span in nanoseconds, or the time elapsed so far if it has not yet ended.
+     */
+    public long getDurationNanos() {
+        long end = endNanos;
+        return (end < 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    void end() {
+        if (endNanos < 0)
+            endNanos = System.nanoTime();
+    }
+
+    /**
+     * @return a multi-line representation of this span and all of its descendants.
+     */
+    public String toTreeString() {
+        StringBuilder sb = new StringBuilder();
+        appendTree(sb, 0);
+        return sb.toString();
+    }
+
+    private void appendTree(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++)
+            sb.append("  ");
+        sb.append(name)
+                .append(" ")
+                .append(TimeUnit.NANOSECONDS.toMillis(getDurationNanos()))
+                .append("ms");
+        if (error != null)
+            sb.append(" [").append(error.getClass().getSimpleName()).append("]");
+        sb.append(System.lineSeparator());
+        for (Span child : children)
+            child.appendTree(sb, depth + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Span{" +
+                "traceId='" + traceId + '\'' +
+                ", spanId='" + spanId + '\'' +
+                ", name='" + name + '\'' +
+                ", attributes=" + attributes +
+                ", durationNanos=" + getDurationNanos() +
+                ", error=" + error +
+                '}';
+    }
+}
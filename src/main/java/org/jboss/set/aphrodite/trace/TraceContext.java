@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.trace;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the {@link Span} which is active on the current thread. Tasks submitted to another thread must be
+ * wrapped via {@link #wrap(Runnable)}, or submitted to a {@link TracingExecutorService}, for the active span to be
+ * propagated.
+ *
+ * @author Ryan Emerson
+ */
+public final class TraceContext {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    /**
+     * @return the span which is active on the current thread, if any.
+     */
+    public static Optional<Span> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Start a new span and make it active on the current thread. The span is a child of the currently active span,
+     * or the root of a new trace if no span is active.
+     *
+     * @param name the name of the new span.
+     * @return the <code>Scope</code> which must be closed, on the same thread, to end the span.
+     */
+    public static Scope startSpan(String name) {
+        return startSpan(name, null);
+    }
+
+    /**
+     * Start a new span and make it active on the current thread.
+     *
+     * @param name the name of the new span.
+     * @param onEnd invoked with the span once it has ended, may be null.
+     * @return the <code>Scope</code> which must be closed, on the same thread, to end the span.
+     */
+    public static Scope startSpan(String name, Consumer<Span> onEnd) {
+        Span previous = CURRENT.get();
+        Span span = new Span(name, previous);
+        CURRENT.set(span);
+        return new Scope(span, previous, onEnd);
+    }
+
+    /**
+     * @param task the task to be executed on another thread.
+     * @return a task which executes the given task with the span active on the calling thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        Span captured = CURRENT.get();
+        if (captured == null)
+            return task;
+
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * @param task the task to be executed on another thread.
+     * @return a task which executes the given task with the span active on the calling thread.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Span captured = CURRENT.get();
+        if (captured == null)
+            return task;
+
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Span previous) {
+        if (previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * The lifetime of a span on the thread which started it.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Span span;
+        private final Span previous;
+        private final Consumer<Span> onEnd;
+        private boolean closed;
+
+        private Scope(Span span, Span previous, Consumer<Span> onEnd) {
+            this.span = span;
+            this.previous = previous;
+            this.onEnd = onEnd;
+        }
+
+        public Span getSpan() {
+            return span;
+        }
+
+        /**
+         * End this scope's span and restore the previously active span.
+         */
+        @Override
+        public void close() {
+            if (closed)
+                return;
+
+            closed = true;
+            span.end();
+            restore(previous);
+            if (onEnd != null)
+                onEnd.accept(span);
+        }
+    }
+}
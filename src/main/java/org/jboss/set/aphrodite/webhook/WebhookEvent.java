@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.webhook;
+
+import java.net.URL;
+import java.util.Optional;
+
+/**
+ * A change reported by a webhook, to the issue, patch or repository at a url.
+ *
+ * @author Ryan Emerson
+ */
+public class WebhookEvent {
+
+    public enum Source {
+        GITHUB, JIRA, BUGZILLA
+    }
+
+    private final Source source;
+    private final String type;
+    private final String action;
+    private final URL url;
+
+    /**
+     * @param type the type of the event, e.g. "pull_request", "jira:issue_updated" or "bug.modify".
+     * @param action the action of the event, e.g. "opened" or "modify", or null if the event does not have an action.
+     * @param url the url of the issue, patch or repository which has changed.
+     */
+    public WebhookEvent(Source source, String type, String action, URL url) {
+        this.source = source;
+        this.type = type;
+        this.action = action;
+        this.url = url;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Optional<String> getAction() {
+        return Optional.ofNullable(action);
+    }
+
+    public URL getURL() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookEvent{" +
+                "source=" + source +
+                ", type='" + type + '\'' +
+                ", action='" + action + '\'' +
+                ", url=" + url +
+                '}';
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.webhook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jboss.set.aphrodite.common.Utils;
+import org.jboss.set.aphrodite.config.WebhookConfig;
+import org.jboss.set.aphrodite.webhook.WebhookEvent.Source;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An embedded HTTP listener which receives webhooks from GitHub, Jira and Bugzilla, so that changes are pushed to
+ * Aphrodite rather than discovered by polling.
+ *
+ * The payload of every request must be signed with the secret of its source, as described by
+ * {@link WebhookSignature}. Requests are answered with:
+ * <ul>
+ *     <li>204 once the payload's events have been queued for the handler</li>
+ *     <li>400 if the payload cannot be parsed</li>
+ *     <li>401 if the signature is missing or invalid</li>
+ *     <li>405 if the method is not POST</li>
+ *     <li>413 if the payload is larger than the configured <code>maxPayloadBytes</code></li>
+ *     <li>503 if {@link #MAX_QUEUED_EVENTS} events are already waiting for the handler</li>
+ * </ul>
+ *
+ * Requests are handled by a single thread, which responds without waiting for the handler, so that a slow handler
+ * cannot delay responses beyond the sender's delivery timeout, e.g. 10 seconds for GitHub. Events are passed to the
+ * handler by a separate thread in the order they are received.
+ *
+ * @author Ryan Emerson
+ */
+public class WebhookListener implements AutoCloseable {
+
+    private static final Log LOG = LogFactory.getLog(WebhookListener.class);
+
+    private static final String GITHUB_EVENT_HEADER = "X-GitHub-Event";
+    private static final String[] SIGNATURE_HEADERS = {"X-Hub-Signature-256", "X-Hub-Signature"};
+
+    public static final int MAX_QUEUED_EVENTS = 10_000;
+
+    private final WebhookConfig config;
+    private final Consumer<WebhookEvent> handler;
+    private HttpServer server;
+    private ExecutorService executor;
+    private ExecutorService dispatcher;
+
+    /**
+     * @param handler invoked with each event received, e.g. to invalidate the cached state of the event's url.
+     */
+    public WebhookListener(WebhookConfig config, Consumer<WebhookEvent> handler) {
+        this.config = config;
+        this.handler = handler;
+    }
+
+    /**
+     * Bind to the configured address and start receiving webhooks.
+     *
+     * @throws IOException if the listener cannot bind to the configured address.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null)
+            throw new IllegalStateException("The webhook listener has already been started");
+
+        InetSocketAddress address = config.getHost()
+                .map(host -> new InetSocketAddress(host, config.getPort()))
+                .orElseGet(() -> new InetSocketAddress(config.getPort()));
+        HttpServer httpServer = HttpServer.create(address, 0);
+        config.getGithubSecret().ifPresent(secret -> httpServer.createContext(config.getPath() + "/github",
+                new Endpoint(Source.GITHUB, secret)));
+        config.getJiraSecret().ifPresent(secret -> httpServer.createContext(config.getPath() + "/jira",
+                new Endpoint(Source.JIRA, secret)));
+        config.getBugzillaSecret().ifPresent(secret -> httpServer.createContext(config.getPath() + "/bugzilla",
+                new Endpoint(Source.BUGZILLA, secret)));
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aphrodite-webhook-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_EVENTS), runnable -> {
+            Thread thread = new Thread(runnable, "aphrodite-webhook-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+
+        if (LOG.isInfoEnabled())
+            LOG.info("Listening for webhooks at " + server.getAddress() + config.getPath());
+    }
+
+    /**
+     * @return the address which the listener is bound to, e.g. to discover an ephemeral port.
+     */
+    public synchronized InetSocketAddress getAddress() {
+        if (server == null)
+            throw new IllegalStateException("The webhook listener has not been started");
+        return server.getAddress();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null)
+            return;
+
+        server.stop(0);
+        executor.shutdown();
+        dispatcher.shutdown();
+        server = null;
+    }
+
+    private List<WebhookEvent> parse(Source source, Headers headers, byte[] payload) {
+        switch (source) {
+            case GITHUB:
+                return WebhookPayloads.parseGitHub(headers.getFirst(GITHUB_EVENT_HEADER), payload);
+            case JIRA:
+                return WebhookPayloads.parseJira(payload);
+            default:
+                return WebhookPayloads.parseBugzilla(config.getBugzillaUrl().get(), payload);
+        }
+    }
+
+    /**
+     * @return the payload, or null if it is larger than <code>maxPayloadBytes</code>.
+     */
+    private byte[] readPayload(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > config.getMaxPayloadBytes())
+                return null;
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private void dispatch(List<WebhookEvent> events) {
+        for (WebhookEvent event : events) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                Utils.logException(LOG, "Unable to handle " + event, e);
+            }
+        }
+    }
+
+    private static String getSignature(Headers headers) {
+        for (String header : SIGNATURE_HEADERS) {
+            String signature = headers.getFirst(header);
+            if (signature != null)
+                return signature;
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private class Endpoint implements HttpHandler {
+        private final Source source;
+        private final String secret;
+
+        Endpoint(Source source, String secret) {
+            this.source = source;
+            this.secret = secret;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "POST");
+                    respond(exchange, 405);
+                    return;
+                }
+
+                byte[] payload = readPayload(exchange.getRequestBody());
+                if (payload == null) {
+                    Utils.logWarnMessage(LOG, "Rejected a " + source + " webhook larger than "
+                            + config.getMaxPayloadBytes() + " bytes from " + exchange.getRemoteAddress());
+                    respond(exchange, 413);
+                    return;
+                }
+
+                if (!WebhookSignature.verify(secret, payload, getSignature(exchange.getRequestHeaders()))) {
+                    Utils.logWarnMessage(LOG, "Rejected a " + source + " webhook with an invalid signature from "
+                            + exchange.getRemoteAddress());
+                    respond(exchange, 401);
+                    return;
+                }
+
+                List<WebhookEvent> events;
+                try {
+                    events = parse(source, exchange.getRequestHeaders(), payload);
+                } catch (IllegalArgumentException e) {
+                    Utils.logException(LOG, "Unable to parse a " + source + " webhook", e);
+                    respond(exchange, 400);
+                    return;
+                }
+
+                try {
+                    dispatcher.execute(() -> dispatch(events));
+                } catch (RejectedExecutionException e) {
+                    Utils.logWarnMessage(LOG, "Rejected a " + source + " webhook from " + exchange.getRemoteAddress()
+                            + " as " + MAX_QUEUED_EVENTS + " webhooks are waiting to be handled");
+                    respond(exchange, 503);
+                    return;
+                }
+                respond(exchange, 204);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.webhook;
+
+import java.io.ByteArrayInputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.jboss.set.aphrodite.webhook.WebhookEvent.Source;
+
+/**
+ * Converts the json payloads of webhooks into <code>WebhookEvent</code>s. Events which do not concern an issue, patch
+ * or repository, e.g. GitHub's "ping", produce no <code>WebhookEvent</code>s.
+ *
+ * @author Ryan Emerson
+ */
+final class WebhookPayloads {
+
+    static final String GITHUB_PULL_REQUEST = "pull_request";
+    static final String GITHUB_LABEL = "label";
+    static final String GITHUB_STATUS = "status";
+
+    private static final String JIRA_REST_PATH = "/rest/api/";
+    private static final String JIRA_BROWSE_PATH = "/browse/";
+    private static final String BUGZILLA_ID_QUERY = "show_bug.cgi?id=";
+
+    private WebhookPayloads() {
+    }
+
+    /**
+     * @param event the value of the <code>X-GitHub-Event</code> header.
+     */
+    static List<WebhookEvent> parseGitHub(String event, byte[] payload) {
+        if (event == null)
+            throw new IllegalArgumentException("The X-GitHub-Event header is missing");
+
+        String urlField;
+        switch (event) {
+            case GITHUB_PULL_REQUEST:
+                urlField = "pull_request";
+                break;
+            case GITHUB_LABEL:
+            case GITHUB_STATUS:
+                urlField = "repository";
+                break;
+            default:
+                return Collections.emptyList();
+        }
+
+        JsonObject json = read(payload);
+        try {
+            JsonObject subject = json.getJsonObject(urlField);
+            // Status events have a state rather than an action
+            String action = json.getString("action", json.getString("state", null));
+            URL url = toUrl(subject.getString("html_url"));
+            return Collections.singletonList(new WebhookEvent(Source.GITHUB, event, action, url));
+        } catch (NullPointerException | ClassCastException e) {
+            throw new IllegalArgumentException("The '" + event + "' payload does not contain a " + urlField + " url", e);
+        }
+    }
+
+    static List<WebhookEvent> parseJira(byte[] payload) {
+        JsonObject json = read(payload);
+        JsonObject issue = json.getJsonObject("issue");
+        if (issue == null)
+            return Collections.emptyList();
+
+        try {
+            // The self link is that of the REST resource, e.g. https://issues.jboss.org/rest/api/2/issue/12345
+            String self = issue.getString("self");
+            int restPath = self.indexOf(JIRA_REST_PATH);
+            if (restPath < 0)
+                throw new IllegalArgumentException("Unexpected Jira issue link: " + self);
+
+            URL url = toUrl(self.substring(0, restPath) + JIRA_BROWSE_PATH + issue.getString("key"));
+            return Collections.singletonList(new WebhookEvent(Source.JIRA, json.getString("webhookEvent", null),
+                    json.getString("issue_event_type_name", null), url));
+        } catch (NullPointerException | ClassCastException e) {
+            throw new IllegalArgumentException("The Jira payload does not contain an issue key and link", e);
+        }
+    }
+
+    /**
+     * @param bugzillaUrl the base url of the Bugzilla instance, with a trailing '/'.
+     */
+    static List<WebhookEvent> parseBugzilla(String bugzillaUrl, byte[] payload) {
+        JsonObject json = read(payload);
+        JsonObject bug = json.getJsonObject("bug");
+        if (bug == null)
+            return Collections.emptyList();
+
+        try {
+            JsonNumber id = bug.getJsonNumber("id");
+            JsonObject event = json.getJsonObject("event");
+            String type = event == null ? null : event.getString("routing_key", null);
+            String action = event == null ? null : event.getString("action", null);
+            URL url = toUrl(bugzillaUrl + BUGZILLA_ID_QUERY + id.longValueExact());
+            return Collections.singletonList(new WebhookEvent(Source.BUGZILLA, type, action, url));
+        } catch (NullPointerException | ClassCastException | ArithmeticException e) {
+            throw new IllegalArgumentException("The Bugzilla payload does not contain a bug id", e);
+        }
+    }
+
+    private static JsonObject read(byte[] payload) {
+        try (JsonReader reader = Json.createReader(new ByteArrayInputStream(payload))) {
+            return reader.readObject();
+        } catch (JsonException | IllegalStateException e) {
+            throw new IllegalArgumentException("The payload is not a json object", e);
+        }
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
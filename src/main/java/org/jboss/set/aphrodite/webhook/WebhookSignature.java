@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.webhook;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The HMAC-SHA256 signature of a webhook payload, in the form <code>sha256=&lt;hex digest&gt;</code> which GitHub
+ * sends in the <code>X-Hub-Signature-256</code> header and Jira sends in the <code>X-Hub-Signature</code> header.
+ *
+ * @author Ryan Emerson
+ */
+public final class WebhookSignature {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private WebhookSignature() {
+    }
+
+    /**
+     * @return the signature of the payload, e.g. to replay a recorded payload to the listener.
+     */
+    public static String sign(String secret, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            byte[] digest = mac.doFinal(payload);
+            StringBuilder sb = new StringBuilder(PREFIX.length() + digest.length * 2).append(PREFIX);
+            for (byte b : digest)
+                sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            return sb.toString();
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 must be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The signatures are compared in constant time, so that the expected signature cannot be discovered by timing.
+     *
+     * @param signature the signature sent with the payload, or null if none was sent.
+     * @return true if the signature is that of the payload signed with the secret.
+     */
+    public static boolean verify(String secret, byte[] payload, String signature) {
+        if (signature == null)
+            return false;
+
+        byte[] expected = sign(secret, payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signature.trim().toLowerCase(Locale.ENGLISH).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+}
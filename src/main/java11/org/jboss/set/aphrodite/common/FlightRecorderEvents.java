@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+/**
+ * Emits JDK Flight Recorder events for remote calls, fan-outs and cache lookups. This is the Java 11
+ * implementation of this class, which is loaded in place of the Java 8 no-op version from the multi-release
+ * section of the jar.
+ *
+ * Events are started with a <code>begin</code> method, whose return value must be passed to the corresponding
+ * <code>end</code> method. A null value is returned when the event is not enabled in the current recording, so
+ * that the cost of a disabled event is a single check.
+ *
+ * @author Ryan Emerson
+ */
+public final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * @return true if events are emitted to the JDK Flight Recorder, otherwise false.
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static Object beginRemoteCall() {
+        AphroditeRemoteCall event = new AphroditeRemoteCall();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    public static void endRemoteCall(Object event, String service, String host, String method, String target,
+            long responseBytes, boolean success) {
+        if (event == null)
+            return;
+
+        AphroditeRemoteCall call = (AphroditeRemoteCall) event;
+        call.end();
+        if (call.shouldCommit()) {
+            call.service = service;
+            call.host = host;
+            call.method = method;
+            call.target = target;
+            call.responseBytes = responseBytes;
+            call.success = success;
+            call.commit();
+        }
+    }
+
+    public static Object beginFanOut() {
+        AphroditeFanOut event = new AphroditeFanOut();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    public static void endFanOut(Object event, String operation, int taskCount, int resultCount, boolean success) {
+        if (event == null)
+            return;
+
+        AphroditeFanOut fanOut = (AphroditeFanOut) event;
+        fanOut.end();
+        if (fanOut.shouldCommit()) {
+            fanOut.operation = operation;
+            fanOut.taskCount = taskCount;
+            fanOut.resultCount = resultCount;
+            fanOut.success = success;
+            fanOut.commit();
+        }
+    }
+
+    public static void cacheLookup(String cache, String key, boolean hit) {
+        AphroditeCacheLookup event = new AphroditeCacheLookup();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.key = key;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
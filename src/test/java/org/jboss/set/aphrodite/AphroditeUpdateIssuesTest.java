@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.set.aphrodite.config.AphroditeConfig;
+import org.jboss.set.aphrodite.config.IssueTrackerConfig;
+import org.jboss.set.aphrodite.config.TrackerType;
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.IssueStatus;
+import org.jboss.set.aphrodite.domain.UpdateResult;
+import org.jboss.set.aphrodite.spi.AphroditeException;
+import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.stubs.BugzillaStubServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class AphroditeUpdateIssuesTest {
+
+    private BugzillaStubServer bugzilla;
+    private ExecutorService executor;
+    private Aphrodite aphrodite;
+
+    @Before
+    public void setUp() throws Exception {
+        bugzilla = new BugzillaStubServer();
+        bugzilla.addBug(1111111, "First Issue", "NEW");
+        bugzilla.addBug(2222222, "Second Issue", "NEW");
+
+        executor = Executors.newCachedThreadPool();
+        IssueTrackerConfig bugzillaConfig = new IssueTrackerConfig(bugzilla.getURL().toString(), "aphrodite",
+                "password", TrackerType.BUGZILLA, 50);
+        aphrodite = Aphrodite.instance(new AphroditeConfig(executor, Collections.singletonList(bugzillaConfig),
+                new ArrayList<>(), new ArrayList<>()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try {
+            aphrodite.close();
+        } finally {
+            bugzilla.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void duplicateIssuesReceiveTheirOwnResultsTest() throws Exception {
+        URL firstUrl = new URL(bugzilla.getURL() + "show_bug.cgi?id=1111111");
+        Issue first = aphrodite.getIssue(firstUrl);
+        Issue duplicate = aphrodite.getIssue(firstUrl);
+        Issue second = aphrodite.getIssue(new URL(bugzilla.getURL() + "show_bug.cgi?id=2222222"));
+        Issue unknown = new Issue(new URL("http://issues.example.com/browse/UNKNOWN-1"));
+        first.setStatus(IssueStatus.ASSIGNED);
+        duplicate.setStatus(IssueStatus.POST);
+        second.setStatus(IssueStatus.ASSIGNED);
+
+        List<UpdateResult> results = aphrodite.updateIssues(Arrays.asList(first, duplicate, second, unknown, first));
+        assertEquals(5, results.size());
+        assertSame(first, results.get(0).getIssue());
+        assertTrue(results.get(0).isSuccessful());
+        assertSame(duplicate, results.get(1).getIssue());
+        assertTrue(results.get(1).getError().get() instanceof AphroditeException);
+        assertSame(second, results.get(2).getIssue());
+        assertTrue(results.get(2).isSuccessful());
+        assertSame(unknown, results.get(3).getIssue());
+        assertTrue(results.get(3).getError().get() instanceof NotFoundException);
+        assertSame(first, results.get(4).getIssue());
+        assertFalse(results.get(4).isSuccessful());
+
+        // The duplicates do not overwrite the first issue's changes
+        assertEquals("ASSIGNED", bugzilla.getBug(1111111).get("status"));
+        assertEquals("ASSIGNED", bugzilla.getBug(2222222).get("status"));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.config.BulkheadConfig;
+import org.jboss.set.aphrodite.config.ExecutorType;
+import org.jboss.set.aphrodite.config.RejectionPolicy;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class BulkheadTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Bulkhead bulkhead;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (bulkhead != null)
+            bulkhead.shutdownNow();
+    }
+
+    @Test
+    public void abortWhenSaturatedTest() throws Exception {
+        bulkhead = new Bulkhead("test", new BulkheadConfig(1, 1, RejectionPolicy.ABORT));
+        assertEquals(ExecutorType.PLATFORM, bulkhead.getExecutorType());
+        assertSaturatedBulkheadRejects();
+    }
+
+    @Test
+    public void abortWhenSemaphoreSaturatedTest() throws Exception {
+        bulkhead = new Bulkhead("test", new BulkheadConfig(1, 1, RejectionPolicy.ABORT),
+                Executors.newCachedThreadPool());
+        assertEquals(ExecutorType.VIRTUAL, bulkhead.getExecutorType());
+        assertSaturatedBulkheadRejects();
+    }
+
+    @Test
+    public void callerRunsWhenSaturatedTest() throws Exception {
+        bulkhead = new Bulkhead("test", new BulkheadConfig(1, 0, RejectionPolicy.CALLER_RUNS));
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead.execute(() -> block(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+        bulkhead.execute(() -> executingThread.set(Thread.currentThread()));
+        assertEquals(Thread.currentThread(), executingThread.get());
+        assertEquals(1, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void semaphoreLimitsConcurrencyTest() throws Exception {
+        int maxConcurrency = 2;
+        int taskCount = 20;
+        bulkhead = new Bulkhead("test", new BulkheadConfig(maxConcurrency, taskCount, RejectionPolicy.ABORT),
+                Executors.newCachedThreadPool());
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            bulkhead.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertTrue("Concurrency limit exceeded: " + maxRunning.get(), maxRunning.get() <= maxConcurrency);
+        assertEquals(0, bulkhead.getRejectedCount());
+    }
+
+    private void assertSaturatedBulkheadRejects() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead.execute(() -> block(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        bulkhead.execute(() -> block(null));
+
+        assertEquals(1, bulkhead.getActiveThreads());
+        assertEquals(1, bulkhead.getQueueDepth());
+
+        try {
+            bulkhead.execute(() -> block(null));
+            fail("Expected task to be rejected by a saturated bulkhead");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, bulkhead.getRejectedCount());
+        }
+    }
+
+    private void block(CountDownLatch started) {
+        if (started != null)
+            started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Ryan Emerson
+ */
+public class ExpiringCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ExpiringCache<String, String> cache = new ExpiringCache<>("test", 1000, clock::get);
+
+    @Test
+    public void valueIsCachedUntilExpiredTest() {
+        assertEquals("value-1", cache.get("key", this::load));
+        clock.addAndGet(999);
+        assertEquals("value-1", cache.get("key", this::load));
+        assertEquals(1, loads.get());
+
+        clock.addAndGet(1);
+        assertEquals("value-2", cache.get("key", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidatedValueIsReloadedTest() {
+        cache.get("key", this::load);
+        cache.invalidate("key");
+        assertFalse(cache.getIfPresent("key").isPresent());
+        assertEquals("value-2", cache.get("key", this::load));
+    }
+
+    @Test
+    public void nullValuesAreNotCachedTest() {
+        assertNull(cache.get("key", () -> null));
+        assertEquals(0, cache.size());
+        assertEquals("value-1", cache.get("key", this::load));
+    }
+
+    @Test
+    public void expiredEntriesArePurgedTest() {
+        cache.get("first", this::load);
+        clock.addAndGet(1000);
+        cache.get("second", this::load);
+        assertEquals(1, cache.size());
+    }
+
+    private String load() {
+        return "value-" + loads.incrementAndGet();
+    }
+}
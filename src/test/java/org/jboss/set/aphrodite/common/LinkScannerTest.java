@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.common.LinkScanner.Links;
+import org.jboss.set.aphrodite.common.LinkScanner.PullRequestReference;
+import org.jboss.set.aphrodite.issue.trackers.common.AbstractIssueTracker;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ryan Emerson
+ */
+public class LinkScannerTest {
+
+    private static final List<String> GITHUB = Arrays.asList("github.com", "www.github.com");
+
+    @Test
+    public void urlsOfConfiguredHostsTest() throws Exception {
+        LinkScanner scanner = new LinkScanner(Collections.singleton("issues.jboss.org"));
+        Links links = scanner.scan("[JBEAP-1] Upstream: https://issues.jboss.org/browse/WFLY-1.",
+                "See http://issues.jboss.org/browse/WFLY-2, http://bugzilla.redhat.com/show_bug.cgi?id=3 and\n"
+                        + "(https://issues.jboss.org/browse/WFLY-3:)", null);
+
+        assertEquals(Arrays.asList(new URL("https://issues.jboss.org/browse/WFLY-1"),
+                new URL("http://issues.jboss.org/browse/WFLY-2"), new URL("https://issues.jboss.org/browse/WFLY-3")),
+                links.getUrls());
+        assertTrue(links.getPullRequests().isEmpty());
+    }
+
+    @Test
+    public void urlsMatchUrlRegexTest() throws Exception {
+        String text = "Fixes https://issues.jboss.org/browse/WFLY-1, https://issues.jboss.org/browse/WFLY-2:\n"
+                + "at org.jboss.Foo.bar(Foo.java:10) https://issues.jboss.org/secure/a.b?c=d&e=%20#f~g+h.\n"
+                + "ftp://issues.jboss.org http://localhost/x https://issues.jboss.org.";
+        List<URL> expected = new ArrayList<>();
+        @SuppressWarnings("deprecation")
+        Matcher m = AbstractIssueTracker.URL_REGEX.matcher(text);
+        while (m.find()) {
+            URL url = new URL(m.group());
+            if (url.getHost().equals("issues.jboss.org"))
+                expected.add(url);
+        }
+
+        LinkScanner scanner = new LinkScanner(Collections.singleton("issues.jboss.org"));
+        assertEquals(expected, scanner.scan(text).getUrls());
+    }
+
+    @Test
+    public void pullRequestReferencesTest() {
+        LinkScanner scanner = new LinkScanner(Collections.emptySet(), GITHUB);
+        Links links = scanner.scan("Upstream https://github.com/wildfly/wildfly/pull/10, github.com/jbossas/jboss-eap7/pulls/20\n"
+                + "Requires wildfly/wildfly-core#30 and #40. See https://github.com/wildfly/wildfly/issues/50#60");
+
+        List<String> references = new ArrayList<>();
+        for (PullRequestReference reference : links.getPullRequests())
+            references.add(reference.toString());
+        assertEquals(Arrays.asList("wildfly/wildfly#10", "jbossas/jboss-eap7#20", "wildfly/wildfly-core#30", "#40"),
+                references);
+        assertEquals("github.com", links.getPullRequests().get(0).getHost().get());
+        assertFalse(links.getPullRequests().get(2).getHost().isPresent());
+        assertFalse(links.getPullRequests().get(3).getOwner().isPresent());
+        assertTrue(links.getUrls().isEmpty());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.config.ResilienceConfig;
+import org.jboss.set.aphrodite.metrics.CallStatistics;
+import org.jboss.set.aphrodite.metrics.InMemoryMetrics;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.OptionalInt;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class RemoteCallTrackerTest {
+
+    private final InMemoryMetrics metrics = new InMemoryMetrics();
+    private final RemoteCallTracker tracker = new RemoteCallTracker("JIRA", "issues.jboss.org", metrics,
+            Collections.emptyList(), new ResilienceConfig(3, 1, 5, 4, 60_000), ErrorClassifier.DEFAULT);
+
+    @Test
+    public void transientErrorRetriedTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = tracker.call("getIssue", () -> {
+            if (attempts.incrementAndGet() < 3)
+                throw new ConnectException("Connection refused");
+            return "WFLY-1";
+        });
+        assertEquals("WFLY-1", result);
+        assertEquals(3, attempts.get());
+
+        CallStatistics statistics = metrics.getStatistics("JIRA", "issues.jboss.org", "getIssue").get();
+        assertEquals(3, statistics.getCallCount());
+        assertEquals(2, statistics.getErrorCount());
+        assertEquals(CircuitBreaker.State.CLOSED, tracker.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void nonRetryableErrorNotRetriedTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            try {
+                tracker.call("getIssue", () -> {
+                    attempts.incrementAndGet();
+                    throw new IOException("Issue does not exist");
+                });
+                fail("Expected IOException");
+            } catch (IOException e) {
+                assertEquals("Issue does not exist", e.getMessage());
+            }
+        }
+        assertEquals(5, attempts.get());
+        assertEquals(CircuitBreaker.State.CLOSED, tracker.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void openBreakerFailsFastTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        RemoteCallTracker.RemoteCall<String, IOException> unavailable = () -> {
+            attempts.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                tracker.call("getIssue", unavailable);
+                fail("Expected ConnectException");
+            } catch (ConnectException e) {
+                // Expected
+            }
+        }
+        // The first call exhausts its three attempts, the second opens the breaker on its fourth failure
+        assertEquals(4, attempts.get());
+        assertEquals(CircuitBreaker.State.OPEN, tracker.getCircuitBreaker().getState());
+
+        try {
+            tracker.call("getIssue", unavailable);
+            fail("Expected CircuitBreakerOpenException");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals("jira-issues.jboss.org", e.getCircuitBreaker());
+        }
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    public void retryAfterBeyondMaxBackoffOpensBreakerTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            tracker.call("searchIssues", () -> {
+                attempts.incrementAndGet();
+                RemoteCallTracker.recordRetryAfter("120");
+                throw new IOException("Too many requests");
+            });
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals(1, attempts.get());
+            assertEquals(CircuitBreaker.State.OPEN, tracker.getCircuitBreaker().getState());
+        }
+    }
+
+    @Test
+    public void nonIdempotentCallNotRetriedAfterReadTimeoutTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            tracker.callNonIdempotent("addComment", "WFLY-1", () -> {
+                attempts.incrementAndGet();
+                throw new SocketTimeoutException("Read timed out");
+            });
+            fail("Expected SocketTimeoutException");
+        } catch (SocketTimeoutException e) {
+            assertEquals(1, attempts.get());
+        }
+
+        CallStatistics statistics = metrics.getStatistics("JIRA", "issues.jboss.org", "addComment").get();
+        assertEquals(1, statistics.getErrorCount());
+    }
+
+    @Test
+    public void nonIdempotentCallRetriedWhenNotProcessedTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = tracker.callNonIdempotent("addComment", "WFLY-1", () -> {
+            if (attempts.incrementAndGet() == 1)
+                throw new ConnectException("Connection refused");
+            if (attempts.get() == 2) {
+                RemoteCallTracker.recordRetryAfter("0");
+                throw new IOException("Too many requests");
+            }
+            return "1";
+        });
+        assertEquals("1", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void statusCodeClassifierTest() {
+        ErrorClassifier classifier = ErrorClassifier.forStatusCode(e -> e instanceof IOException && e.getMessage() != null
+                ? OptionalInt.of(Integer.parseInt(e.getMessage())) : OptionalInt.empty());
+
+        assertTrue(classifier.isRetryable(new IOException("504")));
+        assertFalse(classifier.isRetryableNonIdempotent(new IOException("504")));
+        assertTrue(classifier.isRetryableNonIdempotent(new IOException("503")));
+        assertFalse(classifier.isRetryable(new IOException("404")));
+        assertTrue(classifier.isRetryable(new SocketTimeoutException()));
+        assertFalse(classifier.isRetryableNonIdempotent(new SocketTimeoutException()));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.config.BatchConfig;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class RequestBatcherTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Collection<String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private RequestBatcher<String, String> batcher;
+
+    @After
+    public void tearDown() {
+        if (batcher != null)
+            batcher.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fullBatchExecutedImmediatelyTest() throws Exception {
+        batcher = new RequestBatcher<>("test", new BatchConfig(3, TimeUnit.MINUTES.toMillis(1)), executor,
+                this::lookup);
+
+        CompletableFuture<String> first = batcher.submit("1");
+        CompletableFuture<String> duplicate = batcher.submit("1");
+        CompletableFuture<String> second = batcher.submit("2");
+        assertSame(first, duplicate);
+        assertTrue(requests.isEmpty());
+
+        CompletableFuture<String> missing = batcher.submit("missing");
+        assertEquals("issue-1", first.get(10, TimeUnit.SECONDS));
+        assertEquals("issue-2", second.get(10, TimeUnit.SECONDS));
+        assertNull(missing.get(10, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
+        assertEquals(3, requests.get(0).size());
+    }
+
+    @Test
+    public void partialBatchExecutedAfterDelayTest() throws Exception {
+        batcher = new RequestBatcher<>("test", new BatchConfig(50, 5), executor, this::lookup);
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            futures.add(batcher.submit(Integer.toString(i)));
+
+        for (int i = 0; i < 10; i++)
+            assertEquals("issue-" + i, futures.get(i).get(10, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
+        assertEquals(1, batcher.getBatchCount());
+
+        assertEquals("issue-10", batcher.submit("10").get(10, TimeUnit.SECONDS));
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void failureCompletesAllFuturesTest() throws Exception {
+        batcher = new RequestBatcher<>("test", new BatchConfig(2, 5), executor, keys -> {
+            throw new IOException("Connection refused");
+        });
+
+        CompletableFuture<String> first = batcher.submit("1");
+        CompletableFuture<String> second = batcher.submit("2");
+        for (CompletableFuture<String> future : Arrays.asList(first, second)) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("Expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    private Map<String, String> lookup(Collection<String> keys) {
+        requests.add(new ArrayList<>(keys));
+        Map<String, String> results = new HashMap<>();
+        for (String key : keys) {
+            if (!key.equals("missing"))
+                results.put(key, "issue-" + key);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.common;
+
+import org.jboss.set.aphrodite.domain.Flag;
+import org.jboss.set.aphrodite.domain.FlagStatus;
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.IssueStatus;
+import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareResultTest() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+        Object result = new Object();
+        List<Future<Object>> futures = submit(singleFlight, () -> result);
+
+        awaitWaitingCallers(singleFlight);
+        release.countDown();
+        for (Future<Object> future : futures)
+            assertSame(result, future.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+
+        // The key is released once complete, so a later call makes a new request
+        assertSame(result, singleFlight.execute("key", () -> result));
+    }
+
+    @Test
+    public void concurrentCallersShareFailureTest() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+        List<Future<Object>> futures = submit(singleFlight, () -> {
+            throw new NotFoundException("No issues found");
+        });
+
+        awaitWaitingCallers(singleFlight);
+        release.countDown();
+        for (Future<Object> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("Expected NotFoundException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof NotFoundException);
+            }
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void waitingCallersReceiveCopiesTest() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>(ArrayList::new);
+        List<String> labels = Collections.singletonList("bug");
+        List<Future<List<String>>> futures = submit(singleFlight, () -> labels);
+
+        awaitWaitingCallers(singleFlight);
+        release.countDown();
+        int copies = 0;
+        for (Future<List<String>> future : futures) {
+            List<String> result = future.get(10, TimeUnit.SECONDS);
+            assertEquals(labels, result);
+            if (result != labels)
+                copies++;
+        }
+        assertEquals(CALLERS - 1, copies);
+    }
+
+    @Test
+    public void coalescedCallersReceiveDistinctIssuesTest() throws Exception {
+        SingleFlight<String, Issue> singleFlight = new SingleFlight<>(Issue::new);
+        Issue issue = new Issue(new URL("https://issues.jboss.org/browse/WFLY-1"));
+        issue.getComponents().add("Clustering");
+        issue.markUnmodified();
+        List<Future<Issue>> futures = submit(singleFlight, () -> issue);
+
+        awaitWaitingCallers(singleFlight);
+        release.countDown();
+        Set<Issue> results = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Issue> future : futures)
+            results.add(future.get(10, TimeUnit.SECONDS));
+        assertEquals(CALLERS, results.size());
+
+        // One caller's changes are not visible to, and do not reset the modifications of, another caller
+        Iterator<Issue> it = results.iterator();
+        Issue first = it.next();
+        Issue second = it.next();
+        first.setStatus(IssueStatus.POST);
+        first.getComponents().add("EJB");
+        second.getStage().setStatus(Flag.DEV, FlagStatus.ACCEPTED);
+        second.markUnmodified();
+
+        assertEquals(IssueStatus.UNDEFINED, second.getStatus());
+        assertEquals(Collections.singletonList("Clustering"), second.getComponents());
+        assertEquals(FlagStatus.NO_SET, first.getStage().getStatus(Flag.DEV));
+        assertEquals(EnumSet.of(Issue.Field.STATUS, Issue.Field.COMPONENTS), first.getModifiedFields());
+    }
+
+    private <V> List<Future<V>> submit(SingleFlight<String, V> singleFlight,
+            RemoteCallTracker.RemoteCall<V, NotFoundException> request) {
+        List<Future<V>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                release.await();
+                return request.execute();
+            })));
+        }
+        return futures;
+    }
+
+    /**
+     * Wait until the first caller is executing the request, and give the remaining callers time to join it.
+     */
+    private void awaitWaitingCallers(SingleFlight<String, ?> singleFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executions.get() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        Thread.sleep(100);
+        assertEquals(1, singleFlight.getInFlightCount());
+    }
+}
@@ -22,6 +22,7 @@
 
 package org.jboss.set.aphrodite.config;
 
+import org.jboss.set.aphrodite.common.VirtualThreads;
 import org.jboss.set.aphrodite.repository.services.common.RepositoryType;
 import org.junit.Before;
 import org.junit.Rule;
@@ -139,4 +140,79 @@ public class AphroditeConfigJSONTest {
 
         AphroditeConfig.fromJson(jo);
     }
+
+    @Test
+    public void JSONWithBulkheadTest() {
+        JsonObject jo = Json.createObjectBuilder()
+                .add("issueTrackerConfigs", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("url", "https://issues.jboss.org/")
+                                .add("username", "user")
+                                .add("password", "pass")
+                                .add("tracker", "JIRA")
+                                .add("bulkhead", Json.createObjectBuilder()
+                                        .add("maxConcurrency", 4)
+                                        .add("queueCapacity", 0)
+                                        .add("rejectionPolicy", "ABORT")))
+                        .build())
+                .add("repositoryConfigs", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("url", "https://github.com/")
+                                .add("username", "user")
+                                .add("password", "pass")
+                                .add("type", "GITHUB"))
+                        .build())
+                .build();
+
+        AphroditeConfig result = AphroditeConfig.fromJson(jo);
+        assertEquals(new BulkheadConfig(4, 0, RejectionPolicy.ABORT),
+                result.getIssueTrackerConfigs().get(0).getBulkheadConfig());
+        assertEquals(BulkheadConfig.DEFAULT, result.getRepositoryConfigs().get(0).getBulkheadConfig());
+    }
+
+    @Test
+    public void defaultConnectionLimitIsCappedByKeepAliveCacheTest() {
+        BulkheadConfig bulkhead = new BulkheadConfig(20, 0, RejectionPolicy.CALLER_RUNS);
+        assertEquals(Math.min(20, HttpConfig.getKeepAliveConnections()),
+                HttpConfig.DEFAULT.getMaxConnectionsPerHost(bulkhead));
+        assertEquals(2, HttpConfig.DEFAULT.getMaxConnectionsPerHost(new BulkheadConfig(2, 0, RejectionPolicy.ABORT)));
+        assertEquals(20, new HttpConfig(1000, 1000, true, 20).getMaxConnectionsPerHost(bulkhead));
+    }
+
+    @Test
+    public void JSONWithResilienceTest() {
+        JsonObject jo = Json.createObjectBuilder()
+                .add("issueTrackerConfigs", Json.createArrayBuilder().build())
+                .add("repositoryConfigs", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("url", "https://github.com/")
+                                .add("username", "user")
+                                .add("password", "pass")
+                                .add("type", "GITHUB")
+                                .add("resilience", Json.createObjectBuilder()
+                                        .add("maxAttempts", 5)
+                                        .add("failureThreshold", 0)))
+                        .build())
+                .build();
+
+        AphroditeConfig result = AphroditeConfig.fromJson(jo);
+        ResilienceConfig resilience = result.getRepositoryConfigs().get(0).getResilienceConfig();
+        assertEquals(new ResilienceConfig(5, ResilienceConfig.DEFAULT_INITIAL_BACKOFF_MILLIS,
+                ResilienceConfig.DEFAULT_MAX_BACKOFF_MILLIS, 0, ResilienceConfig.DEFAULT_OPEN_DURATION_MILLIS),
+                resilience);
+    }
+
+    @Test
+    public void JSONWithVirtualExecutorTest() {
+        JsonObject jo = Json.createObjectBuilder()
+                .add("executor", "virtual")
+                .add("issueTrackerConfigs", Json.createArrayBuilder().build())
+                .add("repositoryConfigs", Json.createArrayBuilder().build())
+                .build();
+
+        AphroditeConfig result = AphroditeConfig.fromJson(jo);
+        ExecutorType expected = VirtualThreads.isSupported() ? ExecutorType.VIRTUAL : ExecutorType.PLATFORM;
+        assertEquals(expected, result.getExecutorType());
+        result.getExecutorService().shutdown();
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ryan Emerson
+ */
+public class CompactIssueTest {
+
+    private static final int ISSUES = 2000;
+
+    @Test
+    public void roundTripTest() throws MalformedURLException {
+        Issue issue = createIssue(1);
+        issue.getComments().add(new Comment("1", "Comment", false));
+        issue.getStage().setStatus(Flag.PM, FlagStatus.NO_SET);
+        issue.markUnmodified();
+
+        CompactIssue compact = CompactIssue.of(issue, new CompactIssue.Interner());
+        Issue copy = compact.toIssue();
+
+        assertEquals(issue, copy);
+        assertEquals(issue.getTrackerId(), copy.getTrackerId());
+        assertEquals(issue.getProduct(), copy.getProduct());
+        assertEquals(issue.getComponents(), copy.getComponents());
+        assertEquals(issue.getSummary(), copy.getSummary());
+        assertEquals(issue.getAssignee(), copy.getAssignee());
+        assertEquals(issue.getReporter(), copy.getReporter());
+        assertEquals(issue.getStage().getStateMap(), copy.getStage().getStateMap());
+        assertEquals(issue.getStatus(), copy.getStatus());
+        assertEquals(issue.getReleases(), copy.getReleases());
+        assertEquals(issue.getStreamStatus(), copy.getStreamStatus());
+        assertEquals(issue.getDependsOn(), copy.getDependsOn());
+        assertEquals(issue.getBlocks(), copy.getBlocks());
+        assertEquals(issue.getCreationTime(), copy.getCreationTime());
+        assertEquals(issue.getLastUpdated(), copy.getLastUpdated());
+        assertEquals(issue.getEstimation(), copy.getEstimation());
+        assertEquals(1, copy.getComments().size());
+        assertEquals(FlagStatus.ACCEPTED, compact.getStageStatus(Flag.DEV));
+        assertEquals(FlagStatus.NO_SET, compact.getStageStatus(Flag.PM));
+
+        assertTrue(copy.isTrackingModifications());
+        assertTrue(copy.getModifiedFields().isEmpty());
+
+        // The copy is independent of the snapshot
+        copy.getComponents().add("EJB");
+        copy.getReleases().get(0).setVersion("7.1.0");
+        assertEquals(Collections.singletonList("Clustering"), compact.getComponents());
+        assertEquals("7.0.0.GA", compact.getReleases().get(0).getVersion().get());
+    }
+
+    @Test
+    public void unappliedModificationsArePreservedTest() throws MalformedURLException {
+        Issue issue = createIssue(1);
+        issue.markUnmodified();
+        issue.setStatus(IssueStatus.ON_QA);
+        issue.getComponents().add("EJB");
+
+        Issue copy = CompactIssue.of(issue, new CompactIssue.Interner()).toIssue();
+
+        assertEquals(EnumSet.of(Issue.Field.STATUS, Issue.Field.COMPONENTS), copy.getModifiedFields());
+        assertEquals(IssueStatus.MODIFIED, copy.getOriginalValue(Issue.Field.STATUS).get());
+        assertEquals(IssueStatus.ON_QA, copy.getStatus());
+    }
+
+    @Test
+    public void sharedValuesAreInternedTest() throws MalformedURLException {
+        CompactIssue.Interner interner = new CompactIssue.Interner();
+        CompactIssue first = CompactIssue.of(createIssue(1), interner);
+        CompactIssue second = CompactIssue.of(createIssue(21), interner);
+
+        assertSame(first.getProduct().get(), second.getProduct().get());
+        assertSame(first.getComponents(), second.getComponents());
+        assertSame(first.getAssignee().get(), second.getAssignee().get());
+        assertSame(first.getStreamStatus(), second.getStreamStatus());
+        assertFalse(first.equals(second));
+
+        Issue empty = new Issue(new URL("https://bugzilla.redhat.com/show_bug.cgi?id=3"));
+        CompactIssue compact = CompactIssue.of(empty, interner);
+        assertSame(Collections.emptyList(), compact.getComponents());
+        assertSame(Collections.emptyList(), compact.getComments());
+        assertTrue(compact.getDependsOn().isEmpty());
+        assertFalse(compact.toIssue().isTrackingModifications());
+    }
+
+    @Test
+    public void footprintTest() throws MalformedURLException {
+        // Issues which are not tracking modifications, so that the baseline excludes their original values
+        List<Issue> issues = new ArrayList<>(ISSUES);
+        for (int i = 0; i < ISSUES; i++)
+            issues.add(createIssue(i));
+
+        CompactIssue.Interner interner = new CompactIssue.Interner();
+        List<CompactIssue> compactIssues = new ArrayList<>(ISSUES);
+        for (Issue issue : issues)
+            compactIssues.add(CompactIssue.of(issue, interner));
+
+        long issueBytes = GraphLayout.parseInstance(issues).totalSize() / ISSUES;
+        // The interner is included, as it is retained for the lifetime of the dataset
+        long compactBytes = GraphLayout.parseInstance(compactIssues, interner).totalSize() / ISSUES;
+
+        assertTrue("Issue: " + issueBytes + " bytes, CompactIssue: " + compactBytes + " bytes",
+                compactBytes * 2 < issueBytes);
+    }
+
+    // Each issue's strings, users and collections are distinct instances, as they would be when parsed from a response
+    private static Issue createIssue(int id) throws MalformedURLException {
+        Issue issue = new Issue(new URL("https://bugzilla.redhat.com/show_bug.cgi?id=" + id));
+        issue.setTrackerId(String.valueOf(id));
+        issue.setProduct(new String("JBoss Enterprise Application Platform 7"));
+        issue.getComponents().add(new String("Clustering"));
+        issue.setSummary("Summary " + id);
+        issue.setDescription("Description " + id);
+        issue.setAssignee(new User(new String("assignee" + id % 20 + "@redhat.com"), new String("Assignee " + id % 20)));
+        issue.setReporter(new User(new String("reporter" + id % 50 + "@redhat.com"), new String("Reporter " + id % 50)));
+        issue.getStage().setStatus(Flag.DEV, FlagStatus.ACCEPTED);
+        issue.getStage().setStatus(Flag.QE, FlagStatus.SET);
+        issue.setStatus(IssueStatus.MODIFIED);
+        issue.setType(IssueType.BUG);
+        issue.getReleases().add(new Release(new String("7.0.0.GA")));
+        issue.getStreamStatus().put(new String("jboss-eap-7.0.z"), FlagStatus.ACCEPTED);
+        issue.getStreamStatus().put(new String("jboss-eap-7.1.0"), FlagStatus.SET);
+        issue.setDependsOn(new ArrayList<>(Arrays.asList(
+                new URL("https://bugzilla.redhat.com/show_bug.cgi?id=" + (id + ISSUES)))));
+        issue.setCreationTime(new Date(1000L * id));
+        issue.setLastUpdated(new Date(2000L * id));
+        issue.setEstimation(new IssueEstimation(8.0));
+        return issue;
+    }
+}
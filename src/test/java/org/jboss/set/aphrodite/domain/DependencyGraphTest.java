@@ -0,0 +1,114 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import org.jboss.set.aphrodite.domain.DependencyGraph.Direction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ryan Emerson
+ */
+public class DependencyGraphTest {
+
+    private final Map<String, Issue> tracker = new HashMap<>();
+    private final List<Collection<URL>> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() throws MalformedURLException {
+        // 1 -> 2, 3; 2 -> 4; 3 -> 4, 5 (missing); 4 -> 1 (cycle)
+        issue(1, 2, 3);
+        issue(2, 4);
+        issue(3, 4, 5);
+        issue(4, 1);
+    }
+
+    @Test
+    public void eachLevelIsRetrievedWithOneRequestTest() throws MalformedURLException {
+        DependencyGraph graph = DependencyGraph.build(tracker.get(url(1).toString()), 10, Direction.DEPENDS_ON, this::getIssues);
+
+        assertEquals(4, graph.size());
+        assertEquals(Arrays.asList(url(1), url(2), url(3), url(4)),
+                graph.getIssues().stream().map(Issue::getURL).collect(Collectors.toList()));
+        // The second level contains 4 and 5, and the cycle back to 1 does not require a further request
+        assertEquals(2, requests.size());
+        assertEquals(Arrays.asList(url(4), url(5)), new ArrayList<>(requests.get(1)));
+        assertEquals(Collections.singletonList(url(5)), new ArrayList<>(graph.getUnresolved()));
+        assertEquals(Collections.singletonList(tracker.get(url(4).toString())),
+                graph.getLinkedIssues(graph.getIssue(url(3)).get()));
+    }
+
+    @Test
+    public void depthLimitsTraversalTest() throws MalformedURLException {
+        DependencyGraph graph = DependencyGraph.build(tracker.get(url(1).toString()), 1, Direction.DEPENDS_ON, this::getIssues);
+
+        assertEquals(3, graph.size());
+        assertEquals(1, requests.size());
+        assertFalse(graph.contains(url(4)));
+        assertTrue(graph.getUnresolved().isEmpty());
+    }
+
+    @Test
+    public void zeroDepthContainsOnlyRootTest() throws MalformedURLException {
+        DependencyGraph graph = DependencyGraph.build(tracker.get(url(1).toString()), 0, Direction.DEPENDS_ON, this::getIssues);
+
+        assertEquals(1, graph.size());
+        assertTrue(requests.isEmpty());
+    }
+
+    private List<Issue> getIssues(Collection<URL> urls) {
+        requests.add(new ArrayList<>(urls));
+        return urls.stream()
+                .map(url -> tracker.get(url.toString()))
+                .filter(issue -> issue != null)
+                .collect(Collectors.toList());
+    }
+
+    private void issue(int id, int... dependsOn) throws MalformedURLException {
+        Issue issue = new Issue(url(id));
+        List<URL> urls = new ArrayList<>();
+        for (int dependency : dependsOn)
+            urls.add(url(dependency));
+        issue.setDependsOn(urls);
+        tracker.put(issue.getURL().toString(), issue);
+    }
+
+    private static URL url(int id) throws MalformedURLException {
+        return new URL("https://issues.jboss.org/browse/WFLY-" + id);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.domain;
+
+import org.jboss.set.aphrodite.domain.Issue.Field;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Ryan Emerson
+ */
+public class IssueTest {
+
+    private Issue issue;
+
+    @Before
+    public void setUp() throws MalformedURLException {
+        issue = new Issue(new URL("https://issues.jboss.org/browse/WFLY-1"));
+        issue.setSummary("Summary");
+        issue.getComponents().add("Clustering");
+        issue.getStreamStatus().put("6.4.z", FlagStatus.SET);
+        issue.getStage().setStatus(Flag.DEV, FlagStatus.SET);
+    }
+
+    @Test
+    public void untrackedIssueIsFullyModifiedTest() {
+        assertFalse(issue.isTrackingModifications());
+        assertEquals(EnumSet.allOf(Field.class), issue.getModifiedFields());
+        assertEquals(issue.getStreamStatus(), issue.getModifiedStreamStatus());
+    }
+
+    @Test
+    public void inPlaceModificationsAreTrackedTest() {
+        issue.markUnmodified();
+        assertTrue(issue.getModifiedFields().isEmpty());
+
+        issue.getComponents().add("EJB");
+        issue.getStage().setStatus(Flag.QE, FlagStatus.ACCEPTED);
+        issue.setSummary("Summary");
+
+        assertEquals(EnumSet.of(Field.COMPONENTS, Field.STAGE), issue.getModifiedFields());
+        assertEquals(Collections.singletonList("Clustering"), issue.getOriginalValue(Field.COMPONENTS).get());
+        assertEquals(Collections.singletonMap(Flag.QE, FlagStatus.ACCEPTED), issue.getModifiedStageStatus());
+        assertTrue(issue.getModifiedStreamStatus().isEmpty());
+    }
+
+    @Test
+    public void markUnmodifiedResetsOriginalValuesTest() {
+        issue.markUnmodified();
+        issue.setStatus(IssueStatus.POST);
+        assertTrue(issue.isModified(Field.STATUS));
+
+        issue.markUnmodified();
+        assertFalse(issue.isModified(Field.STATUS));
+        assertEquals(IssueStatus.POST, issue.getOriginalValue(Field.STATUS).get());
+    }
+}
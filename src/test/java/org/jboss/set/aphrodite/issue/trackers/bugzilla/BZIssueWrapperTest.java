@@ -54,6 +54,7 @@ import java.util.Optional;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -139,6 +140,23 @@ public class BZIssueWrapperTest {
             assertNotNull(result.getStage().getStateMap().get(f));
     }
 
+    @Test
+    public void retrievedIssueToBZOnlyContainsModifiedFieldsTest() throws AphroditeException {
+        Issue result = wrapper.bugzillaBugToIssue(bz01, bugzillaURL);
+        result.setStatus(IssueStatus.POST);
+        result.getStage().setStatus(Flag.QE, FlagStatus.ACCEPTED);
+
+        Map<String, Object> params = wrapper.issueToBugzillaBug(result, loginMap);
+        assertEquals("POST", params.get(BugzillaFields.STATUS));
+        assertEquals("1111111", params.get(BugzillaFields.ISSUE_IDS));
+        assertFalse(params.containsKey(BugzillaFields.SUMMARY));
+        assertFalse(params.containsKey(BugzillaFields.COMPONENT));
+
+        List<?> flags = (List<?>) params.get(BugzillaFields.FLAGS);
+        assertEquals(1, flags.size());
+        assertEquals(FlagStatus.ACCEPTED.getSymbol(), ((Map<?, ?>) flags.get(0)).get(BugzillaFields.FLAG_STATUS));
+    }
+
     private Map<String, Object> createTestBZ01() {
         Map<String, Object> result = new HashMap<>();
 
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class BugzillaClientUpdateTest {
+
+    @Test
+    public void onlyChangedFieldsAreUpdated() {
+        Map<String, Object> current = params("Summary", "NEW", "devel_ack", "+");
+        Map<String, Object> update = params("Summary", "ASSIGNED", "devel_ack", "+");
+
+        Map<String, Object> changes = BugzillaClient.getChangedFields(update, current);
+        assertEquals(1, changes.size());
+        assertEquals("ASSIGNED", changes.get(BugzillaFields.STATUS));
+
+        assertTrue(BugzillaClient.getChangedFields(current, params("Summary", "NEW", "devel_ack", "+")).isEmpty());
+    }
+
+    @Test
+    public void allFieldsAreUpdatedWhenCurrentStateIsUnknown() {
+        Map<String, Object> update = params("Summary", "NEW", "devel_ack", "+");
+        assertSame(update, BugzillaClient.getChangedFields(update, null));
+    }
+
+    @Test
+    public void identicalChangesAreGroupedIrrespectiveOfOrder() {
+        Map<String, Object> first = new HashMap<>();
+        first.put(BugzillaFields.COMPONENT, new String[] {"EJB", "Web"});
+        first.put(BugzillaFields.FLAGS, flags("devel_ack", "+", "qa_ack", "?"));
+
+        Map<String, Object> second = new HashMap<>();
+        second.put(BugzillaFields.COMPONENT, new String[] {"Web", "EJB"});
+        List<Map<String, Object>> reversed = flags("devel_ack", "+", "qa_ack", "?");
+        reversed.add(reversed.remove(0));
+        second.put(BugzillaFields.FLAGS, reversed);
+
+        assertEquals(BugzillaClient.comparableParameters(first), BugzillaClient.comparableParameters(second));
+
+        second.put(BugzillaFields.COMPONENT, new String[] {"Web"});
+        assertNotEquals(BugzillaClient.comparableParameters(first), BugzillaClient.comparableParameters(second));
+    }
+
+    private Map<String, Object> params(String summary, String status, String flag, String flagStatus) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(BugzillaFields.SUMMARY, summary);
+        params.put(BugzillaFields.STATUS, status);
+        params.put(BugzillaFields.COMPONENT, new String[] {"Clustering"});
+        params.put(BugzillaFields.FLAGS, flags(flag, flagStatus));
+        return params;
+    }
+
+    private List<Map<String, Object>> flags(String... nameStatusPairs) {
+        List<Map<String, Object>> flags = new ArrayList<>();
+        for (int i = 0; i < nameStatusPairs.length; i += 2) {
+            Map<String, Object> flag = new HashMap<>();
+            flag.put(BugzillaFields.FLAG_NAME, nameStatusPairs[i]);
+            flag.put(BugzillaFields.FLAG_STATUS, nameStatusPairs[i + 1]);
+            flags.add(flag);
+        }
+        return flags;
+    }
+}
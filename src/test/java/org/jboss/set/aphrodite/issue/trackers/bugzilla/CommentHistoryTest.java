@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaClient.CommentHistory;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class CommentHistoryTest {
+
+    @Test
+    public void newCommentsAreAppendedTest() {
+        CommentHistory history = CommentHistory.EMPTY.append(Arrays.asList(comment(1, 1000), comment(2, 2000)));
+        assertEquals(2, history.comments.size());
+        assertEquals(2, history.lastCommentId);
+        assertEquals(2000, history.lastCommentTime);
+
+        history = history.append(Collections.singletonList(comment(5, 3000)));
+        assertEquals(3, history.comments.size());
+        assertEquals("5", history.comments.get(2).getId().get());
+        assertEquals(3000, history.lastCommentTime);
+    }
+
+    @Test
+    public void previouslySeenCommentsAreIgnoredTest() {
+        CommentHistory history = CommentHistory.EMPTY.append(Arrays.asList(comment(1, 1000), comment(2, 2000)));
+
+        // Comments are requested from before the last comment's time, so the last comment is returned again
+        assertSame(history, history.append(Collections.singletonList(comment(2, 2000))));
+        assertEquals(3, history.append(Arrays.asList(comment(2, 2000), comment(3, 2000))).comments.size());
+    }
+
+    @Test
+    public void historiesAreGroupedByCommentTimeTest() {
+        long now = TimeUnit.DAYS.toMillis(1000);
+        Map<String, CommentHistory> histories = new HashMap<>();
+        histories.put("1", history(now - TimeUnit.SECONDS.toMillis(10)));
+        histories.put("2", history(now - TimeUnit.MINUTES.toMillis(5)));
+        histories.put("3", history(now - TimeUnit.DAYS.toMillis(30)));
+        histories.put("4", history(now - TimeUnit.DAYS.toMillis(31)));
+        histories.put("5", history(now - TimeUnit.DAYS.toMillis(365)));
+
+        Map<Long, Map<String, CommentHistory>> groups = BugzillaClient.groupByCommentTime(histories, now);
+        assertEquals(Arrays.asList(now - TimeUnit.DAYS.toMillis(365), now - TimeUnit.DAYS.toMillis(31),
+                now - TimeUnit.MINUTES.toMillis(5)), new ArrayList<>(groups.keySet()));
+        assertEquals(Collections.singleton("5"), groups.get(now - TimeUnit.DAYS.toMillis(365)).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("3", "4")), groups.get(now - TimeUnit.DAYS.toMillis(31)).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), groups.get(now - TimeUnit.MINUTES.toMillis(5)).keySet());
+    }
+
+    private CommentHistory history(long lastCommentTime) {
+        return CommentHistory.EMPTY.append(Collections.singletonList(comment(1, lastCommentTime)));
+    }
+
+    private Map<String, Object> comment(int id, long time) {
+        Map<String, Object> comment = new HashMap<>();
+        comment.put(BugzillaFields.COMMENT_ID, id);
+        comment.put(BugzillaFields.COMMENT_BODY, "Comment " + id);
+        comment.put(BugzillaFields.COMMENT_IS_PRIVATE, false);
+        comment.put(BugzillaFields.COMMENT_TIME, new Date(time));
+        return comment;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.IssueStatus;
+import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.stubs.BugzillaStubServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Ryan Emerson
+ */
+public class JsonRpcBugzillaTransportTest {
+
+    private static final String BUG = "{\"id\":1111111,\"summary\":\"Test Issue\",\"status\":\"NEW\",\"product\":\"EAP\","
+            + "\"component\":[\"Clustering\"],\"version\":[\"6.4.0\"],\"target_milestone\":\"---\","
+            + "\"assigned_to\":\"jboss-set@redhat.com\",\"creator\":\"jboss-set@redhat.com\",\"cf_type\":\"Bug\","
+            + "\"creation_time\":\"2016-01-02T03:04:05Z\",\"last_change_time\":\"2016-01-03T03:04:05Z\","
+            + "\"estimated_time\":0,\"actual_time\":1.5,\"depends_on\":[],\"blocks\":[],\"flags\":[],"
+            + "\"description\":null}";
+
+    private HttpServer server;
+    private URL baseURL;
+    private volatile int status = 200;
+    private volatile String response;
+    private volatile JsonObject request;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/jsonrpc.cgi", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                request = Json.createReader(in).readObject();
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(body)) {
+                gzip.write(response.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        });
+        server.start();
+        baseURL = new URL("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void resultUsesXmlRpcRepresentationTest() throws Exception {
+        response = "{\"result\":{\"bugs\":[" + BUG + "]},\"error\":null,\"id\":1}";
+
+        Map<String, Object> params = new HashMap<>();
+        params.put(BugzillaFields.ISSUE_IDS, new Object[] {"1111111"});
+        params.put(BugzillaFields.COMMENT_NEW_SINCE, new Date(1451703845123L));
+        Map<?, ?> result = (Map<?, ?>) new JsonRpcBugzillaTransport(baseURL).execute("Bug.get", params);
+
+        assertEquals("Bug.get", request.getString("method"));
+        JsonObject sentParams = request.getJsonArray("params").getJsonObject(0);
+        assertEquals("1111111", sentParams.getJsonArray("ids").getString(0));
+        assertEquals("2016-01-02T03:04:05Z", sentParams.getString("new_since"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> bug = (Map<String, Object>) ((Object[]) result.get("bugs"))[0];
+        assertEquals(1111111, bug.get(BugzillaFields.ID));
+        assertEquals(new Date(1451703845000L), bug.get(BugzillaFields.CREATION_TIME));
+        assertEquals(0.0, bug.get(BugzillaFields.ESTIMATED_TIME));
+        assertArrayEquals(new Object[] {"Clustering"}, (Object[]) bug.get(BugzillaFields.COMPONENT));
+        assertFalse(bug.containsKey(BugzillaFields.DESCRIPTION));
+
+        Issue issue = new IssueWrapper().bugzillaBugToIssue(bug, baseURL);
+        assertEquals("Test Issue", issue.getSummary().get());
+        assertEquals(1.5, issue.getEstimation().get().getHoursWorked(), 0);
+    }
+
+    @Test
+    public void streamPassesEachBugToConsumerTest() throws Exception {
+        response = "{\"result\":{\"bugs\":[" + BUG + "," + BUG.replace("1111111", "2222222") + "],\"faults\":[]},"
+                + "\"error\":null,\"id\":1}";
+
+        List<Object> ids = new ArrayList<>();
+        new JsonRpcBugzillaTransport(baseURL).stream("Bug.search", Collections.emptyMap(), "bugs",
+                bug -> ids.add(bug.get(BugzillaFields.ID)));
+        assertEquals(Arrays.asList(1111111, 2222222), ids);
+    }
+
+    @Test
+    public void faultIsNotRetryableTest() {
+        response = "{\"result\":null,\"error\":{\"code\":101,\"message\":\"Bug #1 does not exist.\"},\"id\":1}";
+        BugzillaTransportException e = execute();
+        assertFalse(e.getStatusCode().isPresent());
+        assertFalse(BugzillaClient.isRetryable(e));
+    }
+
+    @Test
+    public void unavailableServiceIsRetryableTest() {
+        status = 503;
+        response = "<html>Service Unavailable</html>";
+        BugzillaTransportException e = execute();
+        assertEquals(503, e.getStatusCode().getAsInt());
+        assertTrue(BugzillaClient.isRetryable(e));
+    }
+
+    @Test
+    public void clientUsesStubServerTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (BugzillaStubServer stub = new BugzillaStubServer()) {
+            stub.addBug(1111111, "First Issue", "NEW");
+            stub.addBug(2222222, "Second Issue", "ASSIGNED");
+            stub.addComment(1111111, "A public comment", false);
+            BugzillaClient client = new BugzillaClient(stub.getURL(), stub.getURL(), "user", "password", executor,
+                    new RemoteCallTracker("bugzilla", "localhost", null), BugzillaTransport.Type.JSONRPC);
+
+            Issue issue = client.getIssueWithComments("1111111");
+            assertEquals("First Issue", issue.getSummary().get());
+            assertEquals("A public comment", issue.getComments().get(0).getBody());
+
+            SearchCriteria criteria = new SearchCriteria.Builder().setProduct("EAP").build();
+            assertEquals(2, client.searchIssues(criteria).size());
+
+            issue.setStatus(IssueStatus.ASSIGNED);
+            assertTrue(client.updateIssue(issue));
+            assertEquals("ASSIGNED", stub.getBug(1111111).get("status"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BugzillaTransportException execute() {
+        try {
+            new JsonRpcBugzillaTransport(baseURL).execute("Bug.get", Collections.emptyMap());
+            fail("Expected a BugzillaTransportException");
+            return null;
+        } catch (BugzillaTransportException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.bugzilla;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class XmlRpcResponseReaderTest {
+
+    private static final String RESPONSE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<methodResponse><params><param><value><struct>"
+            + "<member><name>faults</name><value><array><data/></array></value></member>"
+            + "<member><name>bugs</name><value><array><data>"
+            + bug(1, "First") + bug(2, "Second")
+            + "</data></array></value></member>"
+            + "</struct></value></param></params></methodResponse>";
+
+    private static String bug(int id, String summary) {
+        return "<value><struct>"
+                + "<member><name>id</name><value><int>" + id + "</int></value></member>"
+                + "<member><name>summary</name><value>" + summary + "</value></member>"
+                + "<member><name>is_open</name><value><boolean>1</boolean></value></member>"
+                + "<member><name>estimated_time</name><value><double>2.5</double></value></member>"
+                + "<member><name>creation_time</name><value><dateTime.iso8601>20160102T03:04:05</dateTime.iso8601></value></member>"
+                + "<member><name>component</name><value><array><data><value><string>Clustering</string></value></data></array></value></member>"
+                + "<member><name>qa_contact</name><value><nil/></value></member>"
+                + "</struct></value>";
+    }
+
+    @Test
+    public void streamsEachElementOfArrayTest() throws Exception {
+        List<Map<String, Object>> bugs = new ArrayList<>();
+        new XmlRpcResponseReader(TimeZone.getTimeZone("UTC")).read(stream(RESPONSE), "bugs", bugs::add);
+
+        assertEquals(2, bugs.size());
+        Map<String, Object> bug = bugs.get(0);
+        assertEquals(1, bug.get("id"));
+        assertEquals("First", bug.get("summary"));
+        assertEquals(true, bug.get("is_open"));
+        assertEquals(2.5, bug.get("estimated_time"));
+        assertEquals(new Date(1451703845000L), bug.get("creation_time"));
+        assertArrayEquals(new Object[] {"Clustering"}, (Object[]) bug.get("component"));
+        assertFalse(bug.containsKey("qa_contact"));
+        assertEquals("Second", bugs.get(1).get("summary"));
+    }
+
+    @Test
+    public void faultIsThrownTest() {
+        String fault = "<methodResponse><fault><value><struct>"
+                + "<member><name>faultCode</name><value><int>101</int></value></member>"
+                + "<member><name>faultString</name><value><string>Bug #1 does not exist.</string></value></member>"
+                + "</struct></value></fault></methodResponse>";
+        try {
+            new XmlRpcResponseReader(TimeZone.getTimeZone("UTC")).read(stream(fault), "bugs", bug -> fail());
+            fail("Expected an XmlRpcException");
+        } catch (XmlRpcException e) {
+            assertEquals(101, e.code);
+            assertEquals("Bug #1 does not exist.", e.getMessage());
+        }
+    }
+
+    @Test(expected = XmlRpcException.class)
+    public void invalidResponseIsRejectedTest() throws Exception {
+        new XmlRpcResponseReader(TimeZone.getTimeZone("UTC")).read(stream("<html>Error</html>"), "bugs", bug -> fail());
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
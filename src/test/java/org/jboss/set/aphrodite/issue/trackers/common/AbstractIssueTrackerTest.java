@@ -0,0 +1,108 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.issue.trackers.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.Patch;
+import org.jboss.set.aphrodite.domain.PatchState;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class AbstractIssueTrackerTest {
+
+    private AbstractIssueTracker tracker;
+    private final List<Collection<URL>> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        tracker = mock(AbstractIssueTracker.class, CALLS_REAL_METHODS);
+        tracker.baseUrl = new URL("https://bugzilla.redhat.com/");
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Collection<URL> urls = (Collection<URL>) invocation.getArguments()[0];
+            requests.add(new ArrayList<>(urls));
+            return urls.stream().map(Issue::new).collect(Collectors.toList());
+        }).when(tracker).getIssues(anyCollectionOf(URL.class));
+    }
+
+    @Test
+    public void linkedIssuesAreRetrievedInBulkTest() throws Exception {
+        Patch patch = patch("BZ https://bugzilla.redhat.com/show_bug.cgi?id=1",
+                "Upstream https://issues.jboss.org/browse/WFLY-1\n"
+                        + "https://bugzilla.redhat.com/show_bug.cgi?id=2 and again https://bugzilla.redhat.com/show_bug.cgi?id=1");
+
+        List<Issue> issues = tracker.getIssuesAssociatedWith(patch);
+
+        assertEquals(1, requests.size());
+        assertEquals(Arrays.asList(new URL("https://bugzilla.redhat.com/show_bug.cgi?id=1"),
+                new URL("https://bugzilla.redhat.com/show_bug.cgi?id=2")), requests.get(0));
+        assertEquals(2, issues.size());
+    }
+
+    @Test
+    public void sharedIssuesAreRetrievedOnceForAllPatchesTest() throws Exception {
+        Patch first = patch("Fix", "https://bugzilla.redhat.com/show_bug.cgi?id=1 https://bugzilla.redhat.com/show_bug.cgi?id=2");
+        Patch second = patch("Backport", "https://bugzilla.redhat.com/show_bug.cgi?id=2");
+        Patch third = patch("Cleanup", "No links");
+
+        Map<Patch, List<Issue>> issues = tracker.getIssuesAssociatedWith(Arrays.asList(first, second, third));
+
+        assertEquals(1, requests.size());
+        assertEquals(2, requests.get(0).size());
+        assertEquals(2, issues.get(first).size());
+        assertSame(issues.get(first).get(1), issues.get(second).get(0));
+        assertTrue(issues.get(third).isEmpty());
+    }
+
+    @Test
+    public void noRequestIsMadeWithoutLinksTest() throws Exception {
+        assertTrue(tracker.getIssuesAssociatedWith(patch("Fix", "See https://issues.jboss.org/browse/WFLY-1")).isEmpty());
+        verify(tracker, never()).getIssues(anyCollectionOf(URL.class));
+    }
+
+    private static Patch patch(String title, String body) throws Exception {
+        return new Patch("1", new URL("https://github.com/jboss-set/aphrodite/pull/1"), null, null, PatchState.OPEN,
+                title, body);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.load;
+
+/**
+ * The <code>Aphrodite</code> facade calls which can be driven by the {@link LoadHarness}.
+ *
+ * @author Ryan Emerson
+ */
+public enum FacadeOperation {
+
+    /**
+     * <code>getIssues</code> for a random selection of issues.
+     */
+    GET_ISSUES,
+
+    /**
+     * <code>searchIssues</code> for the first page of issues with a random status.
+     */
+    SEARCH_ISSUES,
+
+    /**
+     * <code>getPatchesAssociatedWith</code> a random issue.
+     */
+    GET_PATCHES_ASSOCIATED_WITH,
+
+    /**
+     * <code>addCommentToIssue(Map)</code> for a random selection of issues.
+     */
+    ADD_COMMENTS,
+
+    /**
+     * <code>getCommitStatusFromPatch</code> for a random patch.
+     */
+    GET_COMMIT_STATUS
+}
@@ -0,0 +1,258 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.set.aphrodite.Aphrodite;
+import org.jboss.set.aphrodite.config.AphroditeConfig;
+import org.jboss.set.aphrodite.config.IssueTrackerConfig;
+import org.jboss.set.aphrodite.config.RepositoryConfig;
+import org.jboss.set.aphrodite.config.TrackerType;
+import org.jboss.set.aphrodite.domain.Comment;
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.IssueStatus;
+import org.jboss.set.aphrodite.domain.Patch;
+import org.jboss.set.aphrodite.domain.PatchState;
+import org.jboss.set.aphrodite.domain.Repository;
+import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.metrics.InMemoryMetrics;
+import org.jboss.set.aphrodite.metrics.LatencyHistogram;
+import org.jboss.set.aphrodite.repository.services.common.RepositoryType;
+import org.jboss.set.aphrodite.spi.AphroditeException;
+import org.jboss.set.aphrodite.stubs.BugzillaStubServer;
+import org.jboss.set.aphrodite.stubs.GitHubStubServer;
+
+/**
+ * Drives the <code>Aphrodite</code> facade against a {@link BugzillaStubServer} and a {@link GitHubStubServer}, and
+ * reports the throughput, latency, remote calls and resource usage of each {@link FacadeOperation}.
+ *
+ * The stubs hold the profile's number of bugs, each with a comment and a single open pull request which references
+ * the bug and has a successful commit status. Each operation is driven by the profile's number of threads, each of
+ * which calls the facade in a loop, first for the warmup period and then for the measurement period.
+ *
+ * Run with <code>mvn -Pload test-compile exec:java</code>, configuring the run via the system properties described by
+ * {@link LoadProfile}.
+ *
+ * @author Ryan Emerson
+ */
+public class LoadHarness implements AutoCloseable {
+
+    private static final String REPOSITORY = "jboss-set/aphrodite";
+    private static final int FIRST_BUG_ID = 1_000_000;
+    private static final IssueStatus[] STATUSES = { IssueStatus.NEW, IssueStatus.ASSIGNED, IssueStatus.POST };
+    private static final long HEAP_SAMPLE_MILLIS = 10;
+
+    private final LoadProfile profile;
+    private final BugzillaStubServer bugzilla;
+    private final GitHubStubServer github;
+    private final InMemoryMetrics metrics = new InMemoryMetrics();
+    private final ExecutorService aphroditeExecutor = Executors.newCachedThreadPool();
+    private final Aphrodite aphrodite;
+    private final List<URL> issueUrls = new ArrayList<>();
+    private final List<Issue> issues;
+    private final List<Patch> patches;
+
+    public LoadHarness(LoadProfile profile) throws Exception {
+        this.profile = profile;
+        bugzilla = new BugzillaStubServer();
+        github = new GitHubStubServer();
+        try {
+            for (int i = 0; i < profile.getIssues(); i++) {
+                int id = FIRST_BUG_ID + i;
+                bugzilla.addBug(id, "Issue " + id, STATUSES[i % STATUSES.length].toString());
+                bugzilla.addComment(id, "Description of issue " + id, false);
+                github.addPullRequest(REPOSITORY, i + 1, "Pull Request " + (i + 1), "Fixes bug " + id);
+                github.addStatus(REPOSITORY, GitHubStubServer.getSha(REPOSITORY, i + 1), "success", "ci");
+                issueUrls.add(new URL(bugzilla.getURL() + "show_bug.cgi?id=" + id));
+            }
+
+            IssueTrackerConfig bugzillaConfig = new IssueTrackerConfig(bugzilla.getURL().toString(), "aphrodite",
+                    "password", TrackerType.BUGZILLA, profile.getBatchSize());
+            RepositoryConfig githubConfig = new RepositoryConfig(github.getURL().toString(), "aphrodite", "password",
+                    RepositoryType.GITHUB);
+            aphrodite = Aphrodite.instance(new AphroditeConfig(aphroditeExecutor, profile.getExecutorType(), metrics,
+                    Collections.singletonList(bugzillaConfig), Collections.singletonList(githubConfig),
+                    new ArrayList<>()));
+
+            issues = aphrodite.getIssues(issueUrls);
+            patches = aphrodite.getPatchesByState(new Repository(new URL(github.getURL() + REPOSITORY)), PatchState.OPEN);
+            if (issues.size() != profile.getIssues() || patches.size() != profile.getIssues())
+                throw new AphroditeException("Expected " + profile.getIssues() + " issues and patches, but found "
+                        + issues.size() + " issues and " + patches.size() + " patches");
+        } catch (Exception e) {
+            close();
+            throw e;
+        }
+
+        bugzilla.setLatency(profile.getLatencyMillis());
+        bugzilla.setErrorRate(profile.getErrorRate());
+        github.setLatency(profile.getLatencyMillis());
+        github.setErrorRate(profile.getErrorRate());
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Drive each of the profile's operations in turn.
+     *
+     * @return a report for each operation.
+     */
+    public List<LoadReport> run() throws InterruptedException {
+        List<LoadReport> reports = new ArrayList<>();
+        for (FacadeOperation operation : profile.getOperations())
+            reports.add(run(operation));
+        return reports;
+    }
+
+    /**
+     * Drive the operation for the warmup period, then measure it for the measurement period.
+     */
+    public LoadReport run(FacadeOperation operation) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(profile.getConcurrency());
+        try {
+            List<Future<?>> warmup = drive(workers, operation, profile.getWarmupMillis(), new LatencyHistogram(),
+                    new AtomicLong());
+            while (!warmup.stream().allMatch(Future::isDone))
+                Thread.sleep(HEAP_SAMPLE_MILLIS);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            threads.resetPeakThreadCount();
+            long remoteCalls = metrics.getTotalCallCount();
+            long httpRequests = bugzilla.getRequestCount() + github.getRequestCount();
+
+            LatencyHistogram latencies = new LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            List<Future<?>> futures = drive(workers, operation, profile.getMeasurementMillis(), latencies, errors);
+            long peakHeap = memory.getHeapMemoryUsage().getUsed();
+            while (!futures.stream().allMatch(Future::isDone)) {
+                Thread.sleep(HEAP_SAMPLE_MILLIS);
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            }
+            long elapsed = System.nanoTime() - start;
+
+            return new LoadReport(operation, latencies, errors.get(), elapsed,
+                    metrics.getTotalCallCount() - remoteCalls,
+                    bugzilla.getRequestCount() + github.getRequestCount() - httpRequests,
+                    threads.getPeakThreadCount(), peakHeap);
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private List<Future<?>> drive(ExecutorService workers, FacadeOperation operation, long durationMillis,
+            LatencyHistogram latencies, AtomicLong errors) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < profile.getConcurrency(); i++) {
+            Random random = new Random(i);
+            futures.add(workers.submit(() -> {
+                long start;
+                while ((start = System.nanoTime()) - deadline < 0) {
+                    try {
+                        execute(operation, random);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.record(System.nanoTime() - start);
+                }
+            }));
+        }
+        return futures;
+    }
+
+    private void execute(FacadeOperation operation, Random random) throws Exception {
+        switch (operation) {
+            case GET_ISSUES:
+                aphrodite.getIssues(sample(issueUrls, random));
+                break;
+            case SEARCH_ISSUES:
+                aphrodite.searchIssues(new SearchCriteria.Builder()
+                        .setStatus(STATUSES[random.nextInt(STATUSES.length)])
+                        .setMaxResults(profile.getBatchSize())
+                        .build());
+                break;
+            case GET_PATCHES_ASSOCIATED_WITH:
+                aphrodite.getPatchesAssociatedWith(issues.get(random.nextInt(issues.size())));
+                break;
+            case ADD_COMMENTS:
+                Map<Issue, Comment> comments = new HashMap<>();
+                for (Issue issue : sample(issues, random))
+                    comments.put(issue, new Comment("Load test comment", false));
+                if (!aphrodite.addCommentToIssue(comments))
+                    throw new AphroditeException("Unable to comment on all issues");
+                break;
+            case GET_COMMIT_STATUS:
+                aphrodite.getCommitStatusFromPatch(patches.get(random.nextInt(patches.size())));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private <T> List<T> sample(List<T> list, Random random) {
+        int start = random.nextInt(list.size() - profile.getBatchSize() + 1);
+        return list.subList(start, start + profile.getBatchSize());
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            if (aphrodite != null)
+                aphrodite.close();
+        } finally {
+            aphroditeExecutor.shutdownNow();
+            bugzilla.close();
+            github.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        System.out.println(profile);
+        try (LoadHarness harness = new LoadHarness(profile)) {
+            System.out.println(LoadReport.header());
+            for (FacadeOperation operation : profile.getOperations())
+                System.out.println(harness.run(operation).toRow());
+        }
+    }
+}
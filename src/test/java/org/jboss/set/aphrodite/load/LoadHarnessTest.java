@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.set.aphrodite.config.ExecutorType;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class LoadHarnessTest {
+
+    @Test
+    public void everyOperationIsMeasuredTest() throws Exception {
+        LoadProfile profile = new LoadProfile(2, 50, 200, 1, 0, 20, 5, ExecutorType.PLATFORM,
+                Arrays.asList(FacadeOperation.values()));
+        List<LoadReport> reports;
+        try (LoadHarness harness = new LoadHarness(profile)) {
+            reports = harness.run();
+        }
+
+        assertEquals(FacadeOperation.values().length, reports.size());
+        for (LoadReport report : reports) {
+            assertTrue(report.toString(), report.getCalls() > 0);
+            assertEquals(report.toString(), 0, report.getErrors());
+            assertTrue(report.toString(), report.getThroughput() > 0);
+            assertTrue(report.toString(), report.getP50Millis() <= report.getP999Millis());
+            assertTrue(report.toString(), report.getPeakThreads() >= profile.getConcurrency());
+        }
+        // Each commit status requires the patch's commits and their statuses
+        assertEquals(2, reports.get(4).getHttpRequestsPerCall(), 0);
+    }
+}
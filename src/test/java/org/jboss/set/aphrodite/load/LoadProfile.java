@@ -0,0 +1,167 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.jboss.set.aphrodite.config.ExecutorType;
+
+/**
+ * The concurrency, duration, data set and backend behaviour of a {@link LoadHarness} run. Each field can be set via a
+ * system property, e.g. <code>-Daphrodite.load.concurrency=32</code>.
+ *
+ * @author Ryan Emerson
+ */
+public class LoadProfile {
+
+    public static final String PROPERTY_PREFIX = "aphrodite.load.";
+
+    public static final int DEFAULT_CONCURRENCY = 8;
+    public static final long DEFAULT_WARMUP_MILLIS = 5_000;
+    public static final long DEFAULT_MEASUREMENT_MILLIS = 20_000;
+    public static final long DEFAULT_LATENCY_MILLIS = 20;
+    public static final int DEFAULT_ISSUES = 200;
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    private final int concurrency;
+    private final long warmupMillis;
+    private final long measurementMillis;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final int issues;
+    private final int batchSize;
+    private final ExecutorType executorType;
+    private final List<FacadeOperation> operations;
+
+    /**
+     * @param concurrency the number of threads which call the facade at once.
+     * @param warmupMillis the time each operation is driven for before it is measured.
+     * @param measurementMillis the time each operation is measured for.
+     * @param latencyMillis the time every request to a stub backend is delayed by.
+     * @param errorRate the proportion of requests, between 0 and 1, which a stub backend fails.
+     * @param issues the number of issues, each with a single associated patch, held by the stub backends.
+     * @param batchSize the number of issues retrieved by each <code>getIssues</code> call, and commented on by each
+     * <code>addCommentToIssue</code> call.
+     * @param executorType the type of threads which Aphrodite executes remote calls with.
+     * @param operations the operations to drive, in order.
+     */
+    public LoadProfile(int concurrency, long warmupMillis, long measurementMillis, long latencyMillis, double errorRate,
+            int issues, int batchSize, ExecutorType executorType, List<FacadeOperation> operations) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        if (issues < batchSize || batchSize < 1)
+            throw new IllegalArgumentException("issues must be at least batchSize, which must be at least 1");
+
+        this.concurrency = concurrency;
+        this.warmupMillis = warmupMillis;
+        this.measurementMillis = measurementMillis;
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.issues = issues;
+        this.batchSize = batchSize;
+        this.executorType = executorType;
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    /**
+     * @return a profile whose fields are taken from the <code>aphrodite.load.*</code> system properties, or their
+     * defaults. Operations are given as a comma separated list, e.g. <code>get_issues,search_issues</code>.
+     */
+    public static LoadProfile fromSystemProperties() {
+        String operations = System.getProperty(PROPERTY_PREFIX + "operations");
+        List<FacadeOperation> list = new ArrayList<>();
+        if (operations == null) {
+            list.addAll(Arrays.asList(FacadeOperation.values()));
+        } else {
+            for (String operation : operations.split(","))
+                list.add(FacadeOperation.valueOf(operation.trim().toUpperCase(Locale.ENGLISH)));
+        }
+
+        return new LoadProfile(
+                Integer.getInteger(PROPERTY_PREFIX + "concurrency", DEFAULT_CONCURRENCY),
+                Long.getLong(PROPERTY_PREFIX + "warmupMillis", DEFAULT_WARMUP_MILLIS),
+                Long.getLong(PROPERTY_PREFIX + "measurementMillis", DEFAULT_MEASUREMENT_MILLIS),
+                Long.getLong(PROPERTY_PREFIX + "latencyMillis", DEFAULT_LATENCY_MILLIS),
+                Double.parseDouble(System.getProperty(PROPERTY_PREFIX + "errorRate", "0")),
+                Integer.getInteger(PROPERTY_PREFIX + "issues", DEFAULT_ISSUES),
+                Integer.getInteger(PROPERTY_PREFIX + "batchSize", DEFAULT_BATCH_SIZE),
+                ExecutorType.valueOf(System.getProperty(PROPERTY_PREFIX + "executor", ExecutorType.PLATFORM.name())
+                        .toUpperCase(Locale.ENGLISH)),
+                list);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public long getMeasurementMillis() {
+        return measurementMillis;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getIssues() {
+        return issues;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public List<FacadeOperation> getOperations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" +
+                "concurrency=" + concurrency +
+                ", warmupMillis=" + warmupMillis +
+                ", measurementMillis=" + measurementMillis +
+                ", latencyMillis=" + latencyMillis +
+                ", errorRate=" + errorRate +
+                ", issues=" + issues +
+                ", batchSize=" + batchSize +
+                ", executorType=" + executorType +
+                ", operations=" + operations +
+                '}';
+    }
+}
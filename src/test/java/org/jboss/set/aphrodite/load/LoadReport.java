@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.load;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.set.aphrodite.metrics.LatencyHistogram;
+
+/**
+ * The throughput, latency and resource usage of a single {@link FacadeOperation} measured by the {@link LoadHarness}.
+ * Latency percentiles are taken from a {@link LatencyHistogram}, so are accurate to within 25%.
+ *
+ * @author Ryan Emerson
+ */
+public class LoadReport {
+
+    private static final String ROW_FORMAT = "%-28s %10s %8s %10s %10s %10s %10s %14s %12s %10s %10s";
+
+    private final FacadeOperation operation;
+    private final long calls;
+    private final long errors;
+    private final long elapsedNanos;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    private final long remoteCalls;
+    private final long httpRequests;
+    private final int peakThreads;
+    private final long peakHeapBytes;
+
+    LoadReport(FacadeOperation operation, LatencyHistogram latencies, long errors, long elapsedNanos, long remoteCalls,
+            long httpRequests, int peakThreads, long peakHeapBytes) {
+        this.operation = operation;
+        this.calls = latencies.getCount();
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.p50Millis = latencies.getPercentileMillis(50);
+        this.p99Millis = latencies.getPercentileMillis(99);
+        this.p999Millis = latencies.getPercentileMillis(99.9);
+        this.remoteCalls = remoteCalls;
+        this.httpRequests = httpRequests;
+        this.peakThreads = peakThreads;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public FacadeOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the number of facade calls which completed, including those which failed.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the facade calls completed per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : calls * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    /**
+     * @return the remote calls recorded by Aphrodite's metrics per facade call, including retries.
+     */
+    public double getRemoteCallsPerCall() {
+        return calls == 0 ? 0 : remoteCalls / (double) calls;
+    }
+
+    /**
+     * @return the HTTP requests received by the stub backends per facade call.
+     */
+    public double getHttpRequestsPerCall() {
+        return calls == 0 ? 0 : httpRequests / (double) calls;
+    }
+
+    /**
+     * @return the peak number of live threads in the JVM whilst the operation was measured.
+     */
+    public int getPeakThreads() {
+        return peakThreads;
+    }
+
+    /**
+     * @return the peak heap usage sampled whilst the operation was measured.
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public static String header() {
+        return String.format(ROW_FORMAT, "operation", "calls", "errors", "calls/s", "p50 ms", "p99 ms", "p999 ms",
+                "remote/call", "http/call", "threads", "heap MB");
+    }
+
+    /**
+     * @return the report as a row of the table described by {@link #header()}.
+     */
+    public String toRow() {
+        return String.format(ROW_FORMAT, operation, calls, errors, String.format("%.1f", getThroughput()),
+                String.format("%.2f", p50Millis), String.format("%.2f", p99Millis), String.format("%.2f", p999Millis),
+                String.format("%.2f", getRemoteCallsPerCall()), String.format("%.2f", getHttpRequestsPerCall()),
+                peakThreads, peakHeapBytes / (1024 * 1024));
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" +
+                "operation=" + operation +
+                ", calls=" + calls +
+                ", errors=" + errors +
+                ", throughput=" + getThroughput() +
+                ", p50Millis=" + p50Millis +
+                ", p99Millis=" + p99Millis +
+                ", p999Millis=" + p999Millis +
+                ", remoteCallsPerCall=" + getRemoteCallsPerCall() +
+                ", httpRequestsPerCall=" + getHttpRequestsPerCall() +
+                ", peakThreads=" + peakThreads +
+                ", peakHeapBytes=" + peakHeapBytes +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.metrics;
+
+import org.jboss.set.aphrodite.common.CountingInputStream;
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class InMemoryMetricsTest {
+
+    private InMemoryMetrics metrics;
+    private RemoteCallTracker tracker;
+
+    @Before
+    public void setUp() {
+        metrics = new InMemoryMetrics();
+        tracker = new RemoteCallTracker("bugzilla", "bugzilla.redhat.com", metrics);
+    }
+
+    @Test
+    public void recordSuccessfulCallTest() throws Exception {
+        byte[] response = new byte[1024];
+        tracker.call("Bug.get", () -> readFully(new CountingInputStream(new ByteArrayInputStream(response))));
+
+        CallStatistics stats = metrics.getStatistics("bugzilla", "bugzilla.redhat.com", "Bug.get").get();
+        assertEquals(1, stats.getCallCount());
+        assertEquals(0, stats.getErrorCount());
+        assertEquals(response.length, stats.getResponseBytes());
+    }
+
+    @Test
+    public void recordFailedCallTest() {
+        try {
+            tracker.call("Bug.update", () -> {
+                throw new IOException("Connection refused");
+            });
+            fail("Expected the remote call's exception to be rethrown");
+        } catch (IOException e) {
+            CallStatistics stats = metrics.getStatistics("bugzilla", "bugzilla.redhat.com", "Bug.update").get();
+            assertEquals(1, stats.getCallCount());
+            assertEquals(1, stats.getErrorCount());
+        }
+        assertFalse(metrics.getStatistics("bugzilla", "bugzilla.redhat.com", "Bug.get").isPresent());
+    }
+
+    @Test
+    public void responseBytesOutsideOfCallIgnoredTest() throws Exception {
+        readFully(new CountingInputStream(new ByteArrayInputStream(new byte[10])));
+        assertEquals(0, metrics.getTotalCallCount());
+    }
+
+    @Test
+    public void latencyPercentilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100, histogram.getMaxMillis(), 0.001);
+        assertEquals(50.5, histogram.getMeanMillis(), 0.001);
+        assertWithinBucketError(50, histogram.getPercentileMillis(50));
+        assertWithinBucketError(99, histogram.getPercentileMillis(99));
+        assertEquals(100, histogram.getPercentileMillis(100), 0.001);
+    }
+
+    @Test
+    public void bucketBoundsContainValuesTest() {
+        for (long micros = 0; micros < 100_000; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(micros <= LatencyHistogram.bucketUpperBound(index));
+            if (index > 0)
+                assertTrue(micros > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+    }
+
+    private static void assertWithinBucketError(double expected, double actual) {
+        assertTrue("Expected " + expected + " but was " + actual, actual >= expected && actual <= expected * 1.25);
+    }
+
+    private static int readFully(InputStream is) throws IOException {
+        int count = 0;
+        byte[] buffer = new byte[100];
+        int n;
+        while ((n = is.read(buffer)) != -1)
+            count += n;
+        return count;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.set.aphrodite.config.ReplayConfig;
+import org.jboss.set.aphrodite.config.ReplayMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Ryan Emerson
+ */
+public class ExchangeProxyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String authorization;
+    private HttpServer upstream;
+    private URL upstreamUrl;
+    private Path archive;
+
+    @Before
+    public void setUp() throws IOException {
+        archive = folder.getRoot().toPath().resolve("archive");
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/", exchange -> {
+            authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            String body = exchange.getRequestMethod() + " " + exchange.getRequestURI() + " "
+                    + new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8) + " " + requests.incrementAndGet();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.getResponseHeaders().add("Link", "<" + upstreamUrl + "items?page=2>; rel=\"next\"");
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        upstream.start();
+        upstreamUrl = new URL("http://localhost:" + upstream.getAddress().getPort() + "/");
+    }
+
+    @After
+    public void tearDown() {
+        upstream.stop(0);
+    }
+
+    @Test
+    public void recordedExchangesAreReplayedInOrderTest() throws Exception {
+        try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.RECORD, archive), upstreamUrl)) {
+            assertEquals("200 GET /items?page=1  1", request(proxy, "GET", "items?page=1", null));
+            assertEquals("200 GET /items?page=1  2", request(proxy, "GET", "items?page=1", null));
+            assertEquals("200 POST /rpc a 3", request(proxy, "POST", "rpc", "a"));
+            assertEquals("200 POST /rpc b 4", request(proxy, "POST", "rpc", "b"));
+            assertEquals("404 GET /missing  5", request(proxy, "GET", "missing", null));
+        }
+        assertEquals("Basic c2VjcmV0", authorization);
+        String recorded = new String(Files.readAllBytes(archive.resolve(ExchangeArchive.getFileName(upstreamUrl))),
+                StandardCharsets.UTF_8);
+        assertFalse(recorded.contains("c2VjcmV0"));
+
+        upstream.stop(0);
+        try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.REPLAY, archive), upstreamUrl)) {
+            assertEquals("200 POST /rpc b 4", request(proxy, "POST", "rpc", "b"));
+            assertEquals("200 GET /items?page=1  1", request(proxy, "GET", "items?page=1", null));
+            assertEquals("200 GET /items?page=1  2", request(proxy, "GET", "items?page=1", null));
+            // The last response is repeated once all have been replayed
+            assertEquals("200 GET /items?page=1  2", request(proxy, "GET", "items?page=1", null));
+            assertEquals("404 GET /missing  5", request(proxy, "GET", "missing", null));
+
+            HttpURLConnection connection = open(proxy, "GET", "items?page=3");
+            assertEquals(404, connection.getResponseCode());
+            assertEquals("miss", connection.getHeaderField(ExchangeProxy.REPLAY_HEADER));
+
+            connection = open(proxy, "GET", "items?page=1");
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("<" + upstreamUrl + "items?page=2>; rel=\"next\"", connection.getHeaderField("Link"));
+        }
+        assertEquals(5, requests.get());
+    }
+
+    @Test
+    public void replayedResponsesAreDelayedTest() throws Exception {
+        try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.RECORD, archive), upstreamUrl)) {
+            request(proxy, "GET", "items", null);
+        }
+
+        try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.REPLAY, archive, 0, 200),
+                upstreamUrl)) {
+            long start = System.nanoTime();
+            assertEquals("200 GET /items  1", request(proxy, "GET", "items", null));
+            assertTrue((System.nanoTime() - start) / 1_000_000 >= 200);
+        }
+    }
+
+    private static HttpURLConnection open(ExchangeProxy proxy, String method, String path) throws IOException {
+        URL url = proxy.getEndpoint(new URL(proxy.getHost() + "/" + path));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Authorization", "Basic c2VjcmV0");
+        return connection;
+    }
+
+    private static String request(ExchangeProxy proxy, String method, String path, String body) throws IOException {
+        HttpURLConnection connection = open(proxy, method, path);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        return status + " " + new String(readAll(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.repository.services.github;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.egit.github.core.Label;
+import org.eclipse.egit.github.core.service.LabelService;
+import org.jboss.set.aphrodite.config.HttpConfig;
+import org.jboss.set.aphrodite.config.ReplayConfig;
+import org.jboss.set.aphrodite.config.ReplayMode;
+import org.jboss.set.aphrodite.replay.ExchangeProxy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Ryan Emerson
+ */
+public class CustomGitHubClientTest {
+
+    private static final String LABELS = "[{\"name\":\"bug\",\"color\":\"fc2929\"},{\"name\":\"hold\",\"color\":\"000000\"}]";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String url;
+    private volatile long delayMillis;
+    private volatile String acceptEncoding;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        serverThreads = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                Thread.sleep(delayMillis);
+
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                try (OutputStream gzip = new GZIPOutputStream(body)) {
+                    gzip.write(LABELS.getBytes(StandardCharsets.UTF_8));
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(200, body.size());
+                try (OutputStream out = exchange.getResponseBody()) {
+                    body.writeTo(out);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void compressedResponseIsDecodedTest() throws Exception {
+        CustomGitHubClient client = CustomGitHubClient.createClient(url, HttpConfig.DEFAULT, 2);
+        List<Label> labels = new LabelService(client).getLabels("jboss-set", "aphrodite");
+
+        assertEquals("gzip", acceptEncoding);
+        assertEquals(2, labels.size());
+        assertEquals("bug", labels.get(0).getName());
+    }
+
+    @Test
+    public void requestsAreSentToEndpointTest() throws Exception {
+        Path archive = Files.createTempDirectory("aphrodite-replay");
+        try {
+            CustomGitHubClient client = CustomGitHubClient.createClient(url, HttpConfig.DEFAULT, 2);
+            try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.RECORD, archive),
+                    client.getApiUrl())) {
+                client.setEndpoint(proxy.getEndpoint(client.getApiUrl()));
+                assertEquals(2, new LabelService(client).getLabels("jboss-set", "aphrodite").size());
+            }
+
+            // The labels are replayed without a connection to the server
+            server.stop(0);
+            try (ExchangeProxy proxy = ExchangeProxy.start(new ReplayConfig(ReplayMode.REPLAY, archive),
+                    client.getApiUrl())) {
+                client.setEndpoint(proxy.getEndpoint(client.getApiUrl()));
+                List<Label> labels = new LabelService(client).getLabels("jboss-set", "aphrodite");
+                assertEquals(2, labels.size());
+                assertEquals("hold", labels.get(1).getName());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(archive)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void connectionsPerHostAreLimitedTest() throws Exception {
+        delayMillis = 50;
+        CustomGitHubClient client = CustomGitHubClient.createClient(url, HttpConfig.DEFAULT, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<List<Label>>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++)
+                futures.add(executor.submit(() -> new LabelService(client).getLabels("jboss-set", "aphrodite")));
+            for (Future<List<Label>> future : futures)
+                assertEquals(2, future.get().size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue("At most 2 requests should be in flight, but there were " + maxInFlight, maxInFlight.get() <= 2);
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void slowResponseTimesOutTest() throws Exception {
+        delayMillis = 2000;
+        HttpConfig httpConfig = new HttpConfig(HttpConfig.DEFAULT_CONNECT_TIMEOUT_MILLIS, 100, true, 0);
+        new LabelService(CustomGitHubClient.createClient(url, httpConfig, 0)).getLabels("jboss-set", "aphrodite");
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.repository.services.github;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.eclipse.egit.github.core.PullRequest;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class PullRequestSyncTest {
+
+    private static final Supplier<PullRequestSync.PageSource> NO_PAGES = () -> () -> null;
+    private static final Supplier<PullRequestSync.PageSource> UNEXPECTED = () -> {
+        throw new AssertionError("Page source should not be read");
+    };
+
+    @Test
+    public void syncStopsAtWatermarkTest() throws Exception {
+        PullRequestSync sync = new PullRequestSync("open");
+        List<PullRequest> pullRequests = sync.sync(pages(
+                Arrays.asList(pr(3, "open", 30), pr(2, "open", 20)),
+                Collections.singletonList(pr(1, "open", 10))),
+                pages(Arrays.asList(pr(3, "open", 30), pr(2, "open", 20), pr(1, "open", 10))));
+        assertEquals(Arrays.asList(3, 2, 1), numbers(pullRequests));
+        assertEquals(new Date(30), sync.getWatermark());
+        // The listing is preceded by a page of updates, and followed by a sync of the updates made during it
+        assertEquals(4, sync.getPagesRead());
+
+        // #2 is closed, #4 is opened and #1 is updated, the page after #3 must not be read
+        Supplier<PullRequestSync.PageSource> updated = pages(
+                Arrays.asList(pr(1, "open", 50), pr(4, "open", 45), pr(2, "closed", 40), pr(3, "open", 30),
+                        pr(5, "closed", 25)),
+                Collections.singletonList(pr(6, "closed", 5)));
+        pullRequests = sync.sync(UNEXPECTED, updated);
+        assertEquals(Arrays.asList(4, 3, 1), numbers(pullRequests));
+        assertEquals(new Date(50), sync.getWatermark());
+        assertEquals(5, sync.getPagesRead());
+        assertEquals(new Date(50), pullRequests.get(2).getUpdatedAt());
+    }
+
+    @Test
+    public void emptyStateTakesWatermarkFromUpdatedTest() throws Exception {
+        PullRequestSync sync = new PullRequestSync("open");
+        List<PullRequest> pullRequests = sync.sync(NO_PAGES,
+                pages(Arrays.asList(pr(2, "closed", 20), pr(1, "closed", 10)), Collections.singletonList(pr(0, "closed", 5))));
+        assertEquals(Collections.emptyList(), pullRequests);
+        assertEquals(new Date(20), sync.getWatermark());
+        assertEquals(2, sync.getPagesRead());
+
+        pullRequests = sync.sync(UNEXPECTED, pages(Arrays.asList(pr(3, "open", 30), pr(2, "closed", 20))));
+        assertEquals(Collections.singletonList(3), numbers(pullRequests));
+    }
+
+    @Test
+    public void listingRepeatedWhenPullRequestLeavesStateTest() throws Exception {
+        // #4 is closed whilst the first listing is in progress, moving #3 onto the page which has already been read
+        Supplier<PullRequestSync.PageSource> all = sequence(
+                pages(Arrays.asList(pr(5, "open", 50), pr(4, "open", 40)), Collections.singletonList(pr(2, "open", 20))),
+                pages(Arrays.asList(pr(5, "open", 50), pr(3, "open", 30)), Collections.singletonList(pr(2, "open", 20))));
+        Supplier<PullRequestSync.PageSource> updated = sequence(
+                pages(Arrays.asList(pr(5, "open", 50), pr(4, "open", 40))),
+                pages(Arrays.asList(pr(4, "closed", 60), pr(5, "open", 50), pr(4, "open", 40))),
+                pages(Arrays.asList(pr(4, "closed", 60), pr(5, "open", 50))),
+                pages(Arrays.asList(pr(4, "closed", 60), pr(5, "open", 50))));
+
+        PullRequestSync sync = new PullRequestSync("open");
+        assertEquals(Arrays.asList(5, 3, 2), numbers(sync.sync(all, updated)));
+        assertEquals(new Date(60), sync.getWatermark());
+    }
+
+    @Test
+    public void emptyRepositoryTest() throws Exception {
+        PullRequestSync sync = new PullRequestSync("closed");
+        assertEquals(Collections.emptyList(), sync.sync(NO_PAGES, NO_PAGES));
+        assertNull(sync.getWatermark());
+    }
+
+    /**
+     * @return a supplier of sources which each return the given pages.
+     */
+    @SafeVarargs
+    private static Supplier<PullRequestSync.PageSource> pages(Collection<PullRequest>... pages) {
+        return () -> {
+            Iterator<Collection<PullRequest>> iterator = Arrays.asList(pages).iterator();
+            return () -> iterator.hasNext() ? iterator.next() : null;
+        };
+    }
+
+    /**
+     * @return a supplier which returns a source of each supplier in turn.
+     */
+    @SafeVarargs
+    private static Supplier<PullRequestSync.PageSource> sequence(Supplier<PullRequestSync.PageSource>... sources) {
+        Iterator<Supplier<PullRequestSync.PageSource>> iterator = Arrays.asList(sources).iterator();
+        return () -> iterator.next().get();
+    }
+
+    private static PullRequest pr(int number, String state, long updatedAt) {
+        return new PullRequest().setNumber(number).setState(state).setUpdatedAt(new Date(updatedAt));
+    }
+
+    private static List<Integer> numbers(List<PullRequest> pullRequests) {
+        List<Integer> numbers = new ArrayList<>();
+        for (PullRequest pullRequest : pullRequests)
+            numbers.add(pullRequest.getNumber());
+        return numbers;
+    }
+}
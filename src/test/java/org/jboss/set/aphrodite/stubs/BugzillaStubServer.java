@@ -0,0 +1,490 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.common.TypeFactory;
+import org.apache.xmlrpc.common.TypeFactoryImpl;
+import org.apache.xmlrpc.common.XmlRpcHttpRequestConfigImpl;
+import org.apache.xmlrpc.parser.XmlRpcRequestParser;
+import org.apache.xmlrpc.serializer.DefaultXMLWriterFactory;
+import org.apache.xmlrpc.serializer.XmlRpcWriter;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * A stand-in for the Bugzilla XML-RPC and JSON-RPC endpoints, <code>xmlrpc.cgi</code> and <code>jsonrpc.cgi</code>,
+ * which implement <code>User.login</code>, <code>Bug.get</code>, <code>Bug.search</code>, <code>Bug.comments</code>,
+ * <code>Bug.add_comment</code> and <code>Bug.update</code> against an in-memory set of bugs. JSON-RPC responses are
+ * gzip compressed if the request accepts it.
+ *
+ * Any login is accepted. <code>Bug.search</code> returns the bugs whose fields equal every search parameter which
+ * names a bug field, or which have changed since the given <code>last_change_time</code>. Unsupported criteria, e.g.
+ * saved searches and boolean charts, match all bugs.
+ *
+ * @author Ryan Emerson
+ */
+public class BugzillaStubServer extends StubServer {
+
+    public static final int FAULT_INVALID_BUG = 101;
+    public static final int FAULT_UNKNOWN_METHOD = -32601;
+
+    private static final List<String> IGNORED_PARAMETERS = Arrays.asList("Bugzilla_login", "Bugzilla_password", "ids",
+            "id", "include_fields", "limit", "permissive", "flags", "updates");
+
+    private final XmlRpcHttpRequestConfigImpl config = new XmlRpcHttpRequestConfigImpl();
+    private final TypeFactory typeFactory = new TypeFactoryImpl(new XmlRpcClient());
+    private final Map<Integer, Map<String, Object>> bugs = new TreeMap<>();
+    private final Map<Integer, List<Map<String, Object>>> comments = new HashMap<>();
+    private int lastCommentId;
+    private final List<Date> commentRequests = new ArrayList<>();
+
+    public BugzillaStubServer() throws IOException {
+        super(8);
+    }
+
+    /**
+     * Add a bug of the product <code>EAP</code> and component <code>Clustering</code>, which has no flags.
+     */
+    public synchronized void addBug(int id, String summary, String status) {
+        Date now = new Date();
+        Map<String, Object> bug = new LinkedHashMap<>();
+        bug.put("id", id);
+        bug.put("summary", summary);
+        bug.put("description", "");
+        bug.put("status", status);
+        bug.put("product", "EAP");
+        bug.put("component", new Object[] {"Clustering"});
+        bug.put("version", new Object[] {"7.0.0.GA"});
+        bug.put("target_milestone", "---");
+        bug.put("target_release", new Object[] {"---"});
+        bug.put("assigned_to", "jboss-set@redhat.com");
+        bug.put("creator", "jboss-set@redhat.com");
+        bug.put("cf_type", "Bug");
+        bug.put("creation_time", now);
+        bug.put("last_change_time", now);
+        bug.put("estimated_time", 0.0);
+        bug.put("actual_time", 0.0);
+        bug.put("depends_on", new Object[0]);
+        bug.put("blocks", new Object[0]);
+        bug.put("flags", new Object[0]);
+        bugs.put(id, bug);
+        comments.put(id, new ArrayList<>());
+    }
+
+    public void addComment(int bugId, String text, boolean isPrivate) {
+        addComment(bugId, text, isPrivate, new Date());
+    }
+
+    public synchronized void addComment(int bugId, String text, boolean isPrivate, Date creationTime) {
+        Map<String, Object> comment = new LinkedHashMap<>();
+        comment.put("id", ++lastCommentId);
+        comment.put("bug_id", bugId);
+        comment.put("text", text);
+        comment.put("is_private", isPrivate);
+        comment.put("creation_time", creationTime);
+        comments.computeIfAbsent(bugId, id -> new ArrayList<>()).add(comment);
+    }
+
+    /**
+     * @return the <code>new_since</code> of each <code>Bug.comments</code> request received, or null for a request
+     *         without one.
+     */
+    public synchronized List<Date> getCommentRequests() {
+        return new ArrayList<>(commentRequests);
+    }
+
+    /**
+     * @return a copy of the bug's fields, or null if there is no such bug.
+     */
+    public synchronized Map<String, Object> getBug(int id) {
+        Map<String, Object> bug = bugs.get(id);
+        return bug == null ? null : new LinkedHashMap<>(bug);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean jsonRpc = path.endsWith("/jsonrpc.cgi");
+        if (!jsonRpc && !path.endsWith("/xmlrpc.cgi")) {
+            respond(exchange, 404, "text/plain", "Not Found");
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "text/plain", "Method Not Allowed");
+            return;
+        }
+        if (jsonRpc) {
+            handleJsonRpc(exchange);
+            return;
+        }
+
+        XmlRpcRequestParser request = new XmlRpcRequestParser(config, typeFactory);
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setContentHandler(request);
+            reader.parse(new InputSource(new ByteArrayInputStream(readBody(exchange))));
+        } catch (ParserConfigurationException | SAXException e) {
+            respond(exchange, 400, "text/plain", "Invalid XML-RPC request: " + e.getMessage());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> params = request.getParams().isEmpty()
+                ? Collections.emptyMap() : (Map<String, Object>) request.getParams().get(0);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            XmlRpcWriter writer = new XmlRpcWriter(config, new DefaultXMLWriterFactory().getXmlWriter(config, body),
+                    typeFactory);
+            try {
+                writer.write(config, execute(request.getMethodName(), params));
+            } catch (XmlRpcException e) {
+                writer.write(config, e.code, e.getMessage());
+            }
+        } catch (XmlRpcException | SAXException e) {
+            throw new IOException(e);
+        }
+        respond(exchange, 200, "text/xml", body.toByteArray());
+    }
+
+    private void handleJsonRpc(HttpExchange exchange) throws IOException {
+        JsonObject request;
+        try (JsonReader reader = Json.createReader(new ByteArrayInputStream(readBody(exchange)))) {
+            request = reader.readObject();
+        } catch (JsonException e) {
+            respond(exchange, 400, "text/plain", "Invalid JSON-RPC request: " + e.getMessage());
+            return;
+        }
+
+        JsonArray requestParams = request.getJsonArray("params");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> params = requestParams == null || requestParams.isEmpty()
+                ? Collections.emptyMap() : (Map<String, Object>) fromJson(null, requestParams.get(0));
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            response.put("result", execute(request.getString("method"), params));
+            response.put("error", null);
+        } catch (XmlRpcException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("code", e.code);
+            error.put("message", e.getMessage());
+            response.put("result", null);
+            response.put("error", error);
+        }
+        response.put("id", fromJson(null, request.get("id")));
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(body) : body;
+                JsonGenerator generator = Json.createGenerator(out)) {
+            writeJson(generator, null, response);
+        }
+        if (gzip)
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        respond(exchange, 200, "application/json", body.toByteArray());
+    }
+
+    /**
+     * Convert a JSON-RPC parameter to its XML-RPC representation, where <code>new_since</code> is a date-time.
+     */
+    private static Object fromJson(String name, JsonValue value) {
+        if (value == null)
+            return null;
+
+        switch (value.getValueType()) {
+            case OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                for (Map.Entry<String, JsonValue> member : ((JsonObject) value).entrySet())
+                    object.put(member.getKey(), fromJson(member.getKey(), member.getValue()));
+                return object;
+            case ARRAY:
+                List<Object> array = new ArrayList<>();
+                for (JsonValue element : (JsonArray) value)
+                    array.add(fromJson(name, element));
+                return array.toArray();
+            case STRING:
+                String string = ((JsonString) value).getString();
+                return "new_since".equals(name) ? Date.from(Instant.parse(string)) : string;
+            case NUMBER:
+                JsonNumber number = (JsonNumber) value;
+                if (!number.isIntegral())
+                    return number.doubleValue();
+                long integral = number.longValue();
+                return integral == (int) integral ? (Object) (int) integral : (Object) integral;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static void writeJson(JsonGenerator generator, String name, Object value) {
+        if (value instanceof Map) {
+            if (name == null) generator.writeStartObject(); else generator.writeStartObject(name);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                writeJson(generator, entry.getKey().toString(), entry.getValue());
+            generator.writeEnd();
+        } else if (value instanceof Object[]) {
+            if (name == null) generator.writeStartArray(); else generator.writeStartArray(name);
+            for (Object element : (Object[]) value)
+                writeJson(generator, null, element);
+            generator.writeEnd();
+        } else if (value == null) {
+            if (name == null) generator.writeNull(); else generator.writeNull(name);
+        } else if (value instanceof Boolean) {
+            if (name == null) generator.write((Boolean) value); else generator.write(name, (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            long number = ((Number) value).longValue();
+            if (name == null) generator.write(number); else generator.write(name, number);
+        } else if (value instanceof Double) {
+            double number = (Double) value;
+            if (name == null) generator.write(number); else generator.write(name, number);
+        } else {
+            String string = value instanceof Date ? ((Date) value).toInstant().toString() : value.toString();
+            if (name == null) generator.write(string); else generator.write(name, string);
+        }
+    }
+
+    private synchronized Object execute(String method, Map<String, Object> params) throws XmlRpcException {
+        switch (method) {
+            case "User.login":
+                return Collections.singletonMap("id", 1);
+            case "Bug.get":
+                return getBugs(params);
+            case "Bug.search":
+                return searchBugs(params);
+            case "Bug.comments":
+                return getComments(params);
+            case "Bug.add_comment":
+                return addComment(params);
+            case "Bug.update":
+                return updateBugs(params);
+            default:
+                throw new XmlRpcException(FAULT_UNKNOWN_METHOD, "The method '" + method + "' is not supported");
+        }
+    }
+
+    private Map<String, Object> getBugs(Map<String, Object> params) throws XmlRpcException {
+        List<Object> found = new ArrayList<>();
+        List<Object> faults = new ArrayList<>();
+        for (int id : getIds(params)) {
+            Map<String, Object> bug = bugs.get(id);
+            if (bug != null) {
+                found.add(new LinkedHashMap<>(bug));
+            } else if (Boolean.TRUE.equals(params.get("permissive"))) {
+                Map<String, Object> fault = new LinkedHashMap<>();
+                fault.put("id", id);
+                fault.put("faultCode", FAULT_INVALID_BUG);
+                fault.put("faultString", "Bug #" + id + " does not exist.");
+                faults.add(fault);
+            } else {
+                throw new XmlRpcException(FAULT_INVALID_BUG, "Bug #" + id + " does not exist.");
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("faults", faults.toArray());
+        result.put("bugs", found.toArray());
+        return result;
+    }
+
+    private Map<String, Object> searchBugs(Map<String, Object> params) {
+        int limit = params.get("limit") instanceof Integer ? (Integer) params.get("limit") : Integer.MAX_VALUE;
+        List<Object> found = new ArrayList<>();
+        for (Map<String, Object> bug : bugs.values()) {
+            if (found.size() >= limit)
+                break;
+            if (matches(bug, params))
+                found.add(new LinkedHashMap<>(bug));
+        }
+        return Collections.singletonMap("bugs", found.toArray());
+    }
+
+    private static boolean matches(Map<String, Object> bug, Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            if (IGNORED_PARAMETERS.contains(param.getKey()) || !bug.containsKey(param.getKey()))
+                continue;
+
+            Object value = bug.get(param.getKey());
+            if (param.getKey().equals("last_change_time")) {
+                // Bugzilla returns the bugs which have changed since the given time
+                Date since = Date.from(LocalDateTime.parse(param.getValue().toString()).atZone(ZoneId.systemDefault()).toInstant());
+                if (((Date) value).before(since))
+                    return false;
+                continue;
+            }
+            List<Object> values = value instanceof Object[] ? Arrays.asList((Object[]) value) : Collections.singletonList(value);
+            List<Object> expected = toList(param.getValue());
+            if (Collections.disjoint(values, expected))
+                return false;
+        }
+        return true;
+    }
+
+    private Map<String, Object> getComments(Map<String, Object> params) {
+        Date newSince = (Date) params.get("new_since");
+        commentRequests.add(newSince);
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int id : getIds(params)) {
+            List<Object> bugComments = new ArrayList<>();
+            for (Map<String, Object> comment : comments.getOrDefault(id, Collections.emptyList())) {
+                if (newSince == null || !((Date) comment.get("creation_time")).before(newSince))
+                    bugComments.add(new LinkedHashMap<>(comment));
+            }
+            result.put(Integer.toString(id), Collections.singletonMap("comments", bugComments.toArray()));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("bugs", result);
+        response.put("comments", Collections.emptyMap());
+        return response;
+    }
+
+    private Map<String, Object> addComment(Map<String, Object> params) throws XmlRpcException {
+        int id = getIds(params).iterator().next();
+        if (!bugs.containsKey(id))
+            throw new XmlRpcException(FAULT_INVALID_BUG, "Bug #" + id + " does not exist.");
+
+        addComment(id, (String) params.get("comment"), Boolean.TRUE.equals(params.get("private")));
+        return Collections.singletonMap("id", lastCommentId);
+    }
+
+    private Map<String, Object> updateBugs(Map<String, Object> params) throws XmlRpcException {
+        List<Object> updated = new ArrayList<>();
+        for (int id : getIds(params)) {
+            Map<String, Object> bug = bugs.get(id);
+            if (bug == null)
+                throw new XmlRpcException(FAULT_INVALID_BUG, "Bug #" + id + " does not exist.");
+
+            for (Map.Entry<String, Object> param : params.entrySet()) {
+                if (!IGNORED_PARAMETERS.contains(param.getKey()) && bug.containsKey(param.getKey()))
+                    bug.put(param.getKey(), update(bug.get(param.getKey()), param.getValue()));
+            }
+            // Flags are sent as "flags" by an issue update, and as "updates" by a bulk flag update
+            updateFlags(bug, params.get("flags"));
+            updateFlags(bug, params.get("updates"));
+            bug.put("last_change_time", new Date());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("changes", Collections.emptyMap());
+            updated.add(result);
+        }
+        return Collections.singletonMap("bugs", updated.toArray());
+    }
+
+    /**
+     * Apply an update to a field, where the update of an array field may be a struct of values to add, remove or set.
+     */
+    private static Object update(Object current, Object update) {
+        if (!(update instanceof Map))
+            return current instanceof Object[] ? toList(update).toArray() : update;
+
+        Map<?, ?> changes = (Map<?, ?>) update;
+        List<Object> values = new ArrayList<>(toList(current));
+        if (changes.containsKey("set"))
+            values = new ArrayList<>(toList(changes.get("set")));
+        if (changes.containsKey("add"))
+            values.addAll(toList(changes.get("add")));
+        if (changes.containsKey("remove"))
+            values.removeAll(toList(changes.get("remove")));
+        return values.toArray();
+    }
+
+    private static void updateFlags(Map<String, Object> bug, Object updates) {
+        if (updates == null)
+            return;
+
+        Map<Object, Object> flags = new LinkedHashMap<>();
+        for (Object flag : (Object[]) bug.get("flags"))
+            flags.put(((Map<?, ?>) flag).get("name"), flag);
+        for (Object update : toList(updates)) {
+            Map<String, Object> flag = new LinkedHashMap<>();
+            flag.put("name", ((Map<?, ?>) update).get("name"));
+            flag.put("status", ((Map<?, ?>) update).get("status"));
+            if ("X".equals(flag.get("status")))
+                flags.remove(flag.get("name"));
+            else
+                flags.put(flag.get("name"), flag);
+        }
+        bug.put("flags", flags.values().toArray());
+    }
+
+    private static Collection<Integer> getIds(Map<String, Object> params) {
+        List<Integer> ids = new ArrayList<>();
+        for (Object id : toList(params.containsKey("ids") ? params.get("ids") : params.get("id")))
+            ids.add(Integer.valueOf(id.toString()));
+        return ids;
+    }
+
+    private static List<Object> toList(Object value) {
+        if (value == null)
+            return Collections.emptyList();
+        if (value instanceof Object[])
+            return Arrays.asList((Object[]) value);
+        if (value instanceof Collection)
+            return new ArrayList<>((Collection<?>) value);
+        return Collections.singletonList(value);
+    }
+}
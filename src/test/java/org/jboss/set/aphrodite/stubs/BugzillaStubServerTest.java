@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.domain.FlagStatus;
+import org.jboss.set.aphrodite.domain.Issue;
+import org.jboss.set.aphrodite.domain.SearchCriteria;
+import org.jboss.set.aphrodite.issue.trackers.bugzilla.BugzillaClient;
+import org.jboss.set.aphrodite.spi.NotFoundException;
+import org.jboss.set.aphrodite.spi.RemoteServiceException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class BugzillaStubServerTest {
+
+    private BugzillaStubServer server;
+    private ExecutorService executor;
+    private BugzillaClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new BugzillaStubServer();
+        server.addBug(1111111, "First Issue", "NEW");
+        server.addBug(2222222, "Second Issue", "ASSIGNED");
+        server.addComment(1111111, "A public comment", false);
+        server.addComment(1111111, "A private comment", true);
+
+        executor = Executors.newFixedThreadPool(2);
+        client = new BugzillaClient(server.getURL(), "user", "password", executor,
+                new RemoteCallTracker("bugzilla", "localhost", null));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void issuesAreRetrievedAndUpdatedTest() throws Exception {
+        Issue issue = client.getIssueWithComments("1111111");
+        assertEquals("First Issue", issue.getSummary().get());
+        assertEquals(2, issue.getComments().size());
+        assertTrue(issue.getComments().get(1).isPrivate());
+
+        try {
+            client.getIssue("3333333");
+            fail("Expected a NotFoundException");
+        } catch (NotFoundException e) {
+            // Expected
+        }
+
+        SearchCriteria criteria = new SearchCriteria.Builder().setProduct("EAP").build();
+        assertEquals(2, client.searchIssues(criteria).size());
+
+        assertTrue(client.updateFlags(Arrays.asList(1111111, 2222222), "devel_ack", FlagStatus.ACCEPTED));
+        Object[] flags = (Object[]) server.getBug(2222222).get("flags");
+        assertEquals(1, flags.length);
+        assertEquals("+", ((Map<?, ?>) flags[0]).get("status"));
+    }
+
+    @Test
+    public void unavailableServiceFailsRequestsTest() {
+        server.setErrorRate(1);
+        try {
+            client.getIssue("1111111");
+            fail("Expected a RemoteServiceException");
+        } catch (RemoteServiceException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Service Unavailable"));
+        } catch (NotFoundException e) {
+            fail("Expected a RemoteServiceException");
+        }
+    }
+
+    @Test
+    public void commentsAreRequestedByWatermarkTest() {
+        long now = System.currentTimeMillis();
+        long monthAgo = now - TimeUnit.DAYS.toMillis(30);
+        server.addBug(3333333, "Third Issue", "NEW");
+        server.addComment(2222222, "An old comment", false, new Date(monthAgo));
+        server.addComment(3333333, "A recent comment", false, new Date(now - 5000));
+
+        SearchCriteria criteria = new SearchCriteria.Builder().setProduct("EAP").build();
+        client.searchIssues(criteria);
+        server.addComment(1111111, "New comment", false);
+        server.addComment(2222222, "New comment", false);
+        server.addComment(3333333, "New comment", false);
+        server.addBug(4444444, "Fourth Issue", "NEW");
+        server.addComment(4444444, "New comment", false);
+        int requests = server.getCommentRequests().size();
+
+        for (Issue issue : client.searchIssues(criteria))
+            assertEquals("New comment", issue.getComments().get(issue.getComments().size() - 1).getBody());
+
+        // The long idle bug does not move the recent bugs' new_since back, and the bug without comments is fetched in full
+        List<Date> newSince = server.getCommentRequests().subList(requests, server.getCommentRequests().size());
+        assertEquals(3, newSince.size());
+        assertTrue(newSince.contains(null));
+        long oldest = newSince.stream().filter(Objects::nonNull).mapToLong(Date::getTime).min().getAsLong();
+        long newest = newSince.stream().filter(Objects::nonNull).mapToLong(Date::getTime).max().getAsLong();
+        assertTrue(Math.abs(oldest - monthAgo) < 2000);
+        assertTrue(now - newest < 10_000);
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * A stand-in for the GitHub REST API, which implements the authenticated user, pull request, pull request commit,
+ * issue label, repository label, commit status and issue search resources against an in-memory set of pull requests.
+ * The html urls of the pull requests refer to this server, so that they are recognised as belonging to a
+ * <code>RepositoryService</code> whose url is that of this server. Lists are paginated with a <code>Link</code>
+ * header, as by GitHub, and requests which exceed the rate limit are rejected with <code>403 Forbidden</code>.
+ *
+ * Searches return the pull requests whose title or body contains every term of the query, ignoring qualifiers other
+ * than <code>repo:</code> and <code>state:</code>/<code>is:</code>.
+ *
+ * @author Ryan Emerson
+ */
+public class GitHubStubServer extends StubServer {
+
+    private static final String ENTERPRISE_PREFIX = "/api/v3";
+    private static final Pattern REPOSITORY_PATH = Pattern.compile("/repos/([^/]+/[^/]+)/(.+)");
+    private static final Pattern PULL_PATH = Pattern.compile("pulls/(\\d+)(/commits)?");
+    private static final Pattern ISSUE_PATH = Pattern.compile("issues/(\\d+)");
+    private static final Pattern ISSUE_LABELS_PATH = Pattern.compile("issues/(\\d+)/labels(?:/([^/]+))?");
+    private static final Pattern STATUSES_PATH = Pattern.compile("(?:statuses/([0-9a-f]+)|commits/([0-9a-f]+)/statuses)");
+    private static final int DEFAULT_PAGE_SIZE = 30;
+
+    private final Map<String, StubPullRequest> pullRequests = new LinkedHashMap<>();
+    private final Map<String, Map<String, String>> labels = new LinkedHashMap<>();
+    private final Map<String, List<Map<String, String>>> statuses = new LinkedHashMap<>();
+
+    public GitHubStubServer() throws IOException {
+        super(8);
+    }
+
+    /**
+     * Add an open pull request, whose head commit has the sha returned by {@link #getSha(String, int)}.
+     *
+     * @param repository the repository's owner and name, e.g. <code>jboss-set/aphrodite</code>.
+     */
+    public synchronized void addPullRequest(String repository, int number, String title, String body) {
+        pullRequests.put(repository + "#" + number, new StubPullRequest(repository, number, title, body));
+    }
+
+    public synchronized void setPullRequestState(String repository, int number, String state) {
+        StubPullRequest pullRequest = pullRequests.get(repository + "#" + number);
+        pullRequest.state = state;
+        pullRequest.updated = new Date();
+    }
+
+    public synchronized void addLabel(String repository, String name, String color) {
+        labels.computeIfAbsent(repository, r -> new LinkedHashMap<>()).put(name, color);
+    }
+
+    public synchronized void addStatus(String repository, String sha, String state, String context) {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("context", context);
+        statuses.computeIfAbsent(repository + "@" + sha, s -> new ArrayList<>()).add(status);
+    }
+
+    /**
+     * @return the names of the labels of the pull request.
+     */
+    public synchronized Set<String> getLabels(String repository, int number) {
+        return new LinkedHashSet<>(pullRequests.get(repository + "#" + number).labels);
+    }
+
+    public static String getSha(String repository, int number) {
+        return String.format("%040x", Math.abs((long) (repository + "#" + number).hashCode()));
+    }
+
+    @Override
+    protected void rejectRateLimited(HttpExchange exchange, long resetMillis) throws IOException {
+        respond(exchange, 403, Json.createObjectBuilder()
+                .add("message", "API rate limit exceeded")
+                .add("documentation_url", "https://developer.github.com/v3/#rate-limiting")
+                .build());
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith(ENTERPRISE_PREFIX))
+            path = path.substring(ENTERPRISE_PREFIX.length());
+        String method = exchange.getRequestMethod();
+
+        if (path.equals("/search/issues") && "GET".equals(method)) {
+            search(exchange);
+            return;
+        }
+        if (path.equals("/user") && "GET".equals(method)) {
+            respond(exchange, 200, Json.createObjectBuilder().add("login", "aphrodite").add("id", 1).build());
+            return;
+        }
+
+        Matcher repositoryPath = REPOSITORY_PATH.matcher(path);
+        if (!repositoryPath.matches()) {
+            notFound(exchange);
+            return;
+        }
+        String repository = repositoryPath.group(1);
+        String resource = repositoryPath.group(2);
+
+        Matcher matcher;
+        if (resource.equals("pulls") && "GET".equals(method)) {
+            getPullRequests(exchange, repository);
+        } else if ((matcher = PULL_PATH.matcher(resource)).matches() && matcher.group(2) != null
+                && "GET".equals(method)) {
+            getCommits(exchange, repository, Integer.parseInt(matcher.group(1)));
+        } else if ((matcher = PULL_PATH.matcher(resource)).matches() && "GET".equals(method)) {
+            respondWithPullRequest(exchange, repository, Integer.parseInt(matcher.group(1)), false);
+        } else if ((matcher = ISSUE_PATH.matcher(resource)).matches() && "GET".equals(method)) {
+            respondWithPullRequest(exchange, repository, Integer.parseInt(matcher.group(1)), true);
+        } else if (resource.equals("labels") && "GET".equals(method)) {
+            getRepositoryLabels(exchange, repository);
+        } else if ((matcher = ISSUE_LABELS_PATH.matcher(resource)).matches()) {
+            updateLabels(exchange, repository, Integer.parseInt(matcher.group(1)), matcher.group(2));
+        } else if ((matcher = STATUSES_PATH.matcher(resource)).matches()) {
+            String sha = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            if ("POST".equals(method) && matcher.group(1) != null)
+                createStatus(exchange, repository, sha);
+            else if ("GET".equals(method))
+                getStatuses(exchange, repository, sha);
+            else
+                notFound(exchange);
+        } else {
+            notFound(exchange);
+        }
+    }
+
+    private void getPullRequests(HttpExchange exchange, String repository) throws IOException {
+        Map<String, String> params = getQueryParameters(exchange);
+        String state = params.getOrDefault("state", "open");
+        Comparator<StubPullRequest> order = "updated".equals(params.get("sort"))
+                ? Comparator.comparing(pullRequest -> pullRequest.updated)
+                : Comparator.comparing(pullRequest -> pullRequest.number);
+        if (!"asc".equals(params.get("direction")))
+            order = order.reversed();
+
+        List<JsonObject> found = new ArrayList<>();
+        synchronized (this) {
+            pullRequests.values().stream()
+                    .filter(pullRequest -> pullRequest.repository.equals(repository))
+                    .filter(pullRequest -> "all".equals(state) || pullRequest.state.equals(state))
+                    .sorted(order)
+                    .forEach(pullRequest -> found.add(toJson(exchange, pullRequest, false)));
+        }
+        respondWithPage(exchange, params, found, null);
+    }
+
+    private void respondWithPullRequest(HttpExchange exchange, String repository, int number, boolean asIssue)
+            throws IOException {
+        JsonObject json = null;
+        synchronized (this) {
+            StubPullRequest pullRequest = pullRequests.get(repository + "#" + number);
+            if (pullRequest != null)
+                json = toJson(exchange, pullRequest, asIssue);
+        }
+        if (json == null)
+            notFound(exchange);
+        else
+            respond(exchange, 200, json);
+    }
+
+    /**
+     * Respond with the single commit of the pull request, whose sha is that of the pull request's head.
+     */
+    private void getCommits(HttpExchange exchange, String repository, int number) throws IOException {
+        boolean exists;
+        synchronized (this) {
+            exists = pullRequests.containsKey(repository + "#" + number);
+        }
+        if (!exists) {
+            notFound(exchange);
+            return;
+        }
+        respond(exchange, 200, Json.createArrayBuilder()
+                .add(Json.createObjectBuilder()
+                        .add("sha", getSha(repository, number))
+                        .add("commit", Json.createObjectBuilder().add("message", "Pull Request " + number)))
+                .build());
+    }
+
+    private void getRepositoryLabels(HttpExchange exchange, String repository) throws IOException {
+        List<JsonObject> found = new ArrayList<>();
+        synchronized (this) {
+            for (String name : labels.getOrDefault(repository, new LinkedHashMap<>()).keySet())
+                found.add(label(exchange, repository, name));
+        }
+        respondWithPage(exchange, getQueryParameters(exchange), found, null);
+    }
+
+    /**
+     * List, add to, replace or remove the labels of a pull request. Labels which have not been added to the repository
+     * are created as they would be by GitHub.
+     */
+    private void updateLabels(HttpExchange exchange, String repository, int number, String removed) throws IOException {
+        String method = exchange.getRequestMethod();
+        JsonArray names = "POST".equals(method) || "PUT".equals(method) ? readJsonArray(exchange) : null;
+
+        JsonArrayBuilder result = Json.createArrayBuilder();
+        synchronized (this) {
+            StubPullRequest pullRequest = pullRequests.get(repository + "#" + number);
+            if (pullRequest == null) {
+                notFound(exchange);
+                return;
+            }
+
+            if ("PUT".equals(method))
+                pullRequest.labels.clear();
+            if (names != null) {
+                for (JsonValue name : names) {
+                    String label = name.getValueType() == JsonValue.ValueType.STRING
+                            ? ((JsonString) name).getString() : ((JsonObject) name).getString("name");
+                    labels.computeIfAbsent(repository, r -> new LinkedHashMap<>()).putIfAbsent(label, "ededed");
+                    pullRequest.labels.add(label);
+                }
+            }
+            if ("DELETE".equals(method)) {
+                pullRequest.labels.remove(URLDecoder.decode(removed == null ? "" : removed, "UTF-8"));
+                if (removed == null)
+                    pullRequest.labels.clear();
+            }
+            if (names != null || "DELETE".equals(method))
+                pullRequest.updated = new Date();
+
+            for (String label : pullRequest.labels)
+                result.add(label(exchange, repository, label));
+        }
+        respond(exchange, 200, result.build());
+    }
+
+    private void getStatuses(HttpExchange exchange, String repository, String sha) throws IOException {
+        List<JsonObject> found = new ArrayList<>();
+        synchronized (this) {
+            List<Map<String, String>> shaStatuses = new ArrayList<>(statuses.getOrDefault(repository + "@" + sha,
+                    new ArrayList<>()));
+            // Statuses are listed in reverse chronological order
+            for (int i = shaStatuses.size() - 1; i >= 0; i--)
+                found.add(status(i + 1, shaStatuses.get(i)));
+        }
+        respondWithPage(exchange, getQueryParameters(exchange), found, null);
+    }
+
+    private void createStatus(HttpExchange exchange, String repository, String sha) throws IOException {
+        JsonObject request = Json.createReader(new ByteArrayInputStream(readBody(exchange))).readObject();
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("state", request.getString("state"));
+        status.put("context", request.getString("context", "default"));
+        status.put("target_url", request.getString("target_url", ""));
+        status.put("description", request.getString("description", ""));
+
+        int id;
+        synchronized (this) {
+            List<Map<String, String>> shaStatuses = statuses.computeIfAbsent(repository + "@" + sha, s -> new ArrayList<>());
+            shaStatuses.add(status);
+            id = shaStatuses.size();
+        }
+        respond(exchange, 201, status(id, status));
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        Map<String, String> params = getQueryParameters(exchange);
+        String repository = null;
+        String state = null;
+        List<String> terms = new ArrayList<>();
+        for (String term : params.getOrDefault("q", "").split("\\s+")) {
+            if (term.startsWith("repo:"))
+                repository = term.substring("repo:".length());
+            else if (term.startsWith("state:") || term.equals("is:open") || term.equals("is:closed"))
+                state = term.substring(term.indexOf(':') + 1);
+            else if (!term.isEmpty() && !term.contains(":"))
+                terms.add(term.toLowerCase(Locale.ENGLISH));
+        }
+
+        List<JsonObject> found = new ArrayList<>();
+        synchronized (this) {
+            for (StubPullRequest pullRequest : pullRequests.values()) {
+                String text = (pullRequest.title + " " + pullRequest.body).toLowerCase(Locale.ENGLISH);
+                if ((repository == null || repository.equals(pullRequest.repository))
+                        && (state == null || state.equals(pullRequest.state))
+                        && terms.stream().allMatch(text::contains))
+                    found.add(toJson(exchange, pullRequest, true));
+            }
+        }
+        respondWithPage(exchange, params, found, Json.createObjectBuilder()
+                .add("total_count", found.size())
+                .add("incomplete_results", false));
+    }
+
+    /**
+     * Respond with a page of the given items, as an array or, if a container is given, as the container's
+     * <code>items</code>, linking to the next and last pages if there are more items.
+     */
+    private void respondWithPage(HttpExchange exchange, Map<String, String> params, List<JsonObject> items,
+            JsonObjectBuilder container) throws IOException {
+        int pageSize = Math.max(1, Math.min(100, getInt(params, "per_page", DEFAULT_PAGE_SIZE)));
+        int page = Math.max(1, getInt(params, "page", 1));
+        int lastPage = Math.max(1, (items.size() + pageSize - 1) / pageSize);
+
+        JsonArrayBuilder array = Json.createArrayBuilder();
+        for (int i = (page - 1) * pageSize; i < Math.min(items.size(), page * pageSize); i++)
+            array.add(items.get(i));
+
+        if (page < lastPage) {
+            String query = exchange.getRequestURI().getRawQuery();
+            query = query == null ? "" : query.replaceAll("(^|&)page=\\d+", "").replaceFirst("^&", "");
+            String url = getBaseUrl(exchange) + exchange.getRequestURI().getRawPath() + "?"
+                    + (query.isEmpty() ? "" : query + "&");
+            exchange.getResponseHeaders().add("Link", "<" + url + "page=" + (page + 1) + ">; rel=\"next\", <" + url
+                    + "page=" + lastPage + ">; rel=\"last\"");
+        }
+        respond(exchange, 200, container == null ? array.build() : container.add("items", array).build());
+    }
+
+    private static int getInt(Map<String, String> params, String name, int defaultValue) {
+        try {
+            return params.containsKey(name) ? Integer.parseInt(params.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static JsonArray readJsonArray(HttpExchange exchange) throws IOException {
+        JsonStructure json = Json.createReader(new ByteArrayInputStream(readBody(exchange))).read();
+        // Labels may be sent as an array, or as an object with a labels member
+        return json instanceof JsonArray ? (JsonArray) json : ((JsonObject) json).getJsonArray("labels");
+    }
+
+    private static void notFound(HttpExchange exchange) throws IOException {
+        respond(exchange, 404, Json.createObjectBuilder()
+                .add("message", "Not Found")
+                .add("documentation_url", "https://developer.github.com/v3")
+                .build());
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonStructure json) throws IOException {
+        respond(exchange, status, "application/json; charset=utf-8", json.toString());
+    }
+
+    private static String getBaseUrl(HttpExchange exchange) {
+        return "http://" + exchange.getRequestHeaders().getFirst("Host");
+    }
+
+    private static String format(Date date) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return dateFormat.format(date);
+    }
+
+    private JsonObject label(HttpExchange exchange, String repository, String name) {
+        return Json.createObjectBuilder()
+                .add("url", getBaseUrl(exchange) + "/repos/" + repository + "/labels/" + name)
+                .add("name", name)
+                .add("color", labels.getOrDefault(repository, new LinkedHashMap<>()).getOrDefault(name, "ededed"))
+                .build();
+    }
+
+    private static JsonObject status(int id, Map<String, String> status) {
+        JsonObjectBuilder json = Json.createObjectBuilder().add("id", id);
+        status.forEach(json::add);
+        return json.add("created_at", format(new Date())).add("updated_at", format(new Date())).build();
+    }
+
+    private JsonObject toJson(HttpExchange exchange, StubPullRequest pullRequest, boolean asIssue) {
+        String baseUrl = getBaseUrl(exchange);
+        String htmlUrl = baseUrl + "/" + pullRequest.repository + "/pull/" + pullRequest.number;
+        JsonArrayBuilder prLabels = Json.createArrayBuilder();
+        for (String label : pullRequest.labels)
+            prLabels.add(label(exchange, pullRequest.repository, label));
+
+        JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("id", pullRequest.number)
+                .add("number", pullRequest.number)
+                .add("state", pullRequest.state)
+                .add("title", pullRequest.title)
+                .add("body", pullRequest.body)
+                .add("html_url", htmlUrl)
+                .add("created_at", format(pullRequest.created))
+                .add("updated_at", format(pullRequest.updated))
+                .add("user", user(pullRequest.repository))
+                .add("labels", prLabels);
+        if (asIssue) {
+            return json.add("url", baseUrl + "/repos/" + pullRequest.repository + "/issues/" + pullRequest.number)
+                    .add("pull_request", Json.createObjectBuilder().add("html_url", htmlUrl))
+                    .build();
+        }
+        return json.add("url", baseUrl + "/repos/" + pullRequest.repository + "/pulls/" + pullRequest.number)
+                .add("merged", false)
+                .add("mergeable", true)
+                .add("head", Json.createObjectBuilder()
+                        .add("label", pullRequest.repository.split("/")[0] + ":branch-" + pullRequest.number)
+                        .add("ref", "branch-" + pullRequest.number)
+                        .add("sha", getSha(pullRequest.repository, pullRequest.number))
+                        .add("repo", repository(pullRequest.repository)))
+                .add("base", Json.createObjectBuilder()
+                        .add("label", pullRequest.repository.split("/")[0] + ":master")
+                        .add("ref", "master")
+                        .add("sha", String.format("%040d", 0))
+                        .add("repo", repository(pullRequest.repository)))
+                .build();
+    }
+
+    private static JsonObjectBuilder user(String repository) {
+        return Json.createObjectBuilder().add("login", repository.split("/")[0]).add("id", 1);
+    }
+
+    private static JsonObjectBuilder repository(String repository) {
+        return Json.createObjectBuilder()
+                .add("name", repository.split("/")[1])
+                .add("full_name", repository)
+                .add("owner", user(repository));
+    }
+
+    private static class StubPullRequest {
+        final String repository;
+        final int number;
+        final String title;
+        final String body;
+        final Date created = new Date();
+        final Set<String> labels = new LinkedHashSet<>();
+        String state = "open";
+        Date updated = created;
+
+        StubPullRequest(String repository, int number, String title, String body) {
+            this.repository = repository;
+            this.number = number;
+            this.title = title;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.egit.github.core.CommitStatus;
+import org.eclipse.egit.github.core.Label;
+import org.eclipse.egit.github.core.PullRequest;
+import org.eclipse.egit.github.core.RepositoryId;
+import org.eclipse.egit.github.core.client.GitHubClient;
+import org.eclipse.egit.github.core.client.PageIterator;
+import org.eclipse.egit.github.core.client.RequestException;
+import org.eclipse.egit.github.core.service.CommitService;
+import org.eclipse.egit.github.core.service.LabelService;
+import org.eclipse.egit.github.core.service.PullRequestService;
+import org.jboss.set.aphrodite.repository.services.github.GitHubGlobalSearchService;
+import org.jboss.set.aphrodite.repository.services.github.SearchResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class GitHubStubServerTest {
+
+    private static final String REPOSITORY = "jboss-set/aphrodite";
+    private static final RepositoryId REPOSITORY_ID = RepositoryId.createFromId(REPOSITORY);
+
+    private GitHubStubServer server;
+    private GitHubClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new GitHubStubServer();
+        for (int i = 1; i <= 5; i++)
+            server.addPullRequest(REPOSITORY, i, "Pull Request " + i, i % 2 == 0 ? "Fixes a flaky test" : "");
+        server.setPullRequestState(REPOSITORY, 1, "closed");
+        client = new GitHubClient("localhost", server.getURL().getPort(), "http");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void pullRequestsArePaginatedTest() throws Exception {
+        PageIterator<PullRequest> pages = new PullRequestService(client).pagePullRequests(REPOSITORY_ID, "all", 2);
+        List<Integer> numbers = new ArrayList<>();
+        int pageCount = 0;
+        for (Collection<PullRequest> page : pages) {
+            page.forEach(pullRequest -> numbers.add(pullRequest.getNumber()));
+            pageCount++;
+        }
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), numbers);
+        assertEquals(3, pageCount);
+
+        assertEquals(4, new PullRequestService(client).getPullRequests(REPOSITORY_ID, "open").size());
+        PullRequest pullRequest = new PullRequestService(client).getPullRequest(REPOSITORY_ID, 2);
+        assertEquals(GitHubStubServer.getSha(REPOSITORY, 2), pullRequest.getHead().getSha());
+
+        List<SearchResult> results = new GitHubGlobalSearchService(client).searchAllPullRequests("flaky");
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void labelsAndStatusesAreUpdatedTest() throws Exception {
+        server.addLabel(REPOSITORY, "bug", "fc2929");
+        LabelService labelService = new LabelService(client);
+        labelService.setLabels(REPOSITORY_ID, "3", Arrays.asList(new Label().setName("bug"), new Label().setName("hold")));
+        assertEquals(Arrays.asList("bug", "hold"), new ArrayList<>(server.getLabels(REPOSITORY, 3)));
+        assertEquals(2, labelService.getLabels(REPOSITORY_ID).size());
+
+        String sha = GitHubStubServer.getSha(REPOSITORY, 3);
+        server.addStatus(REPOSITORY, sha, CommitStatus.STATE_PENDING, "ci");
+        new CommitService(client).createStatus(REPOSITORY_ID, sha,
+                new CommitStatus().setState(CommitStatus.STATE_SUCCESS).setDescription("Build passed"));
+        List<CommitStatus> statuses = new CommitService(client).getStatuses(REPOSITORY_ID, sha);
+        assertEquals(2, statuses.size());
+        assertEquals(CommitStatus.STATE_SUCCESS, statuses.get(0).getState());
+    }
+
+    @Test
+    public void requestsAreRateLimitedTest() throws Exception {
+        server.setRateLimit(2, 60_000);
+        LabelService labelService = new LabelService(client);
+        labelService.getLabels(REPOSITORY_ID);
+        assertEquals(1, client.getRemainingRequests());
+        labelService.getLabels(REPOSITORY_ID);
+        assertEquals(0, client.getRemainingRequests());
+        try {
+            labelService.getLabels(REPOSITORY_ID);
+            fail("Expected a RequestException");
+        } catch (RequestException e) {
+            assertEquals(403, e.getStatus());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+}
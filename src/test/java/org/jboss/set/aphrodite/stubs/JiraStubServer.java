@@ -0,0 +1,344 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * A stand-in for the Jira REST API, version 2, which implements the <code>search</code>, <code>issue/{key}</code> and
+ * <code>issue/{key}/transitions</code> resources against an in-memory set of issues.
+ *
+ * Searches only understand issue keys and <code>project = KEY</code> clauses: a query which names any issue keys
+ * returns those issues, otherwise the issues of the named project, or all issues, are returned.
+ *
+ * @author Ryan Emerson
+ */
+public class JiraStubServer extends StubServer {
+
+    private static final String API_PATH = "/rest/api/2/";
+    private static final Pattern ISSUE_PATH = Pattern.compile("issue/([^/]+)(/transitions)?");
+    private static final Pattern JQL_KEY = Pattern.compile("\\b[A-Z][A-Z0-9_]*-\\d+\\b");
+    private static final Pattern JQL_PROJECT = Pattern.compile("project\\s*=\\s*\"?([A-Za-z0-9_]+)\"?");
+    private static final int DEFAULT_MAX_RESULTS = 50;
+
+    private final Map<String, JiraIssue> issues = new LinkedHashMap<>();
+    private final Map<String, Transition> transitions = new LinkedHashMap<>();
+    private int lastIssueId = 10000;
+
+    public JiraStubServer() throws IOException {
+        super(8);
+        addTransition("4", "Start Progress", "Coding In Progress");
+        addTransition("5", "Resolve Issue", "Resolved");
+        addTransition("2", "Close Issue", "Closed");
+        addTransition("3", "Reopen Issue", "Reopened");
+    }
+
+    public synchronized void addIssue(String key, String summary, String status) {
+        issues.put(key, new JiraIssue(Integer.toString(++lastIssueId), key, summary, status));
+    }
+
+    /**
+     * Add a transition which is available from any status other than <code>toStatus</code>.
+     */
+    public synchronized void addTransition(String id, String name, String toStatus) {
+        transitions.put(id, new Transition(id, name, toStatus));
+    }
+
+    /**
+     * @return the status of the issue, or null if there is no such issue.
+     */
+    public synchronized String getStatus(String key) {
+        JiraIssue issue = issues.get(key);
+        return issue == null ? null : issue.status;
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int api = path.indexOf(API_PATH);
+        if (api < 0) {
+            error(exchange, 404, "Not Found");
+            return;
+        }
+
+        String resource = path.substring(api + API_PATH.length());
+        String method = exchange.getRequestMethod();
+        if (resource.equals("search")) {
+            if ("GET".equals(method))
+                search(exchange, getQueryParameters(exchange));
+            else if ("POST".equals(method))
+                search(exchange, toParameters(readJson(exchange)));
+            else
+                error(exchange, 405, "Method Not Allowed");
+            return;
+        }
+
+        Matcher matcher = ISSUE_PATH.matcher(resource);
+        if (!matcher.matches()) {
+            error(exchange, 404, "Not Found");
+            return;
+        }
+
+        JiraIssue issue;
+        synchronized (this) {
+            issue = findIssue(matcher.group(1));
+        }
+        if (issue == null) {
+            error(exchange, 404, "Issue Does Not Exist");
+        } else if (matcher.group(2) == null && "GET".equals(method)) {
+            respond(exchange, 200, issue);
+        } else if (matcher.group(2) != null && "GET".equals(method)) {
+            respond(exchange, 200, getTransitions(exchange, issue));
+        } else if (matcher.group(2) != null && "POST".equals(method)) {
+            transition(exchange, issue);
+        } else {
+            error(exchange, 405, "Method Not Allowed");
+        }
+    }
+
+    private void search(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String jql = params.getOrDefault("jql", "");
+        int startAt = getInt(params, "startAt", 0);
+        int maxResults = getInt(params, "maxResults", DEFAULT_MAX_RESULTS);
+
+        Set<String> keys = new TreeSet<>();
+        Matcher key = JQL_KEY.matcher(jql);
+        while (key.find())
+            keys.add(key.group());
+        Matcher project = JQL_PROJECT.matcher(jql);
+        String projectKey = project.find() ? project.group(1) : null;
+
+        List<JiraIssue> found = new ArrayList<>();
+        synchronized (this) {
+            for (JiraIssue issue : issues.values()) {
+                if (keys.isEmpty() ? projectKey == null || issue.getProjectKey().equals(projectKey) : keys.contains(issue.key))
+                    found.add(issue);
+            }
+        }
+
+        JsonArrayBuilder page = Json.createArrayBuilder();
+        for (int i = startAt; i < Math.min(found.size(), startAt + maxResults); i++)
+            page.add(toJson(exchange, found.get(i)));
+        respond(exchange, 200, "application/json", Json.createObjectBuilder()
+                .add("expand", "names,schema")
+                .add("startAt", startAt)
+                .add("maxResults", maxResults)
+                .add("total", found.size())
+                .add("issues", page)
+                .build().toString());
+    }
+
+    private JsonObject getTransitions(HttpExchange exchange, JiraIssue issue) {
+        JsonArrayBuilder available = Json.createArrayBuilder();
+        synchronized (this) {
+            for (Transition transition : transitions.values()) {
+                if (!transition.toStatus.equals(issue.status)) {
+                    available.add(Json.createObjectBuilder()
+                            .add("id", transition.id)
+                            .add("name", transition.name)
+                            .add("to", status(exchange, transition.toStatus))
+                            .add("fields", Json.createObjectBuilder()));
+                }
+            }
+        }
+        return Json.createObjectBuilder().add("expand", "transitions").add("transitions", available).build();
+    }
+
+    private void transition(HttpExchange exchange, JiraIssue issue) throws IOException {
+        String id;
+        try {
+            id = readJson(exchange).getJsonObject("transition").getString("id");
+        } catch (JsonException | NullPointerException | ClassCastException e) {
+            error(exchange, 400, "A transition id is required");
+            return;
+        }
+
+        synchronized (this) {
+            Transition transition = transitions.get(id);
+            if (transition == null || transition.toStatus.equals(issue.status)) {
+                error(exchange, 400, "It seems that you have tried to perform a workflow operation (" + id
+                        + ") that is not valid for the current state of this issue (" + issue.key + ").");
+                return;
+            }
+            issue.status = transition.toStatus;
+            issue.updated = new Date();
+        }
+        respond(exchange, 204, null, (byte[]) null);
+    }
+
+    private JiraIssue findIssue(String keyOrId) {
+        for (JiraIssue issue : issues.values()) {
+            if (issue.key.equals(keyOrId) || issue.id.equals(keyOrId))
+                return issue;
+        }
+        return null;
+    }
+
+    private void respond(HttpExchange exchange, int status, JiraIssue issue) throws IOException {
+        JsonObject json;
+        synchronized (this) {
+            json = toJson(exchange, issue);
+        }
+        respond(exchange, status, json);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonObject json) throws IOException {
+        respond(exchange, status, "application/json", json.toString());
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, Json.createObjectBuilder()
+                .add("errorMessages", Json.createArrayBuilder().add(message))
+                .add("errors", Json.createObjectBuilder())
+                .build());
+    }
+
+    private static JsonObject readJson(HttpExchange exchange) throws IOException {
+        return Json.createReader(new ByteArrayInputStream(readBody(exchange))).readObject();
+    }
+
+    private static Map<String, String> toParameters(JsonObject json) {
+        Map<String, String> params = new LinkedHashMap<>();
+        json.forEach((name, value) -> params.put(name,
+                value instanceof JsonString ? ((JsonString) value).getString() : value.toString()));
+        return params;
+    }
+
+    private static int getInt(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String getApiUrl(HttpExchange exchange) {
+        return "http://" + exchange.getRequestHeaders().getFirst("Host") + API_PATH;
+    }
+
+    private static JsonObjectBuilder status(HttpExchange exchange, String name) {
+        String id = Integer.toString(Math.abs(name.hashCode()) % 10000);
+        return Json.createObjectBuilder()
+                .add("self", getApiUrl(exchange) + "status/" + id)
+                .add("id", id)
+                .add("name", name)
+                .add("description", "");
+    }
+
+    private static JsonObject toJson(HttpExchange exchange, JiraIssue issue) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        String apiUrl = getApiUrl(exchange);
+        return Json.createObjectBuilder()
+                .add("expand", "renderedFields,names,schema,transitions,operations,editmeta,changelog")
+                .add("id", issue.id)
+                .add("self", apiUrl + "issue/" + issue.id)
+                .add("key", issue.key)
+                .add("fields", Json.createObjectBuilder()
+                        .add("summary", issue.summary)
+                        .add("description", "")
+                        .add("status", status(exchange, issue.status))
+                        .add("issuetype", Json.createObjectBuilder()
+                                .add("self", apiUrl + "issuetype/1")
+                                .add("id", "1")
+                                .add("name", "Bug")
+                                .add("description", "")
+                                .add("subtask", false))
+                        .add("project", Json.createObjectBuilder()
+                                .add("self", apiUrl + "project/" + issue.getProjectKey())
+                                .add("id", Integer.toString(Math.abs(issue.getProjectKey().hashCode()) % 10000))
+                                .add("key", issue.getProjectKey())
+                                .add("name", issue.getProjectKey()))
+                        .add("created", dateFormat.format(issue.created))
+                        .add("updated", dateFormat.format(issue.updated))
+                        .addNull("assignee")
+                        .addNull("reporter")
+                        .addNull("priority")
+                        .add("labels", Json.createArrayBuilder())
+                        .add("components", Json.createArrayBuilder())
+                        .add("versions", Json.createArrayBuilder())
+                        .add("fixVersions", Json.createArrayBuilder())
+                        .add("issuelinks", Json.createArrayBuilder())
+                        .add("subtasks", Json.createArrayBuilder())
+                        .add("comment", Json.createObjectBuilder()
+                                .add("startAt", 0)
+                                .add("maxResults", 0)
+                                .add("total", 0)
+                                .add("comments", Json.createArrayBuilder())))
+                .build();
+    }
+
+    private static class JiraIssue {
+        final String id;
+        final String key;
+        final String summary;
+        final Date created = new Date();
+        String status;
+        Date updated = created;
+
+        JiraIssue(String id, String key, String summary, String status) {
+            this.id = id;
+            this.key = key;
+            this.summary = summary;
+            this.status = status;
+        }
+
+        String getProjectKey() {
+            return key.substring(0, key.lastIndexOf('-'));
+        }
+    }
+
+    private static class Transition {
+        final String id;
+        final String name;
+        final String toStatus;
+
+        Transition(String id, String name, String toStatus) {
+            this.id = id;
+            this.name = name;
+            this.toStatus = toStatus;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Ryan Emerson
+ */
+public class JiraStubServerTest {
+
+    private JiraStubServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new JiraStubServer();
+        server.addIssue("WFLY-1", "First Issue", "Open");
+        server.addIssue("WFLY-2", "Second Issue", "Open");
+        server.addIssue("JBEAP-1", "Third Issue", "Resolved");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void issuesAreSearchedAndTransitionedTest() throws Exception {
+        JsonObject result = get("search?jql=" + URLEncoder.encode("key in (WFLY-2, JBEAP-1)", "UTF-8"));
+        assertEquals(2, result.getInt("total"));
+        assertEquals("WFLY-2", result.getJsonArray("issues").getJsonObject(0).getString("key"));
+
+        result = get("search?maxResults=1&jql=" + URLEncoder.encode("project = WFLY", "UTF-8"));
+        assertEquals(2, result.getInt("total"));
+        assertEquals(1, result.getJsonArray("issues").size());
+
+        JsonObject issue = get("issue/WFLY-1");
+        assertEquals("First Issue", issue.getJsonObject("fields").getString("summary"));
+        assertEquals("Open", issue.getJsonObject("fields").getJsonObject("status").getString("name"));
+
+        JsonArray transitions = get("issue/WFLY-1/transitions").getJsonArray("transitions");
+        assertEquals(4, transitions.size());
+        assertEquals(204, post("issue/WFLY-1/transitions", "{\"transition\":{\"id\":\"5\"}}"));
+        assertEquals("Resolved", server.getStatus("WFLY-1"));
+        assertEquals(400, post("issue/WFLY-1/transitions", "{\"transition\":{\"id\":\"5\"}}"));
+        assertEquals(404, open("issue/WFLY-3").getResponseCode());
+    }
+
+    @Test
+    public void latencyAndErrorsAreInjectedTest() throws Exception {
+        server.setLatency(100);
+        long start = System.nanoTime();
+        get("issue/WFLY-1");
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 100);
+
+        server.setLatency(0);
+        server.setErrorRate(1);
+        assertEquals(503, open("issue/WFLY-1").getResponseCode());
+
+        server.setErrorRate(0);
+        server.setRateLimit(1, 60_000);
+        assertEquals(200, open("issue/WFLY-1").getResponseCode());
+        HttpURLConnection connection = open("issue/WFLY-1");
+        assertEquals(429, connection.getResponseCode());
+        assertEquals("0", connection.getHeaderField("X-RateLimit-Remaining"));
+        assertTrue(Long.parseLong(connection.getHeaderField("Retry-After")) > 0);
+    }
+
+    private HttpURLConnection open(String resource) throws IOException {
+        return (HttpURLConnection) new URL(server.getURL(), "rest/api/2/" + resource).openConnection();
+    }
+
+    private JsonObject get(String resource) throws IOException {
+        HttpURLConnection connection = open(resource);
+        try (InputStream in = connection.getInputStream()) {
+            return Json.createReader(in).readObject();
+        }
+    }
+
+    private int post(String resource, String body) throws IOException {
+        HttpURLConnection connection = open(resource);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection.getResponseCode();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.stubs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process stand-in for a remote service, which listens on an ephemeral port of the loopback interface so that
+ * clients can be exercised, and load tested, without credentials or a network connection.
+ *
+ * Every request is first delayed by the configured latency. Requests which exceed the rate limit of the current window
+ * are then rejected via {@link #rejectRateLimited(HttpExchange, long)}, and a configurable proportion of the remaining
+ * requests fail with <code>503 Service Unavailable</code>, before the rest are passed to {@link #handle(HttpExchange)}.
+ * Each response carries <code>X-RateLimit-Limit</code>, <code>X-RateLimit-Remaining</code> and
+ * <code>X-RateLimit-Reset</code> headers whilst a rate limit is set.
+ *
+ * @author Ryan Emerson
+ */
+public abstract class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random = new Random(0);
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private int rateLimit;
+    private long rateLimitWindowMillis;
+    private long windowStartMillis;
+    private int windowRequests;
+
+    protected StubServer(int threads) throws IOException {
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+        server.start();
+    }
+
+    /**
+     * @return the base url of the server, ending with a '/'.
+     */
+    public URL getURL() {
+        try {
+            return new URL("http://localhost:" + server.getAddress().getPort() + "/");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the number of requests received, including those which were rejected.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @param latencyMillis the time which every request is delayed by before it is handled.
+     */
+    public void setLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param errorRate the proportion of requests, between 0 and 1, which fail with <code>503</code>.
+     */
+    public void setErrorRate(double errorRate) {
+        if (errorRate < 0 || errorRate > 1)
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param limit the number of requests accepted in each window, or 0 for no limit.
+     * @param windowMillis the length of a window, which begins with the first request after the previous window ended.
+     */
+    public synchronized void setRateLimit(int limit, long windowMillis) {
+        this.rateLimit = limit;
+        this.rateLimitWindowMillis = windowMillis;
+        this.windowStartMillis = 0;
+        this.windowRequests = 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handle a request which has not been delayed, rate limited or failed.
+     */
+    protected abstract void handle(HttpExchange exchange) throws IOException;
+
+    /**
+     * Reject a request which exceeds the rate limit, by default with <code>429 Too Many Requests</code>.
+     *
+     * @param resetMillis the time at which the current window ends.
+     */
+    protected void rejectRateLimited(HttpExchange exchange, long resetMillis) throws IOException {
+        long seconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(resetMillis - System.currentTimeMillis() + 999));
+        exchange.getResponseHeaders().add("Retry-After", Long.toString(seconds));
+        respond(exchange, 429, "text/plain", "Rate limit exceeded");
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            if (latencyMillis > 0)
+                Thread.sleep(latencyMillis);
+
+            long resetMillis = -1;
+            synchronized (this) {
+                if (rateLimit > 0) {
+                    long now = System.currentTimeMillis();
+                    if (now - windowStartMillis >= rateLimitWindowMillis) {
+                        windowStartMillis = now;
+                        windowRequests = 0;
+                    }
+                    windowRequests++;
+                    exchange.getResponseHeaders().add("X-RateLimit-Limit", Integer.toString(rateLimit));
+                    exchange.getResponseHeaders().add("X-RateLimit-Remaining",
+                            Integer.toString(Math.max(0, rateLimit - windowRequests)));
+                    exchange.getResponseHeaders().add("X-RateLimit-Reset",
+                            Long.toString(TimeUnit.MILLISECONDS.toSeconds(windowStartMillis + rateLimitWindowMillis + 999)));
+                    if (windowRequests > rateLimit)
+                        resetMillis = windowStartMillis + rateLimitWindowMillis;
+                }
+            }
+            if (resetMillis >= 0) {
+                rejectRateLimited(exchange, resetMillis);
+                return;
+            }
+
+            boolean fail;
+            synchronized (random) {
+                fail = errorRate > 0 && random.nextDouble() < errorRate;
+            }
+            if (fail)
+                respond(exchange, 503, "text/plain", "Service Unavailable");
+            else
+                handle(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "text/plain", String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    protected static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        respond(exchange, status, contentType, body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    protected static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * @return the decoded query parameters of the request; only the first value of a repeated parameter is kept.
+     */
+    protected static Map<String, String> getQueryParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+            return params;
+
+        for (String param : query.split("&")) {
+            int separator = param.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? param : param.substring(0, separator), "UTF-8");
+            String value = separator < 0 ? "" : URLDecoder.decode(param.substring(separator + 1), "UTF-8");
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.trace;
+
+import org.jboss.set.aphrodite.common.RemoteCallTracker;
+import org.jboss.set.aphrodite.spi.AphroditeMetrics;
+import org.jboss.set.aphrodite.spi.RemoteCallInterceptor;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Ryan Emerson
+ */
+public class TraceContextTest {
+
+    private final ExecutorService executor = new TracingExecutorService(Executors.newFixedThreadPool(2));
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void spanPropagatedToWorkerThreadTest() throws Exception {
+        RecordingInterceptor interceptor = new RecordingInterceptor();
+        RemoteCallTracker tracker = new RemoteCallTracker("JIRA", "issues.jboss.org", AphroditeMetrics.NOOP,
+                Collections.singletonList(interceptor));
+
+        Span root;
+        try (TraceContext.Scope scope = TraceContext.startSpan("Aphrodite.getIssues")) {
+            root = scope.getSpan();
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(
+                    () -> tracker.call("getIssue", () -> "first"), executor);
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(
+                    () -> tracker.call("getIssue", () -> "second"), executor);
+            assertEquals("first", first.join());
+            assertEquals("second", second.join());
+        }
+        assertFalse(TraceContext.current().isPresent());
+        assertTrue(root.isEnded());
+        assertTrue(root.isRoot());
+
+        assertEquals(2, root.getChildren().size());
+        for (Span child : root.getChildren()) {
+            assertSame(root, child.getParent().get());
+            assertEquals(root.getTraceId(), child.getTraceId());
+            assertEquals("JIRA.getIssue", child.getName());
+            assertEquals("issues.jboss.org", child.getAttribute(Span.HOST).get());
+            assertTrue(child.isEnded());
+        }
+        assertEquals(2, interceptor.before.size());
+        assertEquals(2, interceptor.after.size());
+        assertTrue(interceptor.errors.isEmpty());
+    }
+
+    @Test
+    public void interceptorObservesFailureTest() {
+        RecordingInterceptor interceptor = new RecordingInterceptor();
+        RemoteCallTracker tracker = new RemoteCallTracker("GITHUB", "github.com", AphroditeMetrics.NOOP,
+                Collections.singletonList(interceptor));
+
+        try {
+            tracker.call("getPullRequest", "https://github.com/jboss-set/aphrodite/pull/1", () -> {
+                throw new IOException("Connection refused");
+            });
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals(1, interceptor.errors.size());
+            assertSame(e, interceptor.errors.get(0));
+
+            Span span = interceptor.after.get(0);
+            assertTrue(span.isRoot());
+            assertSame(e, span.getError().get());
+            assertEquals("https://github.com/jboss-set/aphrodite/pull/1", span.getAttribute(Span.TARGET).get());
+        }
+        assertFalse(TraceContext.current().isPresent());
+    }
+
+    @Test
+    public void failingInterceptorIgnoredTest() {
+        RemoteCallInterceptor failing = new RemoteCallInterceptor() {
+            @Override
+            public void before(Span span) {
+                throw new IllegalStateException();
+            }
+        };
+        RemoteCallTracker tracker = new RemoteCallTracker("BUGZILLA", "bugzilla.redhat.com", AphroditeMetrics.NOOP,
+                Collections.singletonList(failing));
+        assertEquals(Integer.valueOf(1), tracker.call("Bug.get", () -> 1));
+    }
+
+    private static class RecordingInterceptor implements RemoteCallInterceptor {
+        final List<Span> before = Collections.synchronizedList(new ArrayList<>());
+        final List<Span> after = Collections.synchronizedList(new ArrayList<>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void before(Span span) {
+            assertFalse(span.isEnded());
+            before.add(span);
+        }
+
+        @Override
+        public void after(Span span, Throwable error) {
+            after.add(span);
+            if (error != null)
+                errors.add(error);
+        }
+    }
+}
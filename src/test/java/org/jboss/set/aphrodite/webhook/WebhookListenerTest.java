@@ -0,0 +1,189 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.set.aphrodite.webhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.set.aphrodite.config.WebhookConfig;
+import org.jboss.set.aphrodite.webhook.WebhookEvent.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Replays the recorded payloads in src/test/resources/webhook to a listener on an ephemeral port.
+ *
+ * @author Ryan Emerson
+ */
+public class WebhookListenerTest {
+
+    private static final String GITHUB_SECRET = "github-secret";
+    private static final String JIRA_SECRET = "jira-secret";
+    private static final String BUGZILLA_SECRET = "bugzilla-secret";
+
+    private final List<WebhookEvent> events = new CopyOnWriteArrayList<>();
+    private WebhookListener listener;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        WebhookConfig config = new WebhookConfig("localhost", 0, "/hooks", 64 * 1024, GITHUB_SECRET, JIRA_SECRET,
+                BUGZILLA_SECRET, "https://bugzilla.redhat.com");
+        listener = new WebhookListener(config, events::add);
+        listener.start();
+        baseUrl = "http://localhost:" + listener.getAddress().getPort() + "/hooks";
+    }
+
+    @After
+    public void tearDown() {
+        listener.close();
+    }
+
+    @Test
+    public void signatureTest() {
+        // The example from GitHub's documentation on validating webhook deliveries
+        byte[] payload = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+        String signature = "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17";
+        assertEquals(signature, WebhookSignature.sign("It's a Secret to Everybody", payload));
+        assertTrue(WebhookSignature.verify("It's a Secret to Everybody", payload, signature));
+        assertFalse(WebhookSignature.verify("It's a Secret to Everybody", payload, signature.replace('7', '8')));
+        assertFalse(WebhookSignature.verify("It's a Secret to Everybody", payload, null));
+    }
+
+    @Test
+    public void recordedPayloadsTest() throws Exception {
+        assertEquals(204, post("/github", "pull_request", read("github-pull_request.json"), GITHUB_SECRET));
+        assertEquals(204, post("/github", "status", read("github-status.json"), GITHUB_SECRET));
+        assertEquals(204, post("/github", "ping", read("github-ping.json"), GITHUB_SECRET));
+        assertEquals(204, post("/jira", null, read("jira-issue_updated.json"), JIRA_SECRET));
+        assertEquals(204, post("/bugzilla", null, read("bugzilla-bug_modify.json"), BUGZILLA_SECRET));
+
+        awaitEvents(4);
+        assertEquals(4, events.size());
+        assertEvent(events.get(0), Source.GITHUB, "pull_request", "synchronize",
+                "https://github.com/wildfly/wildfly/pull/9876");
+        assertEvent(events.get(1), Source.GITHUB, "status", "failure", "https://github.com/wildfly/wildfly");
+        assertEvent(events.get(2), Source.JIRA, "jira:issue_updated", "issue_generic",
+                "https://issues.jboss.org/browse/WFLY-1234");
+        assertEvent(events.get(3), Source.BUGZILLA, "bug.modify", "modify",
+                "https://bugzilla.redhat.com/show_bug.cgi?id=1234567");
+    }
+
+    @Test
+    public void invalidRequestsAreRejectedTest() throws Exception {
+        byte[] payload = read("github-pull_request.json");
+        // Signed with another source's secret
+        assertEquals(401, post("/github", "pull_request", payload, JIRA_SECRET));
+        assertEquals(401, post("/github", "pull_request", payload, null));
+        assertEquals(400, post("/github", "pull_request", "[]".getBytes(StandardCharsets.UTF_8), GITHUB_SECRET));
+        assertEquals(400, post("/github", null, payload, GITHUB_SECRET));
+        assertEquals(413, post("/jira", null, new byte[128 * 1024], JIRA_SECRET));
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/github").openConnection();
+        assertEquals(405, connection.getResponseCode());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void slowHandlerDoesNotDelayResponsesTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        listener.close();
+        listener = new WebhookListener(new WebhookConfig("localhost", 0, "/hooks", 64 * 1024, GITHUB_SECRET,
+                JIRA_SECRET, BUGZILLA_SECRET, "https://bugzilla.redhat.com"), event -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+        listener.start();
+        baseUrl = "http://localhost:" + listener.getAddress().getPort() + "/hooks";
+
+        long start = System.nanoTime();
+        assertEquals(204, post("/github", "pull_request", read("github-pull_request.json"), GITHUB_SECRET));
+        assertEquals(204, post("/jira", null, read("jira-issue_updated.json"), JIRA_SECRET));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(events.isEmpty());
+
+        release.countDown();
+        awaitEvents(2);
+        assertEquals(Source.GITHUB, events.get(0).getSource());
+        assertEquals(Source.JIRA, events.get(1).getSource());
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (events.size() < count && System.nanoTime() < deadline)
+            Thread.sleep(5);
+    }
+
+    private int post(String path, String githubEvent, byte[] payload, String secret) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (githubEvent != null)
+            connection.setRequestProperty("X-GitHub-Event", githubEvent);
+        if (secret != null)
+            connection.setRequestProperty("X-Hub-Signature-256", WebhookSignature.sign(secret, payload));
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(payload);
+        } catch (IOException e) {
+            // The listener may respond before the whole of a large payload has been sent
+        }
+        return connection.getResponseCode();
+    }
+
+    private static byte[] read(String resource) throws IOException {
+        try (InputStream in = WebhookListenerTest.class.getResourceAsStream("/webhook/" + resource)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
+    private static void assertEvent(WebhookEvent event, Source source, String type, String action, String url) {
+        assertEquals(source, event.getSource());
+        assertEquals(type, event.getType());
+        assertEquals(action, event.getAction().get());
+        assertEquals(url, event.getURL().toString());
+    }
+}